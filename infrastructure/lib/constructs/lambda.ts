@@ -43,7 +43,7 @@ export class OpenSearchLambda extends Construct {
             code: Code.fromAsset(path.join(__dirname, props.lambdaZipPath)),
             handler: props.handler,
             timeout: Duration.minutes(15),
-            runtime: Runtime.JAVA_17,
+            runtime: Runtime.JAVA_21,
             tracing: Tracing.ACTIVE,
             memorySize: 1024,
             description: `Generated on: ${resourceGenerationTime}`,
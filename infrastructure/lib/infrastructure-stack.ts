@@ -54,6 +54,9 @@ export class InfrastructureStack extends Stack {
     // Create S3 bucket for the GitHub Events
     const openSearchEventsS3Bucket = new OpenSearchS3(app, "OpenSearchMetrics-GitHubAutomationAppEvents-S3");
 
+    // Create S3 bucket for the state the lambdas keep between invocations
+    const openSearchMetricsStateS3Bucket = new OpenSearchS3(app, "OpenSearchMetrics-State-S3");
+
     // Create resources to launch the GitHub Automation App
     const gitHubAutomationApp = new GitHubAutomationApp(app, "OpenSearchMetrics-GitHubAutomationApp", {
       vpc: vpcStack.vpc,
@@ -80,6 +83,7 @@ export class InfrastructureStack extends Stack {
       },
       githubAutomationAppAccess: gitHubAutomationApp.githubAppRole.roleArn,
       githubEventsBucket: openSearchEventsS3Bucket.bucket,
+      metricsStateBucket: openSearchMetricsStateS3Bucket.bucket,
     });
 
     // Create OpenSearch Metrics Lambda setup
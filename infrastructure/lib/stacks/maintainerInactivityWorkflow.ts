@@ -68,6 +68,8 @@ export class OpenSearchMaintainerInactivityWorkflowStack extends Stack {
                 OPENSEARCH_DOMAIN_ENDPOINT: openSearchDomain.domainEndpoint,
                 OPENSEARCH_DOMAIN_REGION: openSearchDomain.env.region,
                 OPENSEARCH_DOMAIN_ROLE: opensearchDomainStack.fullAccessRole.roleArn,
+                S3_BUCKET_REGION: openSearchDomain.env.region,
+                STATE_BUCKET_NAME: opensearchDomainStack.props.metricsStateBucket.bucketName,
             },
         }).lambda;
         return new LambdaInvoke(scope, 'Maintainer Inactivity Lambda', {
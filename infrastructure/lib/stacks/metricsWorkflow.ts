@@ -8,7 +8,7 @@
  */
 
 import { Duration, Stack, StackProps } from "aws-cdk-lib";
-import { Rule, Schedule } from "aws-cdk-lib/aws-events";
+import { Rule, RuleTargetInput, Schedule } from "aws-cdk-lib/aws-events";
 import { SfnStateMachine } from "aws-cdk-lib/aws-events-targets";
 import { JsonPath, StateMachine } from "aws-cdk-lib/aws-stepfunctions";
 import { LambdaInvoke } from "aws-cdk-lib/aws-stepfunctions-tasks";
@@ -43,9 +43,12 @@ export class OpenSearchMetricsWorkflowStack extends Stack {
             stateMachineName: 'OpenSearchMetricsWorkflow'
         })
 
+        // Scheduled runs start with empty input; a manual execution can pass {"refreshReleaseSnapshots": "true"}
         new Rule(this, 'MetricsWorkflow-Every-3hrs', {
             schedule: Schedule.rate(Duration.hours(3)),
-            targets: [new SfnStateMachine(opensearchMetricsWorkflow)],
+            targets: [new SfnStateMachine(opensearchMetricsWorkflow, {
+                input: RuleTargetInput.fromObject({}),
+            })],
         });
 
         this.workflowComponent = {
@@ -67,6 +70,8 @@ export class OpenSearchMetricsWorkflowStack extends Stack {
                 OPENSEARCH_DOMAIN_ENDPOINT: openSearchDomain.domainEndpoint,
                 OPENSEARCH_DOMAIN_REGION: openSearchDomain.env.region,
                 OPENSEARCH_DOMAIN_ROLE: opensearchDomainStack.fullAccessRole.roleArn,
+                S3_BUCKET_REGION: openSearchDomain.env.region,
+                STATE_BUCKET_NAME: opensearchDomainStack.props.metricsStateBucket.bucketName,
             },
         }).lambda;
         return new LambdaInvoke(scope, 'Metrics Lambda', {
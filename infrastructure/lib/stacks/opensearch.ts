@@ -27,6 +27,7 @@ export interface OpenSearchStackProps {
     readonly jenkinsAccess?: jenkinsAccess;
     readonly githubAutomationAppAccess?: string;
     readonly githubEventsBucket: Bucket;
+    readonly metricsStateBucket: Bucket;
 }
 
 
@@ -54,6 +55,23 @@ export class OpenSearchDomainStack extends Stack {
         super(scope, id);
         this.props = props;
 
+        // Checkpoints, release snapshots and response caches the lambdas keep between invocations
+        const metricsStatePolicy = new PolicyDocument({
+            statements: [
+                new PolicyStatement({
+                    effect: Effect.ALLOW,
+                    actions: ["s3:GetObject",
+                        "s3:PutObject",
+                        "s3:DeleteObject"],
+                    resources: [`${props.metricsStateBucket.bucketArn}/opensearch-metrics-state/*`],
+                }),
+                new PolicyStatement({
+                    effect: Effect.ALLOW,
+                    actions: ["s3:ListBucket"],
+                    resources: [props.metricsStateBucket.bucketArn],
+                })
+            ]
+        });
 
         this.openSearchMetricsLambdaRole = new Role(this, 'OpenSearchDomainLambdaRole', {
             assumedBy: new ServicePrincipal('lambda.amazonaws.com'),
@@ -72,7 +90,8 @@ export class OpenSearchDomainStack extends Stack {
                             }
                         })
                     ]
-                })
+                }),
+                "opensearchMetricsStatePolicy": metricsStatePolicy
             },
             managedPolicies: [
                 ManagedPolicy.fromAwsManagedPolicyName('service-role/AWSLambdaBasicExecutionRole'),
@@ -107,7 +126,17 @@ export class OpenSearchDomainStack extends Stack {
                             `${props.githubEventsBucket.bucketArn}/*`],
                         })
                     ]
-                })
+                }),
+                "opensearchCompactS3EventsPolicy": new PolicyDocument({
+                    statements: [
+                        new PolicyStatement({
+                            effect: Effect.ALLOW,
+                            actions: ["s3:PutObject"],
+                            resources: [`${props.githubEventsBucket.bucketArn}/compacted/*`],
+                        })
+                    ]
+                }),
+                "opensearchMetricsStatePolicy": metricsStatePolicy
             },
             managedPolicies: [
                 ManagedPolicy.fromAwsManagedPolicyName('service-role/AWSLambdaBasicExecutionRole'),
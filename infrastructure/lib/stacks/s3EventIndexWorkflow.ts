@@ -34,6 +34,13 @@ export class OpenSearchS3EventIndexWorkflowStack extends Stack {
     constructor(scope: Construct, id: string, props: OpenSearchS3EventIndexWorkflowStackProps) {
         super(scope, id, props);
 
+        const s3EventCompactionTask = this.createS3EventCompactionTask(this,
+            props.region,
+            props.opensearchDomainStack,
+            props.vpcStack,
+            props.lambdaPackage,
+            props.githubEventsBucket);
+
         const s3EventIndexTask = this.createS3EventIndexTask(this,
             props.region,
             props.opensearchDomainStack,
@@ -42,8 +49,9 @@ export class OpenSearchS3EventIndexWorkflowStack extends Stack {
             props.githubEventsBucket);
 
         const opensearchS3EventIndexWorkflow = new StateMachine(this, 'OpenSearchS3EventIndexWorkflow', {
-            definition: s3EventIndexTask,
-            timeout: Duration.minutes(15),
+            // Yesterday is compacted before the events are indexed
+            definition: s3EventCompactionTask.next(s3EventIndexTask),
+            timeout: Duration.minutes(30),
             stateMachineName: 'OpenSearchS3EventIndexWorkflow'
         })
 
@@ -60,6 +68,27 @@ export class OpenSearchS3EventIndexWorkflowStack extends Stack {
         }
     }
 
+    private createS3EventCompactionTask(scope: Construct, region: string, opensearchDomainStack: OpenSearchDomainStack, vpcStack: VpcStack, lambdaPackage: string, githubEventsBucket: Bucket) {
+        const s3EventCompactionLambda = new OpenSearchLambda(this, "OpenSearchMetricsS3EventCompactionLambdaFunction", {
+            lambdaNameBase: "OpenSearchMetricsS3EventCompaction",
+            handler: "org.opensearchmetrics.lambda.EventCompactionLambda",
+            lambdaZipPath: `../../../build/distributions/${lambdaPackage}`,
+            vpc: vpcStack.vpc,
+            securityGroup: vpcStack.securityGroup,
+            role: opensearchDomainStack.openSearchS3EventsIndexLambdaRole,
+            environment: {
+                S3_BUCKET_REGION: region,
+                EVENT_BUCKET_NAME: githubEventsBucket.bucketName,
+            }
+        }).lambda;
+        return new LambdaInvoke(scope, 'S3 Event Compaction Lambda', {
+            lambdaFunction: s3EventCompactionLambda,
+            resultPath: JsonPath.DISCARD,
+            payload: TaskInput.fromJsonPathAt("$"),
+            timeout: Duration.minutes(15)
+        }).addRetry();
+    }
+
     private createS3EventIndexTask(scope: Construct, region: string, opensearchDomainStack: OpenSearchDomainStack, vpcStack: VpcStack, lambdaPackage: string, githubEventsBucket: Bucket) {
         const openSearchDomain = opensearchDomainStack.domain;
         const s3EventIndexLambda = new OpenSearchLambda(this, "OpenSearchMetricsS3EventIndexLambdaFunction", {
@@ -75,6 +104,7 @@ export class OpenSearchS3EventIndexWorkflowStack extends Stack {
                 OPENSEARCH_DOMAIN_ENDPOINT: openSearchDomain.domainEndpoint,
                 OPENSEARCH_DOMAIN_REGION: openSearchDomain.env.region,
                 OPENSEARCH_DOMAIN_ROLE: opensearchDomainStack.fullAccessRole.roleArn,
+                STATE_BUCKET_NAME: opensearchDomainStack.props.metricsStateBucket.bucketName,
             }
         }).lambda;
         return new LambdaInvoke(scope, 'S3 Event Index Lambda', {
@@ -8,7 +8,7 @@
  */
 
 import { App } from "aws-cdk-lib";
-import { Template } from "aws-cdk-lib/assertions";
+import { Match, Template } from "aws-cdk-lib/assertions";
 import { OpenSearchMetricsWorkflowStack } from "../lib/stacks/metricsWorkflow";
 import Project from "../lib/enums/project";
 import { OpenSearchDomainStack } from "../lib/stacks/opensearch";
@@ -21,6 +21,7 @@ test('Maintainer Inactivity Workflow Stack Test', () => {
     const app = new App();
     const vpcStack = new VpcStack(app, 'Test-OpenSearchHealth-VPC', {});
     const s3Stack = new OpenSearchS3(app, "Test-OpenSearchMetrics-GitHubAutomationAppEvents-S3");
+    const stateS3Stack = new OpenSearchS3(app, "Test-OpenSearchMetrics-State-S3");
     const openSearchDomainStack = new OpenSearchDomainStack(app, 'OpenSearchHealth-OpenSearch', {
         region: "us-east-1",
         account: "test-account",
@@ -34,6 +35,7 @@ test('Maintainer Inactivity Workflow Stack Test', () => {
         },
         githubAutomationAppAccess: "sample-role-arn",
         githubEventsBucket: s3Stack.bucket,
+        metricsStateBucket: stateS3Stack.bucket,
     });
     const openSearchMaintainerInactivityWorkflowStack = new OpenSearchMaintainerInactivityWorkflowStack(app, 'Test-OpenSearchMaintainerInactivity-Workflow', {
         opensearchDomainStack: openSearchDomainStack,
@@ -47,6 +49,15 @@ test('Maintainer Inactivity Workflow Stack Test', () => {
         "FunctionName": "OpenSearchMetricsMaintainerInactivityLambda",
         "Handler": "org.opensearchmetrics.lambda.MaintainerInactivityLambda"
     });
+    template.hasResourceProperties('AWS::Lambda::Function', {
+        "FunctionName": "OpenSearchMetricsMaintainerInactivityLambda",
+        "Environment": {
+            "Variables": Match.objectLike({
+                "STATE_BUCKET_NAME": Match.anyValue(),
+                "S3_BUCKET_REGION": Match.anyValue()
+            })
+        }
+    });
     template.resourceCountIs('AWS::StepFunctions::StateMachine', 1);
     template.hasResourceProperties('AWS::StepFunctions::StateMachine', {
         "DefinitionString": {
@@ -8,7 +8,7 @@
  */
 
 import { App } from "aws-cdk-lib";
-import { Template } from "aws-cdk-lib/assertions";
+import { Match, Template } from "aws-cdk-lib/assertions";
 import { ArnPrincipal } from "aws-cdk-lib/aws-iam";
 import Project from "../lib/enums/project";
 import { OpenSearchMetricsWorkflowStack } from "../lib/stacks/metricsWorkflow";
@@ -20,6 +20,7 @@ test('Metrics Workflow Stack Test', () => {
     const app = new App();
     const vpcStack = new VpcStack(app, 'Test-OpenSearchHealth-VPC', {});
     const s3Stack = new OpenSearchS3(app, "Test-OpenSearchMetrics-GitHubAutomationAppEvents-S3");
+    const stateS3Stack = new OpenSearchS3(app, "Test-OpenSearchMetrics-State-S3");
     const openSearchDomainStack = new OpenSearchDomainStack(app, 'OpenSearchHealth-OpenSearch', {
         region: "us-east-1",
         account: "test-account",
@@ -33,6 +34,7 @@ test('Metrics Workflow Stack Test', () => {
         },
         githubAutomationAppAccess: "sample-role-arn",
         githubEventsBucket: s3Stack.bucket,
+        metricsStateBucket: stateS3Stack.bucket,
     });
     const OpenSearchMetricsWorkflow = new OpenSearchMetricsWorkflowStack(app, 'Test-OpenSearchMetrics-Workflow', {
         opensearchDomainStack: openSearchDomainStack,
@@ -46,6 +48,15 @@ test('Metrics Workflow Stack Test', () => {
         "FunctionName": "OpenSearchMetricsDashboardsLambda",
         "Handler": "org.opensearchmetrics.lambda.MetricsLambda"
     });
+    template.hasResourceProperties('AWS::Lambda::Function', {
+        "FunctionName": "OpenSearchMetricsDashboardsLambda",
+        "Environment": {
+            "Variables": Match.objectLike({
+                "STATE_BUCKET_NAME": Match.anyValue(),
+                "S3_BUCKET_REGION": Match.anyValue()
+            })
+        }
+    });
     template.resourceCountIs('AWS::StepFunctions::StateMachine', 1);
     template.hasResourceProperties('AWS::StepFunctions::StateMachine', {
         "DefinitionString": {
@@ -75,4 +86,17 @@ test('Metrics Workflow Stack Test', () => {
         },
         "StateMachineName": "OpenSearchMetricsWorkflow"
     });
+    template.resourceCountIs('AWS::Events::Rule', 1);
+    template.hasResourceProperties('AWS::Events::Rule', {
+        "ScheduleExpression": "rate(3 hours)",
+        "State": "ENABLED",
+        "Targets": [
+            Match.objectLike({
+                "Arn": {
+                    "Ref": "OpenSearchMetricsWorkflowDB4D4CB1"
+                },
+                "Input": "{}"
+            })
+        ]
+    });
 });
@@ -24,6 +24,7 @@ test('Monitoring Stack Test', () => {
     const app = new App();
     const vpcStack = new VpcStack(app, 'OpenSearchHealth-VPC', {});
     const s3Stack = new OpenSearchS3(app, "Test-OpenSearchMetrics-GitHubAutomationAppEvents-S3");
+    const stateS3Stack = new OpenSearchS3(app, "Test-OpenSearchMetrics-State-S3");
     const opensearchDomainStack = new OpenSearchDomainStack(app, 'Test-OpenSearchHealth-OpenSearch', {
         region: "us-east-1",
         account: "test-account",
@@ -35,7 +36,8 @@ test('Monitoring Stack Test', () => {
                 new ArnPrincipal(Project.JENKINS_AGENT_ROLE)
             ]
         },
-        githubEventsBucket: s3Stack.bucket
+        githubEventsBucket: s3Stack.bucket,
+        metricsStateBucket: stateS3Stack.bucket,
     });
     const openSearchMetricsWorkflowStack = new OpenSearchMetricsWorkflowStack(app, 'Test-OpenSearchMetrics-Workflow', {
         opensearchDomainStack: opensearchDomainStack,
@@ -126,7 +128,7 @@ test('Monitoring Stack Test', () => {
                 "Arn"
             ]
         },
-        "Runtime": "java17",
+        "Runtime": "java21",
         "Timeout": 900,
         "TracingConfig": {
             "Mode": "Active"
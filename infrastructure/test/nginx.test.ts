@@ -21,6 +21,7 @@ test('OpenSearchMetricsNginxReadonly Stack Test', () => {
     const app = new App();
     const vpcStack = new VpcStack(app, "OpenSearchHealth-VPC", {});
     const s3Stack = new OpenSearchS3(app, "Test-OpenSearchMetrics-GitHubAutomationAppEvents-S3");
+    const stateS3Stack = new OpenSearchS3(app, "Test-OpenSearchMetrics-State-S3");
     const openSearchDomainStack = new OpenSearchDomainStack(app, "OpenSearchHealth-OpenSearch", {
         region: Project.REGION,
         account: Project.AWS_ACCOUNT,
@@ -32,7 +33,8 @@ test('OpenSearchMetricsNginxReadonly Stack Test', () => {
                 new ArnPrincipal(Project.JENKINS_AGENT_ROLE)
             ]
         },
-        githubEventsBucket: s3Stack.bucket
+        githubEventsBucket: s3Stack.bucket,
+        metricsStateBucket: stateS3Stack.bucket,
     });
     const metricsHostedZone = new OpenSearchHealthRoute53(app, "OpenSearchMetrics-HostedZone", {
         hostedZone: Project.METRICS_HOSTED_ZONE,
@@ -8,7 +8,7 @@
  */
 
 import { App } from "aws-cdk-lib";
-import { Template } from "aws-cdk-lib/assertions";
+import { Match, Template } from "aws-cdk-lib/assertions";
 import { ArnPrincipal } from "aws-cdk-lib/aws-iam";
 import Project from "../lib/enums/project";
 import { OpenSearchDomainStack } from "../lib/stacks/opensearch";
@@ -18,6 +18,7 @@ import { VpcStack } from "../lib/stacks/vpc";
 test('OpenSearchDomain Stack Test', () => {
     const app = new App();
     const s3Stack = new OpenSearchS3(app, "Test-OpenSearchMetrics-GitHubAutomationAppEvents-S3");
+    const stateS3Stack = new OpenSearchS3(app, "Test-OpenSearchMetrics-State-S3");
     const openSearchDomainStack = new OpenSearchDomainStack(app, 'OpenSearchHealth-OpenSearch', {
         region: "us-east-1",
         account: "test-account",
@@ -31,6 +32,7 @@ test('OpenSearchDomain Stack Test', () => {
         },
         githubAutomationAppAccess: "sample-role-arn",
         githubEventsBucket: s3Stack.bucket,
+        metricsStateBucket: stateS3Stack.bucket,
     });
     const openSearchDomainStackTemplate = Template.fromStack(openSearchDomainStack);
     openSearchDomainStackTemplate.resourceCountIs('AWS::IAM::Role', 9);
@@ -151,10 +153,63 @@ test('OpenSearchDomain Stack Test', () => {
                     "Version": "2012-10-17"
                 },
                 "PolicyName": "opensearchReadS3EventsPolicy"
-            }
+            },
+            {
+                "PolicyDocument": {
+                    "Statement": [
+                        {
+                            "Action": "s3:PutObject",
+                            "Effect": "Allow",
+                            "Resource": {
+                                "Fn::Join": [
+                                    "",
+                                    [
+                                        {
+                                            "Fn::ImportValue": "Test-OpenSearchMetrics-GitHubAutomationAppEvents-S3:ExportsOutputFnGetAttOpenSearchS3Bucket2ED683CCArnC283B682"
+                                        },
+                                        "/compacted/*"
+                                    ]
+                                ]
+                            }
+                        }
+                    ],
+                    "Version": "2012-10-17"
+                },
+                "PolicyName": "opensearchCompactS3EventsPolicy"
+            },
+            Match.objectLike({
+                "PolicyName": "opensearchMetricsStatePolicy"
+            })
         ],
         "RoleName": "OpenSearchS3EventIndexLambdaRole"
     });
+    openSearchDomainStackTemplate.hasResourceProperties('AWS::IAM::Role', {
+        "Policies": Match.arrayWith([
+            {
+                "PolicyDocument": {
+                    "Statement": [
+                        {
+                            "Action": [
+                                "s3:GetObject",
+                                "s3:PutObject",
+                                "s3:DeleteObject"
+                            ],
+                            "Effect": "Allow",
+                            "Resource": Match.anyValue()
+                        },
+                        {
+                            "Action": "s3:ListBucket",
+                            "Effect": "Allow",
+                            "Resource": Match.anyValue()
+                        }
+                    ],
+                    "Version": "2012-10-17"
+                },
+                "PolicyName": "opensearchMetricsStatePolicy"
+            }
+        ]),
+        "RoleName": "OpenSearchLambdaRole"
+    });
     openSearchDomainStackTemplate.resourceCountIs('AWS::Cognito::UserPoolGroup', 1);
     openSearchDomainStackTemplate.hasResourceProperties('AWS::Cognito::UserPoolGroup', {
         "GroupName": "opensearch-admin-group",
@@ -20,6 +20,7 @@ test('S3 Event Index Workflow Stack Test', () => {
     const app = new App();
     const vpcStack = new VpcStack(app, 'Test-OpenSearchHealth-VPC', {});
     const s3Stack = new OpenSearchS3(app, "Test-OpenSearchMetrics-GitHubAutomationAppEvents-S3");
+    const stateS3Stack = new OpenSearchS3(app, "Test-OpenSearchMetrics-State-S3");
     const openSearchDomainStack = new OpenSearchDomainStack(app, 'OpenSearchHealth-OpenSearch', {
         region: "us-east-1",
         account: "test-account",
@@ -33,6 +34,7 @@ test('S3 Event Index Workflow Stack Test', () => {
         },
         githubAutomationAppAccess: "sample-role-arn",
         githubEventsBucket: s3Stack.bucket,
+        metricsStateBucket: stateS3Stack.bucket,
     });
     const OpenSearchS3EventIndexWorkflow = new OpenSearchS3EventIndexWorkflowStack(app, 'Test-OpenSearchS3EventIndex-Workflow', {
         region: Project.REGION,
@@ -43,18 +45,33 @@ test('S3 Event Index Workflow Stack Test', () => {
     });
     const template = Template.fromStack(OpenSearchS3EventIndexWorkflow);
     template.resourceCountIs('AWS::IAM::Role', 2);
-    template.resourceCountIs('AWS::Lambda::Function', 1);
+    template.resourceCountIs('AWS::Lambda::Function', 2);
     template.hasResourceProperties('AWS::Lambda::Function', {
         "FunctionName": "OpenSearchMetricsS3EventIndexLambda",
         "Handler": "org.opensearchmetrics.lambda.GithubEventsLambda"
     });
+    template.hasResourceProperties('AWS::Lambda::Function', {
+        "FunctionName": "OpenSearchMetricsS3EventCompactionLambda",
+        "Handler": "org.opensearchmetrics.lambda.EventCompactionLambda"
+    });
     template.resourceCountIs('AWS::StepFunctions::StateMachine', 1);
     template.hasResourceProperties('AWS::StepFunctions::StateMachine', {
         "DefinitionString": {
             "Fn::Join": [
                 "",
                 [
-                    "{\"StartAt\":\"S3 Event Index Lambda\",\"States\":{\"S3 Event Index Lambda\":{\"End\":true,\"Retry\":[{\"ErrorEquals\":[\"Lambda.ClientExecutionTimeoutException\",\"Lambda.ServiceException\",\"Lambda.AWSLambdaException\",\"Lambda.SdkClientException\"],\"IntervalSeconds\":2,\"MaxAttempts\":6,\"BackoffRate\":2},{\"ErrorEquals\":[\"States.ALL\"]}],\"Type\":\"Task\",\"TimeoutSeconds\":900,\"ResultPath\":null,\"Resource\":\"arn:",
+                    "{\"StartAt\":\"S3 Event Compaction Lambda\",\"States\":{\"S3 Event Compaction Lambda\":{\"Next\":\"S3 Event Index Lambda\",\"Retry\":[{\"ErrorEquals\":[\"Lambda.ClientExecutionTimeoutException\",\"Lambda.ServiceException\",\"Lambda.AWSLambdaException\",\"Lambda.SdkClientException\"],\"IntervalSeconds\":2,\"MaxAttempts\":6,\"BackoffRate\":2},{\"ErrorEquals\":[\"States.ALL\"]}],\"Type\":\"Task\",\"TimeoutSeconds\":900,\"ResultPath\":null,\"Resource\":\"arn:",
+                    {
+                        "Ref": "AWS::Partition"
+                    },
+                    ":states:::lambda:invoke\",\"Parameters\":{\"FunctionName\":\"",
+                    {
+                        "Fn::GetAtt": [
+                            "OpenSearchMetricsS3EventCompactionLambda5C17444E",
+                            "Arn"
+                        ]
+                    },
+                    "\",\"Payload.$\":\"$\"}},\"S3 Event Index Lambda\":{\"End\":true,\"Retry\":[{\"ErrorEquals\":[\"Lambda.ClientExecutionTimeoutException\",\"Lambda.ServiceException\",\"Lambda.AWSLambdaException\",\"Lambda.SdkClientException\"],\"IntervalSeconds\":2,\"MaxAttempts\":6,\"BackoffRate\":2},{\"ErrorEquals\":[\"States.ALL\"]}],\"Type\":\"Task\",\"TimeoutSeconds\":900,\"ResultPath\":null,\"Resource\":\"arn:",
                     {
                         "Ref": "AWS::Partition"
                     },
@@ -65,7 +82,7 @@ test('S3 Event Index Workflow Stack Test', () => {
                             "Arn"
                         ]
                     },
-                    "\",\"Payload.$\":\"$\"}}},\"TimeoutSeconds\":900}"
+                    "\",\"Payload.$\":\"$\"}}},\"TimeoutSeconds\":1800}"
                 ]
             ]
         },
@@ -0,0 +1,186 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.metrics.events;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opensearchmetrics.model.event.EventData;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming extraction against the readTree extraction GithubEventsLambda did before, on issue and
+ * pull request webhooks shaped like the ones in the events bucket.
+ * <p>
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GithubEventExtractorBenchmark {
+
+    @Param({"ISSUES_OPENED", "PULL_REQUEST_OPENED"})
+    private GithubEvents type;
+
+    // Characters of the issue or pull request body, which is most of a busy payload
+    @Param({"500", "20000"})
+    private int bodyLength;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final GithubEventExtractor extractor = new GithubEventExtractor(mapper.getFactory());
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        payload = (type == GithubEvents.PULL_REQUEST_OPENED ? pullRequestOpenedPayload() : issueOpenedPayload())
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public EventData streaming() throws IOException {
+        return extractor.extract(type, new ByteArrayInputStream(payload));
+    }
+
+    @Benchmark
+    public EventData tree() throws IOException {
+        JsonNode eventNode = mapper.readTree(new ByteArrayInputStream(payload));
+        EventData event = new EventData();
+        event.setId(eventNode.path("id").textValue());
+        event.setType(eventNode.path("name").textValue());
+        event.setRepository(eventNode.path("payload").path("repository").path("name").textValue());
+        event.setOrganization(eventNode.path("payload").path("organization").path("login").textValue());
+        if (event.getOrganization() == null) {
+            event.setOrganization(eventNode.path("payload").path("repository").path("owner").path("login").textValue());
+        }
+        event.setAction(eventNode.path("payload").path("action").textValue());
+        event.setSender(eventNode.path("payload").path("sender").path("login").textValue());
+        event.setCreatedAt(eventNode.path("uploaded_at").textValue());
+        return event;
+    }
+
+    private String issueOpenedPayload() {
+        ObjectNode root = envelope("issues");
+        ObjectNode payload = (ObjectNode) root.get("payload");
+        ObjectNode issue = payload.putObject("issue");
+        issue.put("url", "https://api.github.com/repos/opensearch-project/OpenSearch/issues/14012");
+        issue.put("number", 14012);
+        issue.put("title", "[BUG] Search returns no hits after a rolling restart");
+        issue.put("body", body());
+        issue.set("user", user("octocat"));
+        labels(issue, "bug", "untriaged", "Search");
+        issue.put("state", "open");
+        issue.put("comments", 0);
+        issue.put("created_at", "2024-06-01T12:00:00Z");
+        issue.put("updated_at", "2024-06-01T12:00:00Z");
+        return root.toString();
+    }
+
+    private String pullRequestOpenedPayload() {
+        ObjectNode root = envelope("pull_request");
+        ObjectNode payload = (ObjectNode) root.get("payload");
+        payload.put("number", 14013);
+        ObjectNode pullRequest = payload.putObject("pull_request");
+        pullRequest.put("url", "https://api.github.com/repos/opensearch-project/OpenSearch/pulls/14013");
+        pullRequest.put("number", 14013);
+        pullRequest.put("state", "open");
+        pullRequest.put("title", "Fix search hits after a rolling restart");
+        pullRequest.put("body", body());
+        pullRequest.set("user", user("octocat"));
+        labels(pullRequest, "bug", "backport 2.x");
+        pullRequest.set("head", ref("octocat:fix-rolling-restart", "8f2d4c1e0a9b7d6c5e4f3a2b1c0d9e8f7a6b5c4d"));
+        pullRequest.set("base", ref("opensearch-project:main", "1a2b3c4d5e6f7a8b9c0d1e2f3a4b5c6d7e8f9a0b"));
+        pullRequest.put("draft", false);
+        pullRequest.put("commits", 3);
+        pullRequest.put("additions", 120);
+        pullRequest.put("deletions", 14);
+        pullRequest.put("changed_files", 6);
+        pullRequest.put("created_at", "2024-06-01T12:00:00Z");
+        return root.toString();
+    }
+
+    /*
+    The fields every webhook of the bucket has, with the extracted paths at the end of the payload like GitHub sends them.
+     */
+    private ObjectNode envelope(String name) {
+        ObjectNode root = mapper.createObjectNode();
+        root.put("id", "a1b2c3d4-e5f6-11ee-8c90-0242ac120002");
+        root.put("name", name);
+        ObjectNode payload = root.putObject("payload");
+        payload.put("action", "opened");
+        payload.set("repository", repository());
+        payload.set("organization", user("opensearch-project"));
+        payload.set("sender", user("octocat"));
+        root.put("uploaded_at", "2024-06-01T12:00:00Z");
+        return root;
+    }
+
+    private String body() {
+        return "Steps to reproduce the behavior. ".repeat(bodyLength / 33 + 1).substring(0, bodyLength);
+    }
+
+    private ObjectNode ref(String label, String sha) {
+        ObjectNode ref = mapper.createObjectNode();
+        ref.put("label", label);
+        ref.put("ref", label.substring(label.indexOf(':') + 1));
+        ref.put("sha", sha);
+        ref.set("user", user(label.substring(0, label.indexOf(':'))));
+        ref.set("repo", repository());
+        return ref;
+    }
+
+    private ObjectNode repository() {
+        ObjectNode repository = mapper.createObjectNode();
+        repository.put("id", 287138542);
+        repository.put("name", "OpenSearch");
+        repository.put("full_name", "opensearch-project/OpenSearch");
+        repository.set("owner", user("opensearch-project"));
+        repository.put("description", "Open source distributed and RESTful search engine.");
+        repository.put("html_url", "https://github.com/opensearch-project/OpenSearch");
+        repository.put("default_branch", "main");
+        repository.putArray("topics").add("search").add("analytics").add("java");
+        return repository;
+    }
+
+    private void labels(ObjectNode issue, String... names) {
+        ArrayNode labels = issue.putArray("labels");
+        for (String name : names) {
+            labels.addObject().put("name", name).put("color", "d73a4a").put("default", false);
+        }
+    }
+
+    private ObjectNode user(String login) {
+        ObjectNode user = mapper.createObjectNode();
+        user.put("login", login);
+        user.put("id", 583231);
+        user.put("avatar_url", "https://avatars.githubusercontent.com/u/583231?v=4");
+        user.put("html_url", "https://github.com/" + login);
+        user.put("type", "User");
+        user.put("site_admin", false);
+        return user;
+    }
+}
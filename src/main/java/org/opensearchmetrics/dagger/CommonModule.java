@@ -9,12 +9,19 @@
 
 package org.opensearchmetrics.dagger;
 
+import org.opensearchmetrics.util.FileStateStore;
+import org.opensearchmetrics.util.HttpResponseCache;
+import org.opensearchmetrics.util.HttpUtil;
+import org.opensearchmetrics.util.S3StateStore;
 import org.opensearchmetrics.util.S3Util;
+import org.opensearchmetrics.util.StateStore;
+import org.opensearchmetrics.util.TrafficGovernor;
 import org.opensearchmetrics.util.SecretsManagerUtil;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import dagger.Lazy;
 import dagger.Module;
 import dagger.Provides;
 import io.github.acm19.aws.interceptor.http.AwsRequestSigningApacheInterceptor;
@@ -23,10 +30,12 @@ import org.apache.http.HttpRequestInterceptor;
 import org.opensearch.client.RestClient;
 import org.opensearch.client.RestHighLevelClient;
 import org.opensearchmetrics.metrics.MetricsCalculation;
+import org.opensearchmetrics.metrics.RepositoryCatalog;
 import org.opensearchmetrics.metrics.general.*;
 import org.opensearchmetrics.metrics.label.LabelMetrics;
 import org.opensearchmetrics.metrics.maintainer.MaintainerMetrics;
 import org.opensearchmetrics.metrics.release.ReleaseMetrics;
+import org.opensearchmetrics.metrics.release.ReleaseSnapshotStore;
 import org.opensearchmetrics.util.OpenSearchUtil;
 import com.amazonaws.services.secretsmanager.AWSSecretsManager;
 import com.amazonaws.services.secretsmanager.AWSSecretsManagerClientBuilder;
@@ -35,9 +44,15 @@ import software.amazon.awssdk.auth.signer.Aws4Signer;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.sts.StsClient;
 import software.amazon.awssdk.services.sts.auth.StsAssumeRoleCredentialsProvider;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 
 import javax.inject.Singleton;
+import java.net.http.HttpClient;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 
 @Module
 public class CommonModule {
@@ -49,6 +64,20 @@ public class CommonModule {
     private static final String SECRETS_MANAGER_REGION = "SECRETS_MANAGER_REGION";
     private static final String S3_BUCKET_REGION = "S3_BUCKET_REGION";
     private static final String EVENT_BUCKET_NAME = "EVENT_BUCKET_NAME";
+    private static final String STATE_BUCKET_NAME = "STATE_BUCKET_NAME";
+    private static final String STATE_PREFIX = "opensearch-metrics-state/";
+    // Long enough for retries and back-to-back invocations, short enough to pick up new repositories within the day
+    private static final Duration REPOSITORY_CATALOG_TTL = Duration.ofHours(1);
+    private static final int HTTP_MAX_CONCURRENT_REQUESTS = 32;
+    private static final Duration HTTP_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration HTTP_REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    // Requests per second, burst and requests in flight allowed per host
+    private static final TrafficGovernor.HostPolicy DEFAULT_HOST_POLICY = new TrafficGovernor.HostPolicy(10, 20, 16);
+    private static final Map<String, TrafficGovernor.HostPolicy> HOST_POLICIES = Map.of(
+            "github.com", new TrafficGovernor.HostPolicy(10, 20, 16),
+            "raw.githubusercontent.com", new TrafficGovernor.HostPolicy(20, 40, 32),
+            "api.codecov.io", new TrafficGovernor.HostPolicy(5, 10, 8));
+    private static final TrafficGovernor.HostPolicy OPENSEARCH_HOST_POLICY = new TrafficGovernor.HostPolicy(50, 50, 8);
 
 
     @Singleton
@@ -83,8 +112,65 @@ public class CommonModule {
 
     @Singleton
     @Provides
-    public S3Util getS3Util(S3Client s3Client) {
-        return new S3Util(s3Client, System.getenv(EVENT_BUCKET_NAME));
+    public S3AsyncClient getS3AsyncClient() {
+        final String region = System.getenv(S3_BUCKET_REGION);
+        return S3AsyncClient.builder()
+                .region(Region.of(region))
+                .build();
+    }
+
+    @Singleton
+    @Provides
+    public S3Util getS3Util(S3Client s3Client, S3AsyncClient s3AsyncClient) {
+        return new S3Util(s3Client, s3AsyncClient, System.getenv(EVENT_BUCKET_NAME));
+    }
+
+    /*
+    State that outlives an invocation goes to S3 when STATE_BUCKET_NAME is set,
+    otherwise to local files, which last as long as the warm container.
+     */
+    @Singleton
+    @Provides
+    public StateStore getStateStore(Lazy<S3Client> s3Client) {
+        final String stateBucketName = System.getenv(STATE_BUCKET_NAME);
+        if (stateBucketName != null && !stateBucketName.isEmpty()) {
+            return new S3StateStore(s3Client.get(), stateBucketName, STATE_PREFIX);
+        }
+        return new FileStateStore(Paths.get(System.getProperty("java.io.tmpdir"), STATE_PREFIX));
+    }
+
+    @Singleton
+    @Provides
+    public HttpResponseCache getHttpResponseCache(StateStore stateStore, ObjectMapper objectMapper) {
+        return new HttpResponseCache(stateStore, objectMapper);
+    }
+
+    @Singleton
+    @Provides
+    public ReleaseSnapshotStore getReleaseSnapshotStore(StateStore stateStore, ObjectMapper objectMapper) {
+        return new ReleaseSnapshotStore(stateStore, objectMapper);
+    }
+
+    @Singleton
+    @Provides
+    public TrafficGovernor getTrafficGovernor() {
+        Map<String, TrafficGovernor.HostPolicy> hostPolicies = new HashMap<>(HOST_POLICIES);
+        final String openSearchEndpoint = System.getenv(OPENSEARCH_DOMAIN_ENDPOINT);
+        if (openSearchEndpoint != null) {
+            hostPolicies.put(openSearchEndpoint, OPENSEARCH_HOST_POLICY);
+        }
+        return new TrafficGovernor(DEFAULT_HOST_POLICY, hostPolicies);
+    }
+
+    @Singleton
+    @Provides
+    public HttpUtil getHttpUtil(HttpResponseCache httpResponseCache, TrafficGovernor trafficGovernor) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(HTTP_CONNECT_TIMEOUT)
+                .build();
+        return new HttpUtil(httpClient, httpResponseCache, trafficGovernor, HTTP_MAX_CONCURRENT_REQUESTS, HTTP_REQUEST_TIMEOUT);
     }
 
     @Singleton
@@ -102,8 +188,14 @@ public class CommonModule {
 
     @Singleton
     @Provides
-    public OpenSearchUtil getOpenSearchUtil(RestHighLevelClient client) {
-        return new OpenSearchUtil(client);
+    public OpenSearchUtil getOpenSearchUtil(RestHighLevelClient client, TrafficGovernor trafficGovernor) {
+        return new OpenSearchUtil(client, trafficGovernor, System.getenv(OPENSEARCH_DOMAIN_ENDPOINT));
+    }
+
+    @Singleton
+    @Provides
+    public RepositoryCatalog getRepositoryCatalog(OpenSearchUtil openSearchUtil) {
+        return new RepositoryCatalog(openSearchUtil, REPOSITORY_CATALOG_TTL);
     }
 
 
@@ -117,7 +209,8 @@ public class CommonModule {
                                                     CreatedIssues createdIssues, IssueComments issueComments,
                                                     PullComments pullComments, IssuePositiveReactions issuePositiveReactions,
                                                     IssueNegativeReactions issueNegativeReactions, LabelMetrics labelMetrics,
-                                                    ReleaseMetrics releaseMetrics, MaintainerMetrics maintainerMetrics) {
+                                                    ReleaseMetrics releaseMetrics, MaintainerMetrics maintainerMetrics,
+                                                    GeneralMetricsAggregator generalMetricsAggregator, ReleaseSnapshotStore releaseSnapshotStore) {
         return new MetricsCalculation(openSearchUtil, objectMapper,
                 untriagedIssues, uncommentedPullRequests,
                 unlabelledPullRequests, unlabelledIssues,
@@ -125,7 +218,7 @@ public class CommonModule {
                 openIssues, closedIssues, createdIssues,
                 issueComments, pullComments,
                 issuePositiveReactions, issueNegativeReactions,
-                labelMetrics, releaseMetrics, maintainerMetrics);
+                labelMetrics, releaseMetrics, maintainerMetrics, generalMetricsAggregator, releaseSnapshotStore);
     }
 
     @Provides
@@ -15,12 +15,10 @@ import org.opensearchmetrics.metrics.general.*;
 import org.opensearchmetrics.metrics.label.LabelMetrics;
 import org.opensearchmetrics.metrics.release.CodeCoverage;
 import org.opensearchmetrics.metrics.release.ReleaseBranchChecker;
-import org.opensearchmetrics.metrics.release.ReleaseIssueChecker;
-import org.opensearchmetrics.metrics.release.ReleaseLabelIssuesFetcher;
-import org.opensearchmetrics.metrics.release.ReleaseLabelPullsFetcher;
 import org.opensearchmetrics.metrics.release.ReleaseMetrics;
 import org.opensearchmetrics.metrics.release.ReleaseNotesChecker;
 import org.opensearchmetrics.metrics.release.ReleaseRepoFetcher;
+import org.opensearchmetrics.metrics.release.ReleaseStatsAggregator;
 import org.opensearchmetrics.metrics.release.ReleaseVersionIncrementChecker;
 import org.opensearchmetrics.util.OpenSearchUtil;
 
@@ -151,11 +149,10 @@ public class MetricsModule {
     @Provides
     @Singleton
     public ReleaseMetrics getReleaseMetrics(OpenSearchUtil openSearchUtil, ObjectMapper objectMapper,
-                                            ReleaseRepoFetcher releaseRepoFetcher, ReleaseLabelIssuesFetcher releaseLabelIssuesFetcher,
-                                            ReleaseLabelPullsFetcher releaseLabelPullsFetcher, ReleaseVersionIncrementChecker releaseVersionIncrementChecker,
-                                            ReleaseBranchChecker releaseBranchChecker, ReleaseNotesChecker releaseNotesChecker, ReleaseIssueChecker releaseIssueChecker, CodeCoverage codeCoverage) {
+                                            ReleaseRepoFetcher releaseRepoFetcher, ReleaseVersionIncrementChecker releaseVersionIncrementChecker,
+                                            ReleaseBranchChecker releaseBranchChecker, ReleaseNotesChecker releaseNotesChecker, CodeCoverage codeCoverage,
+                                            ReleaseStatsAggregator releaseStatsAggregator) {
         return new ReleaseMetrics(openSearchUtil, objectMapper, releaseRepoFetcher,
-                releaseLabelIssuesFetcher, releaseLabelPullsFetcher, releaseVersionIncrementChecker,
-                releaseBranchChecker, releaseNotesChecker, releaseIssueChecker, codeCoverage);
+                releaseVersionIncrementChecker, releaseBranchChecker, releaseNotesChecker, codeCoverage, releaseStatsAggregator);
     }
 }
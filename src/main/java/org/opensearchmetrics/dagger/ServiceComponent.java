@@ -11,11 +11,14 @@ package org.opensearchmetrics.dagger;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import dagger.Component;
 import org.opensearchmetrics.metrics.MetricsCalculation;
+import org.opensearchmetrics.metrics.RepositoryCatalog;
 import org.opensearchmetrics.metrics.general.Metrics;
 import org.opensearchmetrics.metrics.label.LabelMetrics;
 import org.opensearchmetrics.util.OpenSearchUtil;
 import org.opensearchmetrics.util.SecretsManagerUtil;
 import org.opensearchmetrics.util.S3Util;
+import org.opensearchmetrics.util.StateStore;
+import org.opensearchmetrics.util.TrafficGovernor;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -30,8 +33,14 @@ public interface ServiceComponent {
 
     OpenSearchUtil getOpenSearchUtil();
 
+    TrafficGovernor getTrafficGovernor();
+
+    StateStore getStateStore();
+
     MetricsCalculation getMetricsCalculation();
 
+    RepositoryCatalog getRepositoryCatalog();
+
     SecretsManagerUtil getSecretsManagerUtil();
 
     @Named(MetricsModule.UNTRIAGED_ISSUES)
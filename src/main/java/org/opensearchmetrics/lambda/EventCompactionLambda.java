@@ -0,0 +1,69 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.lambda;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearchmetrics.dagger.DaggerServiceComponent;
+import org.opensearchmetrics.dagger.ServiceComponent;
+import org.opensearchmetrics.metrics.events.CompactedEventStore;
+import org.opensearchmetrics.metrics.events.EventCompactor;
+import org.opensearchmetrics.metrics.events.GithubEvents;
+import org.opensearchmetrics.util.S3Util;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+@Slf4j
+public class EventCompactionLambda implements RequestHandler<Map<String, String>, Void> {
+    private final GithubEvents[] eventsToCompact = GithubEvents.getAllGithubEvents();
+    private static final ServiceComponent COMPONENT = DaggerServiceComponent.create();
+    private final EventCompactor eventCompactor;
+
+    public EventCompactionLambda() {
+        this(COMPONENT.getS3Util(), COMPONENT.getObjectMapper());
+    }
+
+    @VisibleForTesting
+    EventCompactionLambda(@NonNull S3Util s3Util, @NonNull ObjectMapper mapper) {
+        this.eventCompactor = new EventCompactor(s3Util, new CompactedEventStore(s3Util, mapper), mapper.getFactory());
+    }
+
+    @Override
+    public Void handleRequest(Map<String, String> input, Context context) {
+        LocalDate compactionDate; // UTC in the format yyyy-MM-dd
+
+        // Reads Step Function Execution input in the format:
+        // {
+        //  "compactionDate": "yyyy-MM-dd"
+        // }
+        //
+        // If not provided, compactionDate defaults to yesterday. Only closed days are compacted, since
+        // webhook objects keep arriving for the current one. A day already compacted is left as is.
+
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        if (input != null && input.containsKey("compactionDate")) {
+            compactionDate = LocalDate.parse(input.get("compactionDate"));
+        } else {
+            compactionDate = today.minusDays(1);
+        }
+        if (!compactionDate.isBefore(today)) {
+            throw new IllegalArgumentException("Cannot compact " + compactionDate + ", the day is not closed yet");
+        }
+        for (GithubEvents eventToCompact : eventsToCompact) {
+            eventCompactor.compact(eventToCompact, compactionDate);
+        }
+        return null;
+    }
+}
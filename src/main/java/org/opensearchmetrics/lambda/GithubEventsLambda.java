@@ -10,45 +10,53 @@ package org.opensearchmetrics.lambda;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.opensearchmetrics.dagger.DaggerServiceComponent;
 import org.opensearchmetrics.dagger.ServiceComponent;
+import org.opensearchmetrics.metrics.events.CompactedEventStore;
+import org.opensearchmetrics.metrics.events.EventIngestPipeline;
+import org.opensearchmetrics.metrics.events.EventWatermarkStore;
+import org.opensearchmetrics.metrics.events.GithubEventExtractor;
 import org.opensearchmetrics.metrics.events.GithubEvents;
-import org.opensearchmetrics.model.event.EventData;
+import org.opensearchmetrics.util.BulkSink;
 import org.opensearchmetrics.util.OpenSearchUtil;
 import org.opensearchmetrics.util.S3Util;
-import software.amazon.awssdk.core.ResponseInputStream;
-import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import org.opensearchmetrics.util.StateStore;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Slf4j
 public class GithubEventsLambda implements RequestHandler<Map<String, String>, Void> {
     private final GithubEvents[] eventsToIndex = GithubEvents.getAllGithubEvents();
     private static final ServiceComponent COMPONENT = DaggerServiceComponent.create();
+    // Objects can show up in a listing slightly after others with a later LastModified
+    private static final Duration WATERMARK_OVERLAP = Duration.ofMinutes(10);
     private final OpenSearchUtil openSearchUtil;
-    private final S3Util s3Util;
-    private final ObjectMapper mapper;
+    private final EventIngestPipeline ingestPipeline;
+    private final EventWatermarkStore watermarkStore;
 
     public GithubEventsLambda() {
-        this(COMPONENT.getOpenSearchUtil(), COMPONENT.getS3Util(), COMPONENT.getObjectMapper());
+        this(COMPONENT.getOpenSearchUtil(), COMPONENT.getS3Util(), COMPONENT.getObjectMapper(), COMPONENT.getStateStore());
     }
 
     @VisibleForTesting
-    GithubEventsLambda(@NonNull OpenSearchUtil openSearchUtil, @NonNull S3Util s3Util, @NonNull ObjectMapper mapper) {
+    GithubEventsLambda(@NonNull OpenSearchUtil openSearchUtil, @NonNull S3Util s3Util, @NonNull ObjectMapper mapper,
+                       @NonNull StateStore stateStore) {
         this.openSearchUtil = openSearchUtil;
-        this.s3Util = s3Util;
-        this.mapper = mapper;
+        this.ingestPipeline = new EventIngestPipeline(s3Util, new CompactedEventStore(s3Util, mapper),
+                new GithubEventExtractor(mapper.getFactory()), mapper);
+        this.watermarkStore = new EventWatermarkStore(stateStore, mapper);
     }
 
     @Override
@@ -57,49 +65,48 @@ public class GithubEventsLambda implements RequestHandler<Map<String, String>, V
 
         // Reads Step Function Execution input in the format:
         // {
-        //  "collectionStartDate": "yyyy-MM-dd"
+        //  "collectionStartDate": "yyyy-MM-dd",
+        //  "reprocess": "true"
         // }
         //
-        // If not provided, defaults to yesterday
+        // If not provided, collectionStartDate defaults to yesterday. Events already indexed by an earlier
+        // run are skipped using the watermark of their type, unless reprocess is true.
 
         if (input.containsKey("collectionStartDate")) { // user manually specified collection start date
             collectionStartDate = LocalDate.parse(input.get("collectionStartDate"));
         } else { // defaults to yesterday
             collectionStartDate = LocalDate.now(ZoneOffset.UTC).minus(1, ChronoUnit.DAYS);
         }
-        LocalDate collectionCurrentDate = collectionStartDate;
+        boolean reprocess = Boolean.parseBoolean(input.get("reprocess"));
         LocalDate today = LocalDate.now(ZoneOffset.UTC);
-        while (!collectionCurrentDate.isAfter(today)) {
-            Map<String, String> finalEventData = new HashMap<>();
-            for (GithubEvents eventToIndex : eventsToIndex) {
-                String prefix = eventToIndex.getEventName() + "/" + collectionCurrentDate + "/";
-                List<String> objectKeys = s3Util.listObjectsKeys(prefix);
-                for (String objectKey : objectKeys) {
-                    try (ResponseInputStream<GetObjectResponse> eventInputStream = s3Util.getObjectInputStream(objectKey)) {
-                        JsonNode eventNode = mapper.readTree(eventInputStream);
-                        EventData event = new EventData();
-                        event.setId(eventNode.path("id").textValue());
-                        event.setType(eventNode.path("name").textValue());
-                        event.setRepository(eventNode.path("payload").path("repository").path("name").textValue());
-                        event.setOrganization(eventNode.path("payload").path("organization").path("login").textValue());
-                        if (event.getOrganization() == null) {
-                            event.setOrganization(eventNode.path("payload").path("repository").path("owner").path("login").textValue());
-                        }
-                        event.setAction(eventNode.path("payload").path("action").textValue());
-                        event.setSender(eventNode.path("payload").path("sender").path("login").textValue());
-                        event.setCreatedAt(eventNode.path("uploaded_at").textValue());
-
-                        finalEventData.put(event.getId(), event.getJson(event, mapper));
-                    } catch (Exception e) {
-                        throw new RuntimeException(e);
-                    }
+        List<EventIngestPipeline.Source> sources = new ArrayList<>();
+        LocalDate earliestStartDay = today;
+        for (GithubEvents eventToIndex : eventsToIndex) {
+            Optional<Instant> watermark = reprocess ? Optional.empty() : watermarkStore.get(eventToIndex);
+            LocalDate startDay = collectionStartDate;
+            Instant modifiedSince = null;
+            if (watermark.isPresent()) {
+                modifiedSince = watermark.get().minus(WATERMARK_OVERLAP);
+                // An object is stored under the day it was received, which can be the day before its LastModified
+                LocalDate watermarkDay = LocalDate.ofInstant(modifiedSince, ZoneOffset.UTC).minusDays(1);
+                if (watermarkDay.isAfter(startDay)) {
+                    startDay = watermarkDay;
                 }
             }
-            String indexName = "github-user-activity-events-" + collectionCurrentDate.format(DateTimeFormatter.ofPattern("MM-yyyy"));
-            openSearchUtil.createIndexIfNotExists(indexName);
-            openSearchUtil.bulkIndex(indexName, finalEventData);
-            collectionCurrentDate = collectionCurrentDate.plusDays(1);
+            sources.add(new EventIngestPipeline.Source(eventToIndex, startDay, modifiedSince));
+            if (startDay.isBefore(earliestStartDay)) {
+                earliestStartDay = startDay;
+            }
+        }
+        for (LocalDate day = earliestStartDay; !day.isAfter(today); day = day.plusDays(1)) {
+            openSearchUtil.createIndexIfNotExists(EventIngestPipeline.indexName(day));
+        }
+        Map<GithubEvents, Instant> newestIndexed;
+        try (BulkSink bulkSink = openSearchUtil.openBulkSink()) {
+            newestIndexed = ingestPipeline.run(sources, bulkSink);
         }
+        // Only once the sink has flushed every event
+        newestIndexed.forEach(watermarkStore::advance);
         return null;
     }
 }
@@ -9,59 +9,92 @@
 package org.opensearchmetrics.lambda;
 
 import com.amazonaws.services.lambda.runtime.Context;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Suppliers;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
-import org.opensearch.action.search.SearchRequest;
-import org.opensearch.action.search.SearchResponse;
-import org.opensearch.search.aggregations.AggregationBuilders;
-import org.opensearch.search.aggregations.bucket.terms.ParsedStringTerms;
-import org.opensearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
-import org.opensearch.search.builder.SearchSourceBuilder;
 import org.opensearchmetrics.dagger.DaggerServiceComponent;
 import org.opensearchmetrics.dagger.ServiceComponent;
 import org.opensearchmetrics.metrics.MetricsCalculation;
+import org.opensearchmetrics.metrics.RepositoryCatalog;
+import org.opensearchmetrics.metrics.RunCheckpoint;
+import org.opensearchmetrics.util.BulkSink;
+import org.opensearchmetrics.util.Deadline;
 import org.opensearchmetrics.util.OpenSearchUtil;
+import org.opensearchmetrics.util.StateStore;
+import org.opensearchmetrics.util.TrafficGovernor;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 @Slf4j
 public class MaintainerInactivityLambda extends AbstractBaseLambda {
     private static final ServiceComponent COMPONENT = DaggerServiceComponent.create();
+    // Left for flushing the sink and saving the checkpoint before the invocation times out
+    private static final Duration DEADLINE_RESERVE = Duration.ofMinutes(2);
+    private static final int REPOSITORY_BATCH_SIZE = 100;
     private final OpenSearchUtil openSearchUtil;
 
     private final MetricsCalculation metricsCalculation;
 
+    private final TrafficGovernor trafficGovernor;
+
+    private final StateStore stateStore;
+
+    private final ObjectMapper objectMapper;
+
+    private final RepositoryCatalog repositoryCatalog;
+
     public MaintainerInactivityLambda() {
-        this(COMPONENT.getOpenSearchUtil(), COMPONENT.getMetricsCalculation());
+        this(COMPONENT.getOpenSearchUtil(), COMPONENT.getMetricsCalculation(), COMPONENT.getTrafficGovernor(),
+                COMPONENT.getStateStore(), COMPONENT.getObjectMapper(), COMPONENT.getRepositoryCatalog());
     }
 
     @VisibleForTesting
-    MaintainerInactivityLambda(@NonNull OpenSearchUtil openSearchUtil, @NonNull MetricsCalculation metricsCalculation) {
+    MaintainerInactivityLambda(@NonNull OpenSearchUtil openSearchUtil, @NonNull MetricsCalculation metricsCalculation,
+                               @NonNull TrafficGovernor trafficGovernor, @NonNull StateStore stateStore,
+                               @NonNull ObjectMapper objectMapper, @NonNull RepositoryCatalog repositoryCatalog) {
         this.openSearchUtil = openSearchUtil;
         this.metricsCalculation = metricsCalculation;
+        this.trafficGovernor = trafficGovernor;
+        this.stateStore = stateStore;
+        this.objectMapper = objectMapper;
+        this.repositoryCatalog = repositoryCatalog;
     }
 
     @Override
     public Void handleRequest(Void input, Context context) {
-        SearchRequest searchRequest = new SearchRequest("github_repos");
-        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-        searchSourceBuilder.size(0);
-        TermsAggregationBuilder aggregation = AggregationBuilders.terms("repos")
-                .field("repository.keyword").size(500);
-        searchSourceBuilder.aggregation(aggregation);
-        searchRequest.source(searchSourceBuilder);
-        SearchResponse searchResponse = null;
-        searchResponse = openSearchUtil.search(searchRequest);
-        ParsedStringTerms termsAggregation = searchResponse.getAggregations().get("repos");
-        List<String> keys = termsAggregation.getBuckets().stream()
-                .map(bucket -> bucket.getKeyAsString())
-                .collect(Collectors.toList());
-        try {
-            metricsCalculation.generateMaintainerMetrics(keys);
+        List<String> keys = repositoryCatalog.getRepositories();
+        // Repositories completed by an earlier invocation of the same day are skipped
+        RunCheckpoint checkpoint = RunCheckpoint.open(stateStore, objectMapper,
+                "maintainer-inactivity/" + LocalDate.now(ZoneOffset.UTC), Deadline.of(context, DEADLINE_RESERVE));
+        // Event counts and event types are read once, by the first batch that runs
+        Supplier<MetricsCalculation.MaintainerRun> run = Suppliers.memoize(metricsCalculation::startMaintainerMetrics);
+        RuntimeException failure = null;
+        try (BulkSink bulkSink = openSearchUtil.openBulkSink()) {
+            try {
+                checkpoint.forEachBatch("maintainer-metrics", keys, REPOSITORY_BATCH_SIZE,
+                        batch -> metricsCalculation.generateMaintainerMetrics(batch, run.get(), bulkSink));
+            } catch (RuntimeException e) {
+                // The batches completed before the failure are still flushed and checkpointed
+                failure = e;
+            }
         } catch (Exception e) {
             throw new RuntimeException("Error running Maintainer Inactivity Calculation", e);
+        } finally {
+            trafficGovernor.logStats();
+        }
+        // Every document of the completed batches is indexed once the sink is closed
+        checkpoint.commit(failure == null);
+        if (failure != null) {
+            throw new RuntimeException("Error running Maintainer Inactivity Calculation", failure);
+        }
+        if (checkpoint.isStopped()) {
+            throw new RuntimeException("Maintainer Inactivity Calculation stopped at the deadline, the next invocation resumes from the checkpoint");
         }
         return input;
     }
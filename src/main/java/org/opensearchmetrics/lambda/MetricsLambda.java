@@ -9,66 +9,109 @@
 package org.opensearchmetrics.lambda;
 
 import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
-import org.opensearch.action.search.SearchRequest;
-import org.opensearch.action.search.SearchResponse;
-import org.opensearch.search.aggregations.AggregationBuilders;
-import org.opensearch.search.aggregations.bucket.terms.ParsedStringTerms;
-import org.opensearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
-import org.opensearch.search.builder.SearchSourceBuilder;
 import org.opensearchmetrics.dagger.DaggerServiceComponent;
 import org.opensearchmetrics.dagger.ServiceComponent;
 import org.opensearchmetrics.metrics.MetricsCalculation;
+import org.opensearchmetrics.metrics.RepositoryCatalog;
+import org.opensearchmetrics.metrics.RunCheckpoint;
+import org.opensearchmetrics.metrics.StagePipeline;
+import org.opensearchmetrics.util.BulkSink;
+import org.opensearchmetrics.util.Deadline;
 import org.opensearchmetrics.util.OpenSearchUtil;
+import org.opensearchmetrics.util.StateStore;
+import org.opensearchmetrics.util.TrafficGovernor;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Optional;
 
 @Slf4j
-public class MetricsLambda extends AbstractBaseLambda {
+public class MetricsLambda implements RequestHandler<Map<String, String>, Void> {
     private static final ServiceComponent COMPONENT = DaggerServiceComponent.create();
+    // Left for flushing the sink and saving the checkpoint before the invocation times out
+    private static final Duration DEADLINE_RESERVE = Duration.ofMinutes(2);
+    private static final int REPOSITORY_BATCH_SIZE = 100;
+    // Each batch of releases is one round of manifest fetches, GitHub checks and _msearch calls
+    private static final int RELEASE_BATCH_SIZE = 2;
     private final OpenSearchUtil openSearchUtil;
 
     private final MetricsCalculation metricsCalculation;
 
+    private final TrafficGovernor trafficGovernor;
+
+    private final StateStore stateStore;
+
+    private final ObjectMapper objectMapper;
+
+    private final RepositoryCatalog repositoryCatalog;
+
     public MetricsLambda() {
 
-        this(COMPONENT.getOpenSearchUtil(), COMPONENT.getMetricsCalculation());
+        this(COMPONENT.getOpenSearchUtil(), COMPONENT.getMetricsCalculation(), COMPONENT.getTrafficGovernor(),
+                COMPONENT.getStateStore(), COMPONENT.getObjectMapper(), COMPONENT.getRepositoryCatalog());
     }
 
     @VisibleForTesting
-    MetricsLambda(@NonNull OpenSearchUtil openSearchUtil, @NonNull MetricsCalculation metricsCalculation) {
+    MetricsLambda(@NonNull OpenSearchUtil openSearchUtil, @NonNull MetricsCalculation metricsCalculation,
+                  @NonNull TrafficGovernor trafficGovernor, @NonNull StateStore stateStore,
+                  @NonNull ObjectMapper objectMapper, @NonNull RepositoryCatalog repositoryCatalog) {
 
         this.openSearchUtil = openSearchUtil;
         this.metricsCalculation = metricsCalculation;
+        this.trafficGovernor = trafficGovernor;
+        this.stateStore = stateStore;
+        this.objectMapper = objectMapper;
+        this.repositoryCatalog = repositoryCatalog;
     }
 
     @Override
-    public Void handleRequest(Void input, Context context) {
-        SearchRequest searchRequest = new SearchRequest("github_repos");
-        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-        searchSourceBuilder.size(0);
-        TermsAggregationBuilder aggregation = AggregationBuilders.terms("repos")
-                .field("repository.keyword").size(500);
-        searchSourceBuilder.aggregation(aggregation);
-        searchRequest.source(searchSourceBuilder);
-        SearchResponse searchResponse = null;
-        searchResponse = openSearchUtil.search(searchRequest);
-        ParsedStringTerms termsAggregation = searchResponse.getAggregations().get("repos");
-        List<String> keys = termsAggregation.getBuckets().stream()
-                .map(bucket -> bucket.getKeyAsString())
-                .collect(Collectors.toList());
-        try {
-            metricsCalculation.generateGeneralMetrics(keys);
-            metricsCalculation.generateLabelMetrics(keys);
-            metricsCalculation.generateReleaseMetrics();
-            metricsCalculation.generateCodeCovMetrics();
+    public Void handleRequest(Map<String, String> input, Context context) {
+        // Reads Step Function Execution input in the format:
+        // {
+        //  "refreshReleaseSnapshots": "true"
+        // }
+        //
+        // If not provided, closed releases are emitted from their snapshots
+        boolean refreshSnapshots = input != null && Boolean.parseBoolean(input.get("refreshReleaseSnapshots"));
+        // Units completed by an earlier invocation of the same day are skipped
+        RunCheckpoint checkpoint = RunCheckpoint.open(stateStore, objectMapper,
+                "metrics/" + LocalDate.now(ZoneOffset.UTC), Deadline.of(context, DEADLINE_RESERVE));
+        List<StagePipeline.StageResult> results;
+        try (BulkSink bulkSink = openSearchUtil.openBulkSink()) {
+            // Release and codecov stages share each release manifest through the fetcher's run cache
+            StagePipeline pipeline = new StagePipeline();
+            StagePipeline.Input<List<String>> repositories = pipeline.input("repositories", repositoryCatalog::getRepositories);
+            pipeline.stage("general-metrics", () -> checkpoint.forEachBatch("general-metrics", repositories.get(), REPOSITORY_BATCH_SIZE,
+                            batch -> metricsCalculation.generateGeneralMetrics(batch, bulkSink)), repositories)
+                    .stage("label-metrics", () -> checkpoint.forEachBatch("label-metrics", repositories.get(), REPOSITORY_BATCH_SIZE,
+                            batch -> metricsCalculation.generateLabelMetrics(batch, bulkSink)), repositories)
+                    .stage("release-metrics", () -> checkpoint.forEachBatch("release-metrics", metricsCalculation.getTrackedReleaseVersions(), RELEASE_BATCH_SIZE,
+                            batch -> metricsCalculation.generateReleaseMetrics(batch, bulkSink, refreshSnapshots)))
+                    .stage("codecov-metrics", () -> checkpoint.forEachBatch("codecov-metrics", metricsCalculation.getTrackedReleaseVersions(), RELEASE_BATCH_SIZE,
+                            batch -> metricsCalculation.generateCodeCovMetrics(batch, bulkSink, refreshSnapshots)));
+            results = pipeline.run();
         } catch (Exception e) {
             throw new RuntimeException("Error running Metrics Calculation", e);
+        } finally {
+            trafficGovernor.logStats();
+        }
+        // Every document of the completed units is indexed once the sink is closed
+        Optional<RuntimeException> failure = StagePipeline.failure("Error running Metrics Calculation", results);
+        checkpoint.commit(failure.isEmpty());
+        failure.ifPresent(e -> {
+            throw e;
+        });
+        if (checkpoint.isStopped()) {
+            throw new RuntimeException("Metrics Calculation stopped at the deadline, the next invocation resumes from the checkpoint");
         }
-        return input;
+        return null;
     }
 }
-
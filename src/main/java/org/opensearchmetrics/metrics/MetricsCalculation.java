@@ -9,36 +9,39 @@
 package org.opensearchmetrics.metrics;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
-import org.opensearch.action.search.SearchRequest;
-import org.opensearch.index.query.BoolQueryBuilder;
 import org.opensearchmetrics.metrics.general.*;
 import org.opensearchmetrics.metrics.label.LabelMetrics;
-import org.opensearchmetrics.metrics.release.CodeCoverage;
 import org.opensearchmetrics.metrics.maintainer.MaintainerMetrics;
 import org.opensearchmetrics.metrics.release.ReleaseInputs;
 import org.opensearchmetrics.metrics.release.ReleaseMetrics;
-import org.opensearchmetrics.model.codecov.CodeCovResponse;
+import org.opensearchmetrics.metrics.release.ReleaseSnapshotStore;
 import org.opensearchmetrics.model.codecov.CodeCovResult;
-import org.opensearchmetrics.model.label.LabelData;
 import org.opensearchmetrics.model.general.MetricsData;
-import org.opensearchmetrics.model.label.LabelData;
 import org.opensearchmetrics.model.maintainer.LatestEventData;
 import org.opensearchmetrics.model.maintainer.MaintainerData;
+import org.opensearchmetrics.model.maintainer.RepoEventStats;
 import org.opensearchmetrics.model.release.ReleaseMetricsData;
+import org.opensearchmetrics.model.release.ReleaseRepoStats;
+import org.opensearchmetrics.util.BulkSink;
 import org.opensearchmetrics.util.OpenSearchUtil;
 
-import java.io.IOException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 @Slf4j
 public class MetricsCalculation {
+    private static final double HIGHER_BOUND_DAYS = 365; // 1 year
+    private static final double LOWER_BOUND_DAYS = 90; // 3 months
 
     private final LocalDateTime currentDate;
     private final OpenSearchUtil openSearchUtil;
@@ -59,7 +62,8 @@ public class MetricsCalculation {
     private final LabelMetrics labelMetrics;
     private final ReleaseMetrics releaseMetrics;
     private final MaintainerMetrics maintainerMetrics;
-
+    private final GeneralMetricsAggregator generalMetricsAggregator;
+    private final ReleaseSnapshotStore releaseSnapshotStore;
 
     public MetricsCalculation(OpenSearchUtil openSearchUtil, ObjectMapper objectMapper,
                               UntriagedIssues untriagedIssues, UncommentedPullRequests uncommentedPullRequests,
@@ -69,7 +73,8 @@ public class MetricsCalculation {
                               CreatedIssues createdIssues, IssueComments issueComments,
                               PullComments pullComments, IssuePositiveReactions issuePositiveReactions,
                               IssueNegativeReactions issueNegativeReactions, LabelMetrics labelMetrics,
-                              ReleaseMetrics releaseMetrics, MaintainerMetrics maintainerMetrics) {
+                              ReleaseMetrics releaseMetrics, MaintainerMetrics maintainerMetrics,
+                              GeneralMetricsAggregator generalMetricsAggregator, ReleaseSnapshotStore releaseSnapshotStore) {
         this.unlabelledPullRequests = unlabelledPullRequests;
         this.unlabelledIssues = unlabelledIssues;
         this.mergedPullRequests = mergedPullRequests;
@@ -89,10 +94,19 @@ public class MetricsCalculation {
         this.labelMetrics = labelMetrics;
         this.releaseMetrics = releaseMetrics;
         this.maintainerMetrics = maintainerMetrics;
+        this.generalMetricsAggregator = generalMetricsAggregator;
+        this.releaseSnapshotStore = releaseSnapshotStore;
     }
 
 
     public void generateGeneralMetrics(List<String> repositories) {
+        try (BulkSink bulkSink = openSearchUtil.openBulkSink()) {
+            generateGeneralMetrics(repositories, bulkSink);
+        }
+    }
+
+    public void generateGeneralMetrics(List<String> repositories, BulkSink bulkSink) {
+        openSearchUtil.createIndexIfNotExists("opensearch_general_metrics");
         List<Metrics> metricsList = Arrays.asList(untriagedIssues, uncommentedPullRequests,
                 unlabelledPullRequests, unlabelledIssues,
                 mergedPullRequests, openPullRequests,
@@ -100,7 +114,8 @@ public class MetricsCalculation {
                 createdIssues, issueComments,
                 pullComments, issuePositiveReactions,
                 issueNegativeReactions);
-        Map<String, String> metricFinalData = repositories.stream()
+        Map<String, Map<Metrics, Long>> metricValues = generalMetricsAggregator.aggregate(metricsList, repositories, openSearchUtil);
+        repositories.stream()
                 .flatMap(repo -> metricsList.stream()
                         .flatMap(metric -> {
                             MetricsData metricsData = new MetricsData();
@@ -114,244 +129,443 @@ public class MetricsCalculation {
                             }
                             metricsData.setRepository(repo);
                             metricsData.setCurrentDate(currentDate.toString());
-                            BoolQueryBuilder boolQueryBuilder = metric.getBoolQueryBuilder(repo);
-                            SearchRequest searchRequest = metric.createSearchRequest(boolQueryBuilder, metric.searchIndex());
-                            long metricCount = metric.performSearch(openSearchUtil, searchRequest);
                             metricsData.setMetricName(metric.toString());
-                            metricsData.setMetricCount(metricCount);
+                            metricsData.setMetricCount(metricValues.get(repo).get(metric));
                             return Stream.of(metricsData);
                         }))
-                .collect(Collectors.toMap(MetricsData::getId, metricsData -> metricsData.getJson(metricsData, objectMapper)));
-        openSearchUtil.createIndexIfNotExists("opensearch_general_metrics");
-        openSearchUtil.bulkIndex("opensearch_general_metrics", metricFinalData);
+                .forEach(metricsData -> bulkSink.add("opensearch_general_metrics", metricsData.getId(),
+                        metricsData.getJson(metricsData, objectMapper)));
     }
 
     public void generateLabelMetrics(List<String> repositories) {
-        List<LabelMetrics> metricsList = Arrays.asList(labelMetrics);
-        Map<String, String> metricFinalData = repositories.stream()
-                .flatMap(repo -> metricsList.stream()
-                        .flatMap(metric -> {
-                            Map<String, List<Long>> labelInfo = null;
-                            try {
-                                labelInfo = metric.getLabelInfo(repo, openSearchUtil);
-                            } catch (IOException e) {
-                                throw new RuntimeException(e);
-                            }
-                            return labelInfo.entrySet().stream().flatMap(entry -> {
-                                String labelName = entry.getKey();
-                                List<Long> values = entry.getValue();
-                                LabelData labelData = new LabelData();
-                                try {
-                                    labelData.setId(String.valueOf(UUID.nameUUIDFromBytes(MessageDigest.getInstance("SHA-1")
-                                            .digest(("label-metrics-" + labelName + "-" + currentDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")) + "-" + repo)
-                                                    .getBytes()))));
-                                } catch (NoSuchAlgorithmException e) {
-                                    throw new RuntimeException(e);
-                                }
-                                labelData.setRepository(repo);
-                                labelData.setCurrentDate(currentDate.toString());
-                                labelData.setLabelName(labelName);
-                                labelData.setLabelPullCount(values.get(1));
-                                labelData.setLabelIssueCount(values.get(0));
-                                return Stream.of(labelData);
-                            });
-                        }))
-                .collect(Collectors.toMap(LabelData::getId, labelData -> labelData.getJson(labelData, objectMapper)));
+        try (BulkSink bulkSink = openSearchUtil.openBulkSink()) {
+            generateLabelMetrics(repositories, bulkSink);
+        }
+    }
+
+    public void generateLabelMetrics(List<String> repositories, BulkSink bulkSink) {
         openSearchUtil.createIndexIfNotExists("opensearch_label_metrics");
-        openSearchUtil.bulkIndex("opensearch_label_metrics", metricFinalData);
+        labelMetrics.streamLabelCounts(repositories, openSearchUtil)
+                .forEach(labelData -> {
+                    try {
+                        labelData.setId(String.valueOf(UUID.nameUUIDFromBytes(MessageDigest.getInstance("SHA-1")
+                                .digest(("label-metrics-" + labelData.getLabelName() + "-" + currentDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")) + "-" + labelData.getRepository())
+                                        .getBytes()))));
+                    } catch (NoSuchAlgorithmException e) {
+                        throw new RuntimeException(e);
+                    }
+                    labelData.setCurrentDate(currentDate.toString());
+                    bulkSink.add("opensearch_label_metrics", labelData.getId(),
+                            labelData.getJson(labelData, objectMapper));
+                });
+    }
+
+    /**
+     * @return the versions of every tracked release, the units of the release and codecov stages
+     */
+    public List<String> getTrackedReleaseVersions() {
+        return Arrays.stream(ReleaseInputs.getAllReleaseInputs())
+                .filter(ReleaseInputs::getTrack)
+                .map(ReleaseInputs::getVersion)
+                .collect(Collectors.toList());
     }
 
     public void generateReleaseMetrics() {
-        ReleaseInputs[] releaseInputs = ReleaseInputs.getAllReleaseInputs();
+        try (BulkSink bulkSink = openSearchUtil.openBulkSink()) {
+            generateReleaseMetrics(bulkSink, false);
+        }
+    }
 
-        Map<String, String> metricFinalData =
-                Arrays.stream(releaseInputs)
-                        .filter(ReleaseInputs::getTrack)
-                        .flatMap(releaseInput -> releaseMetrics.getReleaseRepos(releaseInput.getVersion()).entrySet().stream()
-                        .flatMap(entry -> {
-                            String repoName = entry.getKey();
-                            String componentName = entry.getValue();
-                            ReleaseMetricsData releaseMetricsData = new ReleaseMetricsData();
-                            releaseMetricsData.setRepository(repoName);
-                            releaseMetricsData.setComponent(componentName);
-                            releaseMetricsData.setCurrentDate(currentDate.toString());
-                            try {
-                                releaseMetricsData.setId(String.valueOf(UUID.nameUUIDFromBytes(MessageDigest.getInstance("SHA-1")
-                                        .digest(("release-metrics-" + releaseInput.getVersion() + "-" + currentDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")) + "-" + repoName)
-                                                .getBytes()))));
-                            } catch (NoSuchAlgorithmException e) {
-                                throw new RuntimeException(e);
-                            }
-                            releaseMetricsData.setReleaseVersion(releaseInput.getVersion());
-                            releaseMetricsData.setVersion(releaseInput.getVersion());
-                            releaseMetricsData.setReleaseState(releaseInput.getState());
-                            releaseMetricsData.setIssuesOpen(releaseMetrics.getReleaseLabelIssues(releaseInput.getVersion(), repoName, "open", false));
-                            releaseMetricsData.setAutocutIssuesOpen(releaseMetrics.getReleaseLabelIssues(releaseInput.getVersion(), repoName, "open", true));
-                            releaseMetricsData.setIssuesClosed(releaseMetrics.getReleaseLabelIssues(releaseInput.getVersion(), repoName, "closed", false));
-                            releaseMetricsData.setPullsOpen(releaseMetrics.getReleaseLabelPulls(releaseInput.getVersion(), repoName, "open"));
-                            releaseMetricsData.setPullsClosed(releaseMetrics.getReleaseLabelPulls(releaseInput.getVersion(), repoName, "closed"));
-                            releaseMetricsData.setVersionIncrement(releaseMetrics.getReleaseVersionIncrement(releaseInput.getVersion(), repoName, releaseInput.getBranch()));
-                            releaseMetricsData.setReleaseNotes(releaseMetrics.getReleaseNotes(releaseInput.getVersion(), repoName, releaseInput.getBranch()));
-                            releaseMetricsData.setReleaseBranch(releaseMetrics.getReleaseBranch(releaseInput.getVersion(), repoName));
-                            String[] releaseOwners = releaseMetrics.getReleaseOwners(releaseInput.getVersion(), repoName);
-                            releaseMetricsData.setReleaseOwners(releaseOwners);
-                            releaseMetricsData.setReleaseOwnerExists(Optional.ofNullable(releaseOwners)
-                                    .map(owners -> owners.length > 0)
-                                    .orElse(false));
-                            String releaseIssue = releaseMetrics.getReleaseIssue(releaseInput.getVersion(), repoName);
-                            releaseMetricsData.setReleaseIssue(releaseIssue);
-                            releaseMetricsData.setReleaseIssueExists(Optional.ofNullable(releaseIssue)
-                                    .map(str -> !str.isEmpty())
-                                    .orElse(false));
-                            return Stream.of(releaseMetricsData);
-                        }))
-                .collect(Collectors.toMap(ReleaseMetricsData::getId,
-                        releaseMetricsData -> releaseMetricsData.getJson(releaseMetricsData, objectMapper)));
+    /**
+     * Emits the release metrics of every tracked release.
+     */
+    public void generateReleaseMetrics(BulkSink bulkSink, boolean refreshSnapshots) {
+        generateReleaseMetrics(getTrackedReleaseVersions(), bulkSink, refreshSnapshots);
+    }
+
+    /**
+     * @param versions         tracked releases to emit, other releases are skipped
+     * @param refreshSnapshots evaluate closed releases again instead of emitting their snapshots,
+     *                         and replace the snapshots
+     */
+    public void generateReleaseMetrics(Collection<String> versions, BulkSink bulkSink, boolean refreshSnapshots) {
         openSearchUtil.createIndexIfNotExists("opensearch_release_metrics");
-        openSearchUtil.bulkIndex("opensearch_release_metrics", metricFinalData);
+        ReleaseInputs[] releaseInputs = ReleaseInputs.getAllReleaseInputs();
+        List<ReleaseMetricsData> releaseMetricsDataList = new ArrayList<>();
+        List<CompletableFuture<Void>> remoteChecks = new ArrayList<>();
+        Map<String, Set<String>> reposByVersion = new LinkedHashMap<>();
+        Map<String, CompletableFuture<Map<String, ReleaseRepoStats>>> pendingStats = new LinkedHashMap<>();
+        Map<String, List<ReleaseMetricsData>> closedReleases = new LinkedHashMap<>();
+        // Versions with a check that got no clear answer, whose results must not be kept as snapshots
+        Set<String> unansweredVersions = ConcurrentHashMap.newKeySet();
+
+        List<ReleaseInputs> evaluatedInputs = new ArrayList<>();
+        for (ReleaseInputs releaseInput : releaseInputs) {
+            if (!releaseInput.getTrack() || !versions.contains(releaseInput.getVersion())) {
+                continue;
+            }
+            if (isClosed(releaseInput) && !refreshSnapshots) {
+                Optional<List<ReleaseMetricsData>> snapshot = releaseSnapshotStore.getReleaseMetrics(releaseInput.getVersion());
+                if (snapshot.isPresent()) {
+                    // A closed release does not change, so its last evaluation is emitted again for today
+                    snapshot.get().forEach(releaseMetricsData -> {
+                        releaseMetricsData.setCurrentDate(currentDate.toString());
+                        releaseMetricsData.setId(releaseMetricsId(releaseInput, releaseMetricsData.getRepository()));
+                        bulkSink.add("opensearch_release_metrics", releaseMetricsData.getId(),
+                                releaseMetricsData.getJson(releaseMetricsData, objectMapper));
+                    });
+                    continue;
+                }
+            }
+            evaluatedInputs.add(releaseInput);
+        }
+
+        // Release manifests of every evaluated version
+        List<Map<String, String>> releaseRepos = evaluatedInputs.stream()
+                .map(releaseInput -> releaseMetrics.getReleaseRepos(releaseInput.getVersion()))
+                .collect(Collectors.toList());
+
+        // Send the GitHub checks of every repo first, so they run while OpenSearch is queried below
+        for (int i = 0; i < evaluatedInputs.size(); i++) {
+            ReleaseInputs releaseInput = evaluatedInputs.get(i);
+            releaseRepos.get(i).forEach((repoName, componentName) -> {
+                ReleaseMetricsData releaseMetricsData = new ReleaseMetricsData();
+                releaseMetricsData.setRepository(repoName);
+                releaseMetricsData.setComponent(componentName);
+                releaseMetricsData.setCurrentDate(currentDate.toString());
+                releaseMetricsData.setId(releaseMetricsId(releaseInput, repoName));
+                releaseMetricsData.setReleaseVersion(releaseInput.getVersion());
+                releaseMetricsData.setVersion(releaseInput.getVersion());
+                releaseMetricsData.setReleaseState(releaseInput.getState());
+                reposByVersion.computeIfAbsent(releaseInput.getVersion(), version -> new LinkedHashSet<>()).add(repoName);
+                CompletableFuture<Boolean> versionIncrementMerged = pendingStats
+                        .computeIfAbsent(releaseInput.getVersion(), version -> new CompletableFuture<>())
+                        .thenApply(versionStats -> versionStats.get(repoName).isVersionIncrementMerged());
+                remoteChecks.add(CompletableFuture.allOf(
+                        record(releaseMetrics.getReleaseVersionIncrementAsync(releaseInput.getVersion(), repoName, releaseInput.getBranch(), versionIncrementMerged),
+                                releaseMetricsData::setVersionIncrement, releaseInput, unansweredVersions),
+                        record(releaseMetrics.getReleaseNotesAsync(releaseInput.getVersion(), repoName, releaseInput.getBranch()),
+                                releaseMetricsData::setReleaseNotes, releaseInput, unansweredVersions),
+                        record(releaseMetrics.getReleaseBranchAsync(releaseInput.getVersion(), repoName),
+                                releaseMetricsData::setReleaseBranch, releaseInput, unansweredVersions)));
+                releaseMetricsDataList.add(releaseMetricsData);
+                if (isClosed(releaseInput)) {
+                    closedReleases.computeIfAbsent(releaseInput.getVersion(), version -> new ArrayList<>()).add(releaseMetricsData);
+                }
+            });
+        }
+
+        // Label counts, release issue and version increment pull of every repo and version, in one _msearch
+        Map<String, Map<String, ReleaseRepoStats>> releaseRepoStats = releaseMetrics.getReleaseRepoStats(reposByVersion);
+        pendingStats.forEach((version, pending) -> pending.complete(releaseRepoStats.get(version)));
+        releaseMetricsDataList.forEach(releaseMetricsData -> {
+            ReleaseRepoStats repoStats = releaseRepoStats.get(releaseMetricsData.getReleaseVersion()).get(releaseMetricsData.getRepository());
+            releaseMetricsData.setIssuesOpen(repoStats.getIssuesOpen());
+            releaseMetricsData.setAutocutIssuesOpen(repoStats.getAutocutIssuesOpen());
+            releaseMetricsData.setIssuesClosed(repoStats.getIssuesClosed());
+            releaseMetricsData.setPullsOpen(repoStats.getPullsOpen());
+            releaseMetricsData.setPullsClosed(repoStats.getPullsClosed());
+            String[] releaseOwners = repoStats.getReleaseOwners();
+            releaseMetricsData.setReleaseOwners(releaseOwners);
+            releaseMetricsData.setReleaseOwnerExists(Optional.ofNullable(releaseOwners)
+                    .map(owners -> owners.length > 0)
+                    .orElse(false));
+            String releaseIssue = repoStats.getReleaseIssue();
+            releaseMetricsData.setReleaseIssue(releaseIssue);
+            releaseMetricsData.setReleaseIssueExists(Optional.ofNullable(releaseIssue)
+                    .map(str -> !str.isEmpty())
+                    .orElse(false));
+        });
+
+        CompletableFuture.allOf(remoteChecks.toArray(new CompletableFuture[0])).join();
+        releaseMetricsDataList.forEach(releaseMetricsData -> bulkSink.add("opensearch_release_metrics", releaseMetricsData.getId(),
+                releaseMetricsData.getJson(releaseMetricsData, objectMapper)));
+        // Only releases whose every check got a clear answer are reused by later runs
+        closedReleases.forEach((version, closedReleaseData) -> {
+            if (!unansweredVersions.contains(version)) {
+                releaseSnapshotStore.putReleaseMetrics(version, closedReleaseData);
+            }
+        });
+    }
+
+    /*
+    Sets the answer of a remote check, false when there was no clear answer, in which case the release is marked as unanswered.
+     */
+    private static CompletableFuture<Void> record(CompletableFuture<Optional<Boolean>> check, Consumer<Boolean> setter,
+                                                  ReleaseInputs releaseInput, Set<String> unansweredVersions) {
+        return check.thenAccept(answer -> {
+            if (answer.isEmpty()) {
+                unansweredVersions.add(releaseInput.getVersion());
+            }
+            setter.accept(answer.orElse(false));
+        });
     }
 
     public void generateCodeCovMetrics() {
+        try (BulkSink bulkSink = openSearchUtil.openBulkSink()) {
+            generateCodeCovMetrics(bulkSink, false);
+        }
+    }
+
+    /**
+     * Emits the code coverage of every tracked release.
+     */
+    public void generateCodeCovMetrics(BulkSink bulkSink, boolean refreshSnapshots) {
+        generateCodeCovMetrics(getTrackedReleaseVersions(), bulkSink, refreshSnapshots);
+    }
+
+    /**
+     * @param versions         tracked releases to emit, other releases are skipped
+     * @param refreshSnapshots evaluate closed releases again instead of emitting their snapshots,
+     *                         and replace the snapshots
+     */
+    public void generateCodeCovMetrics(Collection<String> versions, BulkSink bulkSink, boolean refreshSnapshots) {
         ReleaseInputs[] releaseInputs = ReleaseInputs.getAllReleaseInputs();
-        Map<String, String> metricFinalData =
-                Arrays.stream(releaseInputs)
-                        .filter(ReleaseInputs::getTrack)
-                        .flatMap(releaseInput -> releaseMetrics.getReleaseRepos(releaseInput.getVersion()).entrySet().stream()
-                                .flatMap(entry -> {
-                                    String repoName = entry.getKey();
-                                    String componentName = entry.getValue();
-                                    CodeCovResult codeCovResult = new CodeCovResult();
-                                    codeCovResult.setRepository(repoName);
-                                    codeCovResult.setComponent(componentName);
-                                    codeCovResult.setCurrentDate(currentDate.toString());
-                                    try {
-                                        codeCovResult.setId(String.valueOf(UUID.nameUUIDFromBytes(MessageDigest.getInstance("SHA-1")
-                                                .digest(("codecov-metrics-" + releaseInput.getBranch() + releaseInput.getVersion() + "-" + currentDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")) + "-" + repoName)
-                                                        .getBytes()))));
-                                    } catch (NoSuchAlgorithmException e) {
-                                        throw new RuntimeException(e);
-                                    }
-                                    codeCovResult.setReleaseVersion(releaseInput.getVersion());
-                                    codeCovResult.setVersion(releaseInput.getVersion());
-                                    codeCovResult.setReleaseState(releaseInput.getState());
-                                    codeCovResult.setBranch(releaseInput.getBranch());
-                                    CodeCovResponse codeCovResponse = releaseMetrics.getCodeCoverage(releaseInput.getBranch(), repoName);
-                                    codeCovResult.setCommitId(codeCovResponse.getCommitId());
-                                    codeCovResult.setState(codeCovResponse.getState());
-                                    codeCovResult.setCoverage(codeCovResponse.getCoverage());
-                                    codeCovResult.setUrl(codeCovResponse.getUrl());
-                                    return Stream.of(codeCovResult);
-                                }))
-                        .collect(Collectors.toMap(CodeCovResult::getId,
-                                codeCovResult -> codeCovResult.getJson(codeCovResult, objectMapper)));
         String codeCovIndexName = "opensearch-codecov-metrics-" + currentDate.format(DateTimeFormatter.ofPattern("MM-yyyy"));
         openSearchUtil.createIndexIfNotExists(codeCovIndexName);
-        openSearchUtil.bulkIndex(codeCovIndexName, metricFinalData);
+        Map<ReleaseInputs, List<CodeCovResult>> evaluated = new LinkedHashMap<>();
+        List<CompletableFuture<Void>> requests = new ArrayList<>();
+        List<ReleaseInputs> evaluatedInputs = new ArrayList<>();
+        for (ReleaseInputs releaseInput : releaseInputs) {
+            if (!releaseInput.getTrack() || !versions.contains(releaseInput.getVersion())) {
+                continue;
+            }
+            Optional<List<CodeCovResult>> snapshot = isClosed(releaseInput) && !refreshSnapshots
+                    ? releaseSnapshotStore.getCodeCoverage(releaseInput.getVersion(), releaseInput.getBranch())
+                    : Optional.empty();
+            if (snapshot.isPresent()) {
+                snapshot.get().forEach(codeCovResult -> {
+                    codeCovResult.setCurrentDate(currentDate.toString());
+                    codeCovResult.setId(codeCovId(releaseInput, codeCovResult.getRepository()));
+                    bulkSink.add(codeCovIndexName, codeCovResult.getId(), codeCovResult.getJson(codeCovResult, objectMapper));
+                });
+                continue;
+            }
+            evaluatedInputs.add(releaseInput);
+        }
+
+        // Release manifests of every evaluated version
+        List<Map<String, String>> releaseRepos = evaluatedInputs.stream()
+                .map(releaseInput -> releaseMetrics.getReleaseRepos(releaseInput.getVersion()))
+                .collect(Collectors.toList());
+        for (int i = 0; i < evaluatedInputs.size(); i++) {
+            ReleaseInputs releaseInput = evaluatedInputs.get(i);
+            List<CodeCovResult> codeCovResults = new ArrayList<>();
+            releaseRepos.get(i).forEach((repoName, componentName) -> {
+                CodeCovResult codeCovResult = new CodeCovResult();
+                codeCovResult.setRepository(repoName);
+                codeCovResult.setComponent(componentName);
+                codeCovResult.setCurrentDate(currentDate.toString());
+                codeCovResult.setId(codeCovId(releaseInput, repoName));
+                codeCovResult.setReleaseVersion(releaseInput.getVersion());
+                codeCovResult.setVersion(releaseInput.getVersion());
+                codeCovResult.setReleaseState(releaseInput.getState());
+                codeCovResult.setBranch(releaseInput.getBranch());
+                requests.add(releaseMetrics.getCodeCoverageAsync(releaseInput.getBranch(), repoName).thenAccept(codeCovResponse -> {
+                    codeCovResult.setCommitId(codeCovResponse.getCommitId());
+                    codeCovResult.setState(codeCovResponse.getState());
+                    codeCovResult.setCoverage(codeCovResponse.getCoverage());
+                    codeCovResult.setUrl(codeCovResponse.getUrl());
+                }));
+                codeCovResults.add(codeCovResult);
+            });
+            evaluated.put(releaseInput, codeCovResults);
+        }
+
+        // Every Codecov request is in flight at once, under the client's rate limit
+        CompletableFuture.allOf(requests.toArray(new CompletableFuture[0])).join();
+        evaluated.forEach((releaseInput, codeCovResults) -> {
+            codeCovResults.forEach(codeCovResult -> bulkSink.add(codeCovIndexName, codeCovResult.getId(),
+                    codeCovResult.getJson(codeCovResult, objectMapper)));
+            // Only keep a closed release once Codecov answered for every repo; a missing state means the request failed
+            if (isClosed(releaseInput) && codeCovResults.stream().allMatch(codeCovResult -> codeCovResult.getState() != null)) {
+                releaseSnapshotStore.putCodeCoverage(releaseInput.getVersion(), releaseInput.getBranch(), codeCovResults);
+            }
+        });
+    }
+
+    private static boolean isClosed(ReleaseInputs releaseInput) {
+        return "closed".equals(releaseInput.getState());
+    }
+
+    private String releaseMetricsId(ReleaseInputs releaseInput, String repoName) {
+        return documentId("release-metrics-" + releaseInput.getVersion() + "-" + currentDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")) + "-" + repoName);
+    }
+
+    private String codeCovId(ReleaseInputs releaseInput, String repoName) {
+        return documentId("codecov-metrics-" + releaseInput.getBranch() + releaseInput.getVersion() + "-" + currentDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")) + "-" + repoName);
+    }
+
+    private static String documentId(String name) {
+        try {
+            return String.valueOf(UUID.nameUUIDFromBytes(MessageDigest.getInstance("SHA-1").digest(name.getBytes())));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
     }
 
     public void generateMaintainerMetrics(List<String> repositories) {
-        long[] mostAndLeastRepoEventCounts = maintainerMetrics.mostAndLeastRepoEventCounts(openSearchUtil);
-        final double mostRepoEventCount = (double) mostAndLeastRepoEventCounts[0];
-        final double leastRepoEventCount = (double) mostAndLeastRepoEventCounts[1];
-        final double higherBoundDays = 365; // 1 year
-        final double lowerBoundDays = 90; // 3 months
+        try (BulkSink bulkSink = openSearchUtil.openBulkSink()) {
+            generateMaintainerMetrics(repositories, bulkSink);
+        }
+    }
+
+    public void generateMaintainerMetrics(List<String> repositories, BulkSink bulkSink) {
+        generateMaintainerMetrics(repositories, startMaintainerMetrics(), bulkSink);
+    }
+
+    /**
+     * Creates the maintainer index and reads what every batch of repositories of a run shares:
+     * the event counts of every repo and the event types.
+     */
+    public MaintainerRun startMaintainerMetrics() {
+        String indexName = "maintainer-inactivity-" + currentDate.format(DateTimeFormatter.ofPattern("MM-yyyy"));
+        openSearchUtil.createIndexIfNotExists(indexName);
+        // Event counts of every repo, read once and used for the bounds and for each repo
+        RepoEventStats repoEventStats = maintainerMetrics.repoEventStats(openSearchUtil);
+        final double mostRepoEventCount = (double) repoEventStats.getMostEventCount();
+        final double leastRepoEventCount = (double) repoEventStats.getLeastEventCount();
 
         // Slope and intercept for linear equation:
         // x = number of events
         // y = time maintainer is inactive until they are flagged as inactive
-        final double[] slopeAndIntercept = maintainerMetrics.getSlopeAndIntercept(leastRepoEventCount, higherBoundDays, mostRepoEventCount, lowerBoundDays);
+        final double[] slopeAndIntercept = maintainerMetrics.getSlopeAndIntercept(leastRepoEventCount, HIGHER_BOUND_DAYS, mostRepoEventCount, LOWER_BOUND_DAYS);
 
         List<String> eventTypes = maintainerMetrics.getEventTypes(openSearchUtil);
+        return new MaintainerRun(indexName, repoEventStats, slopeAndIntercept, eventTypes);
+    }
 
-        Map<String, String> metricFinalData = repositories.stream()
-                .flatMap(repo -> {
-                    long currentRepoEventCount = maintainerMetrics.repoEventCount(repo, openSearchUtil);
-                    return maintainerMetrics.repoMaintainers(repo).stream()
-                            .flatMap(maintainerData -> {
-                                // latestEvent will keep track of the latest of all event types
-                                LatestEventData latestEvent = null;
-
-                                // List of documents that represent each particular event type(issues, pull_request, label, etc.)
-                                List<MaintainerData> individualEvents = new ArrayList<>();
-
-                                // Loop through each event type(issues, pull_request, label, etc.)
-                                for (String eventType : eventTypes) {
-                                    MaintainerData maintainerEvent = new MaintainerData(); // doc to be indexed
-
-                                    // setting values for doc
-                                    try {
-                                        maintainerEvent.setId(String.valueOf(UUID.nameUUIDFromBytes(MessageDigest.getInstance("SHA-1")
-                                                .digest(("maintainer-inactivity-" + eventType + "-" + maintainerData.getGithubLogin() + "-" + currentDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")) + "-" + repo)
-                                                        .getBytes()))));
-                                    } catch (NoSuchAlgorithmException e) {
-                                        throw new RuntimeException(e);
-                                    }
-                                    maintainerEvent.setCurrentDate(currentDate.toString());
-                                    maintainerEvent.setEventType(eventType);
-                                    maintainerEvent.setRepository(repo);
-                                    maintainerEvent.setName(maintainerData.getName());
-                                    maintainerEvent.setGithubLogin((maintainerData.getGithubLogin()));
-                                    maintainerEvent.setAffiliation(maintainerData.getAffiliation());
-
-                                    // Query for the latest event of the current event type(issues, pull_request, label, etc.)
-                                    Optional<LatestEventData> latestEventDataOpt = maintainerMetrics.queryLatestEvent(repo, maintainerData.getGithubLogin(), eventType, openSearchUtil);
-
-                                    if (latestEventDataOpt.isPresent()) { // If an event was found in the query
-                                        LatestEventData currentLatestEvent = latestEventDataOpt.get();
-
-                                        // calculate inactivity for current event type
-                                        currentLatestEvent.setInactive(maintainerMetrics.calculateInactivity(currentRepoEventCount, slopeAndIntercept, lowerBoundDays, currentLatestEvent));
-
-                                        // Logic to keep track of latest event of all event types.
-                                        if (latestEvent != null) {
-                                            if (currentLatestEvent.getTimeLastEngaged().isAfter(latestEvent.getTimeLastEngaged())) {
-                                                latestEvent = currentLatestEvent;
-                                            }
-                                        } else { // first time it is run
-                                            latestEvent = currentLatestEvent;
-                                        }
-
-                                        // continue setting values for doc
-                                        maintainerEvent.setEventAction(currentLatestEvent.getEventAction());
-                                        maintainerEvent.setTimeLastEngaged(currentLatestEvent.getTimeLastEngaged().toString());
-                                        maintainerEvent.setInactive(currentLatestEvent.isInactive());
-                                    } else {
-                                        // If no event was found in query, then leave event action and time last engaged empty,
-                                        // and set inactive to true
-                                        maintainerEvent.setInactive(true);
-                                    }
+    /**
+     * Emits the maintainer documents of one batch of repositories.
+     *
+     * @param run inputs shared by every batch, from {@link #startMaintainerMetrics()}
+     */
+    public void generateMaintainerMetrics(List<String> repositories, MaintainerRun run, BulkSink bulkSink) {
+        String indexName = run.getIndexName();
+        RepoEventStats repoEventStats = run.getRepoEventStats();
+        final double[] slopeAndIntercept = run.getSlopeAndIntercept();
+        List<String> eventTypes = run.getEventTypes();
 
-                                    individualEvents.add(maintainerEvent);
-                                }
+        // MAINTAINERS.md of every repo, fetched at once
+        Map<String, CompletableFuture<List<MaintainerData>>> rosters = new LinkedHashMap<>();
+        repositories.forEach(repo -> rosters.putIfAbsent(repo, maintainerMetrics.repoMaintainersAsync(repo)));
+        Map<String, List<MaintainerData>> maintainersByRepo = new LinkedHashMap<>();
+        rosters.forEach((repo, roster) -> maintainersByRepo.put(repo, roster.join()));
+        Map<String, List<String>> loginsByRepo = new LinkedHashMap<>();
+        maintainersByRepo.forEach((repo, maintainers) -> loginsByRepo.put(repo, maintainers.stream()
+                .map(MaintainerData::getGithubLogin)
+                .collect(Collectors.toList())));
 
-                                // Index an extra document that represents a combination of all event types
-                                maintainerData.setEventType("All");
+        // Latest event of every repo, maintainer and event type, fetched in one batch
+        Map<String, Map<String, Map<String, LatestEventData>>> latestEvents = maintainerMetrics.queryLatestEvents(loginsByRepo, openSearchUtil);
 
-                                // Set values for this document
-                                try {
-                                    maintainerData.setId(String.valueOf(UUID.nameUUIDFromBytes(MessageDigest.getInstance("SHA-1")
-                                            .digest(("maintainer-inactivity-" + maintainerData.getEventType() + "-" + maintainerData.getGithubLogin() + "-" + currentDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")) + "-" + repo)
-                                                    .getBytes()))));
-                                } catch (NoSuchAlgorithmException e) {
-                                    throw new RuntimeException(e);
-                                }
-                                maintainerData.setCurrentDate(currentDate.toString());
+        maintainersByRepo.keySet().stream().flatMap(repo -> {
+            long currentRepoEventCount = repoEventStats.getEventCount(repo);
+            Map<String, Map<String, LatestEventData>> repoLatestEvents = latestEvents.getOrDefault(repo, Collections.emptyMap());
+            return maintainersByRepo.get(repo).stream()
+                    .flatMap(maintainerData -> {
+                        // latestEvent will keep track of the latest of all event types
+                        LatestEventData latestEvent = null;
+
+                        // List of documents that represent each particular event type(issues, pull_request, label, etc.)
+                        List<MaintainerData> individualEvents = new ArrayList<>();
 
-                                // Set values based on latest event of all event types
+                        // Loop through each event type(issues, pull_request, label, etc.)
+                        for (String eventType : eventTypes) {
+                            MaintainerData maintainerEvent = new MaintainerData(); // doc to be indexed
+
+                            // setting values for doc
+                            try {
+                                maintainerEvent.setId(String.valueOf(UUID.nameUUIDFromBytes(MessageDigest.getInstance("SHA-1")
+                                        .digest(("maintainer-inactivity-" + eventType + "-" + maintainerData.getGithubLogin() + "-" + currentDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")) + "-" + repo)
+                                                .getBytes()))));
+                            } catch (NoSuchAlgorithmException e) {
+                                throw new RuntimeException(e);
+                            }
+                            maintainerEvent.setCurrentDate(currentDate.toString());
+                            maintainerEvent.setEventType(eventType);
+                            maintainerEvent.setRepository(repo);
+                            maintainerEvent.setName(maintainerData.getName());
+                            maintainerEvent.setGithubLogin((maintainerData.getGithubLogin()));
+                            maintainerEvent.setAffiliation(maintainerData.getAffiliation());
+
+                            // Look up the latest event of the current event type(issues, pull_request, label, etc.)
+                            Optional<LatestEventData> latestEventDataOpt = Optional.ofNullable(repoLatestEvents
+                                    .getOrDefault(maintainerData.getGithubLogin(), Collections.emptyMap())
+                                    .get(eventType));
+
+                            if (latestEventDataOpt.isPresent()) { // If an event was found in the query
+                                LatestEventData currentLatestEvent = latestEventDataOpt.get();
+
+                                // calculate inactivity for current event type
+                                currentLatestEvent.setInactive(maintainerMetrics.calculateInactivity(currentRepoEventCount, slopeAndIntercept, LOWER_BOUND_DAYS, currentLatestEvent));
+
+                                // Logic to keep track of latest event of all event types.
                                 if (latestEvent != null) {
-                                    maintainerData.setEventAction(latestEvent.getEventType() + "." + latestEvent.getEventAction()); // e.g. issues.opened
-                                    maintainerData.setTimeLastEngaged(latestEvent.getTimeLastEngaged().toString());
-                                    maintainerData.setInactive(latestEvent.isInactive());
-                                } else {
-                                    maintainerData.setInactive(true);
+                                    if (currentLatestEvent.getTimeLastEngaged().isAfter(latestEvent.getTimeLastEngaged())) {
+                                        latestEvent = currentLatestEvent;
+                                    }
+                                } else { // first time it is run
+                                    latestEvent = currentLatestEvent;
                                 }
-                                Stream<MaintainerData> compositeEvent = Stream.of(maintainerData);
-                                return Stream.concat(individualEvents.stream(), compositeEvent);
-                            });
-                })
-                .collect(Collectors.toMap(MaintainerData::getId, maintainerData -> maintainerData.getJson(maintainerData, objectMapper)));
-        String indexName = "maintainer-inactivity-" + currentDate.format(DateTimeFormatter.ofPattern("MM-yyyy"));
-        openSearchUtil.createIndexIfNotExists(indexName);
-        openSearchUtil.bulkIndex(indexName, metricFinalData);
+
+                                // continue setting values for doc
+                                maintainerEvent.setEventAction(currentLatestEvent.getEventAction());
+                                maintainerEvent.setTimeLastEngaged(currentLatestEvent.getTimeLastEngaged().toString());
+                                maintainerEvent.setInactive(currentLatestEvent.isInactive());
+                            } else {
+                                // If no event was found in query, then leave event action and time last engaged empty,
+                                // and set inactive to true
+                                maintainerEvent.setInactive(true);
+                            }
+
+                            individualEvents.add(maintainerEvent);
+                        }
+
+                        // Index an extra document that represents a combination of all event types
+                        maintainerData.setEventType("All");
+
+                        // Set values for this document
+                        try {
+                            maintainerData.setId(String.valueOf(UUID.nameUUIDFromBytes(MessageDigest.getInstance("SHA-1")
+                                    .digest(("maintainer-inactivity-" + maintainerData.getEventType() + "-" + maintainerData.getGithubLogin() + "-" + currentDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")) + "-" + repo)
+                                            .getBytes()))));
+                        } catch (NoSuchAlgorithmException e) {
+                            throw new RuntimeException(e);
+                        }
+                        maintainerData.setCurrentDate(currentDate.toString());
+
+                        // Set values based on latest event of all event types
+                        if (latestEvent != null) {
+                            maintainerData.setEventAction(latestEvent.getEventType() + "." + latestEvent.getEventAction()); // e.g. issues.opened
+                            maintainerData.setTimeLastEngaged(latestEvent.getTimeLastEngaged().toString());
+                            maintainerData.setInactive(latestEvent.isInactive());
+                        } else {
+                            maintainerData.setInactive(true);
+                        }
+                        Stream<MaintainerData> compositeEvent = Stream.of(maintainerData);
+                        return Stream.concat(individualEvents.stream(), compositeEvent);
+                    });
+        })
+                .forEach(maintainerData -> bulkSink.add(indexName, maintainerData.getId(),
+                        maintainerData.getJson(maintainerData, objectMapper)));
+    }
+
+    /**
+     * Maintainer index, event counts, inactivity line and event types of one run.
+     */
+    @Getter
+    public static class MaintainerRun {
+        private final String indexName;
+        private final RepoEventStats repoEventStats;
+        private final double[] slopeAndIntercept;
+        private final List<String> eventTypes;
+
+        MaintainerRun(String indexName, RepoEventStats repoEventStats, double[] slopeAndIntercept, List<String> eventTypes) {
+            this.indexName = indexName;
+            this.repoEventStats = repoEventStats;
+            this.slopeAndIntercept = slopeAndIntercept;
+            this.eventTypes = eventTypes;
+        }
     }
 }
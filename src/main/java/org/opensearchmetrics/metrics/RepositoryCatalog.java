@@ -0,0 +1,117 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.metrics;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.core.rest.RestStatus;
+import org.opensearch.index.query.QueryBuilder;
+import org.opensearch.index.query.QueryBuilders;
+import org.opensearch.search.aggregations.bucket.composite.CompositeAggregation;
+import org.opensearch.search.aggregations.bucket.composite.CompositeAggregationBuilder;
+import org.opensearch.search.aggregations.bucket.composite.TermsValuesSourceBuilder;
+import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearchmetrics.util.OpenSearchUtil;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Every repository in github_repos, shared by the Lambdas that work per repository.
+ * <p>
+ * Repositories are paged through a composite aggregation, so none is dropped however many there
+ * are, and the catalog is kept for {@code ttl} in the warm container.
+ */
+@Slf4j
+public class RepositoryCatalog {
+    private static final String REPOS_INDEX = "github_repos";
+    private static final String REPOSITORIES_AGG = "repositories";
+    private static final int COMPOSITE_PAGE_SIZE = 1000;
+    private static final String CATALOG_KEY = "catalog";
+
+    private final OpenSearchUtil openSearchUtil;
+    private final Cache<String, List<String>> catalog;
+
+    public RepositoryCatalog(OpenSearchUtil openSearchUtil, Duration ttl) {
+        this(openSearchUtil, ttl, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    RepositoryCatalog(OpenSearchUtil openSearchUtil, Duration ttl, Ticker ticker) {
+        this.openSearchUtil = openSearchUtil;
+        this.catalog = CacheBuilder.newBuilder()
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * @return the name of every repository, in key order
+     */
+    public List<String> getRepositories() {
+        try {
+            return catalog.get(CATALOG_KEY, this::loadCatalog);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error reading the repository catalog", e.getCause());
+        }
+    }
+
+    /**
+     * Drops the cached catalog, so the next call reads it again.
+     */
+    public void invalidate() {
+        catalog.invalidateAll();
+    }
+
+    private List<String> loadCatalog() {
+        List<String> repositories = listRepositories(REPOS_INDEX, QueryBuilders.matchAllQuery());
+        log.info("Repository catalog loaded with {} repositories", repositories.size());
+        return Collections.unmodifiableList(repositories);
+    }
+
+    /*
+    Pages through a composite aggregation on repository.keyword and returns every repository, in key order.
+     */
+    private List<String> listRepositories(String index, QueryBuilder query) {
+        List<String> repositories = new ArrayList<>();
+        Map<String, Object> afterKey = null;
+        do {
+            CompositeAggregationBuilder composite = new CompositeAggregationBuilder(REPOSITORIES_AGG, List.of(
+                    new TermsValuesSourceBuilder("repository").field("repository.keyword")))
+                    .size(COMPOSITE_PAGE_SIZE);
+            if (afterKey != null) {
+                composite.aggregateAfter(afterKey);
+            }
+            SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+            searchSourceBuilder.query(QueryBuilders.boolQuery().filter(query));
+            searchSourceBuilder.size(0);
+            searchSourceBuilder.aggregation(composite);
+            SearchRequest searchRequest = new SearchRequest(index);
+            searchRequest.source(searchSourceBuilder);
+            SearchResponse searchResponse = openSearchUtil.search(searchRequest);
+            if (searchResponse.status() != RestStatus.OK) {
+                throw new RuntimeException("Error connecting to the cluster");
+            }
+            CompositeAggregation compositeAggregation = searchResponse.getAggregations().get(REPOSITORIES_AGG);
+            List<? extends CompositeAggregation.Bucket> buckets = compositeAggregation.getBuckets();
+            buckets.forEach(bucket -> repositories.add(String.valueOf(bucket.getKey().get("repository"))));
+            afterKey = buckets.isEmpty() ? null : compositeAggregation.afterKey();
+        } while (afterKey != null);
+        return repositories;
+    }
+}
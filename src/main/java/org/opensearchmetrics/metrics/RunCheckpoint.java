@@ -0,0 +1,135 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.metrics;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Lists;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearchmetrics.util.Deadline;
+import org.opensearchmetrics.util.StateStore;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Completed (stage, repository or release version) units of one run, such as the metrics of one day, kept in a
+ * {@link StateStore} so an invocation that ran out of time can be resumed by the next one.
+ * <p>
+ * Units are run in batches until the {@link Deadline} passes; the rest are left for the next
+ * invocation. The caller flushes the documents of the completed units before {@link #commit(boolean)},
+ * which saves the checkpoint, or removes it once every unit of the run completed.
+ */
+@Slf4j
+public class RunCheckpoint {
+    private static final String KEY_PREFIX = "checkpoints/";
+
+    private final StateStore stateStore;
+    private final ObjectMapper objectMapper;
+    private final String key;
+    private final Deadline deadline;
+    private final Set<String> completed = ConcurrentHashMap.newKeySet();
+    private volatile boolean stopped = false;
+
+    private RunCheckpoint(StateStore stateStore, ObjectMapper objectMapper, String key, Deadline deadline) {
+        this.stateStore = stateStore;
+        this.objectMapper = objectMapper;
+        this.key = key;
+        this.deadline = deadline;
+    }
+
+    /**
+     * @param run name of the run, e.g. {@code metrics/2024-06-01}; later invocations with the same name resume it
+     */
+    public static RunCheckpoint open(StateStore stateStore, ObjectMapper objectMapper, String run, Deadline deadline) {
+        RunCheckpoint checkpoint = new RunCheckpoint(stateStore, objectMapper, KEY_PREFIX + run, deadline);
+        checkpoint.load();
+        return checkpoint;
+    }
+
+    /**
+     * Runs {@code work} on the units of {@code stage}, such as repositories or release versions, not
+     * completed yet, {@code batchSize} at a time, until the deadline passes.
+     */
+    public void forEachBatch(String stage, List<String> units, int batchSize, Consumer<List<String>> work) {
+        List<String> remaining = units.stream()
+                .distinct()
+                .filter(name -> !completed.contains(unit(stage, name)))
+                .collect(Collectors.toList());
+        if (remaining.size() < units.size()) {
+            log.info("Stage {} resumes with {} of {} units", stage, remaining.size(), units.size());
+        }
+        for (List<String> batch : Lists.partition(remaining, batchSize)) {
+            if (checkDeadline(stage)) {
+                return;
+            }
+            work.accept(batch);
+            batch.forEach(name -> completed.add(unit(stage, name)));
+        }
+    }
+
+    /**
+     * @return whether some units were left because the deadline passed
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Saves the completed units, or removes the checkpoint when the run is over. Call only once the
+     * documents of the completed units are indexed.
+     *
+     * @param succeeded whether every stage ran without failing
+     */
+    public void commit(boolean succeeded) {
+        if (succeeded && !stopped) {
+            stateStore.delete(key);
+            return;
+        }
+        try {
+            stateStore.put(key, objectMapper.writeValueAsString(new TreeSet<>(completed)));
+            log.info("Checkpoint {} saved with {} completed units", key, completed.size());
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to write checkpoint " + key, e);
+        }
+    }
+
+    private boolean checkDeadline(String stage) {
+        if (deadline.isPassed()) {
+            if (!stopped) {
+                log.warn("Deadline passed, stage {} and later units are left for the next invocation", stage);
+            }
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    private void load() {
+        try {
+            Optional<String> json = stateStore.get(key);
+            if (json.isPresent()) {
+                completed.addAll(objectMapper.readValue(json.get(), new TypeReference<List<String>>() {}));
+                log.info("Checkpoint {} loaded with {} completed units", key, completed.size());
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            // An unreadable checkpoint only costs running the completed units again
+            log.warn("Unable to read checkpoint {}: {}", key, e.getMessage());
+        }
+    }
+
+    private static String unit(String stage, String name) {
+        return stage + "/" + name;
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.metrics;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Runs the stages of a Lambda invocation, such as general, label and release metrics, as a small
+ * dependency graph.
+ * <p>
+ * Each stage declares the {@link Input}s it reads. Every stage runs on its own thread as soon as
+ * its inputs are ready, an input is computed once by the first stage that needs it, and a failed
+ * stage or input only fails the stages that depend on it. {@link #run()} returns the outcome and
+ * timing of every stage in the order they were added.
+ */
+@Slf4j
+public class StagePipeline {
+
+    /**
+     * A value shared by several stages, computed once.
+     */
+    public static final class Input<T> {
+        private final String name;
+        private final Supplier<T> supplier;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final CompletableFuture<T> value = new CompletableFuture<>();
+
+        private Input(String name, Supplier<T> supplier) {
+            this.name = name;
+            this.supplier = supplier;
+        }
+
+        /**
+         * @return the value, computing it on the calling thread if no stage asked for it yet
+         * @throws RuntimeException the failure of the computation, for every caller
+         * @throws Error an error raised by the computation, for every caller
+         */
+        public T get() {
+            if (started.compareAndSet(false, true)) {
+                Stopwatch stopwatch = Stopwatch.createStarted();
+                try {
+                    value.complete(supplier.get());
+                    log.info("Input {} computed in {} ms", name, stopwatch.elapsed().toMillis());
+                } catch (Throwable e) {
+                    // Complete the value on any failure so stages waiting on it do not hang
+                    log.error("Input {} failed after {} ms", name, stopwatch.elapsed().toMillis(), e);
+                    value.completeExceptionally(e);
+                    throw e;
+                }
+            }
+            try {
+                return value.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw e;
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * Outcome of one stage.
+     */
+    public static final class StageResult {
+        private final String name;
+        private final Duration elapsed;
+        private final Throwable failure;
+
+        private StageResult(String name, Duration elapsed, Throwable failure) {
+            this.name = name;
+            this.elapsed = elapsed;
+            this.failure = failure;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return time spent in the stage, including the wait for its inputs
+         */
+        public Duration getElapsed() {
+            return elapsed;
+        }
+
+        public Optional<Throwable> getFailure() {
+            return Optional.ofNullable(failure);
+        }
+
+        public boolean isSuccessful() {
+            return failure == null;
+        }
+    }
+
+    private static final class Stage {
+        private final String name;
+        private final Runnable body;
+        private final List<Input<?>> inputs;
+
+        private Stage(String name, Runnable body, List<Input<?>> inputs) {
+            this.name = name;
+            this.body = body;
+            this.inputs = inputs;
+        }
+    }
+
+    private final List<Stage> stages = new ArrayList<>();
+
+    public <T> Input<T> input(String name, Supplier<T> supplier) {
+        return new Input<>(name, supplier);
+    }
+
+    /**
+     * Adds a stage that runs {@code body} once every one of {@code inputs} is computed.
+     */
+    public StagePipeline stage(String name, Runnable body, Input<?>... inputs) {
+        stages.add(new Stage(name, body, Arrays.asList(inputs)));
+        return this;
+    }
+
+    /**
+     * Runs every stage and waits for all of them, whether or not some fail.
+     *
+     * @return the result of each stage, in the order the stages were added
+     */
+    public List<StageResult> run() {
+        if (stages.isEmpty()) {
+            return new ArrayList<>();
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(stages.size(),
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("stage-%d").build());
+        try {
+            List<CompletableFuture<StageResult>> futures = new ArrayList<>();
+            stages.forEach(stage -> futures.add(CompletableFuture.supplyAsync(() -> runStage(stage), executor)));
+            List<StageResult> results = new ArrayList<>();
+            futures.forEach(future -> results.add(future.join()));
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * @return the failure of the first failed stage, with the failures of the others suppressed, if any stage failed
+     */
+    public static Optional<RuntimeException> failure(String message, List<StageResult> results) {
+        RuntimeException failure = null;
+        for (StageResult result : results) {
+            if (result.isSuccessful()) {
+                continue;
+            }
+            if (failure == null) {
+                failure = new RuntimeException(message, result.getFailure().get());
+            } else {
+                failure.addSuppressed(result.getFailure().get());
+            }
+        }
+        return Optional.ofNullable(failure);
+    }
+
+    private static StageResult runStage(Stage stage) {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        try {
+            stage.inputs.forEach(Input::get);
+            stage.body.run();
+        } catch (RuntimeException | Error e) {
+            log.error("Stage {} failed after {} ms", stage.name, stopwatch.elapsed().toMillis(), e);
+            return new StageResult(stage.name, stopwatch.elapsed(), e);
+        }
+        log.info("Stage {} finished in {} ms", stage.name, stopwatch.elapsed().toMillis());
+        return new StageResult(stage.name, stopwatch.elapsed(), null);
+    }
+}
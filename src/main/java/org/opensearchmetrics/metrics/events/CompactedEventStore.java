@@ -0,0 +1,104 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.metrics.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.opensearchmetrics.model.event.CompactionManifest;
+import org.opensearchmetrics.util.S3Util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Compacted days of the event bucket, kept next to the webhook objects under
+ * {@code compacted/<event name>/<yyyy-MM-dd>/}: gzip NDJSON segments with one webhook payload
+ * per line, and a {@code manifest.json} written last.
+ */
+public class CompactedEventStore {
+    private static final String KEY_PREFIX = "compacted/";
+    private static final String MANIFEST = "manifest.json";
+
+    private final S3Util s3Util;
+    private final ObjectMapper objectMapper;
+
+    public CompactedEventStore(S3Util s3Util, ObjectMapper objectMapper) {
+        this.s3Util = s3Util;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @return the manifests of the compacted days of {@code type} from {@code startDay} on, by day
+     */
+    public List<CompactionManifest> getManifests(GithubEvents type, LocalDate startDay) {
+        String prefix = KEY_PREFIX + type.getEventName() + "/";
+        List<String> manifestKeys = new ArrayList<>();
+        s3Util.forEachObject(prefix, prefix + startDay + "/", object -> {
+            if (object.key().endsWith("/" + MANIFEST)) {
+                manifestKeys.add(object.key());
+            }
+        });
+        List<CompactionManifest> manifests = new ArrayList<>();
+        for (String manifestKey : manifestKeys) {
+            try (InputStream manifest = s3Util.getObjectInputStream(manifestKey)) {
+                manifests.add(objectMapper.readValue(manifest, CompactionManifest.class));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read compaction manifest " + manifestKey, e);
+            }
+        }
+        return manifests;
+    }
+
+    public boolean isCompacted(GithubEvents type, LocalDate day) {
+        List<String> manifestKeys = new ArrayList<>();
+        s3Util.forEachObject(manifestKey(type, day), null, object -> manifestKeys.add(object.key()));
+        return !manifestKeys.isEmpty();
+    }
+
+    /**
+     * @return the decompressed NDJSON of a segment, read as it is consumed
+     */
+    public InputStream openSegment(String segmentKey) throws IOException {
+        return new GZIPInputStream(s3Util.getObjectInputStream(segmentKey));
+    }
+
+    /**
+     * @param gzipNdjson gzip compressed NDJSON
+     * @return the key the segment was written to
+     */
+    public String putSegment(GithubEvents type, LocalDate day, int index, byte[] gzipNdjson) {
+        String segmentKey = dayPrefix(type, day) + String.format("segment-%05d.ndjson.gz", index);
+        s3Util.putObject(segmentKey, gzipNdjson);
+        return segmentKey;
+    }
+
+    /**
+     * Marks the day compacted; call once every segment of the manifest is written.
+     */
+    public void putManifest(GithubEvents type, LocalDate day, CompactionManifest manifest) {
+        try {
+            s3Util.putObject(manifestKey(type, day), objectMapper.writeValueAsString(manifest).getBytes(StandardCharsets.UTF_8));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to write compaction manifest " + manifestKey(type, day), e);
+        }
+    }
+
+    private static String dayPrefix(GithubEvents type, LocalDate day) {
+        return KEY_PREFIX + type.getEventName() + "/" + day + "/";
+    }
+
+    private static String manifestKey(GithubEvents type, LocalDate day) {
+        return dayPrefix(type, day) + MANIFEST;
+    }
+}
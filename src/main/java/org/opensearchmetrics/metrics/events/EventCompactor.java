@@ -0,0 +1,193 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.metrics.events;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.common.annotations.VisibleForTesting;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearchmetrics.model.event.CompactionManifest;
+import org.opensearchmetrics.util.S3Util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Rewrites the webhook objects of one closed day and event type into a few gzip NDJSON segments
+ * of the {@link CompactedEventStore}, so reading the day back costs a few large GETs instead of
+ * one per event.
+ * <p>
+ * Objects are fetched {@value #MAX_IN_FLIGHT_OBJECTS} at a time and appended in listing order;
+ * each payload is copied token by token onto one line. The webhook objects are left in place.
+ */
+@Slf4j
+public class EventCompactor {
+    // Matches the connection pool of the default async HTTP client
+    private static final int MAX_IN_FLIGHT_OBJECTS = 50;
+    // Webhook bytes per segment before compression, a busy day of one event type fits in a couple of segments
+    private static final long SEGMENT_TARGET_BYTES = 128L * 1024 * 1024;
+
+    private static final class PendingObject {
+        private final String key;
+        private final CompletableFuture<byte[]> bytes;
+
+        private PendingObject(String key, CompletableFuture<byte[]> bytes) {
+            this.key = key;
+            this.bytes = bytes;
+        }
+    }
+
+    private final S3Util s3Util;
+    private final CompactedEventStore compactedEventStore;
+    private final JsonFactory jsonFactory;
+    private final int maxInFlightObjects;
+    private final long segmentTargetBytes;
+
+    public EventCompactor(S3Util s3Util, CompactedEventStore compactedEventStore, JsonFactory jsonFactory) {
+        this(s3Util, compactedEventStore, jsonFactory, MAX_IN_FLIGHT_OBJECTS, SEGMENT_TARGET_BYTES);
+    }
+
+    @VisibleForTesting
+    EventCompactor(S3Util s3Util, CompactedEventStore compactedEventStore, JsonFactory jsonFactory,
+                   int maxInFlightObjects, long segmentTargetBytes) {
+        this.s3Util = s3Util;
+        this.compactedEventStore = compactedEventStore;
+        this.jsonFactory = jsonFactory;
+        this.maxInFlightObjects = maxInFlightObjects;
+        this.segmentTargetBytes = segmentTargetBytes;
+    }
+
+    /**
+     * @return the manifest written, or empty if the day was already compacted
+     */
+    public Optional<CompactionManifest> compact(GithubEvents type, LocalDate day) {
+        if (compactedEventStore.isCompacted(type, day)) {
+            log.info("{} of {} is already compacted", type.getEventName(), day);
+            return Optional.empty();
+        }
+        SegmentWriter writer = new SegmentWriter(type, day);
+        Deque<PendingObject> window = new ArrayDeque<>();
+        s3Util.forEachObject(type.getEventName() + "/" + day + "/", null, object -> {
+            if (window.size() == maxInFlightObjects) {
+                writer.append(window.removeFirst());
+            }
+            window.addLast(new PendingObject(object.key(), s3Util.getObjectBytesAsync(object.key())));
+            writer.modified(object.lastModified());
+        });
+        while (!window.isEmpty()) {
+            writer.append(window.removeFirst());
+        }
+        CompactionManifest manifest = writer.finish();
+        log.info("Compacted {} objects of {} on {} into {} segments", manifest.getObjectCount(), type.getEventName(),
+                day, manifest.getSegments().size());
+        return Optional.of(manifest);
+    }
+
+    /*
+    Appends payloads to the current segment, writing it out once it reaches the target size.
+     */
+    private final class SegmentWriter {
+        private final GithubEvents type;
+        private final LocalDate day;
+        private final CompactionManifest manifest = new CompactionManifest();
+        private Instant oldestLastModified;
+        private Instant newestLastModified;
+        private ByteArrayOutputStream segment;
+        private JsonGenerator generator;
+        private long segmentObjects;
+        private long segmentBytes;
+
+        private SegmentWriter(GithubEvents type, LocalDate day) {
+            this.type = type;
+            this.day = day;
+            manifest.setEventName(type.getEventName());
+            manifest.setDay(day.toString());
+        }
+
+        private void modified(Instant lastModified) {
+            if (oldestLastModified == null || lastModified.isBefore(oldestLastModified)) {
+                oldestLastModified = lastModified;
+            }
+            if (newestLastModified == null || lastModified.isAfter(newestLastModified)) {
+                newestLastModified = lastModified;
+            }
+        }
+
+        private void append(PendingObject object) {
+            try {
+                byte[] payload = object.bytes.join();
+                if (generator == null) {
+                    openSegment();
+                }
+                try (JsonParser parser = jsonFactory.createParser(payload)) {
+                    if (parser.nextToken() != JsonToken.START_OBJECT) {
+                        throw new IllegalStateException("Payload is not a JSON object");
+                    }
+                    generator.copyCurrentStructure(parser);
+                    generator.writeRaw('\n');
+                }
+                segmentObjects++;
+                segmentBytes += payload.length;
+                manifest.setObjectCount(manifest.getObjectCount() + 1);
+                if (segmentBytes >= segmentTargetBytes) {
+                    closeSegment();
+                }
+            } catch (IOException | RuntimeException e) {
+                Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                throw new RuntimeException("Failed to compact event " + object.key, cause);
+            }
+        }
+
+        private CompactionManifest finish() {
+            try {
+                if (generator != null) {
+                    closeSegment();
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to compact " + type.getEventName() + " of " + day, e);
+            }
+            if (newestLastModified != null) {
+                manifest.setOldestLastModified(oldestLastModified.toString());
+                manifest.setNewestLastModified(newestLastModified.toString());
+            }
+            compactedEventStore.putManifest(type, day, manifest);
+            return manifest;
+        }
+
+        private void openSegment() throws IOException {
+            segment = new ByteArrayOutputStream();
+            generator = jsonFactory.createGenerator(new GZIPOutputStream(segment));
+            // Lines are separated by the newline written after each payload
+            generator.setRootValueSeparator(null);
+            segmentObjects = 0;
+            segmentBytes = 0;
+        }
+
+        private void closeSegment() throws IOException {
+            // Also finishes the gzip stream
+            generator.close();
+            CompactionManifest.Segment written = new CompactionManifest.Segment();
+            written.setKey(compactedEventStore.putSegment(type, day, manifest.getSegments().size(), segment.toByteArray()));
+            written.setObjectCount(segmentObjects);
+            manifest.getSegments().add(written);
+            generator = null;
+            segment = null;
+        }
+    }
+}
@@ -0,0 +1,449 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.metrics.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearchmetrics.model.event.CompactionManifest;
+import org.opensearchmetrics.model.event.EventData;
+import org.opensearchmetrics.util.BulkSink;
+import org.opensearchmetrics.util.S3Util;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Streams webhook events from S3 into OpenSearch through five stages: list, fetch, parse,
+ * serialize and bulk.
+ * <p>
+ * Stages run concurrently and are connected by bounded queues. When the {@link BulkSink} blocks on
+ * cluster backpressure, the queues in front of it fill up, the fetcher stops issuing GETs and the
+ * listing stops requesting pages. Memory is bounded by the queue sizes and the objects in flight,
+ * however many events there are. The first failure of any stage stops the others.
+ * <p>
+ * Days compacted by the {@link EventCompactor} are read from their segments instead of the
+ * webhook objects when none of their objects was indexed yet; a parser streams each segment,
+ * decompressing and parsing it as it is read. A compacted day the watermark falls within is read
+ * from the objects modified since, like a day that is not compacted.
+ */
+@Slf4j
+public class EventIngestPipeline {
+    // Matches the connection pool of the default async HTTP client
+    private static final int MAX_IN_FLIGHT_OBJECTS = 50;
+    private static final int QUEUE_CAPACITY = 1000;
+
+    /**
+     * Objects of one event type, stored under {@code <event name>/<yyyy-MM-dd>/}, or in the
+     * {@link CompactedEventStore} once their day is compacted.
+     */
+    public static final class Source {
+        private final GithubEvents type;
+        private final LocalDate startDay;
+        private final Instant modifiedSince;
+
+        /**
+         * @param startDay      first day listed, the earlier days are skipped with StartAfter
+         * @param modifiedSince if not null, objects last modified before it are not fetched, nor
+         *                      the segments of compacted days with any such object
+         */
+        public Source(GithubEvents type, LocalDate startDay, Instant modifiedSince) {
+            this.type = type;
+            this.startDay = startDay;
+            this.modifiedSince = modifiedSince;
+        }
+    }
+
+    private static final class Listed {
+        private final Source source;
+        private final String objectKey;
+        private final String indexName;
+        // A compacted segment rather than a single event
+        private final boolean segment;
+
+        private Listed(Source source, String objectKey, String indexName, boolean segment) {
+            this.source = source;
+            this.objectKey = objectKey;
+            this.indexName = indexName;
+            this.segment = segment;
+        }
+    }
+
+    private static final class Fetched {
+        private final Listed listed;
+        // Null for a segment, which is streamed by the parser
+        private final byte[] bytes;
+
+        private Fetched(Listed listed, byte[] bytes) {
+            this.listed = listed;
+            this.bytes = bytes;
+        }
+    }
+
+    private static final class Parsed {
+        private final String indexName;
+        private final EventData event;
+
+        private Parsed(String indexName, EventData event) {
+            this.indexName = indexName;
+            this.event = event;
+        }
+    }
+
+    private static final class Document {
+        private final String indexName;
+        private final String id;
+        private final String json;
+
+        private Document(String indexName, String id, String json) {
+            this.indexName = indexName;
+            this.id = id;
+            this.json = json;
+        }
+    }
+
+    /**
+     * Bounded queue between two stages, closed once every producer of the upstream stage is done.
+     */
+    private static final class Channel<T> {
+        private static final Object END = new Object();
+
+        private final BlockingQueue<Object> queue;
+        private final AtomicInteger openProducers;
+        private final int consumers;
+
+        private Channel(int capacity, int producers, int consumers) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.openProducers = new AtomicInteger(producers);
+            this.consumers = consumers;
+        }
+
+        private void put(T item) throws InterruptedException {
+            queue.put(item);
+        }
+
+        private boolean offer(T item) {
+            return queue.offer(item);
+        }
+
+        /**
+         * @return null once the upstream stage is done and the queue is drained
+         */
+        @SuppressWarnings("unchecked")
+        private T take() throws InterruptedException {
+            Object item = queue.take();
+            return item == END ? null : (T) item;
+        }
+
+        private void producerDone() throws InterruptedException {
+            if (openProducers.decrementAndGet() == 0) {
+                for (int i = 0; i < consumers; i++) {
+                    queue.put(END);
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Worker {
+        void run() throws Exception;
+    }
+
+    private final S3Util s3Util;
+    private final CompactedEventStore compactedEventStore;
+    private final GithubEventExtractor eventExtractor;
+    private final ObjectMapper mapper;
+    private final int maxInFlightObjects;
+    private final int queueCapacity;
+    private final int workers;
+
+    public EventIngestPipeline(S3Util s3Util, CompactedEventStore compactedEventStore,
+                               GithubEventExtractor eventExtractor, ObjectMapper mapper) {
+        this(s3Util, compactedEventStore, eventExtractor, mapper, MAX_IN_FLIGHT_OBJECTS, QUEUE_CAPACITY,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param maxInFlightObjects objects fetched or being fetched but not parsed yet
+     * @param queueCapacity      capacity of the other queues
+     * @param workers            threads of each of the parse and serialize stages
+     */
+    @VisibleForTesting
+    EventIngestPipeline(S3Util s3Util, CompactedEventStore compactedEventStore,
+                        GithubEventExtractor eventExtractor, ObjectMapper mapper,
+                        int maxInFlightObjects, int queueCapacity, int workers) {
+        this.s3Util = s3Util;
+        this.compactedEventStore = compactedEventStore;
+        this.eventExtractor = eventExtractor;
+        this.mapper = mapper;
+        this.maxInFlightObjects = maxInFlightObjects;
+        this.queueCapacity = queueCapacity;
+        this.workers = workers;
+    }
+
+    /**
+     * Indexes every event of {@code sources} into {@code bulkSink}, returning once the last one was
+     * added to the sink. The caller closes the sink.
+     *
+     * @return the newest LastModified of the objects indexed, for each type that had any
+     * @throws RuntimeException the first failure of any stage
+     */
+    public Map<GithubEvents, Instant> run(List<Source> sources, BulkSink bulkSink) {
+        return new Run(sources, bulkSink).run();
+    }
+
+    public static String indexName(LocalDate day) {
+        return "github-user-activity-events-" + day.format(DateTimeFormatter.ofPattern("MM-yyyy"));
+    }
+
+    private static LocalDate day(String objectKey) {
+        String[] segments = objectKey.split("/");
+        try {
+            return LocalDate.parse(segments[1]);
+        } catch (DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalStateException("Unexpected event key " + objectKey, e);
+        }
+    }
+
+    /*
+    State of one run: the channels, the permits of the objects in flight and the first failure.
+     */
+    private final class Run {
+        private final List<Source> sources;
+        private final BulkSink bulkSink;
+        private final Channel<Listed> listed = new Channel<>(queueCapacity, 1, 1);
+        // Sized to the permits, so a completed GET always finds room without blocking an SDK thread
+        private final Channel<Fetched> fetched = new Channel<>(maxInFlightObjects, 1, workers);
+        private final Channel<Parsed> parsed = new Channel<>(queueCapacity, workers, workers);
+        private final Channel<Document> documents = new Channel<>(queueCapacity, workers, 1);
+        private final Semaphore inFlightObjects = new Semaphore(maxInFlightObjects);
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        // Only written by the list stage
+        private final Map<GithubEvents, Instant> newestListed = new EnumMap<>(GithubEvents.class);
+        private final ExecutorService executor = Executors.newFixedThreadPool(3 + 2 * workers,
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("event-ingest-%d").build());
+
+        private Run(List<Source> sources, BulkSink bulkSink) {
+            this.sources = sources;
+            this.bulkSink = bulkSink;
+        }
+
+        private Map<GithubEvents, Instant> run() {
+            List<Future<?>> stages = new ArrayList<>();
+            try {
+                stages.add(submit(this::list));
+                stages.add(submit(this::fetch));
+                for (int i = 0; i < workers; i++) {
+                    stages.add(submit(this::parse));
+                    stages.add(submit(this::serialize));
+                }
+                stages.add(submit(this::bulk));
+                for (Future<?> stage : stages) {
+                    stage.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            } catch (ExecutionException e) {
+                fail(e.getCause());
+            } catch (RejectedExecutionException e) {
+                // A stage failed before the others were started
+                fail(e);
+            } finally {
+                executor.shutdownNow();
+            }
+            if (failure.get() != null) {
+                throw new RuntimeException("Failed to ingest events", failure.get());
+            }
+            return newestListed;
+        }
+
+        private void list() throws InterruptedException {
+            for (Source source : sources) {
+                Set<LocalDate> compactedDays = listSegments(source);
+                LocalDate firstRawDay = source.startDay;
+                while (compactedDays.contains(firstRawDay)) {
+                    firstRawDay = firstRawDay.plusDays(1);
+                }
+                String prefix = source.type.getEventName() + "/";
+                // Sorts before every key of the first day and after every key of the day before
+                String startAfter = prefix + firstRawDay + "/";
+                s3Util.forEachObject(prefix, startAfter, object -> {
+                    if (source.modifiedSince != null && object.lastModified().isBefore(source.modifiedSince)) {
+                        return;
+                    }
+                    LocalDate day = day(object.key());
+                    if (compactedDays.contains(day)) {
+                        return;
+                    }
+                    newest(source.type, object.lastModified());
+                    try {
+                        listed.put(new Listed(source, object.key(), indexName(day), false));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RuntimeException(e);
+                    }
+                });
+            }
+            listed.producerDone();
+        }
+
+        /*
+        Queues the segments of the compacted days of source none of whose objects is indexed yet,
+        returning the compacted days that need no listing of their objects. A day the watermark falls
+        within is left out, so only its objects modified since are fetched.
+         */
+        private Set<LocalDate> listSegments(Source source) throws InterruptedException {
+            Set<LocalDate> compactedDays = new HashSet<>();
+            for (CompactionManifest manifest : compactedEventStore.getManifests(source.type, source.startDay)) {
+                LocalDate day = LocalDate.parse(manifest.getDay());
+                if (manifest.getNewestLastModified() == null) {
+                    compactedDays.add(day);
+                    continue;
+                }
+                Instant newestLastModified = Instant.parse(manifest.getNewestLastModified());
+                if (source.modifiedSince != null && newestLastModified.isBefore(source.modifiedSince)) {
+                    compactedDays.add(day);
+                    continue;
+                }
+                // Manifests written before the oldest LastModified was recorded count as partly indexed
+                if (source.modifiedSince != null && (manifest.getOldestLastModified() == null
+                        || Instant.parse(manifest.getOldestLastModified()).isBefore(source.modifiedSince))) {
+                    continue;
+                }
+                compactedDays.add(day);
+                newest(source.type, newestLastModified);
+                for (CompactionManifest.Segment segment : manifest.getSegments()) {
+                    listed.put(new Listed(source, segment.getKey(), indexName(day), true));
+                }
+            }
+            return compactedDays;
+        }
+
+        private void newest(GithubEvents type, Instant lastModified) {
+            newestListed.merge(type, lastModified, (a, b) -> a.isAfter(b) ? a : b);
+        }
+
+        private void fetch() throws InterruptedException {
+            Listed next;
+            while ((next = listed.take()) != null) {
+                Listed object = next;
+                inFlightObjects.acquire();
+                if (object.segment) {
+                    fetched.put(new Fetched(object, null));
+                    continue;
+                }
+                s3Util.getObjectBytesAsync(object.objectKey).whenComplete((bytes, throwable) -> {
+                    if (throwable != null) {
+                        fail(new RuntimeException("Failed to fetch event " + object.objectKey, throwable));
+                    } else if (!fetched.offer(new Fetched(object, bytes))) {
+                        fail(new IllegalStateException("No room for fetched event " + object.objectKey));
+                    }
+                });
+            }
+            // Every permit is back once the last fetched object was taken by a parser
+            inFlightObjects.acquire(maxInFlightObjects);
+            fetched.producerDone();
+        }
+
+        private void parse() throws Exception {
+            Fetched object;
+            while ((object = fetched.take()) != null) {
+                inFlightObjects.release();
+                Source source = object.listed.source;
+                if (object.listed.segment) {
+                    parseSegment(object.listed);
+                    continue;
+                }
+                EventData event;
+                try {
+                    event = eventExtractor.extract(source.type, new ByteArrayInputStream(object.bytes));
+                } catch (Exception e) {
+                    throw new RuntimeException("Failed to index event " + object.listed.objectKey, e);
+                }
+                parsed.put(new Parsed(object.listed.indexName, event));
+            }
+            parsed.producerDone();
+        }
+
+        private void parseSegment(Listed segment) {
+            try (InputStream payloads = compactedEventStore.openSegment(segment.objectKey)) {
+                eventExtractor.extractEach(segment.source.type, payloads, event -> {
+                    try {
+                        parsed.put(new Parsed(segment.indexName, event));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RuntimeException(e);
+                    }
+                });
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to index segment " + segment.objectKey, e);
+            }
+        }
+
+        private void serialize() throws InterruptedException {
+            Parsed next;
+            while ((next = parsed.take()) != null) {
+                EventData event = next.event;
+                documents.put(new Document(next.indexName, event.getId(), event.getJson(event, mapper)));
+            }
+            documents.producerDone();
+        }
+
+        private void bulk() throws InterruptedException {
+            Document document;
+            while ((document = documents.take()) != null) {
+                // Blocks while the cluster is applying backpressure, which fills the queues upstream
+                bulkSink.add(document.indexName, document.id, document.json);
+            }
+        }
+
+        private Future<?> submit(Worker worker) {
+            return executor.submit(() -> {
+                try {
+                    worker.run();
+                } catch (Exception | Error e) {
+                    fail(e);
+                }
+            });
+        }
+
+        /*
+        Keeps the first failure and interrupts every stage, whether it is blocked on a queue or not.
+        Later failures are mostly stages reacting to the interrupt, so they are dropped.
+         */
+        private void fail(Throwable throwable) {
+            if (failure.compareAndSet(null, throwable)) {
+                log.error("Event ingest failed", throwable);
+                executor.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.metrics.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.opensearchmetrics.util.StateStore;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Newest S3 LastModified of the webhook objects indexed so far, one per event type, kept in a
+ * {@link StateStore} so a run only fetches the objects that arrived since the previous one.
+ * <p>
+ * Object names within a day are not ordered by arrival, so the watermark is a time rather than a key.
+ */
+public class EventWatermarkStore {
+    private static final String KEY_PREFIX = "event-watermarks/";
+    private static final String LAST_MODIFIED = "lastModified";
+
+    private final StateStore stateStore;
+    private final ObjectMapper objectMapper;
+
+    public EventWatermarkStore(StateStore stateStore, ObjectMapper objectMapper) {
+        this.stateStore = stateStore;
+        this.objectMapper = objectMapper;
+    }
+
+    public Optional<Instant> get(GithubEvents type) {
+        String key = key(type);
+        try {
+            Optional<String> json = stateStore.get(key);
+            if (json.isEmpty()) {
+                return Optional.empty();
+            }
+            Map<String, String> watermark = objectMapper.readValue(json.get(), new TypeReference<Map<String, String>>() {});
+            return Optional.of(Instant.parse(watermark.get(LAST_MODIFIED)));
+        } catch (JsonProcessingException | RuntimeException e) {
+            // An unreadable watermark only costs indexing the events from the collection start date again
+            System.out.println("Unable to read event watermark " + key + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Moves the watermark of {@code type} to {@code lastModified}, unless it is already later.
+     * Call only once the events up to {@code lastModified} are indexed.
+     */
+    public void advance(GithubEvents type, Instant lastModified) {
+        Optional<Instant> current = get(type);
+        if (current.isPresent() && !current.get().isBefore(lastModified)) {
+            return;
+        }
+        String key = key(type);
+        try {
+            stateStore.put(key, objectMapper.writeValueAsString(Map.of(LAST_MODIFIED, lastModified.toString())));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to write event watermark " + key, e);
+        }
+    }
+
+    private static String key(GithubEvents type) {
+        return KEY_PREFIX + type.getEventName();
+    }
+}
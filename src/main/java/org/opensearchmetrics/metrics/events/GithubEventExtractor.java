@@ -0,0 +1,165 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.metrics.events;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import org.opensearchmetrics.model.event.EventData;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reads the fields of {@link EventData} from a GitHub webhook payload in one streaming pass.
+ * <p>
+ * Only the paths of the event type are followed; every other object or array, such as the issue
+ * or pull request with its body, is skipped without being decoded. The result is the same as
+ * reading the paths from {@code ObjectMapper.readTree}: a path that is missing or not a string
+ * gives {@code null}. Repository, organization, type and action repeat across events and are interned.
+ */
+public class GithubEventExtractor {
+
+    private enum Field {
+        ID(true, "id"),
+        TYPE(false, "name"),
+        REPOSITORY(false, "payload", "repository", "name"),
+        ORGANIZATION(false, "payload", "organization", "login"),
+        OWNER(false, "payload", "repository", "owner", "login"),
+        ACTION(false, "payload", "action"),
+        SENDER(true, "payload", "sender", "login"),
+        CREATED_AT(true, "uploaded_at");
+
+        private final boolean unique;
+        private final String[] path;
+
+        Field(boolean unique, String... path) {
+            this.unique = unique;
+            this.path = path;
+        }
+    }
+
+    /**
+     * Object in the payload, with the fields to follow in it.
+     */
+    private static final class PathSpec {
+        private final Map<String, PathSpec> children = new HashMap<>();
+        private Field field;
+
+        private PathSpec child(String name) {
+            return children.computeIfAbsent(name, key -> new PathSpec());
+        }
+
+        private void add(Field field) {
+            PathSpec spec = this;
+            for (String name : field.path) {
+                spec = spec.child(name);
+            }
+            spec.field = field;
+        }
+    }
+
+    private static final Map<GithubEvents, PathSpec> SPECS = compileSpecs();
+
+    private final JsonFactory jsonFactory;
+    private final Interner<String> interner = Interners.newWeakInterner();
+
+    public GithubEventExtractor(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    /**
+     * @param type the event type the payload was stored under
+     */
+    public EventData extract(GithubEvents type, InputStream payload) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(payload)) {
+            return read(type, parser, parser.nextToken());
+        }
+    }
+
+    /**
+     * Reads every payload of an NDJSON stream, such as a compacted segment, handing each event to
+     * {@code consumer} as soon as it is read.
+     */
+    public void extractEach(GithubEvents type, InputStream payloads, Consumer<EventData> consumer) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(payloads)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                consumer.accept(read(type, parser, token));
+            }
+        }
+    }
+
+    /*
+    Reads the root value starting at token, leaving the parser at its last token.
+     */
+    private EventData read(GithubEvents type, JsonParser parser, JsonToken token) throws IOException {
+        String[] values = new String[Field.values().length];
+        if (token == JsonToken.START_OBJECT) {
+            readObject(parser, SPECS.get(type), values);
+        } else {
+            parser.skipChildren();
+        }
+        EventData event = new EventData();
+        event.setId(values[Field.ID.ordinal()]);
+        event.setType(values[Field.TYPE.ordinal()]);
+        event.setRepository(values[Field.REPOSITORY.ordinal()]);
+        event.setOrganization(values[Field.ORGANIZATION.ordinal()]);
+        if (event.getOrganization() == null) {
+            event.setOrganization(values[Field.OWNER.ordinal()]);
+        }
+        event.setAction(values[Field.ACTION.ordinal()]);
+        event.setSender(values[Field.SENDER.ordinal()]);
+        event.setCreatedAt(values[Field.CREATED_AT.ordinal()]);
+        return event;
+    }
+
+    /*
+    Reads the fields of the object the parser is at, leaving the parser at its END_OBJECT.
+     */
+    private void readObject(JsonParser parser, PathSpec spec, String[] values) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            PathSpec child = spec.children.get(parser.getCurrentName());
+            JsonToken token = parser.nextToken();
+            if (child != null && child.field != null) {
+                values[child.field.ordinal()] = token == JsonToken.VALUE_STRING ? value(child.field, parser.getText()) : null;
+            } else if (child != null && token == JsonToken.START_OBJECT) {
+                readObject(parser, child, values);
+                continue;
+            }
+            // Does nothing for scalars
+            parser.skipChildren();
+        }
+    }
+
+    private String value(Field field, String text) {
+        return field.unique ? text : interner.intern(text);
+    }
+
+    /*
+    Every type reads the same paths today; a type whose payload keeps them elsewhere gets its own spec here.
+     */
+    private static Map<GithubEvents, PathSpec> compileSpecs() {
+        PathSpec common = new PathSpec();
+        for (Field field : Field.values()) {
+            common.add(field);
+        }
+        Map<GithubEvents, PathSpec> specs = new EnumMap<>(GithubEvents.class);
+        for (GithubEvents type : GithubEvents.values()) {
+            specs.put(type, common);
+        }
+        return specs;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.metrics.general;
+
+import com.google.common.collect.Lists;
+import org.opensearch.action.search.MultiSearchResponse;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.core.rest.RestStatus;
+import org.opensearch.index.query.QueryBuilders;
+import org.opensearch.search.aggregations.AggregationBuilders;
+import org.opensearch.search.aggregations.bucket.filter.Filters;
+import org.opensearch.search.aggregations.bucket.filter.FiltersAggregationBuilder;
+import org.opensearch.search.aggregations.bucket.filter.FiltersAggregator;
+import org.opensearch.search.aggregations.bucket.terms.Terms;
+import org.opensearch.search.aggregations.metrics.Sum;
+import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearchmetrics.util.CountQueryPlanner;
+import org.opensearchmetrics.util.OpenSearchUtil;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Computes every general metric for every repository with one size:0 search per index.
+ * <p>
+ * All metrics that target the same {@link Metrics#searchIndex()} are compiled into a
+ * {@code terms} aggregation on {@code repository.keyword} with a {@code filters}
+ * sub-aggregation holding one named filter per metric, plus a {@code sum} per
+ * {@link Metrics#sumField()}.
+ */
+public class GeneralMetricsAggregator {
+    private static final String REPOSITORY_FIELD = "repository.keyword";
+    private static final String REPOSITORIES_AGG = "repositories";
+    private static final String METRICS_AGG = "metrics";
+    private static final String SUM_AGG_PREFIX = "sum_";
+    // Upper bound on terms buckets per search; more repositories are split over several searches.
+    private static final int REPOS_PER_SEARCH = 1000;
+
+    @Inject
+    public GeneralMetricsAggregator() {}
+
+    /**
+     * @return metric values keyed by repository, then by metric; a repository with no matching
+     * documents gets 0 for every metric
+     */
+    public Map<String, Map<Metrics, Long>> aggregate(List<Metrics> metricsList, List<String> repositories,
+                                                    OpenSearchUtil openSearchUtil) {
+        Map<String, List<Metrics>> metricsByIndex = new LinkedHashMap<>();
+        metricsList.forEach(metric -> metricsByIndex.computeIfAbsent(metric.searchIndex(), index -> new ArrayList<>()).add(metric));
+
+        List<SearchRequest> searchRequests = new ArrayList<>();
+        List<List<Metrics>> requestMetrics = new ArrayList<>();
+        for (List<String> repoBatch : Lists.partition(repositories, REPOS_PER_SEARCH)) {
+            metricsByIndex.forEach((index, indexMetrics) -> {
+                searchRequests.add(createSearchRequest(index, indexMetrics, repoBatch));
+                requestMetrics.add(indexMetrics);
+            });
+        }
+
+        Map<String, Map<Metrics, Long>> values = new LinkedHashMap<>();
+        repositories.forEach(repo -> {
+            Map<Metrics, Long> repoValues = new HashMap<>();
+            metricsList.forEach(metric -> repoValues.put(metric, 0L));
+            values.put(repo, repoValues);
+        });
+        List<MultiSearchResponse.Item> items = openSearchUtil.searchBatch(searchRequests);
+        for (int i = 0; i < items.size(); i++) {
+            MultiSearchResponse.Item item = items.get(i);
+            if (item.isFailure()) {
+                throw new RuntimeException("General metrics search failed on " + searchRequests.get(i).indices()[0], item.getFailure());
+            }
+            readValues(item.getResponse(), requestMetrics.get(i), values);
+        }
+        return values;
+    }
+
+    SearchRequest createSearchRequest(String index, List<Metrics> indexMetrics, List<String> repositories) {
+        FiltersAggregator.KeyedFilter[] filters = indexMetrics.stream()
+                .map(metric -> new FiltersAggregator.KeyedFilter(metric.toString(),
+                        CountQueryPlanner.toFilterContext(metric.getMetricQueryBuilder())))
+                .toArray(FiltersAggregator.KeyedFilter[]::new);
+        FiltersAggregationBuilder metricsAggregation = AggregationBuilders.filters(METRICS_AGG, filters);
+        Set<String> sumFields = new LinkedHashSet<>();
+        indexMetrics.forEach(metric -> metric.sumField().ifPresent(sumFields::add));
+        sumFields.forEach(field -> metricsAggregation.subAggregation(AggregationBuilders.sum(SUM_AGG_PREFIX + field).field(field)));
+
+        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+        searchSourceBuilder.query(QueryBuilders.boolQuery().filter(QueryBuilders.termsQuery(REPOSITORY_FIELD, repositories)));
+        searchSourceBuilder.size(0);
+        searchSourceBuilder.aggregation(AggregationBuilders.terms(REPOSITORIES_AGG)
+                .field(REPOSITORY_FIELD)
+                .size(repositories.size())
+                .subAggregation(metricsAggregation));
+        SearchRequest searchRequest = new SearchRequest(index);
+        searchRequest.source(searchSourceBuilder);
+        searchRequest.requestCache(true);
+        return searchRequest;
+    }
+
+    private static void readValues(SearchResponse searchResponse, List<Metrics> indexMetrics,
+                                   Map<String, Map<Metrics, Long>> values) {
+        if (searchResponse.status() != RestStatus.OK) {
+            throw new RuntimeException("Error connecting to the cluster");
+        }
+        Terms repositories = searchResponse.getAggregations().get(REPOSITORIES_AGG);
+        for (Terms.Bucket repoBucket : repositories.getBuckets()) {
+            Map<Metrics, Long> repoValues = values.get(repoBucket.getKeyAsString());
+            if (repoValues == null) {
+                continue;
+            }
+            Filters metrics = repoBucket.getAggregations().get(METRICS_AGG);
+            for (Metrics metric : indexMetrics) {
+                Filters.Bucket metricBucket = metrics.getBucketByKey(metric.toString());
+                Optional<String> sumField = metric.sumField();
+                long value;
+                if (sumField.isPresent()) {
+                    Sum sum = metricBucket.getAggregations().get(SUM_AGG_PREFIX + sumField.get());
+                    value = (long) sum.getValue();
+                } else {
+                    value = metricBucket.getDocCount();
+                }
+                repoValues.put(metric, value);
+            }
+        }
+    }
+}
@@ -8,35 +8,23 @@
  */
 package org.opensearchmetrics.metrics.general;
 
-import org.opensearch.action.search.SearchRequest;
-import org.opensearch.action.search.SearchResponse;
-import org.opensearch.core.rest.RestStatus;
 import org.opensearch.index.query.BoolQueryBuilder;
-import org.opensearch.search.builder.SearchSourceBuilder;
-import org.opensearchmetrics.util.OpenSearchUtil;
+
+import java.util.Optional;
 
 public interface Metrics {
 
-    BoolQueryBuilder getBoolQueryBuilder(String repo);
+    /**
+     * Query matching the documents this metric counts, across all repositories.
+     */
+    BoolQueryBuilder getMetricQueryBuilder();
 
     String searchIndex();
 
-    default SearchRequest createSearchRequest(BoolQueryBuilder queryBuilder, String index) {
-        SearchRequest searchRequest = new SearchRequest(index);
-        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-        searchSourceBuilder.query(queryBuilder);
-        searchSourceBuilder.size(9000);
-        searchRequest.source(searchSourceBuilder);
-        return  searchRequest;
-    };
-
-    default long performSearch(OpenSearchUtil opensearchUtil, SearchRequest request) {
-        SearchResponse searchResponse = opensearchUtil.search(request);
-        RestStatus status = searchResponse.status();
-        if (status == RestStatus.OK) {
-            return searchResponse.getHits().getTotalHits().value;
-        } else {
-            throw new RuntimeException("Error connecting to the cluster");
-        }
+    /**
+     * Numeric field summed over the matching documents, or empty when the metric is a document count.
+     */
+    default Optional<String> sumField() {
+        return Optional.empty();
     }
 }
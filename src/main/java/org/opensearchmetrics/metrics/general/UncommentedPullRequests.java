@@ -24,9 +24,8 @@ public class UncommentedPullRequests implements Metrics {
     }
 
     @Override
-    public BoolQueryBuilder getBoolQueryBuilder(String repo) {
+    public BoolQueryBuilder getMetricQueryBuilder() {
         BoolQueryBuilder boolQueryBuilder = QueryBuilders.boolQuery();
-        boolQueryBuilder.must(QueryBuilders.matchQuery("repository.keyword", repo));
         boolQueryBuilder.must(QueryBuilders.matchQuery("comments",0));
         boolQueryBuilder.must(QueryBuilders.matchQuery("state.keyword", "open"));
         return boolQueryBuilder;
@@ -8,103 +8,194 @@
  */
 package org.opensearchmetrics.metrics.label;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
 import org.opensearch.action.search.SearchRequest;
 import org.opensearch.action.search.SearchResponse;
 import org.opensearch.core.rest.RestStatus;
 import org.opensearch.index.query.BoolQueryBuilder;
 import org.opensearch.index.query.QueryBuilders;
-import org.opensearch.search.aggregations.AggregationBuilders;
-import org.opensearch.search.aggregations.bucket.terms.Terms;
+import org.opensearch.search.aggregations.bucket.composite.CompositeAggregation;
+import org.opensearch.search.aggregations.bucket.composite.CompositeAggregationBuilder;
+import org.opensearch.search.aggregations.bucket.composite.TermsValuesSourceBuilder;
 import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearchmetrics.model.label.LabelData;
+import org.opensearchmetrics.util.CountQueryPlanner;
 import org.opensearchmetrics.util.OpenSearchUtil;
 
 import javax.inject.Inject;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedHashMap;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class LabelMetrics {
+    private static final String COMPOSITE_AGG = "repository_labels";
+    private static final int COMPOSITE_PAGE_SIZE = 1000;
 
     @Inject
     public LabelMetrics() {}
 
-    public Map<String, List<Long>> getLabelInfo(String repo, OpenSearchUtil openSearchUtil) throws IOException {
-        Map<String, Long> labelIssues = getLabelIssues(repo, openSearchUtil);
-        Map<String, Long> labelPulls = getLabelPulls(repo, openSearchUtil);
-        Set<String> combinedKeys = new HashSet<>(labelIssues.keySet());
-        combinedKeys.addAll(labelPulls.keySet());
-        Map<String, List<Long>> labelInfo = combinedKeys.stream()
-                .collect(
-                        LinkedHashMap::new,
-                        (map, key) -> {
-                            Long labelIssuesValue = labelIssues.getOrDefault(key, 0L);
-                            Long labelPullsValue = labelPulls.getOrDefault(key, 0L);
-                            List<Long> labelCountValues = new ArrayList<>();
-                            labelCountValues.add(labelIssuesValue);
-                            labelCountValues.add(labelPullsValue);
-                            map.put(key, labelCountValues);
-                        },
-                        HashMap::putAll
-                );
-        return labelInfo;
+    /**
+     * Open issue and pull counts per (repository, label) for all the given repositories.
+     * <p>
+     * Both indices are paged through a composite aggregation keyed on repository and label, and the
+     * two sorted sequences are merge-joined, so memory stays bounded by one page per index however
+     * many repositories or labels exist. The returned stream is lazy and issues its searches as it
+     * is consumed; the returned {@link LabelData} carry repository, label name and counts only.
+     */
+    public Stream<LabelData> streamLabelCounts(List<String> repos, OpenSearchUtil openSearchUtil) {
+        if (repos.isEmpty()) {
+            return Stream.empty();
+        }
+        BoolQueryBuilder issuesQuery = QueryBuilders.boolQuery();
+        issuesQuery.must(QueryBuilders.termsQuery("repository.keyword", repos));
+        issuesQuery.must(QueryBuilders.matchQuery("state.keyword", "open"));
+        issuesQuery.must(QueryBuilders.matchQuery("issue_pull_request", false));
+        BoolQueryBuilder pullsQuery = QueryBuilders.boolQuery();
+        pullsQuery.must(QueryBuilders.termsQuery("repository.keyword", repos));
+        pullsQuery.must(QueryBuilders.matchQuery("state.keyword", "open"));
+        PeekingIterator<LabelCount> issues = Iterators.peekingIterator(
+                new CompositeLabelPager(openSearchUtil, "github_issues", issuesQuery, "issue_labels.keyword"));
+        PeekingIterator<LabelCount> pulls = Iterators.peekingIterator(
+                new CompositeLabelPager(openSearchUtil, "github_pulls", pullsQuery, "pull_labels.keyword"));
+        Iterator<LabelData> merged = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return issues.hasNext() || pulls.hasNext();
+            }
+
+            @Override
+            public LabelData next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int order;
+                if (!issues.hasNext()) {
+                    order = 1;
+                } else if (!pulls.hasNext()) {
+                    order = -1;
+                } else {
+                    order = issues.peek().compareTo(pulls.peek());
+                }
+                LabelCount key = order <= 0 ? issues.peek() : pulls.peek();
+                long issueCount = order <= 0 ? issues.next().count : 0L;
+                long pullCount = order >= 0 ? pulls.next().count : 0L;
+                LabelData labelData = new LabelData();
+                labelData.setRepository(key.repository);
+                labelData.setLabelName(key.label);
+                labelData.setLabelIssueCount(issueCount);
+                labelData.setLabelPullCount(pullCount);
+                return labelData;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED | Spliterator.NONNULL), false);
     }
 
-    public Map<String, Long> getLabelIssues(String repo, OpenSearchUtil openSearchUtil) {
-      Map<String, Long> labelIssues = new HashMap<>();
-      BoolQueryBuilder boolQueryBuilder = QueryBuilders.boolQuery();
-      boolQueryBuilder.must(QueryBuilders.matchQuery("repository.keyword", repo));
-      boolQueryBuilder.must(QueryBuilders.matchQuery("state.keyword", "open"));
-      boolQueryBuilder.must(QueryBuilders.matchQuery("issue_pull_request", false));
-      SearchRequest searchRequest = new SearchRequest("github_issues");
-      SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-      searchSourceBuilder.query(boolQueryBuilder);
-      searchSourceBuilder.size(0);
-      searchSourceBuilder.aggregation(
-        AggregationBuilders.terms("label_issues")
-                .field("issue_labels.keyword")
-                .size(100000)
-      );
-      searchRequest.source(searchSourceBuilder);
-      SearchResponse searchResponse = openSearchUtil.search(searchRequest);
-      RestStatus status = searchResponse.status();
-        if (status == RestStatus.OK) {
-            Terms repoAggregation = searchResponse.getAggregations().get("label_issues");
-            for (Terms.Bucket bucket : repoAggregation.getBuckets()) {
-                labelIssues.put(bucket.getKeyAsString(), bucket.getDocCount());
+    /*
+    Compares strings by Unicode code point, which matches the byte order OpenSearch uses
+    to sort keyword terms (String.compareTo differs for characters outside the BMP).
+     */
+    @VisibleForTesting
+    static int compareCodePoints(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int cpA = a.codePointAt(i);
+            int cpB = b.codePointAt(j);
+            if (cpA != cpB) {
+                return Integer.compare(cpA, cpB);
             }
+            i += Character.charCount(cpA);
+            j += Character.charCount(cpB);
+        }
+        return Boolean.compare(i < a.length(), j < b.length());
+    }
+
+    private static final class LabelCount implements Comparable<LabelCount> {
+        private final String repository;
+        private final String label;
+        private final long count;
+
+        private LabelCount(String repository, String label, long count) {
+            this.repository = repository;
+            this.label = label;
+            this.count = count;
+        }
+
+        @Override
+        public int compareTo(LabelCount other) {
+            int byRepository = compareCodePoints(repository, other.repository);
+            return byRepository != 0 ? byRepository : compareCodePoints(label, other.label);
         }
-        return labelIssues;
     }
 
+    /*
+    Walks a composite aggregation over (repository, label) one page at a time, in key order.
+     */
+    private static final class CompositeLabelPager implements Iterator<LabelCount> {
+        private final OpenSearchUtil openSearchUtil;
+        private final String index;
+        private final BoolQueryBuilder query;
+        private final String labelField;
+        private Iterator<? extends CompositeAggregation.Bucket> page = Collections.emptyIterator();
+        private Map<String, Object> afterKey;
+        private boolean exhausted = false;
 
-    public Map<String, Long> getLabelPulls(String repo, OpenSearchUtil openSearchUtil) throws IOException {
-        Map<String, Long> pullIssues = new HashMap<>();
-        BoolQueryBuilder boolQueryBuilder = QueryBuilders.boolQuery();
-        boolQueryBuilder.must(QueryBuilders.matchQuery("repository.keyword", repo));
-        boolQueryBuilder.must(QueryBuilders.matchQuery("state.keyword", "open"));
-        SearchRequest searchRequest = new SearchRequest("github_pulls");
-        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-        searchSourceBuilder.query(boolQueryBuilder);
-        searchSourceBuilder.size(0);
-        searchSourceBuilder.aggregation(
-                AggregationBuilders.terms("pull_issues")
-                        .field("pull_labels.keyword")
-                        .size(100000)
-        );
-        searchRequest.source(searchSourceBuilder);
-        SearchResponse searchResponse = openSearchUtil.search(searchRequest);
-        RestStatus status = searchResponse.status();
-        if (status == RestStatus.OK) {
-            Terms repoAggregation = searchResponse.getAggregations().get("pull_issues");
-            for (Terms.Bucket bucket : repoAggregation.getBuckets()) {
-                pullIssues.put(bucket.getKeyAsString(), bucket.getDocCount());
+        private CompositeLabelPager(OpenSearchUtil openSearchUtil, String index, BoolQueryBuilder query, String labelField) {
+            this.openSearchUtil = openSearchUtil;
+            this.index = index;
+            this.query = query;
+            this.labelField = labelField;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!page.hasNext() && !exhausted) {
+                fetchNextPage();
+            }
+            return page.hasNext();
+        }
+
+        @Override
+        public LabelCount next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            CompositeAggregation.Bucket bucket = page.next();
+            return new LabelCount(String.valueOf(bucket.getKey().get("repository")),
+                    String.valueOf(bucket.getKey().get("label")), bucket.getDocCount());
+        }
+
+        private void fetchNextPage() {
+            CompositeAggregationBuilder composite = new CompositeAggregationBuilder(COMPOSITE_AGG, List.of(
+                    new TermsValuesSourceBuilder("repository").field("repository.keyword"),
+                    new TermsValuesSourceBuilder("label").field(labelField)))
+                    .size(COMPOSITE_PAGE_SIZE);
+            if (afterKey != null) {
+                composite.aggregateAfter(afterKey);
+            }
+            SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+            searchSourceBuilder.query(CountQueryPlanner.toFilterContext(query));
+            searchSourceBuilder.size(0);
+            searchSourceBuilder.aggregation(composite);
+            SearchRequest searchRequest = new SearchRequest(index);
+            searchRequest.source(searchSourceBuilder);
+            SearchResponse searchResponse = openSearchUtil.search(searchRequest);
+            if (searchResponse.status() != RestStatus.OK) {
+                throw new RuntimeException("Error connecting to the cluster");
             }
+            CompositeAggregation compositeAggregation = searchResponse.getAggregations().get(COMPOSITE_AGG);
+            List<? extends CompositeAggregation.Bucket> buckets = compositeAggregation.getBuckets();
+            page = buckets.iterator();
+            afterKey = compositeAggregation.afterKey();
+            exhausted = afterKey == null || buckets.isEmpty();
         }
-        return pullIssues;
     }
 }
@@ -8,38 +8,37 @@
  */
 package org.opensearchmetrics.metrics.maintainer;
 
+import org.opensearch.action.search.MultiSearchResponse;
 import org.opensearch.action.search.SearchRequest;
 import org.opensearch.action.search.SearchResponse;
 import org.opensearch.core.rest.RestStatus;
 import org.opensearch.index.query.BoolQueryBuilder;
 import org.opensearch.index.query.QueryBuilders;
 import org.opensearch.search.aggregations.AggregationBuilders;
-import org.opensearch.search.aggregations.BucketOrder;
 import org.opensearch.search.aggregations.bucket.terms.ParsedStringTerms;
 import org.opensearch.search.aggregations.bucket.terms.Terms;
 import org.opensearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
+import org.opensearch.search.aggregations.metrics.Max;
 import org.opensearch.search.aggregations.metrics.TopHits;
 import org.opensearch.search.aggregations.metrics.TopHitsAggregationBuilder;
 import org.opensearch.search.builder.SearchSourceBuilder;
 import org.opensearch.search.sort.SortOrder;
 import org.opensearchmetrics.model.maintainer.LatestEventData;
 import org.opensearchmetrics.model.maintainer.MaintainerData;
+import org.opensearchmetrics.model.maintainer.RepoEventStats;
+import org.opensearchmetrics.util.HttpUtil;
 import org.opensearchmetrics.util.OpenSearchUtil;
 
 import javax.inject.Inject;
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.HashSet;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -48,9 +47,20 @@ import java.util.stream.Collectors;
 public class MaintainerMetrics {
     private final String GITHUB_EVENTS_INDEX = "github-user-activity-events-*";
     private final String NUM_EVENTS_SINCE = "now-6M";
+    private static final String SENDER_FIELD = "sender.keyword";
+    private static final String SENDERS_AGG = "senders";
+    private static final String EVENT_TYPES_AGG = "event_types";
+    private static final String LAST_ENGAGED_AGG = "last_engaged";
+    private static final String LATEST_EVENT_AGG = "latest_event";
+    private static final String REPO_EVENT_COUNTS_AGG = "repo_event_counts";
+    // Upper bound on repositories with events; well above the organization's repository count.
+    private static final int MAX_REPOS = 10000;
+
+    private final HttpUtil httpUtil;
 
     @Inject
-    public MaintainerMetrics() {
+    public MaintainerMetrics(HttpUtil httpUtil) {
+        this.httpUtil = httpUtil;
     }
 
     /*
@@ -74,113 +84,133 @@ public class MaintainerMetrics {
     }
 
     /*
-    Given a repo, a user, and an event type: queries OpenSearch for the latest event for that repo, user, and event type.
-    Values from the queried event are stored into a LatestEventData object.
-    The LatestEventData object is wrapped in an Optional in case the query cannot find an event.
-    Returns an Optional containing this LatestEventData object.
+    Given the maintainer roster of each repo: queries OpenSearch for the latest event of every maintainer and event type,
+    with one size:0 search per repo, sent together through _msearch.
+    Each search filters sender to the roster and nests a terms aggregation on type.keyword under a terms aggregation on sender,
+    reading max(created_at) and the action of the newest event (top_hits with _source filtered to action and created_at).
+    Returns LatestEventData keyed by repo, then by login as given in the roster, then by event type.
+    A maintainer or event type without any event has no entry.
      */
-    public Optional<LatestEventData> queryLatestEvent(String repo, String userLogin, String eventType, OpenSearchUtil openSearchUtil) {
-        BoolQueryBuilder boolQueryBuilder = QueryBuilders.boolQuery();
-        boolQueryBuilder.must(QueryBuilders.matchQuery("repository.keyword", repo));
-        boolQueryBuilder.must(QueryBuilders.matchQuery("sender", userLogin));
-        boolQueryBuilder.must(QueryBuilders.matchQuery("type.keyword", eventType));
-        SearchRequest searchRequest = new SearchRequest(GITHUB_EVENTS_INDEX);
-        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-        searchSourceBuilder.query(boolQueryBuilder);
-        searchSourceBuilder.size(0);
-        TopHitsAggregationBuilder aggregation = AggregationBuilders.topHits("latest_event")
-                .size(1).sort("created_at", SortOrder.DESC);
-        searchSourceBuilder.aggregation(aggregation);
-        searchRequest.source(searchSourceBuilder);
-        SearchResponse searchResponse = openSearchUtil.search(searchRequest);
-        RestStatus status = searchResponse.status();
-        if (status == RestStatus.OK) {
-            TopHits topHits = searchResponse.getAggregations().get("latest_event");
-            if (topHits.getHits().getHits().length > 0) {
-                Map<String, Object> latestDocument = topHits.getHits().getHits()[0].getSourceAsMap();
-                LatestEventData latestEventData = new LatestEventData();
-                latestEventData.setEventType(eventType);
-                if(latestDocument.containsKey("action")){
-                    latestEventData.setEventAction(latestDocument.get("action").toString());
-                }
-                if(latestDocument.containsKey("created_at")) {
-                    latestEventData.setTimeLastEngaged(Instant.parse(latestDocument.get("created_at").toString()));
-                }
-                return Optional.of(latestEventData);
-            } else {
-                return Optional.empty();
+    public Map<String, Map<String, Map<String, LatestEventData>>> queryLatestEvents(Map<String, List<String>> loginsByRepo, OpenSearchUtil openSearchUtil) {
+        List<String> repos = new ArrayList<>();
+        List<SearchRequest> searchRequests = new ArrayList<>();
+        loginsByRepo.forEach((repo, logins) -> {
+            if (!logins.isEmpty()) {
+                repos.add(repo);
+                searchRequests.add(latestEventsSearchRequest(repo, logins));
             }
-        } else {
-            throw new RuntimeException("Error connecting to the cluster");
-        }
+        });
 
+        Map<String, Map<String, Map<String, LatestEventData>>> latestEvents = new HashMap<>();
+        if (searchRequests.isEmpty()) {
+            return latestEvents;
+        }
+        List<MultiSearchResponse.Item> items = openSearchUtil.searchBatch(searchRequests);
+        for (int i = 0; i < items.size(); i++) {
+            MultiSearchResponse.Item item = items.get(i);
+            String repo = repos.get(i);
+            if (item.isFailure()) {
+                throw new RuntimeException("Latest events search failed for " + repo, item.getFailure());
+            }
+            latestEvents.put(repo, readLatestEvents(item.getResponse(), loginsByRepo.get(repo)));
+        }
+        return latestEvents;
     }
 
-    /*
-    Queries OpenSearch for the number of events in the repo with the most events and
-    queries for the number of events in the repo with the least events.
+    SearchRequest latestEventsSearchRequest(String repo, List<String> logins) {
+        // GitHub logins are case-insensitive, and the roster in MAINTAINERS.md is not always spelled like the API does.
+        BoolQueryBuilder senders = QueryBuilders.boolQuery().minimumShouldMatch(1);
+        logins.forEach(login -> senders.should(QueryBuilders.termQuery(SENDER_FIELD, login).caseInsensitive(true)));
+        BoolQueryBuilder boolQueryBuilder = QueryBuilders.boolQuery()
+                .filter(QueryBuilders.termQuery("repository.keyword", repo))
+                .filter(senders);
 
-    Returns an array with the format:
-    [# of events in the repo with the most events, # of events in the repo with the least events]
-    */
-    public long[] mostAndLeastRepoEventCounts(OpenSearchUtil openSearchUtil) {
-        SearchRequest searchRequest = new SearchRequest(GITHUB_EVENTS_INDEX);
-        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-        BoolQueryBuilder boolQueryBuilder = QueryBuilders.boolQuery();
-        boolQueryBuilder.must(QueryBuilders.rangeQuery("created_at").gte(NUM_EVENTS_SINCE));
-        TermsAggregationBuilder mostCommonTerms = AggregationBuilders
-                .terms("most_event_count")
-                .field("repository.keyword")
+        TopHitsAggregationBuilder latestEvent = AggregationBuilders.topHits(LATEST_EVENT_AGG)
                 .size(1)
-                .order(BucketOrder.count(false));
-
-        TermsAggregationBuilder leastCommonTerms = AggregationBuilders
-                .terms("least_event_count")
-                .field("repository.keyword")
-                .size(1)
-                .order(BucketOrder.count(true));
+                .sort("created_at", SortOrder.DESC)
+                .fetchSource(new String[]{"action", "created_at"}, null);
+        TermsAggregationBuilder eventTypes = AggregationBuilders.terms(EVENT_TYPES_AGG)
+                .field("type.keyword").size(500)
+                .subAggregation(AggregationBuilders.max(LAST_ENGAGED_AGG).field("created_at"))
+                .subAggregation(latestEvent);
+        // Room for a couple of spellings per login.
+        TermsAggregationBuilder sendersAggregation = AggregationBuilders.terms(SENDERS_AGG)
+                .field(SENDER_FIELD).size(logins.size() * 2)
+                .subAggregation(eventTypes);
 
+        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
         searchSourceBuilder.query(boolQueryBuilder);
-        searchSourceBuilder.aggregation(mostCommonTerms);
-        searchSourceBuilder.aggregation(leastCommonTerms);
         searchSourceBuilder.size(0);
+        searchSourceBuilder.aggregation(sendersAggregation);
+        SearchRequest searchRequest = new SearchRequest(GITHUB_EVENTS_INDEX);
         searchRequest.source(searchSourceBuilder);
-        SearchResponse searchResponse = openSearchUtil.search(searchRequest);
-        RestStatus status = searchResponse.status();
-        if (status == RestStatus.OK) {
-            Terms leastEventCount = searchResponse.getAggregations().get("least_event_count");
-            Terms mostEventCount = searchResponse.getAggregations().get("most_event_count");
-            for (Terms.Bucket leastBucket : leastEventCount.getBuckets()) {
-                for (Terms.Bucket mostBucket : mostEventCount.getBuckets()) {
-                    return new long[]{mostBucket.getDocCount(), leastBucket.getDocCount()};
+        return searchRequest;
+    }
+
+    private static Map<String, Map<String, LatestEventData>> readLatestEvents(SearchResponse searchResponse, List<String> logins) {
+        if (searchResponse.status() != RestStatus.OK) {
+            throw new RuntimeException("Error connecting to the cluster");
+        }
+        Map<String, String> loginsByLowerCase = new HashMap<>();
+        logins.forEach(login -> loginsByLowerCase.put(login.toLowerCase(Locale.ROOT), login));
+
+        Map<String, Map<String, LatestEventData>> latestEvents = new HashMap<>();
+        Terms senders = searchResponse.getAggregations().get(SENDERS_AGG);
+        for (Terms.Bucket senderBucket : senders.getBuckets()) {
+            String login = loginsByLowerCase.get(senderBucket.getKeyAsString().toLowerCase(Locale.ROOT));
+            if (login == null) {
+                continue;
+            }
+            Map<String, LatestEventData> loginEvents = latestEvents.computeIfAbsent(login, key -> new HashMap<>());
+            Terms eventTypes = senderBucket.getAggregations().get(EVENT_TYPES_AGG);
+            for (Terms.Bucket eventTypeBucket : eventTypes.getBuckets()) {
+                LatestEventData latestEventData = new LatestEventData();
+                latestEventData.setEventType(eventTypeBucket.getKeyAsString());
+                Max lastEngaged = eventTypeBucket.getAggregations().get(LAST_ENGAGED_AGG);
+                latestEventData.setTimeLastEngaged(Instant.ofEpochMilli((long) lastEngaged.getValue()));
+                TopHits topHits = eventTypeBucket.getAggregations().get(LATEST_EVENT_AGG);
+                if (topHits.getHits().getHits().length > 0) {
+                    Map<String, Object> latestDocument = topHits.getHits().getHits()[0].getSourceAsMap();
+                    if (latestDocument.containsKey("action")) {
+                        latestEventData.setEventAction(latestDocument.get("action").toString());
+                    }
                 }
+                // Two spellings of one login: keep the newer event.
+                loginEvents.merge(latestEventData.getEventType(), latestEventData,
+                        (current, candidate) -> candidate.getTimeLastEngaged().isAfter(current.getTimeLastEngaged()) ? candidate : current);
             }
-            throw new RuntimeException("Error retrieving event counts");
-        } else {
-            throw new RuntimeException("Error connecting to the cluster");
         }
+        return latestEvents;
     }
 
     /*
-    Given a repo: queries OpenSearch for the number of events in that repo
-    Returns this value.
+    Queries OpenSearch once for the number of events of every repo since NUM_EVENTS_SINCE,
+    with a single terms aggregation on repository.keyword.
+    Returns the counts, from which the most, least and per repo values are read.
     */
-    public long repoEventCount(String repo, OpenSearchUtil openSearchUtil) {
+    public RepoEventStats repoEventStats(OpenSearchUtil openSearchUtil) {
         BoolQueryBuilder boolQueryBuilder = QueryBuilders.boolQuery();
-        boolQueryBuilder.must(QueryBuilders.matchQuery("repository.keyword", repo))
-                .must(QueryBuilders.rangeQuery("created_at").gte(NUM_EVENTS_SINCE));
-        SearchRequest searchRequest = new SearchRequest(GITHUB_EVENTS_INDEX);
+        boolQueryBuilder.filter(QueryBuilders.rangeQuery("created_at").gte(NUM_EVENTS_SINCE));
+        TermsAggregationBuilder repoEventCounts = AggregationBuilders
+                .terms(REPO_EVENT_COUNTS_AGG)
+                .field("repository.keyword")
+                .size(MAX_REPOS);
         SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
         searchSourceBuilder.query(boolQueryBuilder);
+        searchSourceBuilder.aggregation(repoEventCounts);
         searchSourceBuilder.size(0);
+        SearchRequest searchRequest = new SearchRequest(GITHUB_EVENTS_INDEX);
         searchRequest.source(searchSourceBuilder);
         SearchResponse searchResponse = openSearchUtil.search(searchRequest);
-        RestStatus status = searchResponse.status();
-        if (status == RestStatus.OK) {
-            return searchResponse.getHits().getTotalHits().value;
-        } else {
+        if (searchResponse.status() != RestStatus.OK) {
             throw new RuntimeException("Error connecting to the cluster");
         }
+        Terms terms = searchResponse.getAggregations().get(REPO_EVENT_COUNTS_AGG);
+        Map<String, Long> eventCounts = new HashMap<>();
+        for (Terms.Bucket bucket : terms.getBuckets()) {
+            eventCounts.put(bucket.getKeyAsString(), bucket.getDocCount());
+        }
+        return new RepoEventStats(eventCounts);
     }
 
     /*
@@ -236,45 +266,61 @@ public class MaintainerMetrics {
     Returns a List of MaintainerData objects.
     */
     public List<MaintainerData> repoMaintainers(String repo) {
+        return repoMaintainersAsync(repo).join();
+    }
+
+    /*
+    Same as repoMaintainers, without blocking, so that the files of all repos can be fetched at once.
+    A repo without a MAINTAINERS.md file, or whose file cannot be read, has no maintainers.
+    */
+    public CompletableFuture<List<MaintainerData>> repoMaintainersAsync(String repo) {
         String rawMaintainersFile = String.format("https://raw.githubusercontent.com/opensearch-project/%s/main/MAINTAINERS.md", repo);
+        return httpUtil.getCachedAsync(rawMaintainersFile)
+                .<List<MaintainerData>>thenApply(response -> {
+                    if (!response.isOk()) {
+                        return new ArrayList<>();
+                    }
+                    // Parsed once per file version; each caller gets its own list
+                    List<MaintainerData> maintainers = response.parse("maintainers", body -> parseMaintainers(repo, body));
+                    return new ArrayList<>(maintainers);
+                })
+                .exceptionally(throwable -> {
+                    throwable.printStackTrace();
+                    return new ArrayList<>();
+                });
+    }
+
+    private static List<MaintainerData> parseMaintainers(String repo, String maintainersFile) {
         boolean isEmeritusSection = false;
         List<MaintainerData> maintainersList = new ArrayList<>();
         Set<String> maintainerIdSet = new HashSet<>();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new URL(rawMaintainersFile).openStream(),
-                StandardCharsets.UTF_8))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                if (line.startsWith("|")) {
-                    String[] columns = line.split("\\|");
-                    if (columns.length >= 4) {
-                        String maintainer = columns[1].trim();
-                        Pattern pattern = Pattern.compile("\\[(.*?)\\]");
-                        Matcher matcher = pattern.matcher(columns[2]);
-                        String githubId = matcher.find() ? matcher.group(1) : "";
-                        String affiliation = columns[3].trim();
-                        if (!isEmeritusSection && !maintainer.toLowerCase().contains("emeritus") && !githubId.isEmpty()) {
-                            MaintainerData maintainerData = new MaintainerData();
-                            maintainerData.setRepository(repo);
-                            maintainerData.setName(maintainer);
-                            maintainerData.setGithubLogin(githubId);
-                            maintainerData.setAffiliation(affiliation);
-                            if(!maintainerIdSet.contains(githubId)){ // Add only unique github ids
-                                maintainerIdSet.add(githubId);
-                                maintainersList.add(maintainerData);
-                            }
+        for (String line : (Iterable<String>) maintainersFile.lines()::iterator) {
+            line = line.trim();
+            if (line.startsWith("|")) {
+                String[] columns = line.split("\\|");
+                if (columns.length >= 4) {
+                    String maintainer = columns[1].trim();
+                    Pattern pattern = Pattern.compile("\\[(.*?)\\]");
+                    Matcher matcher = pattern.matcher(columns[2]);
+                    String githubId = matcher.find() ? matcher.group(1) : "";
+                    String affiliation = columns[3].trim();
+                    if (!isEmeritusSection && !maintainer.toLowerCase().contains("emeritus") && !githubId.isEmpty()) {
+                        MaintainerData maintainerData = new MaintainerData();
+                        maintainerData.setRepository(repo);
+                        maintainerData.setName(maintainer);
+                        maintainerData.setGithubLogin(githubId);
+                        maintainerData.setAffiliation(affiliation);
+                        if(!maintainerIdSet.contains(githubId)){ // Add only unique github ids
+                            maintainerIdSet.add(githubId);
+                            maintainersList.add(maintainerData);
                         }
                     }
-                } else if (line.contains("Emeritus")) {
-                    isEmeritusSection = true;
-                } else if (!line.isEmpty() && isEmeritusSection) {
-                    isEmeritusSection = false;
                 }
+            } else if (line.contains("Emeritus")) {
+                isEmeritusSection = true;
+            } else if (!line.isEmpty() && isEmeritusSection) {
+                isEmeritusSection = false;
             }
-        } catch (FileNotFoundException e) {
-            return maintainersList;
-        } catch (IOException e) {
-            e.printStackTrace();
         }
         return maintainersList;
     }
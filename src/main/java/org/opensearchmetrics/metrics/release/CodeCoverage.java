@@ -6,85 +6,118 @@
  * this file be licensed under the Apache-2.0 license or a
  * compatible open source license.
  */
-
 package org.opensearchmetrics.metrics.release;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
-import org.apache.http.util.EntityUtils;
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.json.JSONArray;
-import org.json.JSONObject;
 import org.opensearchmetrics.model.codecov.CodeCovResponse;
+import org.opensearchmetrics.util.HttpUtil;
 
 import javax.inject.Inject;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpResponse;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public class CodeCoverage {
-    private final CloseableHttpClient httpClient;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_SERVICE_UNAVAILABLE = 503;
+
+    private final HttpUtil httpUtil;
+    private final ObjectMapper objectMapper;
 
     @Inject
-    public CodeCoverage() {
-        this(HttpClients.createDefault());
+    public CodeCoverage(HttpUtil httpUtil, ObjectMapper objectMapper) {
+        this.httpUtil = httpUtil;
+        this.objectMapper = objectMapper;
     }
 
-    @VisibleForTesting
-    CodeCoverage(CloseableHttpClient httpClient) {
-        this.httpClient = httpClient;
+    public CodeCovResponse coverage(String branch, String repo) {
+        return coverageAsync(branch, repo).join();
     }
 
-    public CodeCovResponse coverage(String branch, String repo) {
+    /**
+     * Reads the coverage of the latest commit of the branch. Only one commit is requested, and
+     * the response is parsed as a stream that is closed after its first result. Requests are paced
+     * by the traffic governor of {@link HttpUtil}, which also holds later requests for the
+     * Retry-After delay of a 429 or 503; the request is then sent again.
+     */
+    public CompletableFuture<CodeCovResponse> coverageAsync(String branch, String repo) {
         String codeCovRepoURL = String.format("https://api.codecov.io/api/v2/github/opensearch-project/repos/%s/commits?branch=%s", repo, branch);
         CodeCovResponse codeCovResponse = new CodeCovResponse();
         codeCovResponse.setUrl(codeCovRepoURL);
-        HttpGet request = new HttpGet(codeCovRepoURL);
-        CloseableHttpResponse response;
-        try {
-            response = httpClient.execute(request);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-        try {
-            if (response.getStatusLine().getStatusCode() == 200) {
-                String codeCovApiResult;
-                try {
-                    codeCovApiResult = EntityUtils.toString(response.getEntity());
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
+        return send(codeCovRepoURL + "&page_size=1", 1).thenApply(response -> {
+            try (InputStream body = response.body()) {
+                if (response.statusCode() == HttpUtil.HTTP_OK) {
+                    Optional<JsonNode> firstResult = firstResult(body);
+                    firstResult.ifPresentOrElse(
+                            result -> {
+                                codeCovResponse.setState(result.path("state").asText(""));
+                                codeCovResponse.setCommitId(result.path("commitid").asText("none"));
+                                codeCovResponse.setCoverage(result.path("totals").path("coverage").asDouble(0.0));
+                            },
+                            () -> {
+                                codeCovResponse.setState("no-coverage");
+                                codeCovResponse.setCommitId("none");
+                                codeCovResponse.setCoverage(0.0);
+                            }
+                    );
                 }
-                JSONObject jsonObject = new JSONObject(codeCovApiResult);
-                JSONArray resultsCoverage = jsonObject.getJSONArray("results");
-                Optional<JSONObject> firstResult = Optional.ofNullable(resultsCoverage)
-                        .filter(results -> results.length() > 0)
-                        .map(results -> results.getJSONObject(0));
-                firstResult.ifPresentOrElse(
-                        result -> {
-                            codeCovResponse.setState(Optional.ofNullable(result.optString("state"))
-                                    .orElse("no-coverage"));
-                            codeCovResponse.setCommitId(result.optString("commitid", "none"));
-                            codeCovResponse.setCoverage(
-                                    Optional.ofNullable(result.optJSONObject("totals"))
-                                            .map(totals -> totals.optDouble("coverage", 0.0))
-                                            .orElse(0.0)
-                            );
-                        },
-                        () -> {
-                            codeCovResponse.setState("no-coverage");
-                            codeCovResponse.setCommitId("none");
-                            codeCovResponse.setCoverage(0.0);
-                        }
-                );
-            }
-        } finally {
-            try {
-                response.close();
             } catch (IOException e) {
-                throw new RuntimeException(e);
+                throw new UncheckedIOException(e);
             }
+            return codeCovResponse;
+        });
+    }
+
+    private CompletableFuture<HttpResponse<InputStream>> send(String url, int attempt) {
+        return httpUtil.getStreamAsync(url)
+                .thenCompose(response -> {
+                    int statusCode = response.statusCode();
+                    if ((statusCode == HTTP_TOO_MANY_REQUESTS || statusCode == HTTP_SERVICE_UNAVAILABLE) && attempt < MAX_ATTEMPTS) {
+                        closeQuietly(response.body());
+                        return send(url, attempt + 1);
+                    }
+                    return CompletableFuture.completedFuture(response);
+                });
+    }
+
+    /*
+    First element of the "results" array, or empty when the array is empty. Tokens after it are
+    never read.
+     */
+    @VisibleForTesting
+    Optional<JsonNode> firstResult(InputStream body) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Codecov response is not a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("results".equals(field) && value == JsonToken.START_ARRAY) {
+                    if (parser.nextToken() == JsonToken.START_OBJECT) {
+                        return Optional.of(objectMapper.readTree(parser));
+                    }
+                    return Optional.empty();
+                }
+                parser.skipChildren();
+            }
+        }
+        throw new IOException("Codecov response has no results");
+    }
+
+    private static void closeQuietly(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException e) {
+            System.out.println("Unable to close Codecov response: " + e.getMessage());
         }
-        return codeCovResponse;
     }
 }
@@ -8,35 +8,39 @@
  */
 package org.opensearchmetrics.metrics.release;
 
+import org.opensearchmetrics.util.HttpUtil;
+
 import javax.inject.Inject;
 import java.io.IOException;
-import java.net.HttpURLConnection;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class ReleaseBranchChecker {
 
-    private final UrlResponse urlResponse;
+    private final HttpUtil httpUtil;
     @Inject
-    public ReleaseBranchChecker(UrlResponse urlResponse) {
-        this.urlResponse = urlResponse;
+    public ReleaseBranchChecker(HttpUtil httpUtil) {
+        this.httpUtil = httpUtil;
     }
 
     public Boolean releaseBranch (String releaseVersion, String repo) {
-        Matcher matcher = Pattern.compile("(\\d+)\\.(\\d+)").matcher(releaseVersion);
-        String releaseBranch = matcher.find() ? matcher.group(1) + "." + matcher.group(2) : "";
-        String releaseBranchUrl = String.format("https://github.com/opensearch-project/%s/tree/%s", repo, releaseBranch);
-
         try {
-            int responseCode = urlResponse.getUrlResponse(releaseBranchUrl).getResponseCode();
-            if (responseCode == HttpURLConnection.HTTP_OK) {
-                return true;
-            } else {
-                return false;
-            }
+            return HttpUtil.await(releaseBranchAsync(releaseVersion, repo)).orElse(false);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * @return future of whether the release branch exists, empty when GitHub answered with neither 200 nor 404
+     */
+    public CompletableFuture<Optional<Boolean>> releaseBranchAsync(String releaseVersion, String repo) {
+        Matcher matcher = Pattern.compile("(\\d+)\\.(\\d+)").matcher(releaseVersion);
+        String releaseBranch = matcher.find() ? matcher.group(1) + "." + matcher.group(2) : "";
+        String releaseBranchUrl = String.format("https://github.com/opensearch-project/%s/tree/%s", repo, releaseBranch);
+        return httpUtil.headAsync(releaseBranchUrl).thenApply(HttpUtil::exists);
+    }
+
 }
@@ -12,13 +12,18 @@ package org.opensearchmetrics.metrics.release;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.opensearchmetrics.model.codecov.CodeCovResponse;
 import org.opensearchmetrics.model.codecov.CodeCovResult;
+import org.opensearchmetrics.model.release.ReleaseManifest;
+import org.opensearchmetrics.model.release.ReleaseRepoStats;
 import org.opensearchmetrics.util.OpenSearchUtil;
 
 import javax.inject.Inject;
 import java.io.IOException;
 import java.nio.charset.CoderResult;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public class ReleaseMetrics {
 
@@ -26,72 +31,72 @@ public class ReleaseMetrics {
     private final ObjectMapper objectMapper;
     private final ReleaseRepoFetcher releaseRepoFetcher;
 
-    private final ReleaseLabelIssuesFetcher releaseLabelIssuesFetcher;
-    private final ReleaseLabelPullsFetcher releaseLabelPullsFetcher;
-
     private final ReleaseVersionIncrementChecker releaseVersionIncrementChecker;
 
     private final ReleaseBranchChecker releaseBranchChecker;
 
     private final ReleaseNotesChecker releaseNotesChecker;
 
-    private final ReleaseIssueChecker releaseIssueChecker;
-
     private final CodeCoverage codeCoverage;
 
+    private final ReleaseStatsAggregator releaseStatsAggregator;
+
     @Inject
     public ReleaseMetrics(OpenSearchUtil openSearchUtil, ObjectMapper objectMapper, ReleaseRepoFetcher releaseRepoFetcher,
-                          ReleaseLabelIssuesFetcher releaseLabelIssuesFetcher, ReleaseLabelPullsFetcher releaseLabelPullsFetcher,
                           ReleaseVersionIncrementChecker releaseVersionIncrementChecker, ReleaseBranchChecker releaseBranchChecker,
-                          ReleaseNotesChecker releaseNotesChecker, ReleaseIssueChecker releaseIssueChecker, CodeCoverage codeCoverage) {
+                          ReleaseNotesChecker releaseNotesChecker, CodeCoverage codeCoverage,
+                          ReleaseStatsAggregator releaseStatsAggregator) {
         this.openSearchUtil = openSearchUtil;
         this.objectMapper = objectMapper;
         this.releaseRepoFetcher = releaseRepoFetcher;
-        this.releaseLabelIssuesFetcher = releaseLabelIssuesFetcher;
-        this.releaseLabelPullsFetcher = releaseLabelPullsFetcher;
         this.releaseVersionIncrementChecker = releaseVersionIncrementChecker;
         this.releaseBranchChecker = releaseBranchChecker;
         this.releaseNotesChecker = releaseNotesChecker;
-        this.releaseIssueChecker = releaseIssueChecker;
         this.codeCoverage = codeCoverage;
+        this.releaseStatsAggregator = releaseStatsAggregator;
     }
 
     public Map<String, String> getReleaseRepos(String releaseVersion) {
         return releaseRepoFetcher.getReleaseRepos(releaseVersion);
     }
 
-
-    public Long getReleaseLabelIssues(String releaseVersion, String repo, String issueState, boolean autoCut) {
-        return releaseLabelIssuesFetcher.releaseLabelIssues(releaseVersion, repo, issueState, autoCut, openSearchUtil);
+    public ReleaseManifest getReleaseManifest(String releaseVersion) {
+        return releaseRepoFetcher.getReleaseManifest(releaseVersion);
     }
 
-    public Long getReleaseLabelPulls(String releaseVersion, String repo, String pullState) {
-        return releaseLabelPullsFetcher.releaseLabelPulls(releaseVersion, repo, pullState, openSearchUtil);
-    }
 
-    public boolean getReleaseVersionIncrement (String releaseVersion, String repo, String branch) {
-        return releaseVersionIncrementChecker.releaseVersionIncrement(releaseVersion, repo, branch, objectMapper, openSearchUtil);
+    public CompletableFuture<Optional<Boolean>> getReleaseVersionIncrementAsync (String releaseVersion, String repo, String branch,
+                                                                       CompletableFuture<Boolean> versionIncrementMerged) {
+        return releaseVersionIncrementChecker.releaseVersionIncrementAsync(releaseVersion, repo, branch, objectMapper, versionIncrementMerged);
     }
 
     public Boolean getReleaseNotes (String releaseVersion, String repo, String releaseBranch) {
         return releaseNotesChecker.releaseNotes(releaseVersion, repo, releaseBranch);
     }
 
+    public CompletableFuture<Optional<Boolean>> getReleaseNotesAsync (String releaseVersion, String repo, String releaseBranch) {
+        return releaseNotesChecker.releaseNotesAsync(releaseVersion, repo, releaseBranch);
+    }
+
     public Boolean getReleaseBranch (String releaseVersion, String repo) {
         return releaseBranchChecker.releaseBranch(releaseVersion, repo);
     }
 
-    public String[] getReleaseOwners (String releaseVersion, String repo) {
-        return releaseIssueChecker.releaseOwners(releaseVersion, repo, openSearchUtil);
+    public CompletableFuture<Optional<Boolean>> getReleaseBranchAsync (String releaseVersion, String repo) {
+        return releaseBranchChecker.releaseBranchAsync(releaseVersion, repo);
     }
 
-    public String getReleaseIssue (String releaseVersion, String repo) {
-        return releaseIssueChecker.releaseIssue(releaseVersion, repo, openSearchUtil);
+    public Map<String, Map<String, ReleaseRepoStats>> getReleaseRepoStats (Map<String, ? extends Collection<String>> reposByVersion) {
+        return releaseStatsAggregator.aggregate(reposByVersion, openSearchUtil);
     }
 
     public CodeCovResponse getCodeCoverage (String branch, String repo) {
         return codeCoverage.coverage(branch, repo);
     }
 
+    public CompletableFuture<CodeCovResponse> getCodeCoverageAsync (String branch, String repo) {
+        return codeCoverage.coverageAsync(branch, repo);
+    }
+
 
 }
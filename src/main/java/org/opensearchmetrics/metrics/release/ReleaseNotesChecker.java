@@ -8,19 +8,33 @@
  */
 package org.opensearchmetrics.metrics.release;
 
+import org.opensearchmetrics.util.HttpUtil;
+
 import javax.inject.Inject;
 import java.io.IOException;
-import java.net.HttpURLConnection;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
-public class ReleaseNotesChecker extends UrlResponse {
+public class ReleaseNotesChecker {
 
-    private final UrlResponse urlResponse;
+    private final HttpUtil httpUtil;
     @Inject
-    public ReleaseNotesChecker(UrlResponse urlResponse) {
-        this.urlResponse = urlResponse;
+    public ReleaseNotesChecker(HttpUtil httpUtil) {
+        this.httpUtil = httpUtil;
     }
 
     public Boolean releaseNotes(String releaseVersion, String repo, String releaseBranch) {
+        try {
+            return HttpUtil.await(releaseNotesAsync(releaseVersion, repo, releaseBranch)).orElse(false);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return future of whether the release notes exist, empty when GitHub answered with neither 200 nor 404
+     */
+    public CompletableFuture<Optional<Boolean>> releaseNotesAsync(String releaseVersion, String repo, String releaseBranch) {
         String releaseNotesUrl;
         if(repo.equals("OpenSearch")) {
             releaseNotesUrl = String.format("https://raw.githubusercontent.com/opensearch-project/%s/%s/release-notes/opensearch.release-notes-%s.md", repo, releaseBranch, releaseVersion);
@@ -29,15 +43,6 @@ public class ReleaseNotesChecker extends UrlResponse {
         } else {
             releaseNotesUrl = String.format("https://raw.githubusercontent.com/opensearch-project/%s/%s/release-notes/opensearch-%s.release-notes-%s.0.md", repo, releaseBranch, repo, releaseVersion);
         }
-        try {
-            int responseCode = urlResponse.getUrlResponse(releaseNotesUrl).getResponseCode();
-            if (responseCode == HttpURLConnection.HTTP_OK) {
-                return true;
-            } else {
-                return false;
-            }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        return httpUtil.headAsync(releaseNotesUrl).thenApply(HttpUtil::exists);
     }
 }
@@ -8,37 +8,100 @@
  */
 package org.opensearchmetrics.metrics.release;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import org.opensearchmetrics.model.release.ReleaseManifest;
+import org.opensearchmetrics.util.CachedResponse;
+import org.opensearchmetrics.util.HttpUtil;
 import org.yaml.snakeyaml.Yaml;
 
 import javax.inject.Inject;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.MalformedURLException;
-import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
 
 public class ReleaseRepoFetcher {
+    // Longer than a Lambda run and much shorter than the time between runs
+    private static final Duration RUN_CACHE_DURATION = Duration.ofMinutes(15);
 
+    private final HttpUtil httpUtil;
+    // In-flight or fetched manifest of each version, shared by the stages of one run
+    private final Cache<String, CompletableFuture<ReleaseManifest>> runManifests;
+    // Last parsed manifest of each version, reused across runs while the files are unchanged
+    private final Map<String, ReleaseManifest> parsedManifests = new ConcurrentHashMap<>();
 
     @Inject
-    public ReleaseRepoFetcher() {
+    public ReleaseRepoFetcher(HttpUtil httpUtil) {
+        this(httpUtil, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    ReleaseRepoFetcher(HttpUtil httpUtil, Ticker ticker) {
+        this.httpUtil = httpUtil;
+        this.runManifests = CacheBuilder.newBuilder()
+                .expireAfterWrite(RUN_CACHE_DURATION)
+                .ticker(ticker)
+                .build();
     }
 
     public Map<String, String> getReleaseRepos(String releaseVersion) {
-        Map<String, String> repoMap = new HashMap<>();
+        return getReleaseManifest(releaseVersion).getRepoComponents();
+    }
+
+    /*
+    Fetches and parses the manifests of a version once per run. Concurrent callers wait for the same fetch.
+     */
+    public ReleaseManifest getReleaseManifest(String releaseVersion) {
+        CompletableFuture<ReleaseManifest> manifest;
+        try {
+            manifest = runManifests.get(releaseVersion, () -> fetchReleaseManifestAsync(releaseVersion));
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+        try {
+            return HttpUtil.await(manifest);
+        } catch (IOException e) {
+            // Do not keep a failed fetch for the rest of the run
+            runManifests.asMap().remove(releaseVersion, manifest);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private CompletableFuture<ReleaseManifest> fetchReleaseManifestAsync(String releaseVersion) {
         String[] urls = {
                 String.format("https://raw.githubusercontent.com/opensearch-project/opensearch-build/main/manifests/%s/opensearch-%s.yml", releaseVersion, releaseVersion),
                 String.format("https://raw.githubusercontent.com/opensearch-project/opensearch-build/main/manifests/%s/opensearch-dashboards-%s.yml", releaseVersion, releaseVersion)
         };
-        for (String url : urls) {
-            String responseBody = readUrl(url);
-            parseYaml(responseBody, repoMap);
-        }
-        repoMap.putAll(releaseRepoExceptionMap());
-        return repoMap;
+        // Both manifests are requested at once
+        List<CompletableFuture<String>> responseBodies = Arrays.stream(urls)
+                .map(this::readUrlAsync)
+                .collect(Collectors.toList());
+        return CompletableFuture.allOf(responseBodies.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            List<String> bodies = responseBodies.stream().map(CompletableFuture::join).collect(Collectors.toList());
+            String contentHash = Hashing.sha256().hashString(String.join("\n---\n", bodies), StandardCharsets.UTF_8).toString();
+            ReleaseManifest previous = parsedManifests.get(releaseVersion);
+            if (previous != null && previous.getContentHash().equals(contentHash)) {
+                return previous;
+            }
+            Map<String, String> repoMap = new HashMap<>();
+            bodies.forEach(responseBody -> parseYaml(responseBody, repoMap));
+            repoMap.putAll(releaseRepoExceptionMap());
+            ReleaseManifest manifest = new ReleaseManifest(releaseVersion, repoMap, contentHash);
+            parsedManifests.put(releaseVersion, manifest);
+            return manifest;
+        });
     }
 
 
@@ -52,22 +115,26 @@ public class ReleaseRepoFetcher {
     };
 
     public String readUrl(String url) {
-        StringBuilder content = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(createURL(url).openStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                content.append(line).append("\n");
+        return join(readUrlAsync(url));
+    }
+
+    public CompletableFuture<String> readUrlAsync(String url) {
+        return readOkAsync(url).thenApply(CachedResponse::getBody);
+    }
+
+    private CompletableFuture<CachedResponse> readOkAsync(String url) {
+        return httpUtil.getCachedAsync(url).thenApply(response -> {
+            if (!response.isOk()) {
+                throw new CompletionException(new IOException("GET " + url + " returned status " + response.getStatusCode()));
             }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-        return content.toString();
+            return response;
+        });
     }
 
-    public URL createURL(String url){
+    private static String join(CompletableFuture<String> responseBody) {
         try {
-            return new URL(url);
-        } catch (MalformedURLException e) {
+            return HttpUtil.await(responseBody);
+        } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
@@ -0,0 +1,77 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.metrics.release;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.opensearchmetrics.model.codecov.CodeCovResult;
+import org.opensearchmetrics.model.release.ReleaseMetricsData;
+import org.opensearchmetrics.util.StateStore;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Evaluated documents of closed releases, kept in a {@link StateStore} so later runs can emit them
+ * again without any GitHub, Codecov or OpenSearch call.
+ */
+public class ReleaseSnapshotStore {
+    private static final String KEY_PREFIX = "release-snapshots/";
+
+    private final StateStore stateStore;
+    private final ObjectMapper objectMapper;
+
+    public ReleaseSnapshotStore(StateStore stateStore, ObjectMapper objectMapper) {
+        this.stateStore = stateStore;
+        this.objectMapper = objectMapper;
+    }
+
+    public Optional<List<ReleaseMetricsData>> getReleaseMetrics(String releaseVersion) {
+        return read(key(releaseVersion, "release-metrics"), new TypeReference<List<ReleaseMetricsData>>() {});
+    }
+
+    public void putReleaseMetrics(String releaseVersion, List<ReleaseMetricsData> releaseMetricsDataList) {
+        write(key(releaseVersion, "release-metrics"), releaseMetricsDataList);
+    }
+
+    public Optional<List<CodeCovResult>> getCodeCoverage(String releaseVersion, String branch) {
+        return read(key(releaseVersion, "codecov-" + branch), new TypeReference<List<CodeCovResult>>() {});
+    }
+
+    public void putCodeCoverage(String releaseVersion, String branch, List<CodeCovResult> codeCovResults) {
+        write(key(releaseVersion, "codecov-" + branch), codeCovResults);
+    }
+
+    private static String key(String releaseVersion, String name) {
+        return KEY_PREFIX + releaseVersion + "/" + name.replace('/', '-');
+    }
+
+    private <T> Optional<List<T>> read(String key, TypeReference<List<T>> type) {
+        try {
+            Optional<String> json = stateStore.get(key);
+            if (json.isEmpty()) {
+                return Optional.empty();
+            }
+            return Optional.of(objectMapper.readValue(json.get(), type));
+        } catch (JsonProcessingException | RuntimeException e) {
+            // An unreadable snapshot only costs one more evaluation, which writes a new one.
+            System.out.println("Unable to read release snapshot " + key + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void write(String key, List<?> documents) {
+        try {
+            stateStore.put(key, objectMapper.writeValueAsString(documents));
+        } catch (JsonProcessingException | RuntimeException e) {
+            System.out.println("Unable to write release snapshot " + key + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.metrics.release;
+
+import org.opensearch.action.search.MultiSearchResponse;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.core.rest.RestStatus;
+import org.opensearch.index.query.QueryBuilder;
+import org.opensearch.index.query.QueryBuilders;
+import org.opensearch.search.SearchHit;
+import org.opensearch.search.aggregations.AggregationBuilders;
+import org.opensearch.search.aggregations.bucket.filter.Filters;
+import org.opensearch.search.aggregations.bucket.filter.FiltersAggregator;
+import org.opensearch.search.aggregations.bucket.terms.Terms;
+import org.opensearch.search.aggregations.metrics.TopHits;
+import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearchmetrics.model.release.ReleaseRepoStats;
+import org.opensearchmetrics.util.OpenSearchUtil;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes the release label counts, release issue, release owners and version increment pull of
+ * every repository of a release with two size:0 searches per release version, one on
+ * {@code github_issues} and one on {@code github_pulls}, all sent in one _msearch.
+ * <p>
+ * Each search has a {@code terms} aggregation on {@code repository.keyword} with a
+ * {@code filters} sub-aggregation holding one named filter per value.
+ */
+public class ReleaseStatsAggregator {
+    private static final String ISSUES_INDEX = "github_issues";
+    private static final String PULLS_INDEX = "github_pulls";
+    private static final String REPOSITORY_FIELD = "repository.keyword";
+    private static final String REPOSITORIES_AGG = "repositories";
+    private static final String RELEASE_AGG = "release";
+    private static final String ISSUES_OPEN = "issues_open";
+    private static final String AUTOCUT_ISSUES_OPEN = "autocut_issues_open";
+    private static final String ISSUES_CLOSED = "issues_closed";
+    private static final String RELEASE_ISSUE = "release_issue";
+    private static final String RELEASE_ISSUE_HIT_AGG = "release_issue_hit";
+    private static final String ISSUE_ASSIGNEES_AGG = "issue_assignees";
+    private static final String PULLS_OPEN = "pulls_open";
+    private static final String PULLS_CLOSED = "pulls_closed";
+    private static final String VERSION_INCREMENT = "version_increment";
+
+    @Inject
+    public ReleaseStatsAggregator() {}
+
+    /**
+     * @param reposByVersion repositories of each release version
+     * @return stats keyed by release version, then by repository; every requested repository is present
+     * @throws RuntimeException when any search of the _msearch fails or is not OK; the whole aggregation
+     *                          fails rather than reporting zero counts for the affected repositories
+     */
+    public Map<String, Map<String, ReleaseRepoStats>> aggregate(Map<String, ? extends Collection<String>> reposByVersion,
+                                                                OpenSearchUtil openSearchUtil) {
+        List<SearchRequest> searchRequests = new ArrayList<>();
+        Map<String, Map<String, ReleaseRepoStats>> stats = new LinkedHashMap<>();
+        reposByVersion.forEach((releaseVersion, repositories) -> {
+            Map<String, ReleaseRepoStats> versionStats = new LinkedHashMap<>();
+            repositories.forEach(repo -> versionStats.put(repo, new ReleaseRepoStats()));
+            stats.put(releaseVersion, versionStats);
+            searchRequests.add(issuesSearchRequest(releaseVersion, versionStats.keySet()));
+            searchRequests.add(pullsSearchRequest(releaseVersion, versionStats.keySet()));
+        });
+        if (searchRequests.isEmpty()) {
+            return stats;
+        }
+
+        List<MultiSearchResponse.Item> items = openSearchUtil.searchBatch(searchRequests);
+        int i = 0;
+        for (Map<String, ReleaseRepoStats> versionStats : stats.values()) {
+            readIssues(response(items.get(i), searchRequests.get(i)), versionStats);
+            i++;
+            readPulls(response(items.get(i), searchRequests.get(i)), versionStats);
+            i++;
+        }
+        return stats;
+    }
+
+    SearchRequest issuesSearchRequest(String releaseVersion, Collection<String> repositories) {
+        QueryBuilder releaseLabel = QueryBuilders.termQuery("issue_labels.keyword", "v" + releaseVersion);
+        QueryBuilder releaseTitle = QueryBuilders.termQuery("title.keyword", "[RELEASE] Release version " + releaseVersion);
+        FiltersAggregator.KeyedFilter[] filters = {
+                new FiltersAggregator.KeyedFilter(ISSUES_OPEN, QueryBuilders.boolQuery()
+                        .filter(releaseLabel)
+                        .filter(QueryBuilders.termQuery("state.keyword", "open"))),
+                new FiltersAggregator.KeyedFilter(AUTOCUT_ISSUES_OPEN, QueryBuilders.boolQuery()
+                        .filter(releaseLabel)
+                        .filter(QueryBuilders.termQuery("issue_labels.keyword", "autocut"))
+                        .filter(QueryBuilders.termQuery("state.keyword", "open"))),
+                new FiltersAggregator.KeyedFilter(ISSUES_CLOSED, QueryBuilders.boolQuery()
+                        .filter(releaseLabel)
+                        .filter(QueryBuilders.termQuery("state.keyword", "closed"))),
+                new FiltersAggregator.KeyedFilter(RELEASE_ISSUE, releaseTitle)
+        };
+        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+        searchSourceBuilder.query(QueryBuilders.boolQuery()
+                .filter(QueryBuilders.termsQuery(REPOSITORY_FIELD, repositories))
+                .filter(QueryBuilders.termQuery("issue_pull_request", false))
+                .should(releaseLabel)
+                .should(releaseTitle)
+                .minimumShouldMatch(1));
+        searchSourceBuilder.size(0);
+        searchSourceBuilder.aggregation(AggregationBuilders.terms(REPOSITORIES_AGG)
+                .field(REPOSITORY_FIELD)
+                .size(repositories.size())
+                .subAggregation(AggregationBuilders.filters(RELEASE_AGG, filters)
+                        .subAggregation(AggregationBuilders.topHits(RELEASE_ISSUE_HIT_AGG)
+                                .size(1)
+                                .fetchSource(new String[]{"html_url"}, null))
+                        .subAggregation(AggregationBuilders.terms(ISSUE_ASSIGNEES_AGG)
+                                .field("issue_assignees.keyword")
+                                .size(50))));
+        return searchRequest(ISSUES_INDEX, searchSourceBuilder);
+    }
+
+    SearchRequest pullsSearchRequest(String releaseVersion, Collection<String> repositories) {
+        FiltersAggregator.KeyedFilter[] filters = {
+                new FiltersAggregator.KeyedFilter(PULLS_OPEN, QueryBuilders.termQuery("state.keyword", "open")),
+                new FiltersAggregator.KeyedFilter(PULLS_CLOSED, QueryBuilders.termQuery("state.keyword", "closed")),
+                new FiltersAggregator.KeyedFilter(VERSION_INCREMENT, QueryBuilders.boolQuery()
+                        .filter(QueryBuilders.termQuery("merged", true))
+                        .filter(QueryBuilders.prefixQuery("title.keyword", "[AUTO] Increment version to")))
+        };
+        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+        searchSourceBuilder.query(QueryBuilders.boolQuery()
+                .filter(QueryBuilders.termsQuery(REPOSITORY_FIELD, repositories))
+                .filter(QueryBuilders.termQuery("pull_labels.keyword", "v" + releaseVersion)));
+        searchSourceBuilder.size(0);
+        searchSourceBuilder.aggregation(AggregationBuilders.terms(REPOSITORIES_AGG)
+                .field(REPOSITORY_FIELD)
+                .size(repositories.size())
+                .subAggregation(AggregationBuilders.filters(RELEASE_AGG, filters)));
+        return searchRequest(PULLS_INDEX, searchSourceBuilder);
+    }
+
+    private static SearchRequest searchRequest(String index, SearchSourceBuilder searchSourceBuilder) {
+        SearchRequest searchRequest = new SearchRequest(index);
+        searchRequest.source(searchSourceBuilder);
+        searchRequest.requestCache(true);
+        return searchRequest;
+    }
+
+    private static SearchResponse response(MultiSearchResponse.Item item, SearchRequest searchRequest) {
+        if (item.isFailure()) {
+            throw new RuntimeException("Release metrics search failed on " + searchRequest.indices()[0], item.getFailure());
+        }
+        if (item.getResponse().status() != RestStatus.OK) {
+            throw new RuntimeException("Error connecting to the cluster");
+        }
+        return item.getResponse();
+    }
+
+    private static void readIssues(SearchResponse searchResponse, Map<String, ReleaseRepoStats> versionStats) {
+        Terms repositories = searchResponse.getAggregations().get(REPOSITORIES_AGG);
+        for (Terms.Bucket repoBucket : repositories.getBuckets()) {
+            ReleaseRepoStats repoStats = versionStats.get(repoBucket.getKeyAsString());
+            if (repoStats == null) {
+                continue;
+            }
+            Filters release = repoBucket.getAggregations().get(RELEASE_AGG);
+            repoStats.setIssuesOpen(release.getBucketByKey(ISSUES_OPEN).getDocCount());
+            repoStats.setAutocutIssuesOpen(release.getBucketByKey(AUTOCUT_ISSUES_OPEN).getDocCount());
+            repoStats.setIssuesClosed(release.getBucketByKey(ISSUES_CLOSED).getDocCount());
+            Filters.Bucket releaseIssue = release.getBucketByKey(RELEASE_ISSUE);
+            Terms assignees = releaseIssue.getAggregations().get(ISSUE_ASSIGNEES_AGG);
+            repoStats.setReleaseOwners(assignees.getBuckets().stream()
+                    .map(Terms.Bucket::getKeyAsString)
+                    .toArray(String[]::new));
+            TopHits releaseIssueHit = releaseIssue.getAggregations().get(RELEASE_ISSUE_HIT_AGG);
+            repoStats.setReleaseIssue(Arrays.stream(releaseIssueHit.getHits().getHits())
+                    .findFirst()
+                    .map(SearchHit::getSourceAsMap)
+                    .map(source -> (String) source.get("html_url"))
+                    .orElse(null));
+        }
+    }
+
+    private static void readPulls(SearchResponse searchResponse, Map<String, ReleaseRepoStats> versionStats) {
+        Terms repositories = searchResponse.getAggregations().get(REPOSITORIES_AGG);
+        for (Terms.Bucket repoBucket : repositories.getBuckets()) {
+            ReleaseRepoStats repoStats = versionStats.get(repoBucket.getKeyAsString());
+            if (repoStats == null) {
+                continue;
+            }
+            Filters release = repoBucket.getAggregations().get(RELEASE_AGG);
+            repoStats.setPullsOpen(release.getBucketByKey(PULLS_OPEN).getDocCount());
+            repoStats.setPullsClosed(release.getBucketByKey(PULLS_CLOSED).getDocCount());
+            repoStats.setVersionIncrementMerged(release.getBucketByKey(VERSION_INCREMENT).getDocCount() > 0);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.model.event;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The webhook objects of one event type and day, rewritten into gzip NDJSON segments. Written
+ * after its segments, so a day with a manifest is completely compacted.
+ */
+@Data
+public class CompactionManifest {
+
+    @JsonProperty("event_name")
+    private String eventName;
+
+    // yyyy-MM-dd
+    @JsonProperty("day")
+    private String day;
+
+    @JsonProperty("object_count")
+    private long objectCount;
+
+    // ISO-8601, absent when the day had no objects
+    @JsonProperty("oldest_last_modified")
+    private String oldestLastModified;
+
+    // ISO-8601, absent when the day had no objects
+    @JsonProperty("newest_last_modified")
+    private String newestLastModified;
+
+    @JsonProperty("segments")
+    private List<Segment> segments = new ArrayList<>();
+
+    @Data
+    public static class Segment {
+
+        @JsonProperty("key")
+        private String key;
+
+        @JsonProperty("object_count")
+        private long objectCount;
+    }
+}
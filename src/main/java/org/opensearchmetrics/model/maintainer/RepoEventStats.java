@@ -0,0 +1,52 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.model.maintainer;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Number of events of every repository over the inactivity window, read once per run.
+ */
+@EqualsAndHashCode
+@ToString
+public class RepoEventStats {
+    private final Map<String, Long> eventCounts;
+
+    public RepoEventStats(Map<String, Long> eventCounts) {
+        this.eventCounts = Collections.unmodifiableMap(new HashMap<>(eventCounts));
+    }
+
+    /**
+     * @return number of events of the repo, 0 if it had none in the window
+     */
+    public long getEventCount(String repo) {
+        return eventCounts.getOrDefault(repo, 0L);
+    }
+
+    /**
+     * @return number of events of the repo with the most events
+     */
+    public long getMostEventCount() {
+        return eventCounts.values().stream().mapToLong(Long::longValue).max()
+                .orElseThrow(() -> new RuntimeException("Error retrieving event counts"));
+    }
+
+    /**
+     * @return number of events of the repo with the least events, among repos with any event
+     */
+    public long getLeastEventCount() {
+        return eventCounts.values().stream().mapToLong(Long::longValue).min()
+                .orElseThrow(() -> new RuntimeException("Error retrieving event counts"));
+    }
+}
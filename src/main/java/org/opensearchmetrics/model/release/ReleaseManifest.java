@@ -0,0 +1,42 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.model.release;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parsed opensearch-build manifests of one release: the repositories that take part in it and
+ * their component names. Immutable, so one instance is shared by every release stage and thread.
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public final class ReleaseManifest {
+    private final String version;
+    private final Map<String, String> repoComponents;
+    // Hash of the manifest files the repositories were parsed from
+    private final String contentHash;
+
+    public ReleaseManifest(String version, Map<String, String> repoComponents, String contentHash) {
+        this.version = version;
+        this.repoComponents = Collections.unmodifiableMap(new LinkedHashMap<>(repoComponents));
+        this.contentHash = contentHash;
+    }
+
+    public Set<String> getRepositories() {
+        return repoComponents.keySet();
+    }
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.model.release;
+
+import lombok.Data;
+
+/**
+ * Release label counts, release issue and version increment pull of one repository for one
+ * release version. A repository without matching documents keeps the defaults.
+ */
+@Data
+public class ReleaseRepoStats {
+    private long issuesOpen;
+    private long autocutIssuesOpen;
+    private long issuesClosed;
+    private long pullsOpen;
+    private long pullsClosed;
+    private String[] releaseOwners = new String[0];
+    private String releaseIssue;
+    private boolean versionIncrementMerged;
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.util;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.OpenSearchStatusException;
+import org.opensearch.action.DocWriteRequest;
+import org.opensearch.action.bulk.BulkItemResponse;
+import org.opensearch.action.bulk.BulkRequest;
+import org.opensearch.action.bulk.BulkResponse;
+import org.opensearch.client.RequestOptions;
+import org.opensearch.client.ResponseException;
+import org.opensearch.client.RestHighLevelClient;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.core.rest.RestStatus;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Adaptive bulk writer shared by every bulk indexing path.
+ * <p>
+ * Batches are sized by serialized bytes rather than action count. Items rejected by the cluster
+ * (429 / es_rejected_execution) are retried on their own with exponential backoff and full jitter,
+ * and both the target batch size and the number of bulk requests in flight shrink on pushback
+ * (multiplicative decrease) and grow back after a round of clean responses (additive increase).
+ */
+@Slf4j
+public class BulkIndexer {
+    static final long MIN_BATCH_BYTES = 256 * 1024;
+    static final long MAX_BATCH_BYTES = 10 * 1024 * 1024;
+    static final long INITIAL_BATCH_BYTES = 2 * 1024 * 1024;
+    static final int MIN_IN_FLIGHT = 1;
+    static final int MAX_IN_FLIGHT = 16;
+    static final int INITIAL_IN_FLIGHT = 8;
+    private static final int MAX_BATCH_ACTIONS = 10_000;
+    private static final int MAX_RETRIES = 8;
+    private static final long BASE_BACKOFF_MILLIS = 200;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+    private static final long SLOT_TIMEOUT_MINUTES = 10;
+
+    // Retries are rescheduled here; the thread is reused across warm invocations.
+    private static final ScheduledExecutorService RETRY_SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("bulk-retry-%d").build());
+
+    private final RestHighLevelClient client;
+    private final long baseBackoffMillis;
+    private final Object lock = new Object();
+    private long batchBytes = INITIAL_BATCH_BYTES;
+    private int inFlightLimit = INITIAL_IN_FLIGHT;
+    private int inFlight = 0;
+    private int cleanResponses = 0;
+
+    public BulkIndexer(RestHighLevelClient client) {
+        this(client, BASE_BACKOFF_MILLIS);
+    }
+
+    @VisibleForTesting
+    BulkIndexer(RestHighLevelClient client, long baseBackoffMillis) {
+        this.client = client;
+        this.baseBackoffMillis = baseBackoffMillis;
+    }
+
+    /**
+     * Current target size of a bulk request body in bytes.
+     */
+    public long getBatchBytes() {
+        synchronized (lock) {
+            return batchBytes;
+        }
+    }
+
+    /**
+     * Current cap on bulk requests in flight.
+     */
+    public int getInFlightLimit() {
+        synchronized (lock) {
+            return inFlightLimit;
+        }
+    }
+
+    /**
+     * Whether a batch being accumulated has reached the current flush threshold.
+     */
+    public boolean isFull(BulkRequest bulkRequest) {
+        return bulkRequest.estimatedSizeInBytes() >= getBatchBytes()
+                || bulkRequest.numberOfActions() >= MAX_BATCH_ACTIONS;
+    }
+
+    /**
+     * Sends a bulk request, blocking the caller until an in-flight slot is free.
+     * The returned future completes once every item has been indexed, or fails if
+     * rejected items are still being refused after {@value #MAX_RETRIES} retries.
+     */
+    public CompletableFuture<Void> submit(BulkRequest bulkRequest) {
+        try {
+            acquireSlot();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (TimeoutException e) {
+            throw new RuntimeException(e);
+        }
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        result.whenComplete((ignored, throwable) -> releaseSlot());
+        send(bulkRequest, 0, result);
+        return result;
+    }
+
+    private void send(BulkRequest bulkRequest, int attempt, CompletableFuture<Void> result) {
+        client.bulkAsync(bulkRequest, RequestOptions.DEFAULT, new ActionListener<>() {
+            @Override
+            public void onResponse(BulkResponse response) {
+                handleResponse(bulkRequest, response, attempt, result);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                if (!isRetryable(e) || attempt >= MAX_RETRIES) {
+                    System.out.println("Bulk request failed after " + (attempt + 1) + " attempt(s): " + e);
+                    result.completeExceptionally(e);
+                    return;
+                }
+                if (isRejection(e)) {
+                    onPushback();
+                }
+                scheduleRetry(bulkRequest, attempt, result);
+            }
+        });
+    }
+
+    private void handleResponse(BulkRequest bulkRequest, BulkResponse response, int attempt, CompletableFuture<Void> result) {
+        if (!response.hasFailures()) {
+            onCleanResponse();
+            result.complete(null);
+            return;
+        }
+        List<DocWriteRequest<?>> requests = bulkRequest.requests();
+        BulkItemResponse[] items = response.getItems();
+        BulkRequest retryRequest = new BulkRequest();
+        StringBuilder permanentFailures = new StringBuilder();
+        for (int i = 0; i < items.length; i++) {
+            BulkItemResponse item = items[i];
+            if (!item.isFailed()) {
+                continue;
+            }
+            if (isRejection(item.getFailure())) {
+                retryRequest.add(requests.get(i));
+            } else {
+                permanentFailures.append("\n[").append(i).append("]: index [").append(item.getIndex())
+                        .append("], id [").append(item.getId()).append("], message [")
+                        .append(item.getFailureMessage()).append("]");
+            }
+        }
+        if (permanentFailures.length() > 0) {
+            System.out.println("Bulk index has errors: " + permanentFailures);
+        }
+        if (retryRequest.numberOfActions() == 0) {
+            onCleanResponse();
+            result.complete(null);
+            return;
+        }
+        onPushback();
+        if (attempt >= MAX_RETRIES) {
+            result.completeExceptionally(new RuntimeException("Bulk index rejected " + retryRequest.numberOfActions()
+                    + " documents after " + (attempt + 1) + " attempts"));
+            return;
+        }
+        System.out.println("Retrying " + retryRequest.numberOfActions() + " rejected documents, attempt " + (attempt + 1));
+        scheduleRetry(retryRequest, attempt, result);
+    }
+
+    private void scheduleRetry(BulkRequest bulkRequest, int attempt, CompletableFuture<Void> result) {
+        RETRY_SCHEDULER.schedule(() -> send(bulkRequest, attempt + 1, result),
+                backoffMillis(attempt), TimeUnit.MILLISECONDS);
+    }
+
+    /*
+    Exponential backoff with full jitter: a random delay in [0, min(cap, base * 2^attempt)].
+     */
+    @VisibleForTesting
+    long backoffMillis(int attempt) {
+        long ceiling = Math.min(MAX_BACKOFF_MILLIS, baseBackoffMillis << Math.min(attempt, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static boolean isRejection(BulkItemResponse.Failure failure) {
+        return failure.getStatus() == RestStatus.TOO_MANY_REQUESTS
+                || String.valueOf(failure.getMessage()).contains("rejected_execution");
+    }
+
+    private static boolean isRejection(Exception e) {
+        if (e instanceof OpenSearchStatusException) {
+            return ((OpenSearchStatusException) e).status() == RestStatus.TOO_MANY_REQUESTS;
+        }
+        if (e instanceof ResponseException) {
+            return ((ResponseException) e).getResponse().getStatusLine().getStatusCode() == RestStatus.TOO_MANY_REQUESTS.getStatus();
+        }
+        return false;
+    }
+
+    private static boolean isRetryable(Exception e) {
+        return isRejection(e) || (e instanceof IOException && !(e instanceof ResponseException));
+    }
+
+    private void acquireSlot() throws InterruptedException, TimeoutException {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(SLOT_TIMEOUT_MINUTES);
+        synchronized (lock) {
+            while (inFlight >= inFlightLimit) {
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMillis <= 0) {
+                    throw new TimeoutException("Timed out waiting for an in-flight bulk request slot");
+                }
+                lock.wait(remainingMillis);
+            }
+            inFlight++;
+        }
+    }
+
+    private void releaseSlot() {
+        synchronized (lock) {
+            inFlight--;
+            lock.notifyAll();
+        }
+    }
+
+    private void onPushback() {
+        synchronized (lock) {
+            cleanResponses = 0;
+            inFlightLimit = Math.max(MIN_IN_FLIGHT, inFlightLimit / 2);
+            batchBytes = Math.max(MIN_BATCH_BYTES, batchBytes / 2);
+        }
+    }
+
+    /*
+    Grow once per round, i.e. after as many clean responses as there are slots.
+     */
+    private void onCleanResponse() {
+        synchronized (lock) {
+            if (++cleanResponses < inFlightLimit) {
+                return;
+            }
+            cleanResponses = 0;
+            inFlightLimit = Math.min(MAX_IN_FLIGHT, inFlightLimit + 1);
+            batchBytes = Math.min(MAX_BATCH_BYTES, batchBytes + batchBytes / 4);
+            lock.notifyAll();
+        }
+    }
+}
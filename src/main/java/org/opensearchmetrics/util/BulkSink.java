@@ -0,0 +1,174 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.util;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.action.bulk.BulkRequest;
+import org.opensearch.action.index.IndexRequest;
+import org.opensearch.common.xcontent.XContentType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Run-wide streaming writer: documents are added one at a time, for any number of indices,
+ * and flushed through the {@link BulkIndexer} whenever the buffered batch reaches the current
+ * size target or has been waiting for {@value #FLUSH_INTERVAL_SECONDS} seconds.
+ * Closing the sink waits for a timed flush that is already running, flushes what is left and
+ * waits for every outstanding batch, throwing if any batch was lost.
+ */
+@Slf4j
+public class BulkSink implements AutoCloseable {
+    private static final long FLUSH_INTERVAL_SECONDS = 5;
+    private static final long CLOSE_TIMEOUT_MINUTES = 10;
+
+    private final BulkIndexer bulkIndexer;
+    private final Object lock = new Object();
+    private final List<CompletableFuture<Void>> pending = new ArrayList<>();
+    // Owned by this sink, so a slow flush of one sink never delays the timed flush of another
+    private final ScheduledExecutorService flushScheduler = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("bulk-sink-flush-%d").build());
+    private BulkRequest buffer = new BulkRequest();
+    private long documentCount = 0;
+    private volatile Throwable failure;
+    private volatile boolean closed = false;
+
+    BulkSink(BulkIndexer bulkIndexer) {
+        this(bulkIndexer, FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @VisibleForTesting
+    BulkSink(BulkIndexer bulkIndexer, long flushInterval, TimeUnit unit) {
+        this.bulkIndexer = bulkIndexer;
+        flushScheduler.scheduleWithFixedDelay(this::flushQuietly, flushInterval, flushInterval, unit);
+    }
+
+    /**
+     * Buffers a json document for indexing. May block while the cluster is applying backpressure.
+     *
+     * @param index name of the target index
+     * @param id    id of the doc
+     * @param json  json source of the doc
+     */
+    public void add(@NonNull String index, @NonNull String id, @NonNull String json) {
+        throwIfFailed();
+        BulkRequest fullBatch = null;
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("Bulk sink is already closed");
+            }
+            buffer.add(new IndexRequest()
+                    .index(index)
+                    .id(id)
+                    .source(json, XContentType.JSON));
+            documentCount++;
+            if (bulkIndexer.isFull(buffer)) {
+                fullBatch = buffer;
+                buffer = new BulkRequest();
+            }
+        }
+        if (fullBatch != null) {
+            submit(fullBatch);
+        }
+    }
+
+    /**
+     * Sends whatever is currently buffered.
+     */
+    public void flush() {
+        BulkRequest batch;
+        synchronized (lock) {
+            if (buffer.numberOfActions() == 0) {
+                return;
+            }
+            batch = buffer;
+            buffer = new BulkRequest();
+        }
+        submit(batch);
+    }
+
+    public long getDocumentCount() {
+        synchronized (lock) {
+            return documentCount;
+        }
+    }
+
+    @Override
+    public void close() {
+        // A timed flush may have taken the buffer without having submitted it yet, so wait for it to
+        // finish before collecting the outstanding batches.
+        flushScheduler.shutdown();
+        try {
+            if (!flushScheduler.awaitTermination(CLOSE_TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+                throw new RuntimeException("Timed out waiting for the running flush");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        flush();
+        synchronized (lock) {
+            closed = true;
+        }
+        CompletableFuture<?>[] outstanding;
+        synchronized (pending) {
+            outstanding = pending.toArray(new CompletableFuture[0]);
+        }
+        try {
+            CompletableFuture.allOf(outstanding).get(CLOSE_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Bulk indexing failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new RuntimeException(e);
+        }
+        // A timed flush that failed to submit its batch left nothing in pending
+        throwIfFailed();
+        System.out.println("Bulk sink closed after indexing " + getDocumentCount() + " documents");
+    }
+
+    private void submit(BulkRequest batch) {
+        CompletableFuture<Void> future = bulkIndexer.submit(batch);
+        future.whenComplete((ignored, throwable) -> {
+            if (throwable != null) {
+                failure = throwable;
+            }
+        });
+        synchronized (pending) {
+            // Only failed futures need to be kept once done, so memory stays flat over a long run.
+            pending.removeIf(f -> f.isDone() && !f.isCompletedExceptionally());
+            pending.add(future);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+    }
+
+    private void throwIfFailed() {
+        if (failure != null) {
+            throw new RuntimeException("Bulk indexing failed", failure);
+        }
+    }
+}
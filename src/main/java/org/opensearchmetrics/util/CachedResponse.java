@@ -0,0 +1,63 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.util;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Response of a GET sent through {@link HttpUtil#getCachedAsync(String)}, with the validators
+ * needed to revalidate it. While it stays in memory, values parsed from the body are kept with
+ * it, so a revalidated response is not parsed again.
+ */
+@Getter
+public class CachedResponse {
+    private final String url;
+    private final int statusCode;
+    private final String body;
+    private final String etag;
+    private final String lastModified;
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Object> parsed = new ConcurrentHashMap<>();
+
+    public CachedResponse(String url, int statusCode, String body, String etag, String lastModified) {
+        this.url = url;
+        this.statusCode = statusCode;
+        this.body = body;
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    public boolean isOk() {
+        return statusCode == HttpUtil.HTTP_OK;
+    }
+
+    /**
+     * @return whether the response can be revalidated with a conditional request
+     */
+    public boolean hasValidator() {
+        return etag != null || lastModified != null;
+    }
+
+    /**
+     * Parses the body once and returns the same value on later calls with the same name.
+     * The parsed value is shared, so it should not be modified.
+     *
+     * @param name   name of the parser, unique per kind of parsed value
+     * @param parser function from the body to the parsed value
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T parse(String name, Function<String, T> parser) {
+        return (T) parsed.computeIfAbsent(name, key -> parser.apply(body));
+    }
+}
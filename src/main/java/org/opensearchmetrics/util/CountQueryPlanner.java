@@ -0,0 +1,65 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.util;
+
+import org.opensearch.index.query.BoolQueryBuilder;
+import org.opensearch.index.query.MatchQueryBuilder;
+import org.opensearch.index.query.QueryBuilder;
+import org.opensearch.index.query.QueryBuilders;
+
+/**
+ * Plans queries whose only output is a document count or an aggregation.
+ * <p>
+ * Scoring is irrelevant for such queries, so every clause is moved into filter context, and
+ * {@code match} clauses on keyword, boolean and numeric values are rewritten into {@code term}
+ * queries, which the node query cache can reuse across runs.
+ */
+public final class CountQueryPlanner {
+
+    private CountQueryPlanner() {}
+
+    /**
+     * Rewrites a bool query so that no clause is scored: must clauses become filters and
+     * exact-value match clauses become term queries, recursively.
+     */
+    public static BoolQueryBuilder toFilterContext(BoolQueryBuilder queryBuilder) {
+        BoolQueryBuilder planned = QueryBuilders.boolQuery();
+        queryBuilder.must().forEach(clause -> planned.filter(rewrite(clause)));
+        queryBuilder.filter().forEach(clause -> planned.filter(rewrite(clause)));
+        queryBuilder.mustNot().forEach(clause -> planned.mustNot(rewrite(clause)));
+        queryBuilder.should().forEach(clause -> planned.should(rewrite(clause)));
+        planned.minimumShouldMatch(queryBuilder.minimumShouldMatch());
+        return planned;
+    }
+
+    private static QueryBuilder rewrite(QueryBuilder clause) {
+        if (clause instanceof BoolQueryBuilder) {
+            return toFilterContext((BoolQueryBuilder) clause);
+        }
+        if (clause instanceof MatchQueryBuilder && isExactValueMatch((MatchQueryBuilder) clause)) {
+            MatchQueryBuilder match = (MatchQueryBuilder) clause;
+            return QueryBuilders.termQuery(match.fieldName(), match.value());
+        }
+        return clause;
+    }
+
+    /*
+    A match query behaves like a term query when the value is not analyzed into several tokens:
+    keyword sub-fields, booleans and numbers. Anything else is kept as is.
+     */
+    private static boolean isExactValueMatch(MatchQueryBuilder match) {
+        if (match.fuzziness() != null || match.analyzer() != null) {
+            return false;
+        }
+        Object value = match.value();
+        return match.fieldName().endsWith(".keyword")
+                || value instanceof Boolean
+                || value instanceof Number;
+    }
+}
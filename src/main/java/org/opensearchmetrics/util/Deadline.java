@@ -0,0 +1,53 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.util;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+
+import java.time.Duration;
+
+/**
+ * Point in time by which an invocation must stop starting new work, so that what it already
+ * computed can still be flushed and checkpointed before Lambda ends it.
+ */
+public class Deadline {
+    private final Ticker ticker;
+    private final long deadlineNanos;
+
+    @VisibleForTesting
+    Deadline(Ticker ticker, Duration remaining) {
+        this.ticker = ticker;
+        this.deadlineNanos = ticker.read() + remaining.toNanos();
+    }
+
+    /**
+     * @return the deadline {@code reserve} before the invocation times out, or one that never
+     * passes without a Lambda context
+     */
+    public static Deadline of(Context context, Duration reserve) {
+        if (context == null) {
+            return none();
+        }
+        return new Deadline(Ticker.systemTicker(), Duration.ofMillis(context.getRemainingTimeInMillis()).minus(reserve));
+    }
+
+    public static Deadline none() {
+        return new Deadline(Ticker.systemTicker(), Duration.ofDays(365));
+    }
+
+    public boolean isPassed() {
+        return ticker.read() - deadlineNanos >= 0;
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, deadlineNanos - ticker.read()));
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * {@link StateStore} backed by files under a local directory, e.g. /tmp of a warm Lambda container.
+ */
+public class FileStateStore implements StateStore {
+    private final Path directory;
+
+    public FileStateStore(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public Optional<String> get(String key) {
+        try {
+            return Optional.of(Files.readString(resolve(key), StandardCharsets.UTF_8));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read state " + key, e);
+        }
+    }
+
+    @Override
+    public void put(String key, String value) {
+        Path file = resolve(key);
+        try {
+            Files.createDirectories(file.getParent());
+            // Write then rename, so a reader never sees a partial value.
+            Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            Files.writeString(temp, value, StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write state " + key, e);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            Files.deleteIfExists(resolve(key));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to delete state " + key, e);
+        }
+    }
+
+    private Path resolve(String key) {
+        Path file = directory.resolve(key).normalize();
+        if (!file.startsWith(directory.normalize())) {
+            throw new IllegalArgumentException("State key escapes the state directory: " + key);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Responses with an ETag or Last-Modified validator, keyed by URL.
+ * <p>
+ * Entries are kept in memory for the life of the container, so warm invocations reuse both
+ * the body and whatever was parsed from it, and are written through to a {@link StateStore}
+ * so a cold container can still send conditional requests.
+ */
+public class HttpResponseCache {
+    private static final String KEY_PREFIX = "http-cache/";
+
+    private final StateStore stateStore;
+    private final ObjectMapper objectMapper;
+    private final Map<String, CachedResponse> memory = new ConcurrentHashMap<>();
+
+    public HttpResponseCache(StateStore stateStore, ObjectMapper objectMapper) {
+        this.stateStore = stateStore;
+        this.objectMapper = objectMapper;
+    }
+
+    public Optional<CachedResponse> lookup(String url) {
+        CachedResponse inMemory = memory.get(url);
+        if (inMemory != null) {
+            return Optional.of(inMemory);
+        }
+        Optional<CachedResponse> stored = read(url);
+        stored.ifPresent(response -> memory.putIfAbsent(url, response));
+        return stored.map(response -> memory.get(url));
+    }
+
+    public void store(CachedResponse response) {
+        memory.put(response.getUrl(), response);
+        Map<String, String> entry = new HashMap<>();
+        entry.put("url", response.getUrl());
+        entry.put("body", response.getBody());
+        if (response.getEtag() != null) {
+            entry.put("etag", response.getEtag());
+        }
+        if (response.getLastModified() != null) {
+            entry.put("last_modified", response.getLastModified());
+        }
+        try {
+            stateStore.put(key(response.getUrl()), objectMapper.writeValueAsString(entry));
+        } catch (JsonProcessingException | RuntimeException e) {
+            // The memory tier still serves this container; the next cold start just downloads again.
+            System.out.println("Unable to persist cached response for " + response.getUrl() + ": " + e.getMessage());
+        }
+    }
+
+    private Optional<CachedResponse> read(String url) {
+        try {
+            Optional<String> json = stateStore.get(key(url));
+            if (json.isEmpty()) {
+                return Optional.empty();
+            }
+            Map<String, String> entry = objectMapper.readValue(json.get(), new TypeReference<Map<String, String>>() {});
+            if (!url.equals(entry.get("url"))) {
+                return Optional.empty();
+            }
+            return Optional.of(new CachedResponse(url, HttpUtil.HTTP_OK, entry.get("body"),
+                    entry.get("etag"), entry.get("last_modified")));
+        } catch (JsonProcessingException | RuntimeException e) {
+            System.out.println("Unable to read cached response for " + url + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static String key(String url) {
+        return KEY_PREFIX + Hashing.sha256().hashString(url, StandardCharsets.UTF_8);
+    }
+}
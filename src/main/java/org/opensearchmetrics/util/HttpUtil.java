@@ -0,0 +1,252 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.util;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Shared outbound HTTP client for GitHub and other public endpoints.
+ * <p>
+ * Connections are pooled and negotiated as HTTP/2 where the server supports it. Requests are
+ * asynchronous, at most {@code maxConcurrentRequests} are in flight at once (the rest wait in a
+ * queue without holding a thread), and each request must complete within {@code requestTimeout}
+ * once it is sent. With a {@link TrafficGovernor}, requests are also paced per host.
+ */
+public class HttpUtil {
+    public static final int HTTP_OK = 200;
+    public static final int HTTP_NOT_MODIFIED = 304;
+    public static final int HTTP_NOT_FOUND = 404;
+    // Writes cached responses through to the state store, off the HTTP client's threads
+    private static final ExecutorService CACHE_WRITER = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("http-cache-writer-%d").build());
+
+    private final HttpClient httpClient;
+    private final HttpResponseCache responseCache;
+    private final TrafficGovernor trafficGovernor;
+    private final Duration requestTimeout;
+    private final Semaphore permits;
+    private final Queue<Runnable> queued = new ConcurrentLinkedQueue<>();
+
+    public HttpUtil(HttpClient httpClient, int maxConcurrentRequests, Duration requestTimeout) {
+        this(httpClient, null, maxConcurrentRequests, requestTimeout);
+    }
+
+    public HttpUtil(HttpClient httpClient, HttpResponseCache responseCache, int maxConcurrentRequests, Duration requestTimeout) {
+        this(httpClient, responseCache, null, maxConcurrentRequests, requestTimeout);
+    }
+
+    /**
+     * @param trafficGovernor when set, every request first waits for its host's rate limit and
+     *                        concurrency cap, and every response is checked for throttling
+     */
+    public HttpUtil(HttpClient httpClient, HttpResponseCache responseCache, TrafficGovernor trafficGovernor,
+                    int maxConcurrentRequests, Duration requestTimeout) {
+        this.httpClient = httpClient;
+        this.responseCache = responseCache;
+        this.trafficGovernor = trafficGovernor;
+        this.requestTimeout = requestTimeout;
+        this.permits = new Semaphore(maxConcurrentRequests);
+    }
+
+    /**
+     * Sends a HEAD request.
+     *
+     * @return future of the response status code
+     */
+    public CompletableFuture<Integer> headAsync(String url) {
+        HttpRequest request = newRequest(url)
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .build();
+        return send(request, HttpResponse.BodyHandlers.discarding()).thenApply(HttpResponse::statusCode);
+    }
+
+    /**
+     * Sends a GET request.
+     *
+     * @return future of the response, with the body read as a string
+     */
+    public CompletableFuture<HttpResponse<String>> getAsync(String url) {
+        HttpRequest request = newRequest(url)
+                .GET()
+                .build();
+        return send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Sends a GET request whose body is left as a stream, so a caller that needs only the start
+     * of a large document can stop reading and close it.
+     *
+     * @return future of the response, completed once the headers arrive
+     */
+    public CompletableFuture<HttpResponse<InputStream>> getStreamAsync(String url) {
+        HttpRequest request = newRequest(url)
+                .GET()
+                .build();
+        return send(request, HttpResponse.BodyHandlers.ofInputStream());
+    }
+
+    /**
+     * Sends a GET request, made conditional when a cached copy of the response has a validator.
+     * A 304 returns the cached copy, so no body is transferred and nothing is parsed again; a
+     * 200 with an ETag or Last-Modified header replaces the cached copy. Without a response
+     * cache this is a plain GET.
+     *
+     * @return future of the fresh or revalidated response
+     */
+    public CompletableFuture<CachedResponse> getCachedAsync(String url) {
+        Optional<CachedResponse> cached = responseCache == null ? Optional.empty() : responseCache.lookup(url);
+        HttpRequest.Builder request = newRequest(url).GET();
+        cached.ifPresent(response -> {
+            if (response.getEtag() != null) {
+                request.header("If-None-Match", response.getEtag());
+            }
+            if (response.getLastModified() != null) {
+                request.header("If-Modified-Since", response.getLastModified());
+            }
+        });
+        return send(request.build(), HttpResponse.BodyHandlers.ofString()).thenCompose(response -> {
+            if (response.statusCode() == HTTP_NOT_MODIFIED && cached.isPresent()) {
+                return CompletableFuture.completedFuture(cached.get());
+            }
+            CachedResponse fresh = new CachedResponse(url, response.statusCode(), response.body(),
+                    response.headers().firstValue("ETag").orElse(null),
+                    response.headers().firstValue("Last-Modified").orElse(null));
+            if (responseCache != null && fresh.isOk() && fresh.hasValidator()) {
+                // The store is a blocking S3 PUT, which must not stall the client's completion threads.
+                return CompletableFuture.supplyAsync(() -> {
+                    responseCache.store(fresh);
+                    return fresh;
+                }, CACHE_WRITER);
+            }
+            return CompletableFuture.completedFuture(fresh);
+        });
+    }
+
+    /**
+     * Reads a status code as an answer to whether a resource exists.
+     *
+     * @return true for 200, false for 404, empty for any other status
+     */
+    public static Optional<Boolean> exists(int statusCode) {
+        if (statusCode == HTTP_OK) {
+            return Optional.of(true);
+        }
+        if (statusCode == HTTP_NOT_FOUND) {
+            return Optional.of(false);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Blocking GET that only accepts a 200 response.
+     *
+     * @return body of the response
+     * @throws IOException when the request fails or the status is not 200
+     */
+    public String get(String url) throws IOException {
+        HttpResponse<String> response = await(getAsync(url));
+        if (response.statusCode() != HTTP_OK) {
+            throw new IOException("GET " + url + " returned status " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    /**
+     * Waits for a future returned by this class, unwrapping the failure.
+     *
+     * @throws IOException when the request failed or timed out
+     */
+    public static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    @VisibleForTesting
+    int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    private HttpRequest.Builder newRequest(String url) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(requestTimeout);
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        if (trafficGovernor == null) {
+            return sendQueued(request, bodyHandler);
+        }
+        String host = request.uri().getHost();
+        return trafficGovernor.submit(host, () -> sendQueued(request, bodyHandler).thenApply(response -> {
+            trafficGovernor.onResponse(host, response.statusCode(), response.headers()::firstValue);
+            return response;
+        }));
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> sendQueued(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        queued.add(() -> {
+            CompletableFuture<HttpResponse<T>> sent;
+            try {
+                sent = httpClient.sendAsync(request, bodyHandler);
+            } catch (RuntimeException e) {
+                sent = CompletableFuture.failedFuture(e);
+            }
+            sent.whenComplete((response, throwable) -> {
+                permits.release();
+                dispatch();
+                if (throwable != null) {
+                    result.completeExceptionally(throwable instanceof CompletionException ? throwable.getCause() : throwable);
+                } else {
+                    result.complete(response);
+                }
+            });
+        });
+        dispatch();
+        return result;
+    }
+
+    private void dispatch() {
+        while (!queued.isEmpty() && permits.tryAcquire()) {
+            Runnable next = queued.poll();
+            if (next == null) {
+                permits.release();
+                return;
+            }
+            next.run();
+        }
+    }
+}
@@ -8,15 +8,16 @@
  */
 package org.opensearchmetrics.util;
 
-import com.google.common.collect.Iterables;
+import com.google.common.annotations.VisibleForTesting;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
+import org.opensearch.ExceptionsHelper;
+import org.opensearch.OpenSearchStatusException;
 import org.opensearch.action.DocWriteResponse;
-import org.opensearch.action.bulk.BulkRequest;
-import org.opensearch.action.bulk.BulkResponse;
 import org.opensearch.action.delete.DeleteRequest;
 import org.opensearch.action.delete.DeleteResponse;
-import org.opensearch.action.index.IndexRequest;
+import org.opensearch.action.search.MultiSearchRequest;
+import org.opensearch.action.search.MultiSearchResponse;
 import org.opensearch.action.search.SearchRequest;
 import org.opensearch.action.search.SearchResponse;
 import org.opensearch.client.RequestOptions;
@@ -25,28 +26,47 @@ import org.opensearch.client.indices.CreateIndexRequest;
 import org.opensearch.client.indices.CreateIndexResponse;
 import org.opensearch.client.indices.GetIndexRequest;
 import org.opensearch.common.settings.Settings;
-import org.opensearch.common.xcontent.XContentType;
+import org.opensearch.core.rest.RestStatus;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.Callable;
 
 @Slf4j
 public class OpenSearchUtil {
     private static final int NUM_REPLICAS = 2;
-    private static final int NUM_THREADS = 8;
-    private static final int OS_BULK_SIZE = 200;
-    private static final int INDEX_THREAD_TIMEOUT_MINUTES = 10;
+    private static final int DEFAULT_MSEARCH_BATCH_SIZE = 100;
 
     private final RestHighLevelClient client;
+    private final BulkIndexer bulkIndexer;
+    private final TrafficGovernor trafficGovernor;
+    private final String host;
 
     public OpenSearchUtil(RestHighLevelClient client) {
+        this(client, new BulkIndexer(client));
+    }
+
+    /**
+     * Searches and counts wait for the domain's rate limit and concurrency cap in the
+     * {@link TrafficGovernor}. Bulk writes are paced by the {@link BulkIndexer} itself.
+     */
+    public OpenSearchUtil(RestHighLevelClient client, TrafficGovernor trafficGovernor, String host) {
+        this(client, new BulkIndexer(client), trafficGovernor, host);
+    }
+
+    @VisibleForTesting
+    OpenSearchUtil(RestHighLevelClient client, BulkIndexer bulkIndexer) {
+        this(client, bulkIndexer, null, null);
+    }
+
+    @VisibleForTesting
+    OpenSearchUtil(RestHighLevelClient client, BulkIndexer bulkIndexer, TrafficGovernor trafficGovernor, String host) {
         this.client = client;
+        this.bulkIndexer = bulkIndexer;
+        this.trafficGovernor = trafficGovernor;
+        this.host = host;
     }
 
     public void createIndexIfNotExists(String index) {
@@ -76,8 +96,18 @@ public class OpenSearchUtil {
 
 
 
+    /**
+     * Opens a streaming bulk writer that can be fed documents for several indices over a whole run.
+     * The caller must close it to flush the remaining documents.
+     */
+    public BulkSink openBulkSink() {
+        return new BulkSink(bulkIndexer);
+    }
+
     /**
      * Bulk index json data into an OpenSearch index.
+     * Batches are sized by serialized bytes and sent concurrently through the {@link BulkIndexer},
+     * which retries rejected documents and adapts batch size and concurrency to cluster pushback.
      *
      * @param index   name of the index
      * @param jsonMap key/value pair where key is the id of the doc and value is the json string
@@ -88,49 +118,11 @@ public class OpenSearchUtil {
             System.out.println("Empty data received for indexing");
             return;
         }
-        var forkJoinPool = new ForkJoinPool(NUM_THREADS);
-        Set<Map.Entry<String, String>> entries = jsonMap.entrySet();
-        var partitions = Iterables.partition(entries, Math.max(1, entries.size() / NUM_THREADS));
-        try {
-            forkJoinPool.submit(() -> partitions.forEach(p -> bulkIndexInBatches(index, p)))
-                    .get(INDEX_THREAD_TIMEOUT_MINUTES, TimeUnit.MINUTES);
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        } catch (ExecutionException e) {
-            throw new RuntimeException(e);
-        } catch (TimeoutException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
-    private void bulkIndexInBatches(String index, List<Map.Entry<String, String>> partition) {
         System.out.println("Started bulk indexing...");
-        BulkRequest bulkRequest = new BulkRequest();
-        for (Map.Entry<String, String> entry : partition) {
-            bulkRequest.add(new IndexRequest()
-                    .index(index)
-                    .id(entry.getKey())
-                    .source(entry.getValue(), XContentType.JSON));
-            if (bulkRequest.numberOfActions() >= OS_BULK_SIZE) {
-                execBulkRequest(bulkRequest, client);
-                bulkRequest = new BulkRequest();
-            }
-        }
-        if (bulkRequest.numberOfActions() > 0) {
-            execBulkRequest(bulkRequest, client);
-        }
-        System.out.println("Bulk indexing finished on thread");
-    }
-
-    private static void execBulkRequest(BulkRequest bulkRequest, RestHighLevelClient client) {
-        try {
-            BulkResponse response = client.bulk(bulkRequest, RequestOptions.DEFAULT);
-            if (response.hasFailures()) {
-                System.out.println("Bulk index has errors: " + response.buildFailureMessage());
-            }
-        } catch (IOException ioException) {
-            System.out.println ("Error " + ioException);
+        try (BulkSink bulkSink = openBulkSink()) {
+            jsonMap.forEach((id, json) -> bulkSink.add(index, id, json));
         }
+        System.out.println("Bulk indexing finished");
     }
 
     public void deleteDocument(String issueIndex, String docId) {
@@ -150,9 +142,84 @@ public class OpenSearchUtil {
 
     public SearchResponse search(SearchRequest searchRequest) {
         try {
-            return client.search(searchRequest, RequestOptions.DEFAULT);
+            return governed(() -> client.search(searchRequest, RequestOptions.DEFAULT));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Runs many searches through _msearch, {@value #DEFAULT_MSEARCH_BATCH_SIZE} requests per round trip.
+     *
+     * @param searchRequests searches to run
+     * @return one item per request, in request order; a failed search is reported on its own item
+     */
+    public List<MultiSearchResponse.Item> searchBatch(List<SearchRequest> searchRequests) {
+        return searchBatch(searchRequests, DEFAULT_MSEARCH_BATCH_SIZE);
+    }
+
+    /**
+     * Runs many searches through _msearch, at most {@code batchSize} requests per round trip.
+     *
+     * @param searchRequests searches to run
+     * @param batchSize      maximum number of searches packed into one _msearch call
+     * @return one item per request, in request order; a failed search is reported on its own item
+     */
+    public List<MultiSearchResponse.Item> searchBatch(List<SearchRequest> searchRequests, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        List<MultiSearchResponse.Item> items = new ArrayList<>(searchRequests.size());
+        for (int from = 0; from < searchRequests.size(); from += batchSize) {
+            List<SearchRequest> chunk = searchRequests.subList(from, Math.min(from + batchSize, searchRequests.size()));
+            MultiSearchRequest multiSearchRequest = new MultiSearchRequest();
+            chunk.forEach(multiSearchRequest::add);
+            MultiSearchResponse multiSearchResponse;
+            try {
+                multiSearchResponse = governed(() -> client.msearch(multiSearchRequest, RequestOptions.DEFAULT));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            MultiSearchResponse.Item[] responses = multiSearchResponse.getResponses();
+            if (responses.length != chunk.size()) {
+                throw new RuntimeException("Expected " + chunk.size() + " msearch responses but got " + responses.length);
+            }
+            if (trafficGovernor != null && host != null) {
+                // _msearch answers 200 even when single searches in it were rejected
+                for (MultiSearchResponse.Item item : responses) {
+                    if (item.isFailure() && ExceptionsHelper.status(item.getFailure()) == RestStatus.TOO_MANY_REQUESTS) {
+                        trafficGovernor.onStatus(host, RestStatus.TOO_MANY_REQUESTS.getStatus());
+                    }
+                }
+            }
+            items.addAll(List.of(responses));
+        }
+        return items;
+    }
+
+    private <T> T governed(Callable<T> call) throws IOException {
+        if (trafficGovernor == null || host == null) {
+            try {
+                return call.call();
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
+        try {
+            return trafficGovernor.call(host, () -> {
+                try {
+                    return call.call();
+                } catch (OpenSearchStatusException e) {
+                    trafficGovernor.onStatus(host, e.status().getStatus());
+                    throw e;
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.util;
+
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * {@link StateStore} backed by objects under a prefix of an S3 bucket, shared by every container.
+ */
+public class S3StateStore implements StateStore {
+    private final S3Client s3Client;
+    private final String bucketName;
+    private final String prefix;
+
+    public S3StateStore(S3Client s3Client, String bucketName, String prefix) {
+        this.s3Client = s3Client;
+        this.bucketName = bucketName;
+        this.prefix = prefix;
+    }
+
+    @Override
+    public Optional<String> get(String key) {
+        try {
+            return Optional.of(s3Client.getObjectAsBytes(GetObjectRequest.builder()
+                            .bucket(bucketName)
+                            .key(prefix + key)
+                            .build())
+                    .asString(StandardCharsets.UTF_8));
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        } catch (S3Exception e) {
+            throw new RuntimeException("Failed to read state " + key + " from S3", e);
+        }
+    }
+
+    @Override
+    public void put(String key, String value) {
+        try {
+            s3Client.putObject(PutObjectRequest.builder()
+                            .bucket(bucketName)
+                            .key(prefix + key)
+                            .build(),
+                    RequestBody.fromString(value, StandardCharsets.UTF_8));
+        } catch (S3Exception e) {
+            throw new RuntimeException("Failed to write state " + key + " to S3", e);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            s3Client.deleteObject(DeleteObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(prefix + key)
+                    .build());
+        } catch (S3Exception e) {
+            throw new RuntimeException("Failed to delete state " + key + " from S3", e);
+        }
+    }
+}
@@ -9,22 +9,30 @@
 package org.opensearchmetrics.util;
 
 import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.core.ResponseBytes;
 import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 import software.amazon.awssdk.services.s3.paginators.ListObjectsV2Iterable;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
 public class S3Util {
     private final S3Client s3Client;
+    private final S3AsyncClient s3AsyncClient;
     private final String bucketName;
 
-    public S3Util(S3Client s3Client, String bucketName) {
+    public S3Util(S3Client s3Client, S3AsyncClient s3AsyncClient, String bucketName) {
         this.s3Client = s3Client;
+        this.s3AsyncClient = s3AsyncClient;
         this.bucketName = bucketName;
     }
 
@@ -43,6 +51,21 @@ public class S3Util {
         }
     }
 
+    public void putObject(String objectName, byte[] bytes) {
+        try {
+            PutObjectRequest objectRequest = PutObjectRequest
+                    .builder()
+                    .key(objectName)
+                    .bucket(bucketName)
+                    .build();
+
+            s3Client.putObject(objectRequest, RequestBody.fromBytes(bytes));
+        } catch (S3Exception e) {
+            System.err.println(e.awsErrorDetails().errorMessage());
+            throw new RuntimeException("Failed to put object to S3", e);
+        }
+    }
+
     public List<String> listObjectsKeys(String prefix) {
         try {
             ListObjectsV2Request listReq = ListObjectsV2Request.builder()
@@ -61,4 +84,41 @@ public class S3Util {
             throw new RuntimeException("Failed to list object keys from S3", e);
         }
     }
+
+    /**
+     * Hands each object under {@code prefix} to {@code action} as it is listed. The next page is
+     * only requested once the objects of the current one were handled, so a slow {@code action}
+     * slows the listing down instead of buffering objects.
+     *
+     * @param startAfter if not null, only objects whose key sorts after it are listed
+     */
+    public void forEachObject(String prefix, String startAfter, Consumer<S3Object> action) {
+        try {
+            ListObjectsV2Request listReq = ListObjectsV2Request.builder()
+                    .bucket(bucketName)
+                    .prefix(prefix)
+                    .startAfter(startAfter)
+                    .build();
+
+            s3Client.listObjectsV2Paginator(listReq).stream()
+                    .flatMap(r -> r.contents().stream())
+                    .forEach(action);
+        } catch (S3Exception e) {
+            System.out.println(e.awsErrorDetails().errorMessage());
+            throw new RuntimeException("Failed to list object keys from S3", e);
+        }
+    }
+
+    /**
+     * Fetches an object through the async client, without holding a thread while it downloads.
+     */
+    public CompletableFuture<byte[]> getObjectBytesAsync(String objectName) {
+        GetObjectRequest objectRequest = GetObjectRequest
+                .builder()
+                .key(objectName)
+                .bucket(bucketName)
+                .build();
+        return s3AsyncClient.getObject(objectRequest, AsyncResponseTransformer.toBytes())
+                .thenApply(ResponseBytes::asByteArrayUnsafe);
+    }
 }
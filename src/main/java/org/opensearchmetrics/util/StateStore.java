@@ -0,0 +1,24 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.util;
+
+import java.util.Optional;
+
+/**
+ * Small key-value store for state that must outlive one Lambda invocation, such as cached
+ * responses, snapshots and checkpoints. Keys are slash-separated paths, values are strings.
+ */
+public interface StateStore {
+
+    Optional<String> get(String key);
+
+    void put(String key, String value);
+
+    void delete(String key);
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.util;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket for calls to a rate limited API.
+ * <p>
+ * Up to {@code capacity} calls go out at once, after which calls are spaced at
+ * {@code permitsPerSecond}. Waiting is asynchronous: {@link #acquire()} returns a future that
+ * completes when the caller may send, without holding a thread. When the server asks to back off,
+ * {@link #pauseFor(Duration)} holds every later call until the pause is over, including calls
+ * already queued for a permit.
+ */
+public class TokenBucket {
+    private final Ticker ticker;
+    private final double capacity;
+    private final double nanosPerPermit;
+    private double storedPermits;
+    private long nextFreeNanos;
+    private long pausedUntilNanos;
+
+    public TokenBucket(double permitsPerSecond, int capacity) {
+        this(permitsPerSecond, capacity, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    TokenBucket(double permitsPerSecond, int capacity, Ticker ticker) {
+        if (permitsPerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("permitsPerSecond and capacity must be positive");
+        }
+        this.ticker = ticker;
+        this.capacity = capacity;
+        this.nanosPerPermit = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        this.storedPermits = capacity;
+        this.nextFreeNanos = ticker.read();
+        this.pausedUntilNanos = nextFreeNanos;
+    }
+
+    /**
+     * @return future that completes once a permit is available
+     */
+    public CompletableFuture<Void> acquire() {
+        long waitNanos = reserve();
+        if (waitNanos <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        // A pause that started while this caller was queued pushes it behind the pause
+        return CompletableFuture.runAsync(() -> {}, CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS))
+                .thenCompose(ignored -> isPaused() ? acquire() : CompletableFuture.completedFuture(null));
+    }
+
+    /**
+     * Holds every permit not yet granted until {@code pause} has passed, e.g. for a Retry-After
+     * response header, and drops the stored burst.
+     */
+    public synchronized void pauseFor(Duration pause) {
+        long now = ticker.read();
+        pausedUntilNanos = Math.max(pausedUntilNanos, now + pause.toNanos());
+        nextFreeNanos = Math.max(nextFreeNanos, pausedUntilNanos);
+        storedPermits = 0;
+    }
+
+    private synchronized boolean isPaused() {
+        return ticker.read() < pausedUntilNanos;
+    }
+
+    /*
+    Takes one permit, from the stored burst when possible, and returns how long the caller must
+    wait for it. Later callers queue behind the permits already promised.
+     */
+    @VisibleForTesting
+    synchronized long reserve() {
+        long now = ticker.read();
+        if (now > nextFreeNanos) {
+            storedPermits = Math.min(capacity, storedPermits + (now - nextFreeNanos) / nanosPerPermit);
+            nextFreeNanos = now;
+        }
+        long waitNanos = nextFreeNanos - now;
+        double fromStored = Math.min(1, storedPermits);
+        storedPermits -= fromStored;
+        nextFreeNanos += (long) ((1 - fromStored) * nanosPerPermit);
+        return waitNanos;
+    }
+}
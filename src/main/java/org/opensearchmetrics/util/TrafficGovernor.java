@@ -0,0 +1,266 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.util;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import lombok.Getter;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Coordinates every outbound call per host.
+ * <p>
+ * Each host has a {@link TokenBucket} and a cap on calls in flight, both set by its
+ * {@link HostPolicy}. Calls wait for a token and then for a free slot without holding a thread.
+ * A throttled response (429 or 503 with Retry-After, or a rate limit header saying no request is
+ * left) pauses the host's bucket, so the calls behind it wait instead of being rejected too. The
+ * time calls spend waiting is kept per host and reported by {@link #logStats()}.
+ */
+public class TrafficGovernor {
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_SERVICE_UNAVAILABLE = 503;
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final HostPolicy defaultPolicy;
+    private final Map<String, HostPolicy> hostPolicies;
+    private final Ticker ticker;
+    private final Clock clock;
+    private final Map<String, Host> hosts = new ConcurrentHashMap<>();
+
+    public TrafficGovernor(HostPolicy defaultPolicy, Map<String, HostPolicy> hostPolicies) {
+        this(defaultPolicy, hostPolicies, Ticker.systemTicker(), Clock.systemUTC());
+    }
+
+    @VisibleForTesting
+    TrafficGovernor(HostPolicy defaultPolicy, Map<String, HostPolicy> hostPolicies, Ticker ticker, Clock clock) {
+        this.defaultPolicy = defaultPolicy;
+        this.hostPolicies = new HashMap<>(hostPolicies);
+        this.ticker = ticker;
+        this.clock = clock;
+    }
+
+    /**
+     * Runs an asynchronous call once the host has a token and a free slot. The slot is held
+     * until the returned future completes.
+     */
+    public <T> CompletableFuture<T> submit(String host, Supplier<CompletableFuture<T>> call) {
+        Host state = host(host);
+        long queuedAt = ticker.read();
+        return state.tokenBucket.acquire()
+                .thenCompose(ready -> state.acquireSlot())
+                .thenCompose(ready -> {
+                    state.recordStart(ticker.read() - queuedAt);
+                    CompletableFuture<T> result;
+                    try {
+                        result = call.get();
+                    } catch (RuntimeException e) {
+                        result = CompletableFuture.failedFuture(e);
+                    }
+                    return result.whenComplete((value, throwable) -> state.releaseSlot());
+                });
+    }
+
+    /**
+     * Blocking form of {@link #submit(String, Supplier)} for synchronous clients.
+     */
+    public <T> T call(String host, Callable<T> call) throws Exception {
+        Host state = host(host);
+        long queuedAt = ticker.read();
+        try {
+            state.tokenBucket.acquire().thenCompose(ready -> state.acquireSlot()).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+        state.recordStart(ticker.read() - queuedAt);
+        try {
+            return call.call();
+        } finally {
+            state.releaseSlot();
+        }
+    }
+
+    /**
+     * Reads the throttling signals of a response from the host.
+     *
+     * @param headers first value of a response header by name, empty when absent
+     */
+    public void onResponse(String host, int statusCode, Function<String, Optional<String>> headers) {
+        Host state = host(host);
+        if (statusCode == HTTP_TOO_MANY_REQUESTS || statusCode == HTTP_SERVICE_UNAVAILABLE) {
+            state.throttled.incrementAndGet();
+            state.tokenBucket.pauseFor(retryAfter(headers.apply("Retry-After")));
+            return;
+        }
+        Optional<String> remaining = headers.apply("X-RateLimit-Remaining");
+        Optional<String> reset = headers.apply("X-RateLimit-Reset");
+        if (remaining.isPresent() && reset.isPresent() && "0".equals(remaining.get().trim())) {
+            try {
+                Duration untilReset = Duration.between(clock.instant(), Instant.ofEpochSecond(Long.parseLong(reset.get().trim())));
+                if (!untilReset.isNegative()) {
+                    state.throttled.incrementAndGet();
+                    state.tokenBucket.pauseFor(untilReset);
+                }
+            } catch (NumberFormatException e) {
+                System.out.println("Ignoring rate limit reset " + reset.get() + " from " + host);
+            }
+        }
+    }
+
+    /**
+     * Shorthand for {@link #onResponse(String, int, Function)} with no headers, for clients that only
+     * see a status code.
+     */
+    public void onStatus(String host, int statusCode) {
+        onResponse(host, statusCode, name -> Optional.empty());
+    }
+
+    /**
+     * @return call count, throttled responses and queueing delay of every host called so far
+     */
+    public Map<String, HostStats> getStats() {
+        Map<String, HostStats> stats = new TreeMap<>();
+        hosts.forEach((host, state) -> stats.put(host, state.stats()));
+        return Collections.unmodifiableMap(stats);
+    }
+
+    public void logStats() {
+        getStats().forEach((host, stats) -> System.out.println("Outbound traffic to " + host
+                + ": calls = " + stats.getCalls()
+                + ", throttled = " + stats.getThrottled()
+                + ", total queueing delay ms = " + stats.getTotalQueueDelay().toMillis()
+                + ", max queueing delay ms = " + stats.getMaxQueueDelay().toMillis()));
+    }
+
+    /*
+    Retry-After is either a number of seconds or an HTTP date.
+     */
+    @VisibleForTesting
+    Duration retryAfter(Optional<String> header) {
+        return header.map(String::trim)
+                .map(value -> {
+                    try {
+                        return Duration.ofSeconds(Long.parseLong(value));
+                    } catch (NumberFormatException e) {
+                        try {
+                            Duration untilDate = Duration.between(clock.instant(),
+                                    ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant());
+                            return untilDate.isNegative() ? Duration.ZERO : untilDate;
+                        } catch (DateTimeParseException ignored) {
+                            return DEFAULT_RETRY_AFTER;
+                        }
+                    }
+                })
+                .orElse(DEFAULT_RETRY_AFTER);
+    }
+
+    private Host host(String host) {
+        return hosts.computeIfAbsent(host, name -> new Host(hostPolicies.getOrDefault(name, defaultPolicy), ticker));
+    }
+
+    /**
+     * Rate and concurrency allowed towards one host.
+     */
+    @Getter
+    public static class HostPolicy {
+        private final double permitsPerSecond;
+        private final int burst;
+        private final int maxConcurrent;
+
+        public HostPolicy(double permitsPerSecond, int burst, int maxConcurrent) {
+            this.permitsPerSecond = permitsPerSecond;
+            this.burst = burst;
+            this.maxConcurrent = maxConcurrent;
+        }
+    }
+
+    @Getter
+    public static class HostStats {
+        private final long calls;
+        private final long throttled;
+        private final Duration totalQueueDelay;
+        private final Duration maxQueueDelay;
+
+        HostStats(long calls, long throttled, Duration totalQueueDelay, Duration maxQueueDelay) {
+            this.calls = calls;
+            this.throttled = throttled;
+            this.totalQueueDelay = totalQueueDelay;
+            this.maxQueueDelay = maxQueueDelay;
+        }
+    }
+
+    private static class Host {
+        private final TokenBucket tokenBucket;
+        private final Semaphore slots;
+        private final Queue<CompletableFuture<Void>> waiting = new ConcurrentLinkedQueue<>();
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong throttled = new AtomicLong();
+        private final AtomicLong totalQueueNanos = new AtomicLong();
+        private final AtomicLong maxQueueNanos = new AtomicLong();
+
+        Host(HostPolicy policy, Ticker ticker) {
+            this.tokenBucket = new TokenBucket(policy.getPermitsPerSecond(), policy.getBurst(), ticker);
+            this.slots = new Semaphore(policy.getMaxConcurrent());
+        }
+
+        CompletableFuture<Void> acquireSlot() {
+            CompletableFuture<Void> slot = new CompletableFuture<>();
+            waiting.add(slot);
+            dispatch();
+            return slot;
+        }
+
+        void releaseSlot() {
+            slots.release();
+            dispatch();
+        }
+
+        void recordStart(long queueNanos) {
+            calls.incrementAndGet();
+            totalQueueNanos.addAndGet(queueNanos);
+            maxQueueNanos.accumulateAndGet(queueNanos, Math::max);
+        }
+
+        HostStats stats() {
+            return new HostStats(calls.get(), throttled.get(),
+                    Duration.ofNanos(totalQueueNanos.get()), Duration.ofNanos(maxQueueNanos.get()));
+        }
+
+        private void dispatch() {
+            while (!waiting.isEmpty() && slots.tryAcquire()) {
+                CompletableFuture<Void> next = waiting.poll();
+                if (next == null) {
+                    slots.release();
+                    return;
+                }
+                next.complete(null);
+            }
+        }
+    }
+}
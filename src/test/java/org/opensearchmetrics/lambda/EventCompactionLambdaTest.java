@@ -0,0 +1,93 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.lambda;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.opensearchmetrics.metrics.events.GithubEvents;
+import org.opensearchmetrics.util.S3Util;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+public class EventCompactionLambdaTest {
+    @Mock
+    private S3Util s3Util;
+
+    private EventCompactionLambda eventCompactionLambda;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        eventCompactionLambda = new EventCompactionLambda(s3Util, new ObjectMapper());
+    }
+
+    @Test
+    public void testHandleRequestDefault() {
+        // Arrange
+        LocalDate yesterday = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+        doAnswer(invocation -> {
+            Consumer<S3Object> action = invocation.getArgument(2);
+            action.accept(S3Object.builder().key("issues.opened/" + yesterday + "/test_s3_key").lastModified(Instant.now()).build());
+            return null;
+        }).when(s3Util).forEachObject(eq("issues.opened/" + yesterday + "/"), isNull(), any());
+        when(s3Util.getObjectBytesAsync("issues.opened/" + yesterday + "/test_s3_key")).thenReturn(
+                CompletableFuture.completedFuture("{\"id\":\"123\"}".getBytes(StandardCharsets.UTF_8)));
+
+        // Act
+        eventCompactionLambda.handleRequest(new HashMap<>(), mock(Context.class));
+
+        // Assert
+        verify(s3Util).putObject(eq("compacted/issues.opened/" + yesterday + "/segment-00000.ndjson.gz"), any());
+        for (GithubEvents event : GithubEvents.getAllGithubEvents()) {
+            verify(s3Util).putObject(eq("compacted/" + event.getEventName() + "/" + yesterday + "/manifest.json"), any());
+        }
+    }
+
+    @Test
+    public void testHandleRequestCompactionDate() {
+        // Arrange
+        Map<String, String> input = new HashMap<>();
+        input.put("compactionDate", "2024-06-01");
+
+        // Act
+        eventCompactionLambda.handleRequest(input, mock(Context.class));
+
+        // Assert
+        verify(s3Util).forEachObject(eq("gollum/2024-06-01/"), isNull(), any());
+        verify(s3Util).putObject(eq("compacted/gollum/2024-06-01/manifest.json"), any());
+    }
+
+    @Test
+    public void testHandleRequestTodayException() {
+        // Arrange
+        Map<String, String> input = new HashMap<>();
+        input.put("compactionDate", LocalDate.now(ZoneOffset.UTC).toString());
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+                eventCompactionLambda.handleRequest(input, mock(Context.class))
+        );
+        verify(s3Util, never()).putObject(anyString(), any());
+    }
+}
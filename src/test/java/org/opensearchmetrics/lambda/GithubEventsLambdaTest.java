@@ -9,27 +9,29 @@
 package org.opensearchmetrics.lambda;
 
 import com.amazonaws.services.lambda.runtime.Context;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.opensearchmetrics.util.BulkSink;
 import org.opensearchmetrics.util.OpenSearchUtil;
 import org.opensearchmetrics.util.S3Util;
-import software.amazon.awssdk.core.ResponseInputStream;
-import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import org.opensearchmetrics.util.StateStore;
+import software.amazon.awssdk.services.s3.model.S3Object;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.io.InputStream;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -45,22 +47,26 @@ public class GithubEventsLambdaTest {
     @Mock
     private S3Util s3Util;
 
+    @Mock
+    private BulkSink bulkSink;
+
+    @Mock
+    private StateStore stateStore;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(openSearchUtil.openBulkSink()).thenReturn(bulkSink);
+        when(stateStore.get(anyString())).thenReturn(Optional.empty());
     }
 
     @Test
     public void testHandleRequestYesterday() {
         // Arrange
         ObjectMapper realMapper = new ObjectMapper();
-        GithubEventsLambda githubEventsLambda = new GithubEventsLambda(openSearchUtil, s3Util, realMapper);
+        GithubEventsLambda githubEventsLambda = new GithubEventsLambda(openSearchUtil, s3Util, realMapper, stateStore);
         String eventJson = "{\"id\":\"123\",\"name\":\"push\",\"payload\":{\"repository\":{\"name\":\"myrepo\"},\"organization\":{\"login\":\"myorg\"},\"action\":\"created\",\"sender\":{\"login\":\"user\"}},\"uploaded_at\":\"2023-05-01T12:00:00Z\"}";
-        List<String> objectKeys = List.of("test_s3_key");
-        GetObjectResponse getObjectResponse = mock(GetObjectResponse.class);
-
-        when(s3Util.listObjectsKeys(anyString())).thenReturn(objectKeys);
-        when(s3Util.getObjectInputStream(anyString())).thenReturn(new ResponseInputStream<>(getObjectResponse, new ByteArrayInputStream(eventJson.getBytes())));
+        stubEventObject(eventJson);
 
         Map<String,String> input = new HashMap<>();
         LocalDate yesterday = LocalDate.now(ZoneOffset.UTC).minus(1, ChronoUnit.DAYS);
@@ -75,21 +81,18 @@ public class GithubEventsLambdaTest {
         String indexNameToday = "github-user-activity-events-" + today.format(DateTimeFormatter.ofPattern("MM-yyyy"));
         verify(openSearchUtil, atLeastOnce()).createIndexIfNotExists(indexNameYesterday);
         verify(openSearchUtil, atLeastOnce()).createIndexIfNotExists(indexNameToday);
-        verify(openSearchUtil, atLeastOnce()).bulkIndex(eq(indexNameYesterday), any(Map.class));
-        verify(openSearchUtil, atLeastOnce()).bulkIndex(eq(indexNameToday), any(Map.class));
+        verify(bulkSink, atLeastOnce()).add(eq(indexNameYesterday), eq("123"), anyString());
+        verify(bulkSink, atLeastOnce()).add(eq(indexNameToday), eq("123"), anyString());
+        verify(bulkSink).close();
     }
 
     @Test
     public void testHandleRequestMonthAgo() {
         // Arrange
         ObjectMapper realMapper = new ObjectMapper();
-        GithubEventsLambda githubEventsLambda = new GithubEventsLambda(openSearchUtil, s3Util, realMapper);
+        GithubEventsLambda githubEventsLambda = new GithubEventsLambda(openSearchUtil, s3Util, realMapper, stateStore);
         String eventJson = "{\"id\":\"123\",\"name\":\"push\",\"payload\":{\"repository\":{\"name\":\"myrepo\"},\"organization\":{\"login\":\"myorg\"},\"action\":\"created\",\"sender\":{\"login\":\"user\"}},\"uploaded_at\":\"2023-05-01T12:00:00Z\"}";
-        List<String> objectKeys = List.of("test_s3_key");
-        GetObjectResponse getObjectResponse = mock(GetObjectResponse.class);
-
-        when(s3Util.listObjectsKeys(anyString())).thenReturn(objectKeys);
-        when(s3Util.getObjectInputStream(anyString())).thenReturn(new ResponseInputStream<>(getObjectResponse, new ByteArrayInputStream(eventJson.getBytes())));
+        stubEventObject(eventJson);
 
         Map<String,String> input = new HashMap<>();
         LocalDate today = LocalDate.now(ZoneOffset.UTC);
@@ -102,24 +105,20 @@ public class GithubEventsLambdaTest {
         // Assert
         String indexNameLastMonth = "github-user-activity-events-" + lastMonth.format(DateTimeFormatter.ofPattern("MM-yyyy"));
         verify(openSearchUtil, atLeastOnce()).createIndexIfNotExists(indexNameLastMonth);
-        verify(openSearchUtil, atLeastOnce()).bulkIndex(eq(indexNameLastMonth), any(Map.class));
+        verify(bulkSink, atLeastOnce()).add(eq(indexNameLastMonth), eq("123"), anyString());
 
         String indexNameThisMonth = "github-user-activity-events-" + today.format(DateTimeFormatter.ofPattern("MM-yyyy"));
         verify(openSearchUtil, atLeastOnce()).createIndexIfNotExists(indexNameThisMonth);
-        verify(openSearchUtil, atLeastOnce()).bulkIndex(eq(indexNameThisMonth), any(Map.class));
+        verify(bulkSink, atLeastOnce()).add(eq(indexNameThisMonth), eq("123"), anyString());
     }
 
     @Test
     public void testHandleRequestDefault() {
         // Arrange
         ObjectMapper realMapper = new ObjectMapper();
-        GithubEventsLambda githubEventsLambda = new GithubEventsLambda(openSearchUtil, s3Util, realMapper);
+        GithubEventsLambda githubEventsLambda = new GithubEventsLambda(openSearchUtil, s3Util, realMapper, stateStore);
         String eventJson = "{\"id\":\"123\",\"name\":\"push\",\"payload\":{\"repository\":{\"name\":\"myrepo\"},\"organization\":{\"login\":\"myorg\"},\"action\":\"created\",\"sender\":{\"login\":\"user\"}},\"uploaded_at\":\"2023-05-01T12:00:00Z\"}";
-        List<String> objectKeys = List.of("test_s3_key");
-        GetObjectResponse getObjectResponse = mock(GetObjectResponse.class);
-
-        when(s3Util.listObjectsKeys(anyString())).thenReturn(objectKeys);
-        when(s3Util.getObjectInputStream(anyString())).thenReturn(new ResponseInputStream<>(getObjectResponse, new ByteArrayInputStream(eventJson.getBytes())));
+        stubEventObject(eventJson);
 
         Map<String,String> input = new HashMap<>();
         LocalDate yesterday = LocalDate.now(ZoneOffset.UTC).minus(1, ChronoUnit.DAYS);
@@ -133,21 +132,17 @@ public class GithubEventsLambdaTest {
         String indexNameToday = "github-user-activity-events-" + today.format(DateTimeFormatter.ofPattern("MM-yyyy"));
         verify(openSearchUtil, atLeastOnce()).createIndexIfNotExists(indexNameYesterday);
         verify(openSearchUtil, atLeastOnce()).createIndexIfNotExists(indexNameToday);
-        verify(openSearchUtil, atLeastOnce()).bulkIndex(eq(indexNameYesterday), any(Map.class));
-        verify(openSearchUtil, atLeastOnce()).bulkIndex(eq(indexNameToday), any(Map.class));
+        verify(bulkSink, atLeastOnce()).add(eq(indexNameYesterday), eq("123"), anyString());
+        verify(bulkSink, atLeastOnce()).add(eq(indexNameToday), eq("123"), anyString());
     }
 
     @Test
-    public void testHandleRequestException() throws IOException {
+    public void testHandleRequestException() {
         // Arrange
-        GithubEventsLambda githubEventsLambda = new GithubEventsLambda(openSearchUtil, s3Util, objectMapper);
+        ObjectMapper realMapper = new ObjectMapper();
+        GithubEventsLambda githubEventsLambda = new GithubEventsLambda(openSearchUtil, s3Util, realMapper, stateStore);
         String eventJson = "{\"id\":\"123\",\"name\":\"push\",\"payload\":\"repository\":{\"name\":\"myrepo\"},\"organization\":{\"login\":\"myorg\"},\"action\":\"created\",\"sender\":{\"login\":\"user\"}},\"uploaded_at\":\"2023-05-01T12:00:00Z\"}";
-        List<String> objectKeys = List.of("test_s3_key");
-        GetObjectResponse getObjectResponse = mock(GetObjectResponse.class);
-
-        when(s3Util.listObjectsKeys(anyString())).thenReturn(objectKeys);
-        when(s3Util.getObjectInputStream(anyString())).thenReturn(new ResponseInputStream<>(getObjectResponse, new ByteArrayInputStream(eventJson.getBytes())));
-        doThrow(new RuntimeException("Error running Github Events Lambda")).when(objectMapper).readTree(any(InputStream.class));
+        stubEventObject(eventJson);
 
         Map<String,String> input = new HashMap<>();
         LocalDate yesterday = LocalDate.now(ZoneOffset.UTC).minus(1, ChronoUnit.DAYS);
@@ -158,6 +153,7 @@ public class GithubEventsLambdaTest {
                 githubEventsLambda.handleRequest(input, mock(Context.class))
         );
         assertInstanceOf(RuntimeException.class, exception.getCause());
+        assertInstanceOf(JsonProcessingException.class, exception.getCause().getCause());
     }
 
     @Test
@@ -166,9 +162,101 @@ public class GithubEventsLambdaTest {
         input.put("collectionStartDate", "l;ajsd;fljk");
 
         // Arrange
-        GithubEventsLambda githubEventsLambda = new GithubEventsLambda(openSearchUtil, s3Util, objectMapper);
+        GithubEventsLambda githubEventsLambda = new GithubEventsLambda(openSearchUtil, s3Util, objectMapper, stateStore);
         assertThrows(DateTimeParseException.class, () ->
                 githubEventsLambda.handleRequest(input, mock(Context.class))
         );
     }
+
+    @Test
+    public void testHandleRequestSkipsEventsBeforeWatermark() {
+        // Arrange
+        ObjectMapper realMapper = new ObjectMapper();
+        GithubEventsLambda githubEventsLambda = new GithubEventsLambda(openSearchUtil, s3Util, realMapper, stateStore);
+        String eventJson = "{\"id\":\"123\",\"name\":\"issues\",\"payload\":{\"repository\":{\"name\":\"myrepo\"},\"action\":\"opened\"}}";
+        stubEventObject(eventJson);
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        LocalDate yesterday = today.minus(1, ChronoUnit.DAYS);
+        String watermark = "{\"lastModified\":\"" + noon(today) + "\"}";
+        when(stateStore.get("event-watermarks/issues.opened")).thenReturn(Optional.of(watermark));
+
+        Map<String,String> input = new HashMap<>();
+        input.put("collectionStartDate", today.minus(1, ChronoUnit.MONTHS).toString());
+
+        // Act
+        githubEventsLambda.handleRequest(input, mock(Context.class));
+
+        // Assert
+        verify(s3Util).forEachObject(eq("issues.opened/"), eq("issues.opened/" + yesterday + "/"), any());
+        verify(s3Util, never()).getObjectBytesAsync("issues.opened/" + yesterday + "/test_s3_key");
+        verify(s3Util).getObjectBytesAsync("issues.opened/" + today + "/test_s3_key");
+        verify(s3Util).getObjectBytesAsync("issues.closed/" + today.minus(1, ChronoUnit.MONTHS) + "/test_s3_key");
+        // Already at the newest object
+        verify(stateStore, never()).put(eq("event-watermarks/issues.opened"), anyString());
+        verify(stateStore).put("event-watermarks/issues.closed", "{\"lastModified\":\"" + noon(today) + "\"}");
+    }
+
+    @Test
+    public void testHandleRequestReprocessIgnoresWatermark() {
+        // Arrange
+        ObjectMapper realMapper = new ObjectMapper();
+        GithubEventsLambda githubEventsLambda = new GithubEventsLambda(openSearchUtil, s3Util, realMapper, stateStore);
+        String eventJson = "{\"id\":\"123\",\"name\":\"issues\",\"payload\":{\"repository\":{\"name\":\"myrepo\"},\"action\":\"opened\"}}";
+        stubEventObject(eventJson);
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        LocalDate yesterday = today.minus(1, ChronoUnit.DAYS);
+        when(stateStore.get("event-watermarks/issues.opened")).thenReturn(Optional.of("{\"lastModified\":\"" + noon(today) + "\"}"));
+
+        Map<String,String> input = new HashMap<>();
+        input.put("reprocess", "true");
+
+        // Act
+        githubEventsLambda.handleRequest(input, mock(Context.class));
+
+        // Assert
+        verify(stateStore, never()).get(anyString());
+        verify(s3Util).getObjectBytesAsync("issues.opened/" + yesterday + "/test_s3_key");
+        verify(s3Util).getObjectBytesAsync("issues.opened/" + today + "/test_s3_key");
+    }
+
+    @Test
+    public void testHandleRequestFailureKeepsWatermark() {
+        // Arrange
+        ObjectMapper realMapper = new ObjectMapper();
+        GithubEventsLambda githubEventsLambda = new GithubEventsLambda(openSearchUtil, s3Util, realMapper, stateStore);
+        stubEventObject("{\"id\":");
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () ->
+                githubEventsLambda.handleRequest(new HashMap<>(), mock(Context.class))
+        );
+        verify(stateStore, never()).put(anyString(), anyString());
+    }
+
+    /*
+    Lists one object, last modified at noon, for every day from the start day to today, fetched with the given content.
+     */
+    private void stubEventObject(String eventJson) {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        doAnswer(invocation -> {
+            String prefix = invocation.getArgument(0);
+            if (prefix.startsWith("compacted/")) {
+                // No day is compacted
+                return null;
+            }
+            String startAfter = invocation.getArgument(1);
+            Consumer<S3Object> action = invocation.getArgument(2);
+            LocalDate day = LocalDate.parse(startAfter.substring(prefix.length(), startAfter.length() - 1));
+            for (; !day.isAfter(today); day = day.plusDays(1)) {
+                action.accept(S3Object.builder().key(prefix + day + "/test_s3_key").lastModified(noon(day)).build());
+            }
+            return null;
+        }).when(s3Util).forEachObject(anyString(), anyString(), any());
+        when(s3Util.getObjectBytesAsync(anyString())).thenAnswer(invocation ->
+                CompletableFuture.supplyAsync(eventJson::getBytes));
+    }
+
+    private static Instant noon(LocalDate day) {
+        return day.atTime(12, 0).toInstant(ZoneOffset.UTC);
+    }
 }
@@ -9,19 +9,23 @@
 package org.opensearchmetrics.lambda;
 
 import com.amazonaws.services.lambda.runtime.Context;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.opensearch.action.search.SearchRequest;
-import org.opensearch.action.search.SearchResponse;
-import org.opensearch.search.aggregations.Aggregations;
-import org.opensearch.search.aggregations.bucket.terms.ParsedStringTerms;
 import org.opensearchmetrics.metrics.MetricsCalculation;
+import org.opensearchmetrics.metrics.RepositoryCatalog;
+import org.opensearchmetrics.util.BulkSink;
 import org.opensearchmetrics.util.OpenSearchUtil;
+import org.opensearchmetrics.util.StateStore;
+import org.opensearchmetrics.util.TrafficGovernor;
 
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
@@ -34,25 +38,59 @@ public class MaintainerInactivityLambdaTest {
     @Mock
     private MetricsCalculation metricsCalculation;
 
+    @Mock
+    private TrafficGovernor trafficGovernor;
+
+    @Mock
+    private BulkSink bulkSink;
+
+    @Mock
+    private StateStore stateStore;
+
+    @Mock
+    private RepositoryCatalog repositoryCatalog;
+
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(openSearchUtil.openBulkSink()).thenReturn(bulkSink);
+        when(stateStore.get(anyString())).thenReturn(Optional.empty());
     }
 
     @Test
     public void testHandleRequest(){
-        MaintainerInactivityLambda maintainerInactivityLambda = new MaintainerInactivityLambda(openSearchUtil, metricsCalculation);
-        SearchResponse searchResponse = mock(SearchResponse.class);
+        MaintainerInactivityLambda maintainerInactivityLambda = new MaintainerInactivityLambda(openSearchUtil, metricsCalculation, trafficGovernor, stateStore, new ObjectMapper(), repositoryCatalog);
         Context context = mock(Context.class);
-        when(openSearchUtil.search(any(SearchRequest.class))).thenReturn(searchResponse);
-        Aggregations aggregations = mock(Aggregations.class);
-        when(searchResponse.getAggregations()).thenReturn(aggregations);
-        ParsedStringTerms termsAggregation = mock(ParsedStringTerms.class);
-        when(aggregations.get("repos")).thenReturn(termsAggregation);
-        when(termsAggregation.getBuckets()).thenReturn(Collections.emptyList());
+        when(context.getRemainingTimeInMillis()).thenReturn(900_000);
+        when(repositoryCatalog.getRepositories()).thenReturn(Arrays.asList("repo1"));
         maintainerInactivityLambda.handleRequest(null, context);
-        verify(openSearchUtil, times(1)).search(any(SearchRequest.class));
-        verify(metricsCalculation, times(1)).generateMaintainerMetrics(anyList());
+        verify(repositoryCatalog, times(1)).getRepositories();
+        verify(trafficGovernor, times(1)).logStats();
+        verify(metricsCalculation, times(1)).startMaintainerMetrics();
+        verify(metricsCalculation, times(1)).generateMaintainerMetrics(anyList(), any(), any());
+        verify(stateStore).delete(startsWith("checkpoints/maintainer-inactivity/"));
     }
 
+    @Test
+    public void testHandleRequestCheckpointsCompletedRepositoriesOnFailure() {
+        MaintainerInactivityLambda maintainerInactivityLambda = new MaintainerInactivityLambda(openSearchUtil, metricsCalculation, trafficGovernor, stateStore, new ObjectMapper(), repositoryCatalog);
+        Context context = mock(Context.class);
+        when(context.getRemainingTimeInMillis()).thenReturn(900_000);
+        String[] repositories = new String[101];
+        for (int i = 0; i < repositories.length; i++) {
+            repositories[i] = String.format("repo%03d", i);
+        }
+        when(repositoryCatalog.getRepositories()).thenReturn(Arrays.asList(repositories));
+        // The first batch of 100 repositories succeeds, the second fails
+        doNothing().doThrow(new RuntimeException("search failed")).when(metricsCalculation).generateMaintainerMetrics(anyList(), any(), any());
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> maintainerInactivityLambda.handleRequest(null, context));
+
+        assertEquals("search failed", e.getCause().getMessage());
+        // Both batches share the event counts and event types read for the run
+        verify(metricsCalculation, times(1)).startMaintainerMetrics();
+        verify(bulkSink).close();
+        verify(stateStore).put(startsWith("checkpoints/maintainer-inactivity/"),
+                argThat(json -> json.contains("maintainer-metrics/repo099") && !json.contains("repo100")));
+    }
 }
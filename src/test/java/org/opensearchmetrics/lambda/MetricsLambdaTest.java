@@ -9,19 +9,25 @@
 package org.opensearchmetrics.lambda;
 
 import com.amazonaws.services.lambda.runtime.Context;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.opensearch.action.search.SearchRequest;
-import org.opensearch.action.search.SearchResponse;
-import org.opensearch.search.aggregations.Aggregations;
-import org.opensearch.search.aggregations.bucket.terms.ParsedStringTerms;
 import org.opensearchmetrics.metrics.MetricsCalculation;
+import org.opensearchmetrics.metrics.RepositoryCatalog;
+import org.opensearchmetrics.util.BulkSink;
 import org.opensearchmetrics.util.OpenSearchUtil;
+import org.opensearchmetrics.util.StateStore;
+import org.opensearchmetrics.util.TrafficGovernor;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
@@ -34,47 +40,95 @@ public class MetricsLambdaTest {
     @Mock
     private MetricsCalculation metricsCalculation;
 
+    @Mock
+    private TrafficGovernor trafficGovernor;
+
+    @Mock
+    private BulkSink bulkSink;
+
+    @Mock
+    private StateStore stateStore;
+
+    @Mock
+    private RepositoryCatalog repositoryCatalog;
+
 
 
 
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(openSearchUtil.openBulkSink()).thenReturn(bulkSink);
+        when(stateStore.get(anyString())).thenReturn(Optional.empty());
+        when(metricsCalculation.getTrackedReleaseVersions()).thenReturn(Arrays.asList("2.18.0", "2.19.0", "3.0.0"));
     }
 
     @Test
     public void testHandleRequest(){
-        MetricsLambda metricsLambda = new MetricsLambda(openSearchUtil, metricsCalculation);
-        SearchResponse searchResponse = mock(SearchResponse.class);
+        MetricsLambda metricsLambda = new MetricsLambda(openSearchUtil, metricsCalculation, trafficGovernor, stateStore, new ObjectMapper(), repositoryCatalog);
         Context context = mock(Context.class);
-        when(openSearchUtil.search(any(SearchRequest.class))).thenReturn(searchResponse);
-        Aggregations aggregations = mock(Aggregations.class);
-        when(searchResponse.getAggregations()).thenReturn(aggregations);
-        ParsedStringTerms termsAggregation = mock(ParsedStringTerms.class);
-        when(aggregations.get("repos")).thenReturn(termsAggregation);
-        when(termsAggregation.getBuckets()).thenReturn(Collections.emptyList());
+        when(context.getRemainingTimeInMillis()).thenReturn(900_000);
+        when(repositoryCatalog.getRepositories()).thenReturn(Arrays.asList("repo1"));
         metricsLambda.handleRequest(null, context);
-        verify(openSearchUtil, times(1)).search(any(SearchRequest.class));
-        verify(metricsCalculation, times(1)).generateGeneralMetrics(anyList());
-        verify(metricsCalculation, times(1)).generateLabelMetrics(anyList());
-        verify(metricsCalculation, times(1)).generateReleaseMetrics();
-        verify(metricsCalculation, times(1)).generateCodeCovMetrics();
+        verify(repositoryCatalog, times(1)).getRepositories();
+        verify(trafficGovernor, times(1)).logStats();
+        verify(metricsCalculation, times(1)).generateGeneralMetrics(anyList(), any());
+        verify(metricsCalculation, times(1)).generateLabelMetrics(anyList(), any());
+        verify(metricsCalculation, times(1)).generateReleaseMetrics(eq(Arrays.asList("2.18.0", "2.19.0")), any(), eq(false));
+        verify(metricsCalculation, times(1)).generateReleaseMetrics(eq(Collections.singletonList("3.0.0")), any(), eq(false));
+        verify(metricsCalculation, times(2)).generateCodeCovMetrics(anyList(), any(), eq(false));
+        // A finished run leaves no checkpoint behind
+        verify(stateStore).delete(anyString());
+        verify(stateStore, never()).put(anyString(), anyString());
     }
 
+    @Test
+    public void testHandleRequestRefreshReleaseSnapshots() {
+        MetricsLambda metricsLambda = new MetricsLambda(openSearchUtil, metricsCalculation, trafficGovernor, stateStore, new ObjectMapper(), repositoryCatalog);
+        Context context = mock(Context.class);
+        when(context.getRemainingTimeInMillis()).thenReturn(900_000);
+        when(repositoryCatalog.getRepositories()).thenReturn(Arrays.asList("repo1"));
+        metricsLambda.handleRequest(Map.of("refreshReleaseSnapshots", "true"), context);
+        verify(metricsCalculation, times(2)).generateReleaseMetrics(anyList(), any(), eq(true));
+        verify(metricsCalculation, times(2)).generateCodeCovMetrics(anyList(), any(), eq(true));
+    }
 
+    @Test
+    public void testHandleRequestResumesFromCheckpoint() {
+        MetricsLambda metricsLambda = new MetricsLambda(openSearchUtil, metricsCalculation, trafficGovernor, stateStore, new ObjectMapper(), repositoryCatalog);
+        Context context = mock(Context.class);
+        when(context.getRemainingTimeInMillis()).thenReturn(900_000);
+        when(repositoryCatalog.getRepositories()).thenReturn(Arrays.asList("repo1", "repo2"));
+        when(stateStore.get(startsWith("checkpoints/metrics/")))
+                .thenReturn(Optional.of("[\"general-metrics/repo1\",\"release-metrics/2.18.0\",\"release-metrics/2.19.0\"]"));
+        metricsLambda.handleRequest(null, context);
+        verify(metricsCalculation, times(1)).generateGeneralMetrics(eq(Collections.singletonList("repo2")), any());
+        verify(metricsCalculation, times(1)).generateLabelMetrics(eq(Arrays.asList("repo1", "repo2")), any());
+        verify(metricsCalculation, times(1)).generateReleaseMetrics(eq(Collections.singletonList("3.0.0")), any(), eq(false));
+        verify(metricsCalculation, times(2)).generateCodeCovMetrics(anyList(), any(), eq(false));
+    }
+
+    @Test
+    public void testHandleRequestCheckpointsAtDeadline() {
+        MetricsLambda metricsLambda = new MetricsLambda(openSearchUtil, metricsCalculation, trafficGovernor, stateStore, new ObjectMapper(), repositoryCatalog);
+        Context context = mock(Context.class);
+        // Less time left than the reserve for flushing and checkpointing
+        when(context.getRemainingTimeInMillis()).thenReturn(60_000);
+        when(repositoryCatalog.getRepositories()).thenReturn(Arrays.asList("repo1"));
+        RuntimeException e = assertThrows(RuntimeException.class, () -> metricsLambda.handleRequest(null, context));
+        assertTrue(e.getMessage().contains("stopped at the deadline"));
+        verify(metricsCalculation, never()).generateGeneralMetrics(anyList(), any());
+        verify(bulkSink).close();
+        verify(stateStore).put(startsWith("checkpoints/metrics/"), eq("[]"));
+    }
 
     @Test
     public void testHandleRequestWithMetricsCalculationException() {
-        MetricsLambda metricsLambda = new MetricsLambda(openSearchUtil, metricsCalculation);
+        MetricsLambda metricsLambda = new MetricsLambda(openSearchUtil, metricsCalculation, trafficGovernor, stateStore, new ObjectMapper(), repositoryCatalog);
         Context context = mock(Context.class);
-        SearchResponse searchResponse = mock(SearchResponse.class);
-        Aggregations aggregations = mock(Aggregations.class);
-        ParsedStringTerms termsAggregation = mock(ParsedStringTerms.class); // Mock the ParsedStringTerms object
-        when(termsAggregation.getBuckets()).thenReturn(Collections.emptyList()); // Mock behavior of getBuckets()
-        when(aggregations.get("repos")).thenReturn(termsAggregation); // Return non-null termsAggregation
-        when(searchResponse.getAggregations()).thenReturn(aggregations); // Return non-null aggregations
-        when(openSearchUtil.search(any(SearchRequest.class))).thenReturn(searchResponse);
-        doThrow(new RuntimeException("Error running Metrics Calculation")).when(metricsCalculation).generateGeneralMetrics(anyList());
+        when(context.getRemainingTimeInMillis()).thenReturn(900_000);
+        when(repositoryCatalog.getRepositories()).thenReturn(Arrays.asList("repo1"));
+        doThrow(new RuntimeException("Error running Metrics Calculation")).when(metricsCalculation).generateGeneralMetrics(anyList(), any());
         try {
             metricsLambda.handleRequest(null, context);
             fail("Expected a RuntimeException to be thrown");
@@ -84,4 +138,24 @@ public class MetricsLambdaTest {
         }
     }
 
+    @Test
+    public void testHandleRequestRunsOtherStagesWhenOneFails() {
+        MetricsLambda metricsLambda = new MetricsLambda(openSearchUtil, metricsCalculation, trafficGovernor, stateStore, new ObjectMapper(), repositoryCatalog);
+        Context context = mock(Context.class);
+        when(context.getRemainingTimeInMillis()).thenReturn(900_000);
+        when(repositoryCatalog.getRepositories()).thenReturn(Arrays.asList("repo1"));
+        doThrow(new RuntimeException("Release manifest unavailable")).when(metricsCalculation).generateReleaseMetrics(anyList(), any(), eq(false));
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> metricsLambda.handleRequest(null, context));
+
+        assertEquals("Error running Metrics Calculation", e.getMessage());
+        assertEquals("Release manifest unavailable", e.getCause().getMessage());
+        // The repository list is read once for both stages that need it
+        verify(repositoryCatalog, times(1)).getRepositories();
+        verify(metricsCalculation, times(1)).generateGeneralMetrics(anyList(), any());
+        verify(metricsCalculation, times(1)).generateLabelMetrics(anyList(), any());
+        verify(metricsCalculation, times(2)).generateCodeCovMetrics(anyList(), any(), eq(false));
+        verify(bulkSink).close();
+    }
+
 }
@@ -13,25 +13,27 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
-import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
-import org.opensearch.action.search.SearchRequest;
-import org.opensearch.index.query.BoolQueryBuilder;
 import org.opensearchmetrics.metrics.general.*;
 import org.opensearchmetrics.metrics.label.LabelMetrics;
 import org.opensearchmetrics.metrics.maintainer.MaintainerMetrics;
 import org.opensearchmetrics.metrics.release.ReleaseInputs;
 import org.opensearchmetrics.metrics.release.ReleaseMetrics;
+import org.opensearchmetrics.metrics.release.ReleaseSnapshotStore;
 import org.opensearchmetrics.model.codecov.CodeCovResponse;
+import org.opensearchmetrics.model.codecov.CodeCovResult;
 import org.opensearchmetrics.model.label.LabelData;
 import org.opensearchmetrics.model.general.MetricsData;
 import org.opensearchmetrics.model.maintainer.LatestEventData;
 import org.opensearchmetrics.model.maintainer.MaintainerData;
+import org.opensearchmetrics.model.maintainer.RepoEventStats;
 import org.opensearchmetrics.model.release.ReleaseMetricsData;
+import org.opensearchmetrics.model.release.ReleaseRepoStats;
+import org.opensearchmetrics.util.BulkSink;
 import org.opensearchmetrics.util.OpenSearchUtil;
 
 import java.io.IOException;
@@ -42,9 +44,12 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -87,6 +92,12 @@ public class MetricsCalculationTest {
     private ReleaseMetrics releaseMetrics;
     @Mock
     private MaintainerMetrics maintainerMetrics;
+    @Mock
+    private GeneralMetricsAggregator generalMetricsAggregator;
+    @Mock
+    private ReleaseSnapshotStore releaseSnapshotStore;
+    @Mock
+    private BulkSink bulkSink;
 
 
     @InjectMocks
@@ -100,66 +111,213 @@ public class MetricsCalculationTest {
                 untriagedIssues, uncommentedPullRequests, unlabelledPullRequests, unlabelledIssues,
                 mergedPullRequests, openPullRequests, openIssues, closedIssues, createdIssues,
                 issueComments, pullComments, issuePositiveReactions, issueNegativeReactions,
-                labelMetrics, releaseMetrics, maintainerMetrics);
+                labelMetrics, releaseMetrics, maintainerMetrics, generalMetricsAggregator, releaseSnapshotStore);
     }
 
     @Test
     void testGenerateGeneralMetrics() throws IOException {
         List<String> repositories = Arrays.asList("repo1", "repo2");
-        MetricsData metricsData = new MetricsData();
-        metricsData.setId("id");
-        metricsData.setRepository("repo1");
-        metricsData.setCurrentDate(LocalDateTime.now(ZoneId.of("UTC")).toString());
-        metricsData.setMetricName("metric");
-        metricsData.setMetricCount(10L);
-        when(untriagedIssues.getBoolQueryBuilder(any())).thenReturn(new BoolQueryBuilder());
-        when(untriagedIssues.createSearchRequest(any(), any())).thenReturn(new SearchRequest());
-        when(untriagedIssues.performSearch(any(), any())).thenReturn(10L);
+        when(generalMetricsAggregator.aggregate(anyList(), eq(repositories), eq(openSearchUtil)))
+                .thenAnswer(invocation -> metricValues(invocation.getArgument(0), repositories, 10L));
         when(objectMapper.writeValueAsString(any())).thenReturn("json");
-        metricsCalculation.generateGeneralMetrics(repositories);
+        metricsCalculation.generateGeneralMetrics(repositories, bulkSink);
         verify(openSearchUtil).createIndexIfNotExists("opensearch_general_metrics");
-        verify(openSearchUtil).bulkIndex(eq("opensearch_general_metrics"), any(Map.class));
+        verify(generalMetricsAggregator, times(1)).aggregate(argThat(metrics -> metrics.size() == 13), eq(repositories), eq(openSearchUtil));
+        verify(openSearchUtil, never()).search(any());
+        verify(bulkSink, times(26)).add(eq("opensearch_general_metrics"), anyString(), eq("json"));
+    }
+
+    @Test
+    void testGenerateGeneralMetricsWithOwnBulkSink() throws IOException {
+        List<String> repositories = Arrays.asList("repo1");
+        when(openSearchUtil.openBulkSink()).thenReturn(bulkSink);
+        when(generalMetricsAggregator.aggregate(anyList(), eq(repositories), eq(openSearchUtil)))
+                .thenAnswer(invocation -> metricValues(invocation.getArgument(0), repositories, 10L));
+        when(objectMapper.writeValueAsString(any())).thenReturn("json");
+        metricsCalculation.generateGeneralMetrics(repositories);
+        verify(bulkSink, times(13)).add(eq("opensearch_general_metrics"), anyString(), eq("json"));
+        verify(bulkSink).close();
+    }
+
+    private static Map<String, Map<Metrics, Long>> metricValues(List<Metrics> metricsList, List<String> repositories, long value) {
+        Map<String, Map<Metrics, Long>> values = new HashMap<>();
+        for (String repo : repositories) {
+            Map<Metrics, Long> repoValues = new HashMap<>();
+            metricsList.forEach(metric -> repoValues.put(metric, value));
+            values.put(repo, repoValues);
+        }
+        return values;
     }
 
     @Test
     void testGenerateLabelMetrics() throws IOException {
         List<String> repositories = Arrays.asList("repo1", "repo2");
-        Map<String, List<Long>> labelInfo = new HashMap<>();
-        labelInfo.put("label1", Arrays.asList(5L, 10L));
-        LabelData labelData = new LabelData();
-        labelData.setId("id");
-        labelData.setRepository("repo1");
-        labelData.setCurrentDate(LocalDateTime.now(ZoneId.of("UTC")).toString());
-        labelData.setLabelName("label1");
-        labelData.setLabelPullCount(10L);
-        labelData.setLabelIssueCount(5L);
-        when(labelMetrics.getLabelInfo(any(), any())).thenReturn(labelInfo);
+        List<LabelData> labelCounts = new ArrayList<>();
+        for (String repo : repositories) {
+            LabelData labelData = new LabelData();
+            labelData.setRepository(repo);
+            labelData.setLabelName("label1");
+            labelData.setLabelPullCount(10L);
+            labelData.setLabelIssueCount(5L);
+            labelCounts.add(labelData);
+        }
+        when(labelMetrics.streamLabelCounts(eq(repositories), any())).thenReturn(labelCounts.stream());
         when(objectMapper.writeValueAsString(any())).thenReturn("json");
-        metricsCalculation.generateLabelMetrics(repositories);
+        metricsCalculation.generateLabelMetrics(repositories, bulkSink);
         verify(openSearchUtil).createIndexIfNotExists("opensearch_label_metrics");
-        verify(openSearchUtil).bulkIndex(eq("opensearch_label_metrics"), any(Map.class));
+        verify(bulkSink, times(2)).add(eq("opensearch_label_metrics"), anyString(), eq("json"));
+        assertNotNull(labelCounts.get(0).getCurrentDate());
+        assertNotEquals(labelCounts.get(0).getId(), labelCounts.get(1).getId());
     }
 
     @Test
-    void testGenerateReleaseMetrics() {
+    @SuppressWarnings("unchecked")
+    void testGenerateReleaseMetrics() throws IOException {
         Map<String, String> releaseRepos = new HashMap<>();
         releaseRepos.put("repo1", "component1");
         releaseRepos.put("repo2", "component2");
-        when(releaseMetrics.getReleaseRepos("2.13.0")).thenReturn(releaseRepos);
-        when(releaseMetrics.getReleaseLabelIssues(ReleaseInputs.VERSION_2_13_0.getVersion(), "repo1", "open", false)).thenReturn(10L);
-        when(releaseMetrics.getReleaseLabelIssues(ReleaseInputs.VERSION_2_13_0.getVersion(), "repo1", "open", true)).thenReturn(5L);
-        when(releaseMetrics.getReleaseLabelIssues(ReleaseInputs.VERSION_2_13_0.getVersion(), "repo1", "closed", false)).thenReturn(20L);
-        when(releaseMetrics.getReleaseLabelPulls(ReleaseInputs.VERSION_2_13_0.getVersion(), "repo1", "open")).thenReturn(3L);
-        when(releaseMetrics.getReleaseLabelPulls(ReleaseInputs.VERSION_2_13_0.getVersion(), "repo1", "closed")).thenReturn(8L);
-        when(releaseMetrics.getReleaseVersionIncrement(ReleaseInputs.VERSION_2_13_0.getVersion(), "repo1", "main")).thenReturn(true);
-        when(releaseMetrics.getReleaseNotes(ReleaseInputs.VERSION_2_13_0.getVersion(), "repo1", "main")).thenReturn(true);
-        when(releaseMetrics.getReleaseBranch(ReleaseInputs.VERSION_2_13_0.getVersion(), "repo1")).thenReturn(true);
-        when(releaseMetrics.getReleaseOwners(ReleaseInputs.VERSION_2_13_0.getVersion(), "repo1")).thenReturn(new String[]{"owner1", "owner2"});
-        when(releaseMetrics.getReleaseIssue(ReleaseInputs.VERSION_2_13_0.getVersion(), "repo1")).thenReturn("release-123");
-        metricsCalculation.generateReleaseMetrics();
+        when(releaseMetrics.getReleaseRepos(anyString())).thenReturn(releaseRepos);
+        when(objectMapper.writeValueAsString(any())).thenReturn("json");
+        ReleaseRepoStats repoStats = new ReleaseRepoStats();
+        repoStats.setIssuesOpen(10L);
+        repoStats.setAutocutIssuesOpen(5L);
+        repoStats.setIssuesClosed(20L);
+        repoStats.setPullsOpen(3L);
+        repoStats.setPullsClosed(8L);
+        repoStats.setReleaseOwners(new String[]{"owner1", "owner2"});
+        repoStats.setReleaseIssue("release-123");
+        Map<String, ReleaseRepoStats> versionStats = Map.of("repo1", repoStats, "repo2", new ReleaseRepoStats());
+        when(releaseMetrics.getReleaseRepoStats(anyMap())).thenAnswer(invocation -> {
+            Map<String, Map<String, ReleaseRepoStats>> stats = new HashMap<>();
+            ((Map<String, ?>) invocation.getArgument(0)).keySet().forEach(version -> stats.put(version, versionStats));
+            return stats;
+        });
+        when(releaseMetrics.getReleaseVersionIncrementAsync(anyString(), anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(Optional.of(true)));
+        when(releaseMetrics.getReleaseNotesAsync(anyString(), anyString(), anyString())).thenReturn(CompletableFuture.completedFuture(Optional.of(true)));
+        when(releaseMetrics.getReleaseBranchAsync(anyString(), anyString())).thenReturn(CompletableFuture.completedFuture(Optional.of(true)));
+        metricsCalculation.generateReleaseMetrics(bulkSink, false);
         verify(openSearchUtil).createIndexIfNotExists("opensearch_release_metrics");
-        verify(openSearchUtil).bulkIndex(eq("opensearch_release_metrics"), ArgumentMatchers.anyMap());
+        verify(bulkSink, atLeastOnce()).add(eq("opensearch_release_metrics"), anyString(), eq("json"));
         verify(openSearchUtil, times(1)).createIndexIfNotExists("opensearch_release_metrics");
+        verify(releaseMetrics, times(1)).getReleaseRepoStats(anyMap());
+        verify(releaseSnapshotStore).putReleaseMetrics(eq(ReleaseInputs.VERSION_2_18_0.getVersion()), argThat(list -> list.size() == 2));
+        verify(releaseSnapshotStore, never()).putReleaseMetrics(eq(ReleaseInputs.VERSION_3_0_0.getVersion()), anyList());
+    }
+
+    @Test
+    void testGenerateReleaseMetricsCheckWithoutAnswer() throws IOException {
+        try (MockedStatic<ReleaseInputs> mockedReleaseInputs = Mockito.mockStatic(ReleaseInputs.class)) {
+            ReleaseInputs releaseInput = mock(ReleaseInputs.class);
+            when(releaseInput.getVersion()).thenReturn("2.18.0");
+            when(releaseInput.getBranch()).thenReturn("2.18");
+            when(releaseInput.getTrack()).thenReturn(true);
+            when(releaseInput.getState()).thenReturn("closed");
+            mockedReleaseInputs.when(ReleaseInputs::getAllReleaseInputs).thenReturn(new ReleaseInputs[]{releaseInput});
+            when(releaseSnapshotStore.getReleaseMetrics("2.18.0")).thenReturn(Optional.empty());
+            when(releaseMetrics.getReleaseRepos("2.18.0")).thenReturn(Map.of("repo1", "component1"));
+            when(releaseMetrics.getReleaseRepoStats(anyMap())).thenReturn(Map.of("2.18.0", Map.of("repo1", new ReleaseRepoStats())));
+            when(releaseMetrics.getReleaseVersionIncrementAsync(anyString(), anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(Optional.of(true)));
+            // GitHub answered neither 200 nor 404
+            when(releaseMetrics.getReleaseNotesAsync(anyString(), anyString(), anyString())).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+            when(releaseMetrics.getReleaseBranchAsync(anyString(), anyString())).thenReturn(CompletableFuture.completedFuture(Optional.of(true)));
+            ArgumentCaptor<Object> emitted = ArgumentCaptor.forClass(Object.class);
+            when(objectMapper.writeValueAsString(emitted.capture())).thenReturn("json");
+
+            metricsCalculation.generateReleaseMetrics(bulkSink, false);
+
+            verify(bulkSink, times(1)).add(eq("opensearch_release_metrics"), anyString(), eq("json"));
+            assertEquals(false, ((Map<?, ?>) emitted.getValue()).get("release_notes"));
+            assertEquals(true, ((Map<?, ?>) emitted.getValue()).get("release_branch"));
+            verify(releaseSnapshotStore, never()).putReleaseMetrics(anyString(), anyList());
+        }
+    }
+
+    @Test
+    void testGenerateReleaseMetricsBatchOfVersions() throws IOException {
+        try (MockedStatic<ReleaseInputs> mockedReleaseInputs = Mockito.mockStatic(ReleaseInputs.class)) {
+            ReleaseInputs closedRelease = mock(ReleaseInputs.class);
+            when(closedRelease.getVersion()).thenReturn("2.18.0");
+            when(closedRelease.getTrack()).thenReturn(true);
+            when(closedRelease.getState()).thenReturn("closed");
+            ReleaseInputs openRelease = mock(ReleaseInputs.class);
+            when(openRelease.getVersion()).thenReturn("2.19.0");
+            when(openRelease.getBranch()).thenReturn("2.x");
+            when(openRelease.getTrack()).thenReturn(true);
+            when(openRelease.getState()).thenReturn("open");
+            mockedReleaseInputs.when(ReleaseInputs::getAllReleaseInputs).thenReturn(new ReleaseInputs[]{closedRelease, openRelease});
+            when(releaseMetrics.getReleaseRepos("2.19.0")).thenReturn(Map.of("repo1", "component1"));
+            when(releaseMetrics.getReleaseRepoStats(anyMap())).thenReturn(Map.of("2.19.0", Map.of("repo1", new ReleaseRepoStats())));
+            when(releaseMetrics.getReleaseVersionIncrementAsync(anyString(), anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(Optional.of(true)));
+            when(releaseMetrics.getReleaseNotesAsync(anyString(), anyString(), anyString())).thenReturn(CompletableFuture.completedFuture(Optional.of(true)));
+            when(releaseMetrics.getReleaseBranchAsync(anyString(), anyString())).thenReturn(CompletableFuture.completedFuture(Optional.of(true)));
+            when(objectMapper.writeValueAsString(any())).thenReturn("json");
+
+            assertEquals(Arrays.asList("2.18.0", "2.19.0"), metricsCalculation.getTrackedReleaseVersions());
+            metricsCalculation.generateReleaseMetrics(Collections.singletonList("2.19.0"), bulkSink, false);
+
+            verify(releaseSnapshotStore, never()).getReleaseMetrics(anyString());
+            verify(releaseMetrics, never()).getReleaseRepos("2.18.0");
+            verify(bulkSink, times(1)).add(eq("opensearch_release_metrics"), anyString(), eq("json"));
+        }
+    }
+
+    @Test
+    void testGenerateReleaseMetricsRefreshSnapshots() throws IOException {
+        try (MockedStatic<ReleaseInputs> mockedReleaseInputs = Mockito.mockStatic(ReleaseInputs.class)) {
+            ReleaseInputs releaseInput = mock(ReleaseInputs.class);
+            when(releaseInput.getVersion()).thenReturn("2.18.0");
+            when(releaseInput.getBranch()).thenReturn("2.18");
+            when(releaseInput.getTrack()).thenReturn(true);
+            when(releaseInput.getState()).thenReturn("closed");
+            mockedReleaseInputs.when(ReleaseInputs::getAllReleaseInputs).thenReturn(new ReleaseInputs[]{releaseInput});
+            when(releaseMetrics.getReleaseRepos("2.18.0")).thenReturn(Map.of("repo1", "component1"));
+            when(releaseMetrics.getReleaseRepoStats(anyMap())).thenReturn(Map.of("2.18.0", Map.of("repo1", new ReleaseRepoStats())));
+            when(releaseMetrics.getReleaseVersionIncrementAsync(anyString(), anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(Optional.of(true)));
+            when(releaseMetrics.getReleaseNotesAsync(anyString(), anyString(), anyString())).thenReturn(CompletableFuture.completedFuture(Optional.of(false)));
+            when(releaseMetrics.getReleaseBranchAsync(anyString(), anyString())).thenReturn(CompletableFuture.completedFuture(Optional.of(true)));
+            when(objectMapper.writeValueAsString(any())).thenReturn("json");
+
+            metricsCalculation.generateReleaseMetrics(bulkSink, true);
+
+            verify(releaseSnapshotStore, never()).getReleaseMetrics(anyString());
+            verify(releaseMetrics).getReleaseRepos("2.18.0");
+            verify(releaseSnapshotStore).putReleaseMetrics(eq("2.18.0"), argThat(list -> list.size() == 1));
+        }
+    }
+
+    @Test
+    void testGenerateReleaseMetricsFromSnapshot() {
+        try (MockedStatic<ReleaseInputs> mockedReleaseInputs = Mockito.mockStatic(ReleaseInputs.class)) {
+            ReleaseInputs releaseInput = mock(ReleaseInputs.class);
+            when(releaseInput.getVersion()).thenReturn("2.18.0");
+            when(releaseInput.getBranch()).thenReturn("2.18");
+            when(releaseInput.getTrack()).thenReturn(true);
+            when(releaseInput.getState()).thenReturn("closed");
+            ReleaseInputs[] releaseInputsArray = {releaseInput};
+            mockedReleaseInputs.when(ReleaseInputs::getAllReleaseInputs).thenReturn(releaseInputsArray);
+            ReleaseMetricsData snapshotData = new ReleaseMetricsData();
+            snapshotData.setId("old-id");
+            snapshotData.setCurrentDate("2024-01-01T00:00");
+            snapshotData.setRepository("repo1");
+            snapshotData.setReleaseVersion("2.18.0");
+            snapshotData.setIssuesOpen(4L);
+            when(releaseSnapshotStore.getReleaseMetrics("2.18.0")).thenReturn(Optional.of(List.of(snapshotData)));
+            try {
+                when(objectMapper.writeValueAsString(any())).thenReturn("json");
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException(e);
+            }
+
+            metricsCalculation.generateReleaseMetrics(bulkSink, false);
+
+            verify(bulkSink, times(1)).add(eq("opensearch_release_metrics"), anyString(), eq("json"));
+            assertNotEquals("old-id", snapshotData.getId());
+            assertNotEquals("2024-01-01T00:00", snapshotData.getCurrentDate());
+            assertEquals(4L, snapshotData.getIssuesOpen());
+            verify(releaseMetrics, never()).getReleaseRepos(anyString());
+            verify(releaseMetrics, never()).getReleaseBranchAsync(anyString(), anyString());
+            verify(releaseSnapshotStore, never()).putReleaseMetrics(anyString(), anyList());
+        }
     }
 
     @Test
@@ -180,17 +338,56 @@ public class MetricsCalculationTest {
             codeCovResponse.setUrl("https://sample-url.com");
             codeCovResponse.setState("success");
             codeCovResponse.setCoverage(85.5);
-            when(releaseMetrics.getCodeCoverage("main", "repo1")).thenReturn(codeCovResponse);
+            when(releaseMetrics.getCodeCoverageAsync("main", "repo1")).thenReturn(CompletableFuture.completedFuture(codeCovResponse));
             try {
                 when(objectMapper.writeValueAsString(any())).thenReturn("{}");
             } catch (JsonProcessingException e) {
                 throw new RuntimeException(e);
             }
-            metricsCalculation.generateCodeCovMetrics();
+            metricsCalculation.generateCodeCovMetrics(bulkSink, false);
             verify(openSearchUtil).createIndexIfNotExists(matches("opensearch-codecov-metrics-\\d{2}-\\d{4}"));
-            verify(openSearchUtil).bulkIndex(matches("opensearch-codecov-metrics-\\d{2}-\\d{4}"), argThat(map -> !map.isEmpty()));
-            verify(releaseMetrics).getCodeCoverage("main", "repo1");
+            verify(bulkSink).add(matches("opensearch-codecov-metrics-\\d{2}-\\d{4}"), anyString(), eq("{}"));
+            verify(releaseMetrics).getCodeCoverageAsync("main", "repo1");
             verify(releaseMetrics).getReleaseRepos("2.18.0");
+            verify(releaseSnapshotStore, never()).putCodeCoverage(anyString(), anyString(), anyList());
+        }
+    }
+
+    @Test
+    void testGenerateCodeCovMetricsSnapshot() {
+        try (MockedStatic<ReleaseInputs> mockedReleaseInputs = Mockito.mockStatic(ReleaseInputs.class)) {
+            ReleaseInputs evaluated = mock(ReleaseInputs.class);
+            when(evaluated.getVersion()).thenReturn("2.17.0");
+            when(evaluated.getBranch()).thenReturn("2.17");
+            when(evaluated.getTrack()).thenReturn(true);
+            when(evaluated.getState()).thenReturn("closed");
+            ReleaseInputs frozen = mock(ReleaseInputs.class);
+            when(frozen.getVersion()).thenReturn("2.18.0");
+            when(frozen.getBranch()).thenReturn("2.18");
+            when(frozen.getTrack()).thenReturn(true);
+            when(frozen.getState()).thenReturn("closed");
+            ReleaseInputs[] releaseInputsArray = {evaluated, frozen};
+            mockedReleaseInputs.when(ReleaseInputs::getAllReleaseInputs).thenReturn(releaseInputsArray);
+            when(releaseMetrics.getReleaseRepos("2.17.0")).thenReturn(Map.of("repo1", "component1"));
+            CodeCovResponse codeCovResponse = new CodeCovResponse();
+            codeCovResponse.setState("complete");
+            when(releaseMetrics.getCodeCoverageAsync("2.17", "repo1")).thenReturn(CompletableFuture.completedFuture(codeCovResponse));
+            CodeCovResult snapshotResult = new CodeCovResult();
+            snapshotResult.setRepository("repo1");
+            when(releaseSnapshotStore.getCodeCoverage("2.18.0", "2.18")).thenReturn(Optional.of(List.of(snapshotResult)));
+            try {
+                when(objectMapper.writeValueAsString(any())).thenReturn("{}");
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException(e);
+            }
+
+            metricsCalculation.generateCodeCovMetrics(bulkSink, false);
+
+            verify(bulkSink, times(2)).add(matches("opensearch-codecov-metrics-\\d{2}-\\d{4}"), anyString(), eq("{}"));
+            verify(releaseSnapshotStore).putCodeCoverage(eq("2.17.0"), eq("2.17"), argThat(list -> list.size() == 1));
+            verify(releaseMetrics, never()).getReleaseRepos("2.18.0");
+            verify(releaseMetrics, never()).getCodeCoverageAsync(eq("2.18"), anyString());
+            assertNotNull(snapshotResult.getId());
         }
     }
 
@@ -212,16 +409,40 @@ public class MetricsCalculationTest {
         double[] slopeAndIntercept = {-1.0, 368.0};
         double upperBound = 365;
         double lowerBound = 90;
-        when(maintainerMetrics.mostAndLeastRepoEventCounts(any())).thenReturn(new long[]{100L, 10L});
+        when(maintainerMetrics.repoEventStats(any())).thenReturn(new RepoEventStats(Map.of("repo1", 50L, "repo2", 100L, "repo3", 10L)));
         when(maintainerMetrics.getSlopeAndIntercept(10, upperBound, 100, lowerBound)).thenReturn(slopeAndIntercept);
         when(maintainerMetrics.getEventTypes(any())).thenReturn(eventList);
-        when(maintainerMetrics.repoEventCount(any(), any())).thenReturn(50L);
-        when(maintainerMetrics.repoMaintainers(any())).thenReturn(maintainersList);
-        when(maintainerMetrics.queryLatestEvent(any(), any(), any(), any())).thenReturn(Optional.of(latestEventData));
+        when(maintainerMetrics.repoMaintainersAsync(any())).thenReturn(CompletableFuture.completedFuture(maintainersList));
+        Map<String, Map<String, Map<String, LatestEventData>>> latestEvents = new HashMap<>();
+        latestEvents.put("repo1", Map.of("githubId", Map.of("event1", latestEventData)));
+        when(maintainerMetrics.queryLatestEvents(any(), any())).thenReturn(latestEvents);
         when(maintainerMetrics.calculateInactivity(50L, slopeAndIntercept, lowerBound, latestEventData)).thenReturn(false);
         when(objectMapper.writeValueAsString(any())).thenReturn("json");
-        metricsCalculation.generateMaintainerMetrics(repositories);
+        metricsCalculation.generateMaintainerMetrics(repositories, bulkSink);
         verify(openSearchUtil).createIndexIfNotExists(matches("maintainer-inactivity-\\d{2}-\\d{4}"));
-        verify(openSearchUtil).bulkIndex(matches("maintainer-inactivity-\\d{2}-\\d{4}"), argThat(map -> !map.isEmpty()));
+        verify(bulkSink, atLeastOnce()).add(matches("maintainer-inactivity-\\d{2}-\\d{4}"), anyString(), eq("json"));
+        verify(maintainerMetrics).queryLatestEvents(eq(Map.of("repo1", List.of("githubId"), "repo2", List.of("githubId"))), eq(openSearchUtil));
+    }
+
+    @Test
+    void testGenerateMaintainerMetricsBatchesShareRun() throws IOException {
+        MaintainerData maintainerData = new MaintainerData();
+        maintainerData.setName("maintainer1");
+        maintainerData.setGithubLogin("githubId");
+        when(maintainerMetrics.repoEventStats(any())).thenReturn(new RepoEventStats(Map.of("repo1", 50L, "repo2", 100L)));
+        when(maintainerMetrics.getSlopeAndIntercept(anyDouble(), anyDouble(), anyDouble(), anyDouble())).thenReturn(new double[]{-1.0, 368.0});
+        when(maintainerMetrics.getEventTypes(any())).thenReturn(List.of("event1"));
+        when(maintainerMetrics.repoMaintainersAsync(any())).thenReturn(CompletableFuture.completedFuture(List.of(maintainerData)));
+        when(maintainerMetrics.queryLatestEvents(any(), any())).thenReturn(new HashMap<>());
+        when(objectMapper.writeValueAsString(any())).thenReturn("json");
+
+        MetricsCalculation.MaintainerRun run = metricsCalculation.startMaintainerMetrics();
+        metricsCalculation.generateMaintainerMetrics(List.of("repo1"), run, bulkSink);
+        metricsCalculation.generateMaintainerMetrics(List.of("repo2"), run, bulkSink);
+
+        verify(openSearchUtil, times(1)).createIndexIfNotExists(matches("maintainer-inactivity-\\d{2}-\\d{4}"));
+        verify(maintainerMetrics, times(1)).repoEventStats(openSearchUtil);
+        verify(maintainerMetrics, times(1)).getEventTypes(openSearchUtil);
+        verify(maintainerMetrics, times(2)).queryLatestEvents(any(), eq(openSearchUtil));
     }
 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.metrics;
+
+import com.google.common.base.Ticker;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.core.rest.RestStatus;
+import org.opensearch.search.aggregations.Aggregations;
+import org.opensearch.search.aggregations.bucket.composite.CompositeAggregation;
+import org.opensearchmetrics.util.OpenSearchUtil;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RepositoryCatalogTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    };
+
+    @Test
+    void WHEN_repositories_span_pages_THEN_every_repository_is_returned() {
+        OpenSearchUtil openSearchUtil = Mockito.mock(OpenSearchUtil.class);
+        Deque<SearchResponse> repoPages = new ArrayDeque<>(List.of(
+                compositeResponse(bucket("repo1"), bucket("repo2")),
+                compositeResponse(bucket("repo3")),
+                compositeResponse()));
+        List<SearchRequest> repoRequests = new ArrayList<>();
+        when(openSearchUtil.search(any(SearchRequest.class))).thenAnswer(invocation -> {
+            SearchRequest request = invocation.getArgument(0);
+            assertEquals("github_repos", request.indices()[0]);
+            repoRequests.add(request);
+            return repoPages.poll();
+        });
+
+        RepositoryCatalog repositoryCatalog = new RepositoryCatalog(openSearchUtil, Duration.ofHours(1), ticker);
+
+        assertEquals(List.of("repo1", "repo2", "repo3"), repositoryCatalog.getRepositories());
+        assertEquals(3, repoRequests.size());
+        assertTrue(repoRequests.get(1).source().toString().contains("\"after\":{\"repository\":\"repo2\"}"));
+    }
+
+    @Test
+    void WHEN_catalog_cached_THEN_read_again_only_after_ttl() {
+        OpenSearchUtil openSearchUtil = Mockito.mock(OpenSearchUtil.class);
+        when(openSearchUtil.search(any(SearchRequest.class))).thenAnswer(invocation -> compositeResponse());
+        RepositoryCatalog repositoryCatalog = new RepositoryCatalog(openSearchUtil, Duration.ofHours(1), ticker);
+
+        repositoryCatalog.getRepositories();
+        repositoryCatalog.getRepositories();
+        verify(openSearchUtil, times(1)).search(any(SearchRequest.class));
+
+        nanos.addAndGet(Duration.ofHours(1).toNanos());
+        repositoryCatalog.getRepositories();
+        verify(openSearchUtil, times(2)).search(any(SearchRequest.class));
+
+        repositoryCatalog.invalidate();
+        repositoryCatalog.getRepositories();
+        verify(openSearchUtil, times(3)).search(any(SearchRequest.class));
+    }
+
+    @Test
+    void WHEN_search_fails_THEN_nothing_is_cached() {
+        OpenSearchUtil openSearchUtil = Mockito.mock(OpenSearchUtil.class);
+        SearchResponse failed = Mockito.mock(SearchResponse.class);
+        when(failed.status()).thenReturn(RestStatus.INTERNAL_SERVER_ERROR);
+        when(openSearchUtil.search(any(SearchRequest.class))).thenReturn(failed);
+        RepositoryCatalog repositoryCatalog = new RepositoryCatalog(openSearchUtil, Duration.ofHours(1), ticker);
+
+        assertThrows(RuntimeException.class, repositoryCatalog::getRepositories);
+        assertThrows(RuntimeException.class, repositoryCatalog::getRepositories);
+        verify(openSearchUtil, times(2)).search(any(SearchRequest.class));
+    }
+
+    private static CompositeAggregation.Bucket bucket(String repo) {
+        CompositeAggregation.Bucket bucket = Mockito.mock(CompositeAggregation.Bucket.class);
+        when(bucket.getKey()).thenReturn(Map.of("repository", repo));
+        return bucket;
+    }
+
+    private static SearchResponse compositeResponse(CompositeAggregation.Bucket... buckets) {
+        Map<String, Object> afterKey = buckets.length == 0 ? null : buckets[buckets.length - 1].getKey();
+        CompositeAggregation composite = Mockito.mock(CompositeAggregation.class);
+        doReturn(List.of(buckets)).when(composite).getBuckets();
+        when(composite.afterKey()).thenReturn(afterKey);
+        Aggregations aggregations = Mockito.mock(Aggregations.class);
+        when(aggregations.get("repositories")).thenReturn(composite);
+        SearchResponse response = Mockito.mock(SearchResponse.class);
+        when(response.status()).thenReturn(RestStatus.OK);
+        when(response.getAggregations()).thenReturn(aggregations);
+        return response;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opensearchmetrics.util.Deadline;
+import org.opensearchmetrics.util.FileStateStore;
+import org.opensearchmetrics.util.StateStore;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RunCheckpointTest {
+
+    @TempDir
+    Path stateDirectory;
+
+    private StateStore stateStore;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        stateStore = new FileStateStore(stateDirectory);
+    }
+
+    @Test
+    void WHEN_run_finishes_THEN_checkpoint_is_removed() {
+        stateStore.put("checkpoints/metrics/2024-06-01", "[\"general-metrics/repo1\"]");
+        RunCheckpoint checkpoint = RunCheckpoint.open(stateStore, objectMapper, "metrics/2024-06-01", Deadline.none());
+        List<List<String>> batches = new ArrayList<>();
+
+        checkpoint.forEachBatch("general-metrics", Arrays.asList("repo1", "repo2", "repo3"), 10, batches::add);
+        checkpoint.commit(true);
+
+        assertEquals(List.of(Arrays.asList("repo2", "repo3")), batches);
+        assertFalse(checkpoint.isStopped());
+        assertEquals(Optional.empty(), stateStore.get("checkpoints/metrics/2024-06-01"));
+    }
+
+    @Test
+    void WHEN_deadline_passes_THEN_remaining_batches_are_left_for_next_invocation() {
+        Deadline deadline = mock(Deadline.class);
+        when(deadline.isPassed()).thenReturn(false, false, true);
+        RunCheckpoint checkpoint = RunCheckpoint.open(stateStore, objectMapper, "metrics/2024-06-01", deadline);
+        List<List<String>> batches = new ArrayList<>();
+        List<List<String>> releaseBatches = new ArrayList<>();
+
+        checkpoint.forEachBatch("general-metrics", Arrays.asList("repo1", "repo2", "repo3", "repo4", "repo5"), 2, batches::add);
+        checkpoint.forEachBatch("release-metrics", Arrays.asList("2.18.0", "2.19.0"), 1, releaseBatches::add);
+        checkpoint.commit(true);
+
+        assertEquals(List.of(Arrays.asList("repo1", "repo2"), Arrays.asList("repo3", "repo4")), batches);
+        assertTrue(releaseBatches.isEmpty());
+        assertTrue(checkpoint.isStopped());
+
+        // The next invocation only runs what is left
+        RunCheckpoint resumed = RunCheckpoint.open(stateStore, objectMapper, "metrics/2024-06-01", Deadline.none());
+        List<List<String>> resumedBatches = new ArrayList<>();
+        resumed.forEachBatch("general-metrics", Arrays.asList("repo1", "repo2", "repo3", "repo4", "repo5"), 2, resumedBatches::add);
+        resumed.forEachBatch("release-metrics", Arrays.asList("2.18.0", "2.19.0"), 1, releaseBatches::add);
+
+        assertEquals(List.of(List.of("repo5")), resumedBatches);
+        assertEquals(List.of(List.of("2.18.0"), List.of("2.19.0")), releaseBatches);
+    }
+
+    @Test
+    void WHEN_batch_fails_THEN_earlier_batches_are_checkpointed() {
+        RunCheckpoint checkpoint = RunCheckpoint.open(stateStore, objectMapper, "maintainer-inactivity/2024-06-01", Deadline.none());
+
+        try {
+            checkpoint.forEachBatch("maintainer-metrics", Arrays.asList("repo1", "repo2", "repo3"), 1, batch -> {
+                if (batch.contains("repo2")) {
+                    throw new IllegalStateException("search failed");
+                }
+            });
+        } catch (IllegalStateException e) {
+            checkpoint.commit(false);
+        }
+
+        assertEquals(Optional.of("[\"maintainer-metrics/repo1\"]"), stateStore.get("checkpoints/maintainer-inactivity/2024-06-01"));
+    }
+
+    @Test
+    void WHEN_checkpoint_unreadable_THEN_every_unit_runs() {
+        stateStore.put("checkpoints/metrics/2024-06-01", "not json");
+        RunCheckpoint checkpoint = RunCheckpoint.open(stateStore, objectMapper, "metrics/2024-06-01", Deadline.none());
+        List<List<String>> batches = new ArrayList<>();
+
+        checkpoint.forEachBatch("label-metrics", Arrays.asList("repo1", "repo2"), 10, batches::add);
+
+        assertEquals(List.of(Arrays.asList("repo1", "repo2")), batches);
+    }
+}
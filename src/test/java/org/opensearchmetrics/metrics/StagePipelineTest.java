@@ -0,0 +1,150 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StagePipelineTest {
+
+    @Test
+    void WHEN_stages_share_input_THEN_input_is_computed_once() {
+        StagePipeline pipeline = new StagePipeline();
+        AtomicInteger computations = new AtomicInteger();
+        StagePipeline.Input<List<String>> repositories = pipeline.input("repositories", () -> {
+            computations.incrementAndGet();
+            return Arrays.asList("repo1", "repo2");
+        });
+        AtomicInteger seen = new AtomicInteger();
+        pipeline.stage("general-metrics", () -> seen.addAndGet(repositories.get().size()), repositories)
+                .stage("label-metrics", () -> seen.addAndGet(repositories.get().size()), repositories);
+
+        List<StagePipeline.StageResult> results = pipeline.run();
+
+        assertEquals(1, computations.get());
+        assertEquals(4, seen.get());
+        assertTrue(results.stream().allMatch(StagePipeline.StageResult::isSuccessful));
+    }
+
+    @Test
+    void WHEN_stages_are_independent_THEN_they_run_concurrently() {
+        StagePipeline pipeline = new StagePipeline();
+        // Each stage waits for the other to start, which only finishes if they run at the same time
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Runnable body = () -> {
+            bothStarted.countDown();
+            try {
+                if (!bothStarted.await(5, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("stages ran one after another");
+                }
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        };
+        pipeline.stage("release-metrics", body).stage("codecov-metrics", body);
+
+        List<StagePipeline.StageResult> results = pipeline.run();
+
+        assertTrue(results.stream().allMatch(StagePipeline.StageResult::isSuccessful));
+    }
+
+    @Test
+    void WHEN_stage_fails_THEN_other_stages_complete() {
+        StagePipeline pipeline = new StagePipeline();
+        AtomicInteger completed = new AtomicInteger();
+        pipeline.stage("general-metrics", completed::incrementAndGet)
+                .stage("release-metrics", () -> {
+                    throw new IllegalStateException("manifest unavailable");
+                })
+                .stage("codecov-metrics", completed::incrementAndGet);
+
+        List<StagePipeline.StageResult> results = pipeline.run();
+
+        assertEquals(2, completed.get());
+        assertEquals(Arrays.asList("general-metrics", "release-metrics", "codecov-metrics"),
+                results.stream().map(StagePipeline.StageResult::getName).collect(Collectors.toList()));
+        assertTrue(results.get(0).isSuccessful());
+        assertEquals("manifest unavailable", results.get(1).getFailure().get().getMessage());
+        assertTrue(results.get(2).isSuccessful());
+    }
+
+    @Test
+    void WHEN_input_fails_THEN_only_dependent_stages_fail() {
+        StagePipeline pipeline = new StagePipeline();
+        AtomicInteger computations = new AtomicInteger();
+        StagePipeline.Input<List<String>> repositories = pipeline.input("repositories", () -> {
+            computations.incrementAndGet();
+            throw new IllegalStateException("search failed");
+        });
+        AtomicInteger completed = new AtomicInteger();
+        pipeline.stage("general-metrics", completed::incrementAndGet, repositories)
+                .stage("label-metrics", completed::incrementAndGet, repositories)
+                .stage("release-metrics", completed::incrementAndGet);
+
+        List<StagePipeline.StageResult> results = pipeline.run();
+
+        assertEquals(1, computations.get());
+        assertEquals(1, completed.get());
+        assertEquals("search failed", results.get(0).getFailure().get().getMessage());
+        assertEquals("search failed", results.get(1).getFailure().get().getMessage());
+        assertTrue(results.get(2).isSuccessful());
+    }
+
+    @Test
+    void WHEN_input_throws_error_THEN_every_dependent_stage_fails_with_it() {
+        StagePipeline pipeline = new StagePipeline();
+        StagePipeline.Input<List<String>> repositories = pipeline.input("repositories", () -> {
+            throw new AssertionError("no repositories");
+        });
+        pipeline.stage("general-metrics", () -> {
+                }, repositories)
+                .stage("label-metrics", () -> {
+                }, repositories);
+
+        List<StagePipeline.StageResult> results = assertTimeoutPreemptively(Duration.ofSeconds(10), pipeline::run);
+
+        assertEquals("no repositories", results.get(0).getFailure().get().getMessage());
+        assertEquals("no repositories", results.get(1).getFailure().get().getMessage());
+    }
+
+    @Test
+    void WHEN_stages_fail_THEN_failure_keeps_first_and_suppresses_rest() {
+        StagePipeline pipeline = new StagePipeline();
+        pipeline.stage("general-metrics", () -> {
+                    throw new IllegalStateException("first");
+                })
+                .stage("label-metrics", () -> {
+                })
+                .stage("release-metrics", () -> {
+                    throw new IllegalStateException("second");
+                });
+
+        Optional<RuntimeException> failure = StagePipeline.failure("Error running Metrics Calculation", pipeline.run());
+
+        assertTrue(failure.isPresent());
+        assertEquals("Error running Metrics Calculation", failure.get().getMessage());
+        assertEquals("first", failure.get().getCause().getMessage());
+        assertEquals("second", failure.get().getSuppressed()[0].getMessage());
+        assertFalse(StagePipeline.failure("unused", Collections.emptyList()).isPresent());
+    }
+}
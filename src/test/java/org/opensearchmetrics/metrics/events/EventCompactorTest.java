@@ -0,0 +1,200 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.metrics.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.opensearchmetrics.model.event.CompactionManifest;
+import org.opensearchmetrics.util.S3Util;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class EventCompactorTest {
+    private static final LocalDate JUNE_1 = LocalDate.of(2024, 6, 1);
+
+    @Mock
+    private S3Util s3Util;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    // Contents of the bucket, by key
+    private final NavigableMap<String, byte[]> objects = new ConcurrentSkipListMap<>();
+    private CompactedEventStore compactedEventStore;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        compactedEventStore = new CompactedEventStore(s3Util, mapper);
+        doAnswer(invocation -> {
+            String prefix = invocation.getArgument(0);
+            String startAfter = invocation.getArgument(1);
+            Consumer<S3Object> action = invocation.getArgument(2);
+            NavigableMap<String, byte[]> listed = startAfter == null ? objects : objects.tailMap(startAfter, false);
+            for (String key : listed.keySet()) {
+                if (key.startsWith(prefix)) {
+                    action.accept(S3Object.builder().key(key).lastModified(lastModified(key)).build());
+                }
+            }
+            return null;
+        }).when(s3Util).forEachObject(anyString(), any(), any());
+        when(s3Util.getObjectBytesAsync(anyString())).thenAnswer(invocation ->
+                CompletableFuture.supplyAsync(() -> objects.get(invocation.<String>getArgument(0))));
+        when(s3Util.getObjectInputStream(anyString())).thenAnswer(invocation -> new ResponseInputStream<>(
+                GetObjectResponse.builder().build(),
+                AbortableInputStream.create(new ByteArrayInputStream(objects.get(invocation.<String>getArgument(0))))));
+        doAnswer(invocation -> objects.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(s3Util).putObject(anyString(), any());
+    }
+
+    @Test
+    void WHEN_day_has_events_THEN_they_are_written_to_segments_and_manifest() throws IOException {
+        for (int i = 0; i < 30; i++) {
+            putEvent("issues.opened/2024-06-01/" + i, "{ \"id\" : \"" + i + "\",\n \"payload\" : { \"action\" : \"opened\" } }");
+        }
+        putEvent("issues.opened/2024-06-02/0", "{\"id\":\"next day\"}");
+        EventCompactor compactor = new EventCompactor(s3Util, compactedEventStore, mapper.getFactory(), 4, 200);
+
+        CompactionManifest manifest = compactor.compact(GithubEvents.ISSUES_OPENED, JUNE_1).orElseThrow();
+
+        assertEquals("issues.opened", manifest.getEventName());
+        assertEquals("2024-06-01", manifest.getDay());
+        assertEquals(30, manifest.getObjectCount());
+        assertEquals(lastModified("issues.opened/2024-06-01/0").toString(), manifest.getOldestLastModified());
+        assertEquals(lastModified("issues.opened/2024-06-01/29").toString(), manifest.getNewestLastModified());
+        assertTrue(manifest.getSegments().size() > 1, "wrote " + manifest.getSegments().size() + " segments");
+        assertEquals("compacted/issues.opened/2024-06-01/segment-00000.ndjson.gz", manifest.getSegments().get(0).getKey());
+        // Listing order, one compact payload per line
+        List<String> lines = new ArrayList<>();
+        long objectCount = 0;
+        for (CompactionManifest.Segment segment : manifest.getSegments()) {
+            objectCount += segment.getObjectCount();
+            try (InputStream in = compactedEventStore.openSegment(segment.getKey())) {
+                String ndjson = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                assertTrue(ndjson.endsWith("\n"));
+                lines.addAll(List.of(ndjson.split("\n")));
+            }
+        }
+        assertEquals(30, objectCount);
+        assertEquals(30, lines.size());
+        assertTrue(lines.contains("{\"id\":\"7\",\"payload\":{\"action\":\"opened\"}}"));
+        assertEquals(List.of(manifest), compactedEventStore.getManifests(GithubEvents.ISSUES_OPENED, JUNE_1));
+        InOrder order = inOrder(s3Util);
+        order.verify(s3Util, atLeastOnce()).putObject(startsWith("compacted/issues.opened/2024-06-01/segment-"), any());
+        order.verify(s3Util).putObject(eq("compacted/issues.opened/2024-06-01/manifest.json"), any());
+    }
+
+    @Test
+    void WHEN_segments_are_read_THEN_events_match_the_webhook_objects() throws IOException {
+        GithubEventExtractor extractor = new GithubEventExtractor(mapper.getFactory());
+        String payload = "{\"id\":\"1\",\"name\":\"issues\",\"payload\":{\"action\":\"opened\",\"repository\":{\"name\":\"OpenSearch\"},"
+                + "\"organization\":{\"login\":\"opensearch-project\"},\"sender\":{\"login\":\"octocat\"}},\"uploaded_at\":\"2024-06-01T12:00:00Z\"}";
+        putEvent("issues.opened/2024-06-01/0", payload);
+        EventCompactor compactor = new EventCompactor(s3Util, compactedEventStore, mapper.getFactory());
+
+        CompactionManifest manifest = compactor.compact(GithubEvents.ISSUES_OPENED, JUNE_1).orElseThrow();
+
+        List<Object> events = new ArrayList<>();
+        try (InputStream in = compactedEventStore.openSegment(manifest.getSegments().get(0).getKey())) {
+            extractor.extractEach(GithubEvents.ISSUES_OPENED, in, events::add);
+        }
+        assertEquals(List.of(extractor.extract(GithubEvents.ISSUES_OPENED,
+                new ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8)))), events);
+    }
+
+    @Test
+    void WHEN_day_is_already_compacted_THEN_nothing_is_fetched() {
+        putEvent("gollum/2024-06-01/0", "{\"id\":\"0\"}");
+        EventCompactor compactor = new EventCompactor(s3Util, compactedEventStore, mapper.getFactory());
+        compactor.compact(GithubEvents.GOLLUM, JUNE_1);
+
+        Optional<CompactionManifest> again = compactor.compact(GithubEvents.GOLLUM, JUNE_1);
+
+        assertFalse(again.isPresent());
+        verify(s3Util).getObjectBytesAsync("gollum/2024-06-01/0");
+    }
+
+    @Test
+    void WHEN_day_has_no_events_THEN_empty_manifest_is_written() {
+        EventCompactor compactor = new EventCompactor(s3Util, compactedEventStore, mapper.getFactory());
+
+        CompactionManifest manifest = compactor.compact(GithubEvents.GOLLUM, JUNE_1).orElseThrow();
+
+        assertEquals(0, manifest.getObjectCount());
+        assertTrue(manifest.getSegments().isEmpty());
+        assertNull(manifest.getOldestLastModified());
+        assertNull(manifest.getNewestLastModified());
+        assertTrue(compactedEventStore.isCompacted(GithubEvents.GOLLUM, JUNE_1));
+    }
+
+    @Test
+    void WHEN_event_is_malformed_THEN_compaction_fails_without_manifest() {
+        putEvent("gollum/2024-06-01/0", "{\"id\":\"0\"}");
+        putEvent("gollum/2024-06-01/1", "{\"id\":");
+        EventCompactor compactor = new EventCompactor(s3Util, compactedEventStore, mapper.getFactory());
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> compactor.compact(GithubEvents.GOLLUM, JUNE_1));
+
+        assertEquals("Failed to compact event gollum/2024-06-01/1", exception.getMessage());
+        assertInstanceOf(JsonProcessingException.class, exception.getCause());
+        assertFalse(compactedEventStore.isCompacted(GithubEvents.GOLLUM, JUNE_1));
+        verify(s3Util, never()).putObject(eq("compacted/gollum/2024-06-01/manifest.json"), any());
+    }
+
+    private void putEvent(String key, String json) {
+        objects.put(key, json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /*
+    The i-th object of a day is last modified i minutes after midnight, anything else at midnight.
+     */
+    private static Instant lastModified(String key) {
+        String[] segments = key.split("/");
+        int minutes = segments[segments.length - 1].matches("\\d+") ? Integer.parseInt(segments[segments.length - 1]) : 0;
+        return JUNE_1.atStartOfDay(ZoneOffset.UTC).toInstant().plus(Duration.ofMinutes(minutes));
+    }
+}
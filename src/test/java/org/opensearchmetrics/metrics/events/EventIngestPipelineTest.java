@@ -0,0 +1,338 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.metrics.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.opensearchmetrics.model.event.CompactionManifest;
+import org.opensearchmetrics.util.BulkSink;
+import org.opensearchmetrics.util.S3Util;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class EventIngestPipelineTest {
+    private static final LocalDate JUNE_1 = LocalDate.of(2024, 6, 1);
+
+    @Mock
+    private S3Util s3Util;
+
+    @Mock
+    private BulkSink bulkSink;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final AtomicInteger listedKeys = new AtomicInteger();
+    private final AtomicInteger fetchedKeys = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(s3Util.getObjectBytesAsync(anyString())).thenAnswer(invocation -> {
+            fetchedKeys.incrementAndGet();
+            String key = invocation.getArgument(0);
+            return CompletableFuture.supplyAsync(() -> eventJson(key).getBytes(StandardCharsets.UTF_8));
+        });
+    }
+
+    @Test
+    void WHEN_sources_have_events_THEN_every_event_is_indexed() {
+        listKeys("issues.opened/", 300);
+        listKeys("issues.closed/", 200);
+        EventIngestPipeline pipeline = pipeline(4, 8, 2);
+
+        Map<GithubEvents, Instant> newest = pipeline.run(Arrays.asList(
+                new EventIngestPipeline.Source(GithubEvents.ISSUES_OPENED, JUNE_1, null),
+                new EventIngestPipeline.Source(GithubEvents.ISSUES_CLOSED, JUNE_1, null)),
+                bulkSink);
+
+        verify(bulkSink, times(500)).add(eq("github-user-activity-events-06-2024"), anyString(), anyString());
+        verify(bulkSink).add(eq("github-user-activity-events-06-2024"), eq("issues.closed/2024-06-01/199"),
+                startsWith("{"));
+        assertEquals(Map.of(GithubEvents.ISSUES_OPENED, lastModified(299), GithubEvents.ISSUES_CLOSED, lastModified(199)), newest);
+    }
+
+    @Test
+    void WHEN_source_has_modified_since_THEN_older_objects_are_not_fetched() {
+        listKeys("issues.opened/", 100);
+        EventIngestPipeline pipeline = pipeline(4, 8, 2);
+
+        Map<GithubEvents, Instant> newest = pipeline.run(List.of(
+                new EventIngestPipeline.Source(GithubEvents.ISSUES_OPENED, JUNE_1, lastModified(90))),
+                bulkSink);
+
+        assertEquals(10, fetchedKeys.get());
+        verify(s3Util, never()).getObjectBytesAsync("issues.opened/2024-06-01/89");
+        verify(s3Util).getObjectBytesAsync("issues.opened/2024-06-01/90");
+        verify(bulkSink, times(10)).add(eq("github-user-activity-events-06-2024"), anyString(), anyString());
+        assertEquals(Map.of(GithubEvents.ISSUES_OPENED, lastModified(99)), newest);
+    }
+
+    @Test
+    void WHEN_day_is_compacted_THEN_its_segments_are_read_instead_of_its_objects() throws IOException {
+        LocalDate june2 = JUNE_1.plusDays(1);
+        compactDay(GithubEvents.ISSUES_OPENED, JUNE_1, lastModified(0), lastModified(120), "compacted-1", "compacted-2", "compacted-3");
+        doAnswer(invocation -> {
+            Consumer<S3Object> action = invocation.getArgument(2);
+            action.accept(S3Object.builder().key("issues.opened/2024-06-02/0").lastModified(lastModified(24 * 60)).build());
+            return null;
+        }).when(s3Util).forEachObject(eq("issues.opened/"), eq("issues.opened/" + june2 + "/"), any());
+        EventIngestPipeline pipeline = pipeline(4, 8, 2);
+
+        Map<GithubEvents, Instant> newest = pipeline.run(List.of(
+                new EventIngestPipeline.Source(GithubEvents.ISSUES_OPENED, JUNE_1, null)),
+                bulkSink);
+
+        verify(bulkSink, times(4)).add(eq("github-user-activity-events-06-2024"), anyString(), anyString());
+        verify(bulkSink).add(eq("github-user-activity-events-06-2024"), eq("compacted-2"), startsWith("{"));
+        verify(bulkSink).add(eq("github-user-activity-events-06-2024"), eq("issues.opened/2024-06-02/0"), startsWith("{"));
+        verify(s3Util).getObjectBytesAsync(anyString());
+        assertEquals(Map.of(GithubEvents.ISSUES_OPENED, lastModified(24 * 60)), newest);
+    }
+
+    @Test
+    void WHEN_compacted_day_is_older_than_modified_since_THEN_its_segments_are_not_read() throws IOException {
+        compactDay(GithubEvents.ISSUES_OPENED, JUNE_1, lastModified(0), lastModified(10), "compacted-1");
+        EventIngestPipeline pipeline = pipeline(4, 8, 2);
+
+        Map<GithubEvents, Instant> newest = pipeline.run(List.of(
+                new EventIngestPipeline.Source(GithubEvents.ISSUES_OPENED, JUNE_1, lastModified(90))),
+                bulkSink);
+
+        verify(s3Util, never()).getObjectInputStream("compacted/issues.opened/2024-06-01/segment-00000.ndjson.gz");
+        verify(s3Util).forEachObject(eq("issues.opened/"), eq("issues.opened/2024-06-02/"), any());
+        verify(bulkSink, never()).add(anyString(), anyString(), anyString());
+        assertEquals(Map.of(), newest);
+    }
+
+    @Test
+    void WHEN_modified_since_falls_within_compacted_day_THEN_only_its_newer_objects_are_fetched() throws IOException {
+        compactDay(GithubEvents.ISSUES_OPENED, JUNE_1, lastModified(0), lastModified(99), "compacted-1");
+        listKeys("issues.opened/", 100);
+        EventIngestPipeline pipeline = pipeline(4, 8, 2);
+
+        Map<GithubEvents, Instant> newest = pipeline.run(List.of(
+                new EventIngestPipeline.Source(GithubEvents.ISSUES_OPENED, JUNE_1, lastModified(90))),
+                bulkSink);
+
+        verify(s3Util, never()).getObjectInputStream("compacted/issues.opened/2024-06-01/segment-00000.ndjson.gz");
+        assertEquals(10, fetchedKeys.get());
+        verify(bulkSink, times(10)).add(eq("github-user-activity-events-06-2024"), anyString(), anyString());
+        verify(bulkSink, never()).add(anyString(), eq("compacted-1"), anyString());
+        assertEquals(Map.of(GithubEvents.ISSUES_OPENED, lastModified(99)), newest);
+    }
+
+    @Test
+    void WHEN_compacted_day_is_newer_than_modified_since_THEN_its_segments_are_read() throws IOException {
+        compactDay(GithubEvents.ISSUES_OPENED, JUNE_1, lastModified(100), lastModified(120), "compacted-1", "compacted-2");
+        EventIngestPipeline pipeline = pipeline(4, 8, 2);
+
+        Map<GithubEvents, Instant> newest = pipeline.run(List.of(
+                new EventIngestPipeline.Source(GithubEvents.ISSUES_OPENED, JUNE_1, lastModified(90))),
+                bulkSink);
+
+        verify(bulkSink, times(2)).add(eq("github-user-activity-events-06-2024"), anyString(), anyString());
+        verify(s3Util, never()).getObjectBytesAsync(anyString());
+        verify(s3Util).forEachObject(eq("issues.opened/"), eq("issues.opened/2024-06-02/"), any());
+        assertEquals(Map.of(GithubEvents.ISSUES_OPENED, lastModified(120)), newest);
+    }
+
+    @Test
+    void WHEN_segment_is_corrupt_THEN_run_fails_with_its_key() throws IOException {
+        compactDay(GithubEvents.GOLLUM, JUNE_1, lastModified(0), lastModified(10), "compacted-1");
+        when(s3Util.getObjectInputStream("compacted/gollum/2024-06-01/segment-00000.ndjson.gz")).thenAnswer(invocation ->
+                responseStream("{\"id\":\"not gzip\"}".getBytes(StandardCharsets.UTF_8)));
+        EventIngestPipeline pipeline = pipeline(4, 8, 2);
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> pipeline.run(List.of(
+                new EventIngestPipeline.Source(GithubEvents.GOLLUM, JUNE_1, null)),
+                bulkSink));
+
+        assertEquals("Failed to index segment compacted/gollum/2024-06-01/segment-00000.ndjson.gz",
+                exception.getCause().getMessage());
+        assertInstanceOf(ZipException.class, exception.getCause().getCause());
+    }
+
+    @Test
+    void WHEN_bulk_sink_blocks_THEN_fetching_and_listing_stop() throws InterruptedException {
+        listKeys("issues.opened/", 1000);
+        CountDownLatch clusterBusy = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            clusterBusy.await();
+            return null;
+        }).when(bulkSink).add(anyString(), anyString(), anyString());
+        EventIngestPipeline pipeline = pipeline(2, 2, 1);
+
+        CompletableFuture<Void> run = CompletableFuture.runAsync(() -> pipeline.run(List.of(
+                new EventIngestPipeline.Source(GithubEvents.ISSUES_OPENED, JUNE_1, null)),
+                bulkSink));
+        TimeUnit.MILLISECONDS.sleep(300);
+
+        // Each queue and each stage hold a few events, the rest stay in S3
+        assertTrue(fetchedKeys.get() <= 12, "fetched " + fetchedKeys.get() + " objects while the sink was blocked");
+        assertTrue(listedKeys.get() <= 16, "listed " + listedKeys.get() + " keys while the sink was blocked");
+        clusterBusy.countDown();
+        run.join();
+        assertEquals(1000, fetchedKeys.get());
+        verify(bulkSink, times(1000)).add(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void WHEN_event_is_malformed_THEN_run_fails_with_its_key() {
+        listKeys("gollum/", 10);
+        when(s3Util.getObjectBytesAsync("gollum/2024-06-01/3")).thenReturn(
+                CompletableFuture.completedFuture("{\"id\":".getBytes(StandardCharsets.UTF_8)));
+        EventIngestPipeline pipeline = pipeline(4, 8, 2);
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> pipeline.run(List.of(
+                new EventIngestPipeline.Source(GithubEvents.GOLLUM, JUNE_1, null)),
+                bulkSink));
+
+        assertEquals("Failed to ingest events", exception.getMessage());
+        assertEquals("Failed to index event gollum/2024-06-01/3", exception.getCause().getMessage());
+        assertInstanceOf(JsonProcessingException.class, exception.getCause().getCause());
+    }
+
+    @Test
+    void WHEN_fetch_fails_THEN_run_fails() {
+        listKeys("gollum/", 10);
+        when(s3Util.getObjectBytesAsync("gollum/2024-06-01/5")).thenReturn(
+                CompletableFuture.failedFuture(new IllegalStateException("Slow down")));
+        EventIngestPipeline pipeline = pipeline(4, 8, 2);
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> pipeline.run(List.of(
+                new EventIngestPipeline.Source(GithubEvents.GOLLUM, JUNE_1, null)),
+                bulkSink));
+
+        assertEquals("Failed to fetch event gollum/2024-06-01/5", exception.getCause().getMessage());
+        assertEquals("Slow down", exception.getCause().getCause().getMessage());
+    }
+
+    @Test
+    void WHEN_sources_are_empty_THEN_run_completes() {
+        listKeys("gollum/", 0);
+
+        pipeline(4, 8, 2).run(List.of(
+                new EventIngestPipeline.Source(GithubEvents.GOLLUM, JUNE_1, null)),
+                bulkSink);
+
+        verify(s3Util, never()).getObjectBytesAsync(anyString());
+    }
+
+    private EventIngestPipeline pipeline(int maxInFlightObjects, int queueCapacity, int workers) {
+        return new EventIngestPipeline(s3Util, new CompactedEventStore(s3Util, mapper),
+                new GithubEventExtractor(mapper.getFactory()), mapper, maxInFlightObjects, queueCapacity, workers);
+    }
+
+    /*
+    Stores day of type as compacted into one segment holding the given event ids.
+     */
+    private void compactDay(GithubEvents type, LocalDate day, Instant oldestLastModified, Instant newestLastModified,
+                            String... ids) throws IOException {
+        String dayPrefix = "compacted/" + type.getEventName() + "/" + day + "/";
+        CompactionManifest.Segment segment = new CompactionManifest.Segment();
+        segment.setKey(dayPrefix + "segment-00000.ndjson.gz");
+        segment.setObjectCount(ids.length);
+        CompactionManifest manifest = new CompactionManifest();
+        manifest.setEventName(type.getEventName());
+        manifest.setDay(day.toString());
+        manifest.setObjectCount(ids.length);
+        manifest.setOldestLastModified(oldestLastModified.toString());
+        manifest.setNewestLastModified(newestLastModified.toString());
+        manifest.getSegments().add(segment);
+        ByteArrayOutputStream segmentBytes = new ByteArrayOutputStream();
+        try (Writer ndjson = new OutputStreamWriter(new GZIPOutputStream(segmentBytes), StandardCharsets.UTF_8)) {
+            for (String id : ids) {
+                ndjson.write(eventJson(id) + "\n");
+            }
+        }
+        doAnswer(invocation -> {
+            Consumer<S3Object> action = invocation.getArgument(2);
+            action.accept(S3Object.builder().key(segment.getKey()).build());
+            action.accept(S3Object.builder().key(dayPrefix + "manifest.json").build());
+            return null;
+        }).when(s3Util).forEachObject(eq("compacted/" + type.getEventName() + "/"), anyString(), any());
+        when(s3Util.getObjectInputStream(dayPrefix + "manifest.json")).thenAnswer(invocation ->
+                responseStream(mapper.writeValueAsBytes(manifest)));
+        when(s3Util.getObjectInputStream(segment.getKey())).thenAnswer(invocation ->
+                responseStream(segmentBytes.toByteArray()));
+    }
+
+    private static ResponseInputStream<GetObjectResponse> responseStream(byte[] bytes) {
+        return new ResponseInputStream<>(GetObjectResponse.builder().build(),
+                AbortableInputStream.create(new ByteArrayInputStream(bytes)));
+    }
+
+    /*
+    Lists count objects of June 1st under prefix, the i-th one last modified i minutes after midnight.
+     */
+    private void listKeys(String prefix, int count) {
+        doAnswer(invocation -> {
+            assertEquals(prefix + JUNE_1 + "/", invocation.getArgument(1));
+            Consumer<S3Object> action = invocation.getArgument(2);
+            for (int i = 0; i < count; i++) {
+                listedKeys.incrementAndGet();
+                action.accept(S3Object.builder()
+                        .key(prefix + JUNE_1 + "/" + i)
+                        .lastModified(lastModified(i))
+                        .build());
+            }
+            return null;
+        }).when(s3Util).forEachObject(eq(prefix), anyString(), any());
+    }
+
+    private static Instant lastModified(int minutes) {
+        return JUNE_1.atStartOfDay(ZoneOffset.UTC).toInstant().plus(Duration.ofMinutes(minutes));
+    }
+
+    private static String eventJson(String key) {
+        return "{\"id\":\"" + key + "\",\"name\":\"issues\",\"payload\":{\"action\":\"opened\","
+                + "\"repository\":{\"name\":\"OpenSearch\"},\"organization\":{\"login\":\"opensearch-project\"},"
+                + "\"sender\":{\"login\":\"octocat\"}},\"uploaded_at\":\"2024-06-01T12:00:00Z\"}";
+    }
+}
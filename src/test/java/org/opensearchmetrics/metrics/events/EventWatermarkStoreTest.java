@@ -0,0 +1,71 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.metrics.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opensearchmetrics.dagger.CommonModule;
+import org.opensearchmetrics.util.FileStateStore;
+import org.opensearchmetrics.util.StateStore;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class EventWatermarkStoreTest {
+
+    @TempDir
+    Path stateDirectory;
+
+    private StateStore stateStore;
+    private EventWatermarkStore watermarkStore;
+
+    @BeforeEach
+    void setUp() {
+        stateStore = new FileStateStore(stateDirectory);
+        ObjectMapper objectMapper = new CommonModule().getObjectMapper();
+        watermarkStore = new EventWatermarkStore(stateStore, objectMapper);
+    }
+
+    @Test
+    void WHEN_watermark_advanced_THEN_get_returns_it_for_that_type_only() {
+        Instant lastModified = Instant.parse("2024-06-01T12:00:00Z");
+
+        assertEquals(Optional.empty(), watermarkStore.get(GithubEvents.ISSUES_OPENED));
+        watermarkStore.advance(GithubEvents.ISSUES_OPENED, lastModified);
+
+        assertEquals(Optional.of(lastModified), watermarkStore.get(GithubEvents.ISSUES_OPENED));
+        assertEquals(Optional.empty(), watermarkStore.get(GithubEvents.ISSUES_CLOSED));
+        assertEquals("{\"lastModified\":\"2024-06-01T12:00:00Z\"}", stateStore.get("event-watermarks/issues.opened").orElseThrow());
+    }
+
+    @Test
+    void WHEN_advanced_to_earlier_time_THEN_watermark_is_kept() {
+        Instant lastModified = Instant.parse("2024-06-01T12:00:00Z");
+        watermarkStore.advance(GithubEvents.GOLLUM, lastModified);
+
+        watermarkStore.advance(GithubEvents.GOLLUM, lastModified.minusSeconds(3600));
+
+        assertEquals(Optional.of(lastModified), watermarkStore.get(GithubEvents.GOLLUM));
+    }
+
+    @Test
+    void WHEN_watermark_is_unreadable_THEN_get_returns_empty() {
+        stateStore.put("event-watermarks/gollum", "{\"lastModified\":\"yesterday\"}");
+
+        assertEquals(Optional.empty(), watermarkStore.get(GithubEvents.GOLLUM));
+
+        watermarkStore.advance(GithubEvents.GOLLUM, Instant.parse("2024-06-01T12:00:00Z"));
+        assertEquals(Optional.of(Instant.parse("2024-06-01T12:00:00Z")), watermarkStore.get(GithubEvents.GOLLUM));
+    }
+}
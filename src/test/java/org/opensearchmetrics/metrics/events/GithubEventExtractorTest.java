@@ -0,0 +1,173 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.metrics.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import org.opensearchmetrics.model.event.EventData;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class GithubEventExtractorTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final GithubEventExtractor extractor = new GithubEventExtractor(mapper.getFactory());
+
+    @Test
+    void WHEN_payload_has_all_paths_THEN_fields_are_extracted() throws IOException {
+        byte[] payload = issueOpenedPayload("1", 2_000).getBytes(StandardCharsets.UTF_8);
+
+        EventData event = extract(GithubEvents.ISSUES_OPENED, payload);
+
+        assertEquals("1", event.getId());
+        assertEquals("issues", event.getType());
+        assertEquals("OpenSearch", event.getRepository());
+        assertEquals("opensearch-project", event.getOrganization());
+        assertEquals("opened", event.getAction());
+        assertEquals("octocat", event.getSender());
+        assertEquals("2024-06-01T12:00:00Z", event.getCreatedAt());
+        assertEquals(extractFromTree(payload), event);
+    }
+
+    @Test
+    void WHEN_organization_is_missing_THEN_repository_owner_is_used() throws IOException {
+        byte[] payload = ("{\"id\":\"2\",\"payload\":{\"repository\":{\"owner\":{\"login\":\"octocat\"},\"name\":\"hello-world\"},"
+                + "\"sender\":{\"login\":\"octocat\"}}}").getBytes(StandardCharsets.UTF_8);
+
+        EventData event = extract(GithubEvents.PULL_REQUEST_OPENED, payload);
+
+        assertEquals("octocat", event.getOrganization());
+        assertEquals("hello-world", event.getRepository());
+        assertNull(event.getAction());
+        assertEquals(extractFromTree(payload), event);
+    }
+
+    @Test
+    void WHEN_paths_are_not_strings_THEN_fields_are_null_like_the_tree() throws IOException {
+        byte[] payload = ("{\"id\":3,\"name\":null,\"payload\":{\"action\":{\"nested\":\"value\"},\"repository\":[\"name\"],"
+                + "\"sender\":{\"login\":[]}},\"uploaded_at\":true}").getBytes(StandardCharsets.UTF_8);
+
+        EventData event = extract(GithubEvents.GOLLUM, payload);
+
+        assertEquals(new EventData(), event);
+        assertEquals(extractFromTree(payload), event);
+        assertEquals(new EventData(), extract(GithubEvents.GOLLUM, "[1, 2]".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void WHEN_payload_is_malformed_THEN_exception_is_thrown() {
+        byte[] payload = "{\"id\":\"4\",\"payload\":\"repository\":{}}".getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(JsonProcessingException.class, () -> extract(GithubEvents.ISSUES_CLOSED, payload));
+    }
+
+    @Test
+    void WHEN_events_repeat_values_THEN_low_cardinality_values_are_interned() throws IOException {
+        EventData first = extract(GithubEvents.ISSUES_OPENED, issueOpenedPayload("5", 10).getBytes(StandardCharsets.UTF_8));
+        EventData second = extract(GithubEvents.ISSUES_OPENED, issueOpenedPayload("6", 10).getBytes(StandardCharsets.UTF_8));
+
+        assertSame(first.getRepository(), second.getRepository());
+        assertSame(first.getOrganization(), second.getOrganization());
+        assertSame(first.getType(), second.getType());
+        assertSame(first.getAction(), second.getAction());
+    }
+
+    @Test
+    void WHEN_payloads_are_ndjson_THEN_each_event_is_extracted_in_order() throws IOException {
+        String first = issueOpenedPayload("8", 100);
+        String second = issueOpenedPayload("9", 100);
+        byte[] payloads = (first + "\n" + second + "\n").getBytes(StandardCharsets.UTF_8);
+        List<EventData> events = new ArrayList<>();
+
+        extractor.extractEach(GithubEvents.ISSUES_OPENED, new ByteArrayInputStream(payloads), events::add);
+
+        assertEquals(List.of(extractFromTree(first.getBytes(StandardCharsets.UTF_8)),
+                extractFromTree(second.getBytes(StandardCharsets.UTF_8))), events);
+    }
+
+    private EventData extract(GithubEvents type, byte[] payload) throws IOException {
+        return extractor.extract(type, new ByteArrayInputStream(payload));
+    }
+
+    /*
+    The extraction GithubEventsLambda did before the streaming extractor.
+     */
+    private EventData extractFromTree(byte[] payload) throws IOException {
+        JsonNode eventNode = mapper.readTree(new ByteArrayInputStream(payload));
+        EventData event = new EventData();
+        event.setId(eventNode.path("id").textValue());
+        event.setType(eventNode.path("name").textValue());
+        event.setRepository(eventNode.path("payload").path("repository").path("name").textValue());
+        event.setOrganization(eventNode.path("payload").path("organization").path("login").textValue());
+        if (event.getOrganization() == null) {
+            event.setOrganization(eventNode.path("payload").path("repository").path("owner").path("login").textValue());
+        }
+        event.setAction(eventNode.path("payload").path("action").textValue());
+        event.setSender(eventNode.path("payload").path("sender").path("login").textValue());
+        event.setCreatedAt(eventNode.path("uploaded_at").textValue());
+        return event;
+    }
+
+    /*
+    Shaped like the issues.opened webhook the events bucket stores, with a body of bodyLength characters.
+     */
+    private String issueOpenedPayload(String id, int bodyLength) {
+        ObjectNode root = mapper.createObjectNode();
+        root.put("id", id);
+        root.put("name", "issues");
+        ObjectNode payload = root.putObject("payload");
+        payload.put("action", "opened");
+        ObjectNode issue = payload.putObject("issue");
+        issue.put("url", "https://api.github.com/repos/opensearch-project/OpenSearch/issues/1");
+        issue.put("number", 1);
+        issue.put("title", "[BUG] Search returns no hits");
+        issue.put("body", "Steps to reproduce the behavior. ".repeat(bodyLength / 33 + 1).substring(0, bodyLength));
+        issue.set("user", user("octocat"));
+        ArrayNode labels = issue.putArray("labels");
+        for (String label : new String[]{"bug", "untriaged", "Search"}) {
+            labels.addObject().put("name", label).put("color", "d73a4a").put("default", false);
+        }
+        issue.put("created_at", "2024-06-01T12:00:00Z");
+        ObjectNode repository = payload.putObject("repository");
+        repository.put("id", 287138542);
+        repository.put("name", "OpenSearch");
+        repository.put("full_name", "opensearch-project/OpenSearch");
+        repository.set("owner", user("opensearch-project"));
+        repository.put("description", "Open source distributed and RESTful search engine.");
+        repository.putArray("topics").add("search").add("analytics").add("java");
+        payload.set("organization", user("opensearch-project"));
+        payload.set("sender", user("octocat"));
+        root.put("uploaded_at", "2024-06-01T12:00:00Z");
+        return root.toString();
+    }
+
+    private ObjectNode user(String login) {
+        ObjectNode user = mapper.createObjectNode();
+        user.put("login", login);
+        user.put("id", 583231);
+        user.put("avatar_url", "https://avatars.githubusercontent.com/u/583231?v=4");
+        user.put("html_url", "https://github.com/" + login);
+        user.put("type", "User");
+        user.put("site_admin", false);
+        return user;
+    }
+}
@@ -26,16 +26,15 @@ public class ClosedIssuesTest {
     }
 
     @Test
-    void testGetBoolQueryBuilder() {
+    void testGetMetricQueryBuilder() {
         // Create an instance of ClosedIssues
         ClosedIssues closedIssues = new ClosedIssues();
 
-        // Call getBoolQueryBuilder with a sample repository name
-        BoolQueryBuilder queryBuilder = closedIssues.getBoolQueryBuilder("sampleRepo");
+        // Call getMetricQueryBuilder
+        BoolQueryBuilder queryBuilder = closedIssues.getMetricQueryBuilder();
 
         // Verify the generated query
         BoolQueryBuilder expectedQueryBuilder = QueryBuilders.boolQuery()
-                .must(QueryBuilders.matchQuery("repository.keyword", "sampleRepo"))
                 .must(QueryBuilders.matchQuery("state.keyword", "closed"))
                 .must(QueryBuilders.matchQuery("issue_pull_request", false));
 
@@ -26,16 +26,15 @@ public class CreatedIssuesTest {
     }
 
     @Test
-    void testGetBoolQueryBuilder() {
+    void testGetMetricQueryBuilder() {
         // Create an instance of CreatedIssues
         CreatedIssues createdIssues = new CreatedIssues();
 
-        // Call getBoolQueryBuilder with a sample repository name
-        BoolQueryBuilder queryBuilder = createdIssues.getBoolQueryBuilder("sampleRepo");
+        // Call getMetricQueryBuilder
+        BoolQueryBuilder queryBuilder = createdIssues.getMetricQueryBuilder();
 
         // Verify the generated query
         BoolQueryBuilder expectedQueryBuilder = QueryBuilders.boolQuery()
-                .must(QueryBuilders.matchQuery("repository.keyword", "sampleRepo"))
                 .must(QueryBuilders.matchQuery("issue_pull_request", false));
 
         assertEquals(expectedQueryBuilder.toString(), queryBuilder.toString());
@@ -0,0 +1,146 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.metrics.general;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.opensearch.action.search.MultiSearchResponse;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.core.rest.RestStatus;
+import org.opensearch.search.aggregations.Aggregations;
+import org.opensearch.search.aggregations.bucket.filter.Filters;
+import org.opensearch.search.aggregations.bucket.terms.Terms;
+import org.opensearch.search.aggregations.metrics.Sum;
+import org.opensearchmetrics.util.OpenSearchUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class GeneralMetricsAggregatorTest {
+
+    private OpenSearchUtil openSearchUtil;
+    private GeneralMetricsAggregator generalMetricsAggregator;
+    private OpenIssues openIssues;
+    private IssueComments issueComments;
+    private MergedPullRequests mergedPullRequests;
+    private List<Metrics> metricsList;
+
+    @BeforeEach
+    void setUp() {
+        openSearchUtil = mock(OpenSearchUtil.class);
+        generalMetricsAggregator = new GeneralMetricsAggregator();
+        openIssues = new OpenIssues();
+        issueComments = new IssueComments();
+        mergedPullRequests = new MergedPullRequests();
+        metricsList = Arrays.asList(openIssues, issueComments, mergedPullRequests);
+    }
+
+    @Test
+    void testCreateSearchRequest() {
+        SearchRequest request = generalMetricsAggregator.createSearchRequest("github_issues",
+                Arrays.asList(openIssues, issueComments), Arrays.asList("repo1", "repo2"));
+
+        assertEquals("github_issues", request.indices()[0]);
+        assertEquals(0, request.source().size());
+        String source = request.source().toString();
+        assertTrue(source.contains("\"repositories\":{\"terms\":{\"field\":\"repository.keyword\",\"size\":2"));
+        assertTrue(source.contains("\"Open Issues\""));
+        assertTrue(source.contains("\"Issue Comments\""));
+        assertTrue(source.contains("\"sum_comments\":{\"sum\":{\"field\":\"comments\"}}"));
+    }
+
+    @Test
+    void testAggregate() {
+        SearchResponse issuesResponse = response(Map.of("repo1", new long[]{4L, 7L}));
+        SearchResponse pullsResponse = response(Map.of("repo1", new long[]{2L}));
+        when(openSearchUtil.searchBatch(anyList())).thenReturn(List.of(
+                new MultiSearchResponse.Item(issuesResponse, null),
+                new MultiSearchResponse.Item(pullsResponse, null)));
+
+        Map<String, Map<Metrics, Long>> values = generalMetricsAggregator.aggregate(metricsList,
+                Arrays.asList("repo1", "repo2"), openSearchUtil);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SearchRequest>> captor = ArgumentCaptor.forClass(List.class);
+        verify(openSearchUtil, times(1)).searchBatch(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        assertEquals("github_issues", captor.getValue().get(0).indices()[0]);
+        assertEquals("github_pulls", captor.getValue().get(1).indices()[0]);
+        verify(openSearchUtil, never()).search(Mockito.any());
+
+        assertEquals(4L, values.get("repo1").get(openIssues));
+        assertEquals(70L, values.get("repo1").get(issueComments));
+        assertEquals(2L, values.get("repo1").get(mergedPullRequests));
+        assertEquals(0L, values.get("repo2").get(openIssues));
+        assertEquals(0L, values.get("repo2").get(issueComments));
+        assertEquals(0L, values.get("repo2").get(mergedPullRequests));
+    }
+
+    @Test
+    void testAggregateFailure() {
+        when(openSearchUtil.searchBatch(anyList())).thenReturn(List.of(
+                new MultiSearchResponse.Item(null, new RuntimeException("failed")),
+                new MultiSearchResponse.Item(null, new RuntimeException("failed"))));
+
+        assertThrows(RuntimeException.class,
+                () -> generalMetricsAggregator.aggregate(metricsList, Arrays.asList("repo1"), openSearchUtil));
+    }
+
+    /*
+    Builds a response for one index: per repository, the doc count of each of that index's metrics in order.
+    The sum of the comments field is reported as ten times the doc count.
+     */
+    private SearchResponse response(Map<String, long[]> docCounts) {
+        List<Terms.Bucket> repoBuckets = new ArrayList<>();
+        docCounts.forEach((repo, counts) -> {
+            List<Metrics> indexMetrics = counts.length == 2 ? Arrays.asList(openIssues, issueComments) : List.of(mergedPullRequests);
+            Filters filters = mock(Filters.class);
+            for (int i = 0; i < counts.length; i++) {
+                Filters.Bucket metricBucket = mock(Filters.Bucket.class);
+                when(metricBucket.getDocCount()).thenReturn(counts[i]);
+                Sum sum = mock(Sum.class);
+                when(sum.getValue()).thenReturn(counts[i] * 10.0);
+                Aggregations metricAggregations = mock(Aggregations.class);
+                when(metricAggregations.get("sum_comments")).thenReturn(sum);
+                when(metricBucket.getAggregations()).thenReturn(metricAggregations);
+                doReturn(metricBucket).when(filters).getBucketByKey(indexMetrics.get(i).toString());
+            }
+            Aggregations repoAggregations = mock(Aggregations.class);
+            when(repoAggregations.get("metrics")).thenReturn(filters);
+            Terms.Bucket repoBucket = mock(Terms.Bucket.class);
+            when(repoBucket.getKeyAsString()).thenReturn(repo);
+            when(repoBucket.getAggregations()).thenReturn(repoAggregations);
+            repoBuckets.add(repoBucket);
+        });
+        Terms repositories = mock(Terms.class);
+        doReturn(repoBuckets).when(repositories).getBuckets();
+        Aggregations aggregations = mock(Aggregations.class);
+        when(aggregations.get("repositories")).thenReturn(repositories);
+        SearchResponse searchResponse = mock(SearchResponse.class);
+        when(searchResponse.status()).thenReturn(RestStatus.OK);
+        when(searchResponse.getAggregations()).thenReturn(aggregations);
+        return searchResponse;
+    }
+}
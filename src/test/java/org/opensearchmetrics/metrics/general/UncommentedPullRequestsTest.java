@@ -17,16 +17,15 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 public class UncommentedPullRequestsTest {
 
     @Test
-    void testGetBoolQueryBuilder() {
+    void testGetMetricQueryBuilder() {
         // Create instance of UncommentedPullRequests
         UncommentedPullRequests uncommentedPullRequests = new UncommentedPullRequests();
 
-        // Call getBoolQueryBuilder with a sample repository name
-        BoolQueryBuilder queryBuilder = uncommentedPullRequests.getBoolQueryBuilder("sampleRepo");
+        // Call getMetricQueryBuilder
+        BoolQueryBuilder queryBuilder = uncommentedPullRequests.getMetricQueryBuilder();
 
         // Verify the generated query
         BoolQueryBuilder expectedQueryBuilder = QueryBuilders.boolQuery()
-                .must(QueryBuilders.matchQuery("repository.keyword", "sampleRepo"))
                 .must(QueryBuilders.matchQuery("comments", 0))
                 .must(QueryBuilders.matchQuery("state.keyword", "open"));
 
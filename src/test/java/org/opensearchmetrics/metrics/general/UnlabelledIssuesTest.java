@@ -17,16 +17,15 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 public class UnlabelledIssuesTest {
 
     @Test
-    void testGetBoolQueryBuilder() {
+    void testGetMetricQueryBuilder() {
         // Create instance of UnlabelledIssues
         UnlabelledIssues unlabelledIssues = new UnlabelledIssues();
 
-        // Call getBoolQueryBuilder with a sample repository name
-        BoolQueryBuilder queryBuilder = unlabelledIssues.getBoolQueryBuilder("sampleRepo");
+        // Call getMetricQueryBuilder
+        BoolQueryBuilder queryBuilder = unlabelledIssues.getMetricQueryBuilder();
 
         // Verify the generated query
         BoolQueryBuilder expectedQueryBuilder = QueryBuilders.boolQuery()
-                .must(QueryBuilders.matchQuery("repository.keyword", "sampleRepo"))
                 .must(QueryBuilders.boolQuery().mustNot(QueryBuilders.existsQuery("issue_labels.keyword")))
                 .must(QueryBuilders.matchQuery("state.keyword", "open"))
                 .must(QueryBuilders.matchQuery("issue_pull_request", false));
@@ -17,16 +17,15 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 public class UnlabelledPullRequestsTest {
 
     @Test
-    void testGetBoolQueryBuilder() {
+    void testGetMetricQueryBuilder() {
         // Create instance of UnlabelledPullRequests
         UnlabelledPullRequests unlabelledPullRequests = new UnlabelledPullRequests();
 
-        // Call getBoolQueryBuilder with a sample repository name
-        BoolQueryBuilder queryBuilder = unlabelledPullRequests.getBoolQueryBuilder("sampleRepo");
+        // Call getMetricQueryBuilder
+        BoolQueryBuilder queryBuilder = unlabelledPullRequests.getMetricQueryBuilder();
 
         // Verify the generated query
         BoolQueryBuilder expectedQueryBuilder = QueryBuilders.boolQuery()
-                .must(QueryBuilders.matchQuery("repository.keyword", "sampleRepo"))
                 .must(QueryBuilders.boolQuery().mustNot(QueryBuilders.existsQuery("pull_labels.keyword")))
                 .must(QueryBuilders.matchQuery("state.keyword", "open"));
 
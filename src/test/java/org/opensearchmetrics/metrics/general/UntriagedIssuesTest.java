@@ -17,16 +17,15 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 public class UntriagedIssuesTest {
 
     @Test
-    void testGetBoolQueryBuilder() {
+    void testGetMetricQueryBuilder() {
         // Create instance of UntriagedIssues
         UntriagedIssues untriagedIssues = new UntriagedIssues();
 
-        // Call getBoolQueryBuilder with a sample repository name
-        BoolQueryBuilder queryBuilder = untriagedIssues.getBoolQueryBuilder("sampleRepo");
+        // Call getMetricQueryBuilder
+        BoolQueryBuilder queryBuilder = untriagedIssues.getMetricQueryBuilder();
 
         // Verify the generated query
         BoolQueryBuilder expectedQueryBuilder = QueryBuilders.boolQuery()
-                .must(QueryBuilders.matchQuery("repository.keyword", "sampleRepo"))
                 .must(QueryBuilders.matchQuery("issue_labels.keyword", "untriaged"))
                 .must(QueryBuilders.matchQuery("state.keyword", "open"))
                 .must(QueryBuilders.matchQuery("issue_pull_request", false));
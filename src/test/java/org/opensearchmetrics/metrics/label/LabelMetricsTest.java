@@ -14,113 +14,123 @@ import org.opensearch.action.search.SearchRequest;
 import org.opensearch.action.search.SearchResponse;
 import org.opensearch.core.rest.RestStatus;
 import org.opensearch.search.aggregations.Aggregations;
-import org.opensearch.search.aggregations.bucket.terms.ParsedStringTerms;
+import org.opensearch.search.aggregations.bucket.composite.CompositeAggregation;
+import org.opensearchmetrics.model.label.LabelData;
 import org.opensearchmetrics.util.OpenSearchUtil;
 
-import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class LabelMetricsTest {
 
-
     @Test
-    public void testGetLabelInfo() throws IOException {
-        // Mock OpenSearchUtil
+    public void testStreamLabelCounts() {
         OpenSearchUtil openSearchUtil = Mockito.mock(OpenSearchUtil.class);
+        // Keys are sorted the way OpenSearch sorts them; an empty page ends the paging.
+        Deque<SearchResponse> issuePages = new ArrayDeque<>(List.of(
+                compositeResponse(bucket("repo1", "bug", 3L)),
+                compositeResponse(bucket("repo1", "feature", 1L)),
+                compositeResponse()));
+        Deque<SearchResponse> pullPages = new ArrayDeque<>(List.of(
+                compositeResponse(bucket("repo1", "feature", 2L), bucket("repo2", "bug", 5L)),
+                compositeResponse()));
+        when(openSearchUtil.search(any(SearchRequest.class))).thenAnswer(invocation -> {
+            SearchRequest request = invocation.getArgument(0);
+            return request.indices()[0].equals("github_issues") ? issuePages.poll() : pullPages.poll();
+        });
 
-        // Mock search responses
-        SearchResponse issuesResponse = Mockito.mock(SearchResponse.class);
-        when(issuesResponse.status()).thenReturn(RestStatus.OK);
-
-        // Mock issues aggregation
-        ParsedStringTerms issuesTerms = Mockito.mock(ParsedStringTerms.class);
-        when(issuesTerms.getBuckets()).thenReturn(new ArrayList<>());
-        Aggregations aggregations = Mockito.mock(Aggregations.class);
-        when(aggregations.get("label_issues")).thenReturn(issuesTerms);
-        when(issuesResponse.getAggregations()).thenReturn(aggregations);
-
-        // Mock pull issues aggregation
-        ParsedStringTerms pullIssuesTerms = Mockito.mock(ParsedStringTerms.class);
-        when(pullIssuesTerms.getBuckets()).thenReturn(new ArrayList<>());
-        when(aggregations.get("pull_issues")).thenReturn(pullIssuesTerms);
-
-        // Mock search request
-        when(openSearchUtil.search(any(SearchRequest.class))).thenReturn(issuesResponse);
-
-        // Instantiate LabelMetrics
         LabelMetrics labelMetrics = new LabelMetrics();
-
-        // Call method under test
-        Map<String, List<Long>> labelInfo = labelMetrics.getLabelInfo("repo", openSearchUtil);
-
-        // Assertions
-        assertEquals(new HashMap<>(), labelInfo); // Modify expected result according to your logic
+        List<LabelData> labelCounts = labelMetrics.streamLabelCounts(List.of("repo1", "repo2"), openSearchUtil)
+                .collect(Collectors.toList());
+
+        assertEquals(3, labelCounts.size());
+        assertLabel(labelCounts.get(0), "repo1", "bug", 3L, 0L);
+        assertLabel(labelCounts.get(1), "repo1", "feature", 1L, 2L);
+        assertLabel(labelCounts.get(2), "repo2", "bug", 0L, 5L);
+        verify(openSearchUtil, times(5)).search(any(SearchRequest.class));
     }
 
     @Test
-    public void testGetLabelIssues() throws IOException {
-        // Mock OpenSearchUtil
+    public void testStreamLabelCountsPagesWithAfterKey() {
         OpenSearchUtil openSearchUtil = Mockito.mock(OpenSearchUtil.class);
+        List<SearchRequest> issueRequests = new ArrayList<>();
+        when(openSearchUtil.search(any(SearchRequest.class))).thenAnswer(invocation -> {
+            SearchRequest request = invocation.getArgument(0);
+            if (!request.indices()[0].equals("github_issues")) {
+                return compositeResponse();
+            }
+            issueRequests.add(request);
+            return issueRequests.size() == 1 ? compositeResponse(bucket("repo1", "bug", 3L)) : compositeResponse();
+        });
 
-        // Mock search responses
-        SearchResponse issuesResponse = Mockito.mock(SearchResponse.class);
-        when(issuesResponse.status()).thenReturn(RestStatus.OK);
-
-        // Mock issues aggregation
-        ParsedStringTerms issuesTerms = Mockito.mock(ParsedStringTerms.class);
-        when(issuesTerms.getBuckets()).thenReturn(new ArrayList<>());
-        Aggregations aggregations = Mockito.mock(Aggregations.class);
-        when(aggregations.get("label_issues")).thenReturn(issuesTerms);
-        when(issuesResponse.getAggregations()).thenReturn(aggregations);
-
-        // Mock search request
-        when(openSearchUtil.search(any(SearchRequest.class))).thenReturn(issuesResponse);
-
-        // Instantiate LabelMetrics
         LabelMetrics labelMetrics = new LabelMetrics();
+        long count = labelMetrics.streamLabelCounts(List.of("repo1"), openSearchUtil).count();
 
-        // Call method under test
-        Map<String, Long> labelIssues = labelMetrics.getLabelIssues("repo", openSearchUtil);
-
-        // Assertions
-        assertEquals(new HashMap<>(), labelIssues); // Modify expected result according to your logic
+        assertEquals(1, count);
+        assertEquals(2, issueRequests.size());
+        assertTrue(issueRequests.get(1).source().toString().contains("\"after\":{\"repository\":\"repo1\",\"label\":\"bug\"}"));
     }
 
     @Test
-    public void testGetLabelPulls() throws IOException {
-        // Mock OpenSearchUtil
+    public void testStreamLabelCountsNoRepositories() {
         OpenSearchUtil openSearchUtil = Mockito.mock(OpenSearchUtil.class);
 
-        // Mock search responses
-        SearchResponse pullsResponse = Mockito.mock(SearchResponse.class);
-        when(pullsResponse.status()).thenReturn(RestStatus.OK);
-
-        // Mock pulls aggregation
-        ParsedStringTerms pullsTerms = Mockito.mock(ParsedStringTerms.class);
-        when(pullsTerms.getBuckets()).thenReturn(new ArrayList<>());
-        Aggregations aggregations = Mockito.mock(Aggregations.class);
-        when(aggregations.get("pull_issues")).thenReturn(pullsTerms);
-        when(pullsResponse.getAggregations()).thenReturn(aggregations);
-
-        // Mock search request
-        when(openSearchUtil.search(any(SearchRequest.class))).thenReturn(pullsResponse);
+        assertEquals(0, new LabelMetrics().streamLabelCounts(List.of(), openSearchUtil).count());
+        verify(openSearchUtil, never()).search(any());
+    }
 
-        // Instantiate LabelMetrics
-        LabelMetrics labelMetrics = new LabelMetrics();
+    @Test
+    public void testCompareCodePoints() {
+        // U+1F41B sorts after U+FF5E by code point, but before it as UTF-16 code units.
+        String emoji = new String(Character.toChars(0x1F41B));
+        String fullwidth = "\uFF5E";
+        assertTrue(emoji.compareTo(fullwidth) < 0);
+        assertTrue(LabelMetrics.compareCodePoints(emoji, fullwidth) > 0);
+        assertTrue(LabelMetrics.compareCodePoints("bug", "bugs") < 0);
+        assertEquals(0, LabelMetrics.compareCodePoints("bug", "bug"));
+    }
 
-        // Call method under test
-        Map<String, Long> labelPulls = labelMetrics.getLabelPulls("repo", openSearchUtil);
+    private static void assertLabel(LabelData labelData, String repo, String label, long issues, long pulls) {
+        assertEquals(repo, labelData.getRepository());
+        assertEquals(label, labelData.getLabelName());
+        assertEquals(issues, labelData.getLabelIssueCount());
+        assertEquals(pulls, labelData.getLabelPullCount());
+    }
 
-        // Assertions
-        assertEquals(new HashMap<>(), labelPulls); // Modify expected result according to your logic
+    private static CompositeAggregation.Bucket bucket(String repo, String label, long count) {
+        CompositeAggregation.Bucket bucket = Mockito.mock(CompositeAggregation.Bucket.class);
+        Map<String, Object> key = new LinkedHashMap<>();
+        key.put("repository", repo);
+        key.put("label", label);
+        when(bucket.getKey()).thenReturn(key);
+        when(bucket.getDocCount()).thenReturn(count);
+        return bucket;
     }
 
-    // Add more test cases as needed
-}
\ No newline at end of file
+    private static SearchResponse compositeResponse(CompositeAggregation.Bucket... buckets) {
+        Map<String, Object> afterKey = buckets.length == 0 ? null : buckets[buckets.length - 1].getKey();
+        CompositeAggregation composite = Mockito.mock(CompositeAggregation.class);
+        doReturn(List.of(buckets)).when(composite).getBuckets();
+        when(composite.afterKey()).thenReturn(afterKey);
+        Aggregations aggregations = Mockito.mock(Aggregations.class);
+        when(aggregations.get("repository_labels")).thenReturn(composite);
+        SearchResponse response = Mockito.mock(SearchResponse.class);
+        when(response.status()).thenReturn(RestStatus.OK);
+        when(response.getAggregations()).thenReturn(aggregations);
+        return response;
+    }
+}
@@ -8,12 +8,11 @@
  */
 package org.opensearchmetrics.metrics.maintainer;
 
-import org.apache.lucene.search.TotalHits;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
-import org.mockito.MockedConstruction;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
+import org.opensearch.action.search.MultiSearchResponse;
 import org.opensearch.action.search.SearchRequest;
 import org.opensearch.action.search.SearchResponse;
 import org.opensearch.core.rest.RestStatus;
@@ -22,30 +21,33 @@ import org.opensearch.search.SearchHits;
 import org.opensearch.search.aggregations.Aggregations;
 import org.opensearch.search.aggregations.bucket.terms.ParsedStringTerms;
 import org.opensearch.search.aggregations.bucket.terms.Terms;
+import org.opensearch.search.aggregations.metrics.Max;
 import org.opensearch.search.aggregations.metrics.TopHits;
 import org.opensearchmetrics.model.maintainer.LatestEventData;
 import org.opensearchmetrics.model.maintainer.MaintainerData;
+import org.opensearchmetrics.model.maintainer.RepoEventStats;
+import org.opensearchmetrics.util.CachedResponse;
+import org.opensearchmetrics.util.HttpUtil;
 import org.opensearchmetrics.util.OpenSearchUtil;
 
 import javax.naming.Context;
-import java.io.ByteArrayInputStream;
-import java.io.FileNotFoundException;
-import java.io.IOException;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
+import java.net.http.HttpTimeoutException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 public class MaintainerMetricsTest {
 
+    private final HttpUtil httpUtil = Mockito.mock(HttpUtil.class);
+
     @Test
     public void testGetEventTypes() {
         // Mock OpenSearchUtil
@@ -66,7 +68,7 @@ public class MaintainerMetricsTest {
         when(openSearchUtil.search(any(SearchRequest.class))).thenReturn(eventsResponse);
 
         // Instantiate MaintainerMetrics
-        MaintainerMetrics maintainerMetrics = new MaintainerMetrics();
+        MaintainerMetrics maintainerMetrics = new MaintainerMetrics(httpUtil);
 
         // Call method under test
         List<String> eventTypes = maintainerMetrics.getEventTypes(openSearchUtil);
@@ -76,202 +78,156 @@ public class MaintainerMetricsTest {
     }
 
     @Test
-    public void testQueryLatestEvent() {
+    public void testQueryLatestEvents() {
         // Mock
         OpenSearchUtil openSearchUtil = Mockito.mock(OpenSearchUtil.class);
         SearchResponse eventsResponse = Mockito.mock(SearchResponse.class);
-        SearchHit searchHit = Mockito.mock(SearchHit.class);
-        SearchHits searchHits = Mockito.mock(SearchHits.class);
-        TopHits topHits = Mockito.mock(TopHits.class);
         Aggregations aggregations = Mockito.mock(Aggregations.class);
+        Terms senders = Mockito.mock(Terms.class);
+        Terms.Bucket senderBucket = Mockito.mock(Terms.Bucket.class);
+        Terms.Bucket otherSenderBucket = Mockito.mock(Terms.Bucket.class);
+        Aggregations senderAggregations = Mockito.mock(Aggregations.class);
+        Terms eventTypes = Mockito.mock(Terms.class);
+        Terms.Bucket eventTypeBucket = Mockito.mock(Terms.Bucket.class);
+        Aggregations eventTypeAggregations = Mockito.mock(Aggregations.class);
+        Max lastEngaged = Mockito.mock(Max.class);
+        TopHits topHits = Mockito.mock(TopHits.class);
+        SearchHits searchHits = Mockito.mock(SearchHits.class);
+        SearchHit searchHit = Mockito.mock(SearchHit.class);
+        List<Terms.Bucket> senderBuckets = Arrays.asList(senderBucket, otherSenderBucket);
+        List<Terms.Bucket> eventTypeBuckets = Arrays.asList(eventTypeBucket);
 
-        when(openSearchUtil.search(any(SearchRequest.class))).thenReturn(eventsResponse);
+        when(openSearchUtil.searchBatch(any())).thenReturn(List.of(new MultiSearchResponse.Item(eventsResponse, null)));
         when(eventsResponse.status()).thenReturn(RestStatus.OK);
         when(eventsResponse.getAggregations()).thenReturn(aggregations);
-        when(aggregations.get("latest_event")).thenReturn(topHits);
+        when(aggregations.get("senders")).thenReturn(senders);
+        when(senders.getBuckets()).thenAnswer(invocation -> senderBuckets);
+        when(senderBucket.getKeyAsString()).thenReturn("TestUserLogin");
+        when(senderBucket.getAggregations()).thenReturn(senderAggregations);
+        when(otherSenderBucket.getKeyAsString()).thenReturn("notAMaintainer");
+        when(senderAggregations.get("event_types")).thenReturn(eventTypes);
+        when(eventTypes.getBuckets()).thenAnswer(invocation -> eventTypeBuckets);
+        when(eventTypeBucket.getKeyAsString()).thenReturn("testEventType");
+        when(eventTypeBucket.getAggregations()).thenReturn(eventTypeAggregations);
+        when(eventTypeAggregations.get("last_engaged")).thenReturn(lastEngaged);
+        when(lastEngaged.getValue()).thenReturn((double) Instant.parse("2023-06-15T10:00:00Z").toEpochMilli());
+        when(eventTypeAggregations.get("latest_event")).thenReturn(topHits);
         when(topHits.getHits()).thenReturn(searchHits);
         when(searchHits.getHits()).thenReturn(new SearchHit[]{searchHit});
+        when(searchHit.getSourceAsMap()).thenReturn(Map.of("action", "some_action"));
 
-        Map<String, Object> sourceMap = new HashMap<>();
-        sourceMap.put("action", "some_action");
-        sourceMap.put("created_at", "2023-06-15T10:00:00Z");
-        when(searchHit.getSourceAsMap()).thenReturn(sourceMap);
-
-        MaintainerMetrics maintainerMetrics = new MaintainerMetrics();
+        MaintainerMetrics maintainerMetrics = new MaintainerMetrics(httpUtil);
 
         // Call method under test
-        String testRepo = "testRepo";
-        String testUserLogin = "testUserLogin";
-        String testEventType = "testEventType";
-        Optional<LatestEventData> latestEvent = maintainerMetrics.queryLatestEvent(testRepo, testUserLogin, testEventType, openSearchUtil);
+        Map<String, List<String>> loginsByRepo = new LinkedHashMap<>();
+        loginsByRepo.put("testRepo", List.of("testUserLogin"));
+        loginsByRepo.put("repoWithoutMaintainers", List.of());
+        Map<String, Map<String, Map<String, LatestEventData>>> latestEvents = maintainerMetrics.queryLatestEvents(loginsByRepo, openSearchUtil);
         LatestEventData testEvent = new LatestEventData();
         testEvent.setEventType("testEventType");
         testEvent.setEventAction("some_action");
         testEvent.setTimeLastEngaged(Instant.parse("2023-06-15T10:00:00Z"));
-        Optional<LatestEventData> testEventOpt = Optional.of(testEvent);
-
 
         // Assertions
-        assertEquals(testEventOpt, latestEvent); // Modify expected result according to your logic
+        assertEquals(Map.of("testRepo", Map.of("testUserLogin", Map.of("testEventType", testEvent))), latestEvents);
+        verify(openSearchUtil).searchBatch(argThat(requests -> requests.size() == 1));
+        verify(openSearchUtil, never()).search(any(SearchRequest.class));
     }
 
     @Test
-    public void testQueryLatestEventNoActionOrCreatedAt() {
-        // Mock
+    public void testQueryLatestEventsFailure() {
         OpenSearchUtil openSearchUtil = Mockito.mock(OpenSearchUtil.class);
-        SearchResponse eventsResponse = Mockito.mock(SearchResponse.class);
-        SearchHit searchHit = Mockito.mock(SearchHit.class);
-        SearchHits searchHits = Mockito.mock(SearchHits.class);
-        TopHits topHits = Mockito.mock(TopHits.class);
-        Aggregations aggregations = Mockito.mock(Aggregations.class);
-
-        when(openSearchUtil.search(any(SearchRequest.class))).thenReturn(eventsResponse);
-        when(eventsResponse.status()).thenReturn(RestStatus.OK);
-        when(eventsResponse.getAggregations()).thenReturn(aggregations);
-        when(aggregations.get("latest_event")).thenReturn(topHits);
-        when(topHits.getHits()).thenReturn(searchHits);
-        when(searchHits.getHits()).thenReturn(new SearchHit[]{searchHit});
+        when(openSearchUtil.searchBatch(any())).thenReturn(List.of(new MultiSearchResponse.Item(null, new RuntimeException("rejected"))));
 
-        Map<String, Object> sourceMap = new HashMap<>();
-        when(searchHit.getSourceAsMap()).thenReturn(sourceMap);
+        MaintainerMetrics maintainerMetrics = new MaintainerMetrics(httpUtil);
 
-        MaintainerMetrics maintainerMetrics = new MaintainerMetrics();
-
-        // Call method under test
-        String testRepo = "testRepo";
-        String testUserLogin = "testUserLogin";
-        String testEventType = "testEventType";
-        Optional<LatestEventData> latestEvent = maintainerMetrics.queryLatestEvent(testRepo, testUserLogin, testEventType, openSearchUtil);
-        LatestEventData testEvent = new LatestEventData();
-        testEvent.setEventType("testEventType");
-        Optional<LatestEventData> testEventOpt = Optional.of(testEvent);
-
-
-        // Assertions
-        assertEquals(testEventOpt, latestEvent); // Modify expected result according to your logic
+        assertThrows(RuntimeException.class, () -> maintainerMetrics.queryLatestEvents(Map.of("testRepo", List.of("testUserLogin")), openSearchUtil));
     }
 
     @Test
-    public void testQueryLatestEventEmpty() {
-        // Mock
-        OpenSearchUtil openSearchUtil = Mockito.mock(OpenSearchUtil.class);
-        SearchResponse eventsResponse = Mockito.mock(SearchResponse.class);
-        SearchHits searchHits = Mockito.mock(SearchHits.class);
-        TopHits topHits = Mockito.mock(TopHits.class);
-        Aggregations aggregations = Mockito.mock(Aggregations.class);
-
-        when(openSearchUtil.search(any(SearchRequest.class))).thenReturn(eventsResponse);
-        when(eventsResponse.status()).thenReturn(RestStatus.OK);
-        when(eventsResponse.getAggregations()).thenReturn(aggregations);
-        when(aggregations.get("latest_event")).thenReturn(topHits);
-        when(topHits.getHits()).thenReturn(searchHits);
-        when(searchHits.getHits()).thenReturn(new SearchHit[0]);
-
-        MaintainerMetrics maintainerMetrics = new MaintainerMetrics();
-
-        // Call method under test
-        String testRepo = "testRepo";
-        String testUserLogin = "testUserLogin";
-        String testEventType = "testEventType";
-        Optional<LatestEventData> latestEvent = maintainerMetrics.queryLatestEvent(testRepo, testUserLogin, testEventType, openSearchUtil);
-
-        // Assertions
-        assertEquals(Optional.empty(), latestEvent); // Modify expected result according to your logic
+    public void testLatestEventsSearchRequest() {
+        MaintainerMetrics maintainerMetrics = new MaintainerMetrics(httpUtil);
+
+        SearchRequest searchRequest = maintainerMetrics.latestEventsSearchRequest("testRepo", List.of("userA", "userB"));
+
+        String source = searchRequest.source().toString();
+        assertEquals(0, searchRequest.source().size());
+        assertTrue(source.contains("\"case_insensitive\":true"));
+        assertTrue(source.contains("\"sender.keyword\""));
+        assertTrue(source.contains("\"senders\""));
+        assertTrue(source.contains("\"event_types\""));
+        assertTrue(source.contains("\"last_engaged\""));
+        assertTrue(source.contains("\"includes\":[\"action\",\"created_at\"]"));
     }
 
     @Test
-    public void testMostAndLeastRepoEventCounts() {
+    public void testRepoEventStats() {
         // Mock
         OpenSearchUtil openSearchUtil = Mockito.mock(OpenSearchUtil.class);
         SearchResponse eventsResponse = Mockito.mock(SearchResponse.class);
         Aggregations aggregations = Mockito.mock(Aggregations.class);
-        Terms termsLeast = Mockito.mock(Terms.class);
-        Terms termsMost = Mockito.mock(Terms.class);
-        Terms.Bucket leastBucket = Mockito.mock(Terms.Bucket.class);
-        Terms.Bucket mostBucket = Mockito.mock(Terms.Bucket.class);
-        List<Terms.Bucket> leastBuckets = Arrays.asList(leastBucket);
-        List<Terms.Bucket> mostBuckets = Arrays.asList(mostBucket);
-
+        Terms terms = Mockito.mock(Terms.class);
+        Terms.Bucket busyBucket = Mockito.mock(Terms.Bucket.class);
+        Terms.Bucket quietBucket = Mockito.mock(Terms.Bucket.class);
+        List<Terms.Bucket> buckets = Arrays.asList(busyBucket, quietBucket);
 
         when(openSearchUtil.search(any(SearchRequest.class))).thenReturn(eventsResponse);
         when(eventsResponse.status()).thenReturn(RestStatus.OK);
         when(eventsResponse.getAggregations()).thenReturn(aggregations);
-        when(aggregations.get("least_event_count")).thenReturn(termsLeast);
-        when(aggregations.get("most_event_count")).thenReturn(termsMost);
-        when(termsLeast.getBuckets()).thenAnswer(invocation -> leastBuckets);
-        when(termsMost.getBuckets()).thenAnswer(invocation -> mostBuckets);
-        when(leastBucket.getDocCount()).thenReturn(10L);
-        when(mostBucket.getDocCount()).thenReturn(100L);
-
-
-        MaintainerMetrics maintainerMetrics = new MaintainerMetrics();
-
-        // Call method under test
-        long[] mostAndLeastRepoEventCount = maintainerMetrics.mostAndLeastRepoEventCounts(openSearchUtil);
-
-        // Assertions
-        assertArrayEquals(new long[]{100L, 10L}, mostAndLeastRepoEventCount); // Modify expected result according to your logic
-    }
+        when(aggregations.get("repo_event_counts")).thenReturn(terms);
+        when(terms.getBuckets()).thenAnswer(invocation -> buckets);
+        when(busyBucket.getKeyAsString()).thenReturn("busyRepo");
+        when(busyBucket.getDocCount()).thenReturn(100L);
+        when(quietBucket.getKeyAsString()).thenReturn("quietRepo");
+        when(quietBucket.getDocCount()).thenReturn(10L);
 
-    @Test
-    public void testRepoEventCount() {
-        // Mock
-        OpenSearchUtil openSearchUtil = Mockito.mock(OpenSearchUtil.class);
-        SearchResponse eventsResponse = Mockito.mock(SearchResponse.class);
-        SearchHits searchHits = Mockito.mock(SearchHits.class);
-
-        when(openSearchUtil.search(any(SearchRequest.class))).thenReturn(eventsResponse);
-        when(eventsResponse.status()).thenReturn(RestStatus.OK);
-        when(eventsResponse.getHits()).thenReturn(searchHits);
-        when(searchHits.getTotalHits()).thenReturn(new TotalHits(5L, TotalHits.Relation.EQUAL_TO));
-
-        MaintainerMetrics maintainerMetrics = new MaintainerMetrics();
+        MaintainerMetrics maintainerMetrics = new MaintainerMetrics(httpUtil);
 
         // Call method under test
-        String testRepo = "testRepo";
-        long repoEventCount = maintainerMetrics.repoEventCount(testRepo, openSearchUtil);
+        RepoEventStats repoEventStats = maintainerMetrics.repoEventStats(openSearchUtil);
 
         // Assertions
-        assertEquals(5L, repoEventCount); // Modify expected result according to your logic
+        assertEquals(new RepoEventStats(Map.of("busyRepo", 100L, "quietRepo", 10L)), repoEventStats);
+        verify(openSearchUtil, times(1)).search(any(SearchRequest.class));
     }
 
     @Test
     public void testGetSlopeAndIntercept() {
-        MaintainerMetrics maintainerMetrics = new MaintainerMetrics();
+        MaintainerMetrics maintainerMetrics = new MaintainerMetrics(httpUtil);
         double[] slopeAndIntercept = maintainerMetrics.getSlopeAndIntercept(0, 0, 1, 5);
         assertArrayEquals(new double[]{5, 0}, slopeAndIntercept);
     }
 
     @Test
     public void testGetSlopeAndInterceptNull() {
-        MaintainerMetrics maintainerMetrics = new MaintainerMetrics();
+        MaintainerMetrics maintainerMetrics = new MaintainerMetrics(httpUtil);
         double[] slopeAndIntercept = maintainerMetrics.getSlopeAndIntercept(0, 0, 0, 5);
         assertNull(slopeAndIntercept);
     }
 
     @Test
     public void testInactivityLinEq() {
-        MaintainerMetrics maintainerMetrics = new MaintainerMetrics();
+        MaintainerMetrics maintainerMetrics = new MaintainerMetrics(httpUtil);
         long y = maintainerMetrics.inactivityLinEq(new double[]{-1, 376}, 50, 90);
         assertEquals(326L, y);
     }
 
     @Test
     public void testInactivityLinEqNull() {
-        MaintainerMetrics maintainerMetrics = new MaintainerMetrics();
+        MaintainerMetrics maintainerMetrics = new MaintainerMetrics(httpUtil);
         long y = maintainerMetrics.inactivityLinEq(null, 50, 90);
         assertEquals(90L, y);
     }
 
     @Test
     public void testInactivityLinEqSlopeInterceptWrong() {
-        MaintainerMetrics maintainerMetrics = new MaintainerMetrics();
+        MaintainerMetrics maintainerMetrics = new MaintainerMetrics(httpUtil);
         assertThrows(RuntimeException.class, () -> maintainerMetrics.inactivityLinEq(new double[]{-1, 376, 928}, 50, 90));
     }
 
     @Test
     public void testCalculateInactivity() {
-        MaintainerMetrics maintainerMetrics = new MaintainerMetrics();
+        MaintainerMetrics maintainerMetrics = new MaintainerMetrics(httpUtil);
         MaintainerMetrics mockMaintainerMetrics = Mockito.mock(MaintainerMetrics.class);
         LatestEventData latestEventData = new LatestEventData();
         latestEventData.setTimeLastEngaged(Instant.now().minus(7, ChronoUnit.DAYS));
@@ -283,7 +239,7 @@ public class MaintainerMetricsTest {
 
     @Test
     public void testRepoMaintainers() {
-        MaintainerMetrics maintainerMetrics = new MaintainerMetrics();
+        MaintainerMetrics maintainerMetrics = new MaintainerMetrics(httpUtil);
         String expectedContent = "test content\n" +
                 "| Maintainer       | GitHub ID                                | Affiliation |\n" +
                 "| maintainer | [githubId](https://github.com/githubId) | affiliation      |\n" +
@@ -291,34 +247,40 @@ public class MaintainerMetricsTest {
                 "## Emeritus Maintainers" +
                 "| maintainer | [githubId](https://github.com/githubId) | affiliation      |\n" +
                 "line3\n";
-        ByteArrayInputStream inputStream = new ByteArrayInputStream(
-                expectedContent.getBytes(StandardCharsets.UTF_8)
-        );
+        CompletableFuture<CachedResponse> response = stringResponse(HttpUtil.HTTP_OK, expectedContent);
+        when(httpUtil.getCachedAsync("https://raw.githubusercontent.com/opensearch-project/repo/main/MAINTAINERS.md")).thenReturn(response);
 
-        try (MockedConstruction<URL> mocked = mockConstruction(URL.class, (mockUrl, context) ->
-                when(mockUrl.openStream()).thenReturn(inputStream))) {
+        List<MaintainerData> maintainerDataList = maintainerMetrics.repoMaintainers("repo");
 
-            List<MaintainerData> maintainerDataList = maintainerMetrics.repoMaintainers("repo");
+        List<MaintainerData> expectedList = new ArrayList<>();
+        MaintainerData expectedMaintainer = new MaintainerData();
+        expectedMaintainer.setRepository("repo");
+        expectedMaintainer.setName("maintainer");
+        expectedMaintainer.setGithubLogin("githubId");
+        expectedMaintainer.setAffiliation("affiliation");
+        expectedList.add(expectedMaintainer);
 
-            List<MaintainerData> expectedList = new ArrayList<>();
-            MaintainerData expectedMaintainer = new MaintainerData();
-            expectedMaintainer.setRepository("repo");
-            expectedMaintainer.setName("maintainer");
-            expectedMaintainer.setGithubLogin("githubId");
-            expectedMaintainer.setAffiliation("affiliation");
-            expectedList.add(expectedMaintainer);
-
-            assertEquals(expectedList, maintainerDataList);
-        }
+        assertEquals(expectedList, maintainerDataList);
     }
 
     @Test
     public void testRepoMaintainersFileNotFound() {
-        MaintainerMetrics maintainerMetrics = new MaintainerMetrics();
-        try (MockedConstruction<URL> mocked = mockConstruction(URL.class, (mockUrl, context) ->
-                when(mockUrl.openStream()).thenThrow(new FileNotFoundException()))) {
-            List<MaintainerData> maintainerDataList = maintainerMetrics.repoMaintainers("repo");
-            assertTrue(maintainerDataList.isEmpty());
-        }
+        MaintainerMetrics maintainerMetrics = new MaintainerMetrics(httpUtil);
+        CompletableFuture<CachedResponse> response = stringResponse(HttpUtil.HTTP_NOT_FOUND, "404: Not Found");
+        when(httpUtil.getCachedAsync(anyString())).thenReturn(response);
+        List<MaintainerData> maintainerDataList = maintainerMetrics.repoMaintainers("repo");
+        assertTrue(maintainerDataList.isEmpty());
+    }
+
+    @Test
+    public void testRepoMaintainersRequestFails() {
+        MaintainerMetrics maintainerMetrics = new MaintainerMetrics(httpUtil);
+        when(httpUtil.getCachedAsync(anyString())).thenReturn(CompletableFuture.failedFuture(new HttpTimeoutException("timed out")));
+        List<MaintainerData> maintainerDataList = maintainerMetrics.repoMaintainersAsync("repo").join();
+        assertTrue(maintainerDataList.isEmpty());
+    }
+
+    private static CompletableFuture<CachedResponse> stringResponse(int statusCode, String body) {
+        return CompletableFuture.completedFuture(new CachedResponse("https://example.com", statusCode, body, null, null));
     }
 }
@@ -6,43 +6,55 @@
  * this file be licensed under the Apache-2.0 license or a
  * compatible open source license.
  */
-
 package org.opensearchmetrics.metrics.release;
 
-import org.apache.http.HttpEntity;
-import org.apache.http.StatusLine;
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.impl.client.CloseableHttpClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.opensearchmetrics.model.codecov.CodeCovResponse;
+import org.opensearchmetrics.util.HttpUtil;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doThrow;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class CodeCoverageTest {
 
     @Mock
-    private CloseableHttpClient httpClient;
+    private HttpUtil httpUtil;
 
     private CodeCoverage codeCoverage;
 
     private final String validJsonResponse = """
         {
+            "count": 2,
             "results": [{
                 "state": "complete",
                 "commitid": "abc123",
                 "totals": {
                     "coverage": 85.5
                 }
+            }, {
+                "state": "complete",
+                "commitid": "def456",
+                "totals": {
+                    "coverage": 80.0
+                }
             }]
         }
         """;
@@ -56,93 +68,96 @@ class CodeCoverageTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        codeCoverage = new CodeCoverage(httpClient);
+        codeCoverage = new CodeCoverage(httpUtil, new ObjectMapper());
     }
 
     @Test
-    void testDefaultConstructor() {
-        CodeCoverage defaultCodeCoverage = new CodeCoverage();
-        assertNotNull(defaultCodeCoverage);
+    void testSuccessfulCoverageRequest() {
+        CompletableFuture<HttpResponse<InputStream>> response = streamResponse(200, validJsonResponse, Map.of());
+        when(httpUtil.getStreamAsync(anyString())).thenReturn(response);
+        CodeCovResponse codeCovResponse = codeCoverage.coverage("main", "test-repo");
+        assertNotNull(codeCovResponse);
+        assertEquals("complete", codeCovResponse.getState());
+        assertEquals("abc123", codeCovResponse.getCommitId());
+        assertEquals(85.5, codeCovResponse.getCoverage());
+        assertEquals("https://api.codecov.io/api/v2/github/opensearch-project/repos/test-repo/commits?branch=main",
+                codeCovResponse.getUrl());
+        verify(httpUtil).getStreamAsync("https://api.codecov.io/api/v2/github/opensearch-project/repos/test-repo/commits?branch=main&page_size=1");
     }
 
     @Test
-    void testSuccessfulCoverageRequest() throws IOException {
-        CloseableHttpResponse httpResponse = mock(CloseableHttpResponse.class);
-        StatusLine statusLine = mock(StatusLine.class);
-        HttpEntity httpEntity = mock(HttpEntity.class);
-        when(statusLine.getStatusCode()).thenReturn(200);
-        when(httpResponse.getStatusLine()).thenReturn(statusLine);
-        when(httpResponse.getEntity()).thenReturn(httpEntity);
-        when(httpEntity.getContent()).thenReturn(new ByteArrayInputStream(validJsonResponse.getBytes()));
-        when(httpClient.execute(any())).thenReturn(httpResponse);
-        CodeCovResponse response = codeCoverage.coverage("main", "test-repo");
-        assertNotNull(response);
-        assertEquals("complete", response.getState());
-        assertEquals("abc123", response.getCommitId());
-        assertEquals(85.5, response.getCoverage());
-        assertEquals("https://api.codecov.io/api/v2/github/opensearch-project/repos/test-repo/commits?branch=main",
-                response.getUrl());
+    void testEmptyResultsResponse() {
+        CompletableFuture<HttpResponse<InputStream>> response = streamResponse(200, emptyResultsResponse, Map.of());
+        when(httpUtil.getStreamAsync(anyString())).thenReturn(response);
+        CodeCovResponse codeCovResponse = codeCoverage.coverage("main", "test-repo");
+        assertNotNull(codeCovResponse);
+        assertEquals("no-coverage", codeCovResponse.getState());
+        assertEquals("none", codeCovResponse.getCommitId());
+        assertEquals(0.0, codeCovResponse.getCoverage());
     }
 
     @Test
-    void testEmptyResultsResponse() throws IOException {
-        CloseableHttpResponse httpResponse = mock(CloseableHttpResponse.class);
-        StatusLine statusLine = mock(StatusLine.class);
-        HttpEntity httpEntity = mock(HttpEntity.class);
-
-        when(statusLine.getStatusCode()).thenReturn(200);
-        when(httpResponse.getStatusLine()).thenReturn(statusLine);
-        when(httpResponse.getEntity()).thenReturn(httpEntity);
-        when(httpEntity.getContent()).thenReturn(new ByteArrayInputStream(emptyResultsResponse.getBytes()));
-        when(httpClient.execute(any())).thenReturn(httpResponse);
-        CodeCovResponse response = codeCoverage.coverage("main", "test-repo");
-        assertNotNull(response);
-        assertEquals("no-coverage", response.getState());
-        assertEquals("none", response.getCommitId());
-        assertEquals(0.0, response.getCoverage());
+    void testWithout200Response() {
+        CompletableFuture<HttpResponse<InputStream>> response = streamResponse(404, "", Map.of());
+        when(httpUtil.getStreamAsync(anyString())).thenReturn(response);
+        CodeCovResponse codeCovResponse = codeCoverage.coverage("main", "test-repo");
+        assertNotNull(codeCovResponse);
+        assertNull(codeCovResponse.getState());
+        assertNull(codeCovResponse.getCommitId());
+        assertEquals(null, codeCovResponse.getCoverage());
     }
 
     @Test
-    void testWithout200Response() throws IOException {
-        CloseableHttpResponse httpResponse = mock(CloseableHttpResponse.class);
-        StatusLine statusLine = mock(StatusLine.class);
-        when(statusLine.getStatusCode()).thenReturn(404);
-        when(httpResponse.getStatusLine()).thenReturn(statusLine);
-        when(httpClient.execute(any())).thenReturn(httpResponse);
-        CodeCovResponse response = codeCoverage.coverage("main", "test-repo");
-        assertNotNull(response);
-        assertNull(response.getState());
-        assertNull(response.getCommitId());
-        assertEquals(null, response.getCoverage());
+    void testRateLimitedResponseRetried() {
+        CompletableFuture<HttpResponse<InputStream>> limited = streamResponse(429, "", Map.of("Retry-After", "7"));
+        CompletableFuture<HttpResponse<InputStream>> response = streamResponse(200, validJsonResponse, Map.of());
+        when(httpUtil.getStreamAsync(anyString())).thenReturn(limited, response);
+        CodeCovResponse codeCovResponse = codeCoverage.coverage("main", "test-repo");
+        assertEquals("abc123", codeCovResponse.getCommitId());
+        verify(httpUtil, times(2)).getStreamAsync(anyString());
     }
 
     @Test
-    void testEntityUtilsThrowsException() throws IOException {
-        CloseableHttpResponse httpResponse = mock(CloseableHttpResponse.class);
-        StatusLine statusLine = mock(StatusLine.class);
-        HttpEntity httpEntity = mock(HttpEntity.class);
-        when(statusLine.getStatusCode()).thenReturn(200);
-        when(httpResponse.getStatusLine()).thenReturn(statusLine);
-        when(httpResponse.getEntity()).thenReturn(httpEntity);
-        when(httpEntity.getContent()).thenThrow(new IOException("Error reading content"));
-        when(httpClient.execute(any())).thenReturn(httpResponse);
-        assertThrows(RuntimeException.class, () -> codeCoverage.coverage("main", "test-repo"));
+    void testRateLimitedResponseGivesUp() {
+        CompletableFuture<HttpResponse<InputStream>> limited = streamResponse(503, "", Map.of());
+        when(httpUtil.getStreamAsync(anyString())).thenReturn(limited);
+        CodeCovResponse codeCovResponse = codeCoverage.coverage("main", "test-repo");
+        assertNull(codeCovResponse.getState());
+        verify(httpUtil, times(3)).getStreamAsync(anyString());
     }
 
     @Test
-    void testHttpClientExecuteThrowsException() throws IOException {
-        when(httpClient.execute(any())).thenThrow(new IOException("Failed to execute request"));
+    void testMalformedResponseThrowsException() {
+        CompletableFuture<HttpResponse<InputStream>> response = streamResponse(200, "{\"detail\": \"Not found\"}", Map.of());
+        when(httpUtil.getStreamAsync(anyString())).thenReturn(response);
         assertThrows(RuntimeException.class, () -> codeCoverage.coverage("main", "test-repo"));
     }
 
     @Test
-    void testResponseCloseThrowsException() throws IOException {
-        CloseableHttpResponse httpResponse = mock(CloseableHttpResponse.class);
-        StatusLine statusLine = mock(StatusLine.class);
-        when(statusLine.getStatusCode()).thenReturn(404);
-        when(httpResponse.getStatusLine()).thenReturn(statusLine);
-        when(httpClient.execute(any())).thenReturn(httpResponse);
-        doThrow(new IOException("Failed to close response")).when(httpResponse).close();
+    void testRequestFailureThrowsException() {
+        when(httpUtil.getStreamAsync(anyString())).thenReturn(CompletableFuture.failedFuture(new IOException("Failed to execute request")));
         assertThrows(RuntimeException.class, () -> codeCoverage.coverage("main", "test-repo"));
     }
+
+    @Test
+    void testFirstResultStopsReading() throws IOException {
+        String truncated = "{\"results\": [{\"state\": \"complete\", \"commitid\": \"abc123\"}, {\"state\": ";
+        assertEquals("abc123", codeCoverage.firstResult(new ByteArrayInputStream(truncated.getBytes()))
+                .orElseThrow().get("commitid").asText());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompletableFuture<HttpResponse<InputStream>> streamResponse(int statusCode, String body, Map<String, String> headers) {
+        HttpResponse<InputStream> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(statusCode);
+        when(response.body()).thenReturn(new ByteArrayInputStream(body.getBytes()));
+        when(response.headers()).thenReturn(headers(headers));
+        return CompletableFuture.completedFuture(response);
+    }
+
+    private static HttpHeaders headers(Map<String, String> headers) {
+        Map<String, List<String>> values = new HashMap<>();
+        headers.forEach((name, value) -> values.put(name, List.of(value)));
+        return HttpHeaders.of(values, (name, value) -> true);
+    }
 }
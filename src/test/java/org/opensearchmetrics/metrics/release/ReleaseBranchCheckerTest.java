@@ -9,10 +9,13 @@
 package org.opensearchmetrics.metrics.release;
 
 import org.junit.jupiter.api.Test;
+import org.opensearchmetrics.util.HttpUtil;
 
 import java.io.IOException;
-import java.net.HttpURLConnection;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
@@ -20,27 +23,34 @@ import static org.mockito.Mockito.*;
 public class ReleaseBranchCheckerTest {
     @Test
     void testReleaseBranchExists() throws IOException {
-        // Mocking the getUrlResponse method of UrlResponse class
-        UrlResponse urlResponseMock = mock(UrlResponse.class);
-        HttpURLConnection connectionMock = mock(HttpURLConnection.class);
-        when(connectionMock.getResponseCode()).thenReturn(HttpURLConnection.HTTP_OK);
-        when(urlResponseMock.getUrlResponse(anyString())).thenReturn(connectionMock);
+        // Mocking the headAsync method of HttpUtil class
+        HttpUtil httpUtilMock = mock(HttpUtil.class);
+        when(httpUtilMock.headAsync(anyString())).thenReturn(CompletableFuture.completedFuture(HttpUtil.HTTP_OK));
 
-        ReleaseBranchChecker releaseBranchChecker = new ReleaseBranchChecker(urlResponseMock);
+        ReleaseBranchChecker releaseBranchChecker = new ReleaseBranchChecker(httpUtilMock);
 
         assertTrue(releaseBranchChecker.releaseBranch("1.0", "testRepo"));
     }
 
     @Test
     void testReleaseBranchDoesNotExist() throws IOException {
-        // Mocking the getUrlResponse method of UrlResponse class
-        UrlResponse urlResponseMock = mock(UrlResponse.class);
-        HttpURLConnection connectionMock = mock(HttpURLConnection.class);
-        when(connectionMock.getResponseCode()).thenReturn(HttpURLConnection.HTTP_NOT_FOUND);
-        when(urlResponseMock.getUrlResponse(anyString())).thenReturn(connectionMock);
+        // Mocking the headAsync method of HttpUtil class
+        HttpUtil httpUtilMock = mock(HttpUtil.class);
+        when(httpUtilMock.headAsync(anyString())).thenReturn(CompletableFuture.completedFuture(HttpUtil.HTTP_NOT_FOUND));
 
-        ReleaseBranchChecker releaseBranchChecker = new ReleaseBranchChecker(urlResponseMock);
+        ReleaseBranchChecker releaseBranchChecker = new ReleaseBranchChecker(httpUtilMock);
 
         assertFalse(releaseBranchChecker.releaseBranch("1.0", "testRepo"));
     }
+
+    @Test
+    void testReleaseBranchRateLimited() {
+        HttpUtil httpUtilMock = mock(HttpUtil.class);
+        when(httpUtilMock.headAsync(anyString())).thenReturn(CompletableFuture.completedFuture(429));
+
+        ReleaseBranchChecker releaseBranchChecker = new ReleaseBranchChecker(httpUtilMock);
+
+        assertFalse(releaseBranchChecker.releaseBranch("1.0", "testRepo"));
+        assertEquals(Optional.empty(), releaseBranchChecker.releaseBranchAsync("1.0", "testRepo").join());
+    }
 }
@@ -15,13 +15,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.opensearchmetrics.model.codecov.CodeCovResponse;
+import org.opensearchmetrics.model.release.ReleaseRepoStats;
 import org.opensearchmetrics.util.OpenSearchUtil;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
 
@@ -36,12 +37,6 @@ public class ReleaseMetricsTest {
     @Mock
     private ReleaseRepoFetcher releaseRepoFetcher;
 
-    @Mock
-    private ReleaseLabelIssuesFetcher releaseLabelIssuesFetcher;
-
-    @Mock
-    private ReleaseLabelPullsFetcher releaseLabelPullsFetcher;
-
     @Mock
     private ReleaseVersionIncrementChecker releaseVersionIncrementChecker;
 
@@ -52,10 +47,10 @@ public class ReleaseMetricsTest {
     private ReleaseNotesChecker releaseNotesChecker;
 
     @Mock
-    private ReleaseIssueChecker releaseIssueChecker;
+    private CodeCoverage codeCoverage;
 
     @Mock
-    private CodeCoverage codeCoverage;
+    private ReleaseStatsAggregator releaseStatsAggregator;
 
     @InjectMocks
     private ReleaseMetrics releaseMetrics;
@@ -81,6 +76,15 @@ public class ReleaseMetricsTest {
         assertEquals(repos, result);
     }
 
+    @Test
+    public void testGetReleaseRepoStats() {
+        Map<String, List<String>> reposByVersion = Map.of("1.0.0", List.of("testRepo"));
+        Map<String, Map<String, ReleaseRepoStats>> stats = Map.of("1.0.0", Map.of("testRepo", new ReleaseRepoStats()));
+        when(releaseStatsAggregator.aggregate(reposByVersion, openSearchUtil)).thenReturn(stats);
+
+        assertEquals(stats, releaseMetrics.getReleaseRepoStats(reposByVersion));
+    }
+
     @Test
     public void testGetReleaseNotes() {
         boolean expectedNotes = true;
@@ -91,36 +95,6 @@ public class ReleaseMetricsTest {
         assertEquals(expectedNotes, result);
     }
 
-    @Test
-    public void testGetReleaseLabelIssues() {
-        long expectedIssuesCount = 10;
-        when(releaseLabelIssuesFetcher.releaseLabelIssues(anyString(), anyString(), anyString(), anyBoolean(), any()))
-                .thenReturn(expectedIssuesCount);
-
-        long result = releaseMetrics.getReleaseLabelIssues("1.0.0", "testRepo", "open", true);
-        assertEquals(expectedIssuesCount, result);
-    }
-
-    @Test
-    public void testGetReleaseLabelPulls() {
-        long expectedPullsCount = 5;
-        when(releaseLabelPullsFetcher.releaseLabelPulls(anyString(), anyString(), anyString(), any()))
-                .thenReturn(expectedPullsCount);
-
-        long result = releaseMetrics.getReleaseLabelPulls("1.0.0", "testRepo", "open");
-        assertEquals(expectedPullsCount, result);
-    }
-
-    @Test
-    public void testGetReleaseVersionIncrement() {
-        boolean expectedIncrement = true;
-        when(releaseVersionIncrementChecker.releaseVersionIncrement(anyString(), anyString(), anyString(), any(), any()))
-                .thenReturn(expectedIncrement);
-
-        boolean result = releaseMetrics.getReleaseVersionIncrement("1.0.0", "testRepo", "main");
-        assertEquals(expectedIncrement, result);
-    }
-
     @Test
     public void testGetReleaseBranch() {
         boolean expectedBranch = true;
@@ -131,26 +105,6 @@ public class ReleaseMetricsTest {
         assertEquals(expectedBranch, result);
     }
 
-    @Test
-    public void testGetReleaseOwners() {
-        String[] expectedOwners = new String[]{"sample_user_1"};
-        when(releaseIssueChecker.releaseOwners(anyString(), anyString(), any()))
-                .thenReturn(expectedOwners);
-
-        String[] result = releaseMetrics.getReleaseOwners("1.0.0", "testRepo");
-        assertArrayEquals(expectedOwners, result);
-    }
-
-    @Test
-    public void testGetReleaseIssue() {
-        String expectedIssue = "https://sample-release-issue/100";
-        when(releaseIssueChecker.releaseIssue(anyString(), anyString(), any()))
-                .thenReturn(expectedIssue);
-
-        String result = releaseMetrics.getReleaseIssue("1.0.0", "testRepo");
-        assertEquals(expectedIssue, result);
-    }
-
     @Test
     public void testGetCodeCoverage() {
         when(codeCoverage.coverage(anyString(), anyString())).thenReturn(codeCovResponse);
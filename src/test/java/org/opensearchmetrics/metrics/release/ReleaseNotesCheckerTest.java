@@ -9,10 +9,13 @@
 package org.opensearchmetrics.metrics.release;
 
 import org.junit.jupiter.api.Test;
+import org.opensearchmetrics.util.HttpUtil;
 
 import java.io.IOException;
-import java.net.HttpURLConnection;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -23,27 +26,33 @@ public class ReleaseNotesCheckerTest {
 
     @Test
     void testReleaseNotesExist() throws IOException {
-        // Mocking the getUrlResponse method of UrlResponse class
-        UrlResponse urlResponseMock = mock(UrlResponse.class);
-        HttpURLConnection connectionMock = mock(HttpURLConnection.class);
-        when(connectionMock.getResponseCode()).thenReturn(HttpURLConnection.HTTP_OK);
-        when(urlResponseMock.getUrlResponse(anyString())).thenReturn(connectionMock);
+        // Mocking the headAsync method of HttpUtil class
+        HttpUtil httpUtilMock = mock(HttpUtil.class);
+        when(httpUtilMock.headAsync(anyString())).thenReturn(CompletableFuture.completedFuture(HttpUtil.HTTP_OK));
 
-        ReleaseNotesChecker releaseNotesChecker = new ReleaseNotesChecker(urlResponseMock);
+        ReleaseNotesChecker releaseNotesChecker = new ReleaseNotesChecker(httpUtilMock);
 
         assertTrue(releaseNotesChecker.releaseNotes("1.0", "OpenSearch", "1.0"));
     }
 
     @Test
     void testReleaseNotesDoNotExist() throws IOException {
-        // Mocking the getUrlResponse method of UrlResponse class
-        UrlResponse urlResponseMock = mock(UrlResponse.class);
-        HttpURLConnection connectionMock = mock(HttpURLConnection.class);
-        when(connectionMock.getResponseCode()).thenReturn(HttpURLConnection.HTTP_NOT_FOUND);
-        when(urlResponseMock.getUrlResponse(anyString())).thenReturn(connectionMock);
+        // Mocking the headAsync method of HttpUtil class
+        HttpUtil httpUtilMock = mock(HttpUtil.class);
+        when(httpUtilMock.headAsync(anyString())).thenReturn(CompletableFuture.completedFuture(HttpUtil.HTTP_NOT_FOUND));
 
-        ReleaseNotesChecker releaseNotesChecker = new ReleaseNotesChecker(urlResponseMock);
+        ReleaseNotesChecker releaseNotesChecker = new ReleaseNotesChecker(httpUtilMock);
 
         assertFalse(releaseNotesChecker.releaseNotes("1.0", "OpenSearch", "1.0"));
     }
+
+    @Test
+    void testReleaseNotesServerError() {
+        HttpUtil httpUtilMock = mock(HttpUtil.class);
+        when(httpUtilMock.headAsync(anyString())).thenReturn(CompletableFuture.completedFuture(500));
+
+        ReleaseNotesChecker releaseNotesChecker = new ReleaseNotesChecker(httpUtilMock);
+
+        assertEquals(Optional.empty(), releaseNotesChecker.releaseNotesAsync("1.0", "OpenSearch", "1.0").join());
+    }
 }
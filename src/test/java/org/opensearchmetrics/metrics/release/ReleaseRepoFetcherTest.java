@@ -8,42 +8,66 @@
  */
 package org.opensearchmetrics.metrics.release;
 
+import com.google.common.base.Ticker;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.opensearchmetrics.model.release.ReleaseManifest;
+import org.opensearchmetrics.util.CachedResponse;
+import org.opensearchmetrics.util.HttpUtil;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class ReleaseRepoFetcherTest {
 
+    private static final String MANIFEST = "---\n" +
+            "schema-version: '1.1'\n" +
+            "components:\n" +
+            "  - name: commonUtils\n" +
+            "    repository: https://github.com/opensearch-project/common-utils.git\n";
+
     @Test
     public void testReadUrl() throws IOException {
         String url = "https://example.com";
         String expectedContent = "Test content from URL\n";
-        InputStream inputStream = new ByteArrayInputStream(expectedContent.getBytes());
-        URL mockedUrl = Mockito.mock(URL.class);
-        when(mockedUrl.openStream()).thenReturn(inputStream);
-        ReleaseRepoFetcher fetcher = Mockito.spy(new ReleaseRepoFetcher());
-        when(fetcher.createURL(url)).thenReturn(mockedUrl);
+        HttpUtil httpUtil = Mockito.mock(HttpUtil.class);
+        CompletableFuture<CachedResponse> response = stringResponse(HttpUtil.HTTP_OK, expectedContent);
+        when(httpUtil.getCachedAsync(url)).thenReturn(response);
+        ReleaseRepoFetcher fetcher = new ReleaseRepoFetcher(httpUtil);
         String actualContent = fetcher.readUrl(url);
         assertEquals(expectedContent, actualContent);
     }
 
+    @Test
+    public void testReadUrlNotFound() {
+        String url = "https://example.com";
+        HttpUtil httpUtil = Mockito.mock(HttpUtil.class);
+        CompletableFuture<CachedResponse> response = stringResponse(HttpUtil.HTTP_NOT_FOUND, "");
+        when(httpUtil.getCachedAsync(url)).thenReturn(response);
+        ReleaseRepoFetcher fetcher = new ReleaseRepoFetcher(httpUtil);
+        assertThrows(RuntimeException.class, () -> fetcher.readUrl(url));
+    }
+
     @Test
     public void testReleaseRepoExceptionList() {
         // Create an instance of your class containing the method to be tested
-        ReleaseRepoFetcher fetcher = new ReleaseRepoFetcher();
+        ReleaseRepoFetcher fetcher = new ReleaseRepoFetcher(Mockito.mock(HttpUtil.class));
 
         // Call the method under test
         Map<String, String> result = fetcher.releaseRepoExceptionMap();
@@ -56,14 +80,6 @@ public class ReleaseRepoFetcherTest {
         // Assert that the result matches the expected list
         assertEquals(expectedMap, result);
     }
-    @Test
-    public void testCreateURL() {
-        String url = "https://example.com";
-        ReleaseRepoFetcher fetcher = new ReleaseRepoFetcher();
-        URL createdUrl = fetcher.createURL(url);
-        assertEquals(url, createdUrl.toString());
-    }
-
     @Test
     public void testParseYaml() {
         String responseBody = "---\n" +
@@ -92,7 +108,7 @@ public class ReleaseRepoFetcherTest {
                 "      - linux\n" +
                 "      - windows\n";
         Map<String, String> repoNames = new HashMap<>();
-        ReleaseRepoFetcher fetcher = new ReleaseRepoFetcher();
+        ReleaseRepoFetcher fetcher = new ReleaseRepoFetcher(Mockito.mock(HttpUtil.class));
         fetcher.parseYaml(responseBody, repoNames);
         assertEquals(2, repoNames.size());
         Map<String, String> expectedRepoNames = new HashMap<>();
@@ -104,8 +120,10 @@ public class ReleaseRepoFetcherTest {
 
     @Test
     public void testGetReleaseRepos() {
-        ReleaseRepoFetcher fetcher = Mockito.spy(new ReleaseRepoFetcher());
-        Mockito.doReturn("Test content").when(fetcher).readUrl(Mockito.anyString());
+        HttpUtil httpUtil = Mockito.mock(HttpUtil.class);
+        CompletableFuture<CachedResponse> response = stringResponse(HttpUtil.HTTP_OK, "Test content");
+        when(httpUtil.getCachedAsync(Mockito.anyString())).thenReturn(response);
+        ReleaseRepoFetcher fetcher = Mockito.spy(new ReleaseRepoFetcher(httpUtil));
         Map<String, String> repos = fetcher.getReleaseRepos("1.0.0");
         // Default will always have 4 repos part of exception list
         assertEquals(4, repos.size());
@@ -113,8 +131,10 @@ public class ReleaseRepoFetcherTest {
 
     @Test
     public void testGetReleaseRepos_withData() {
-        ReleaseRepoFetcher fetcher = Mockito.spy(new ReleaseRepoFetcher());
-        Mockito.doReturn("Test content").when(fetcher).readUrl(Mockito.anyString());
+        HttpUtil httpUtil = Mockito.mock(HttpUtil.class);
+        CompletableFuture<CachedResponse> response = stringResponse(HttpUtil.HTTP_OK, "Test content");
+        when(httpUtil.getCachedAsync(Mockito.anyString())).thenReturn(response);
+        ReleaseRepoFetcher fetcher = Mockito.spy(new ReleaseRepoFetcher(httpUtil));
         Map<String, String> repoNames = new HashMap<>();
         repoNames.put("repoName", "componentName");
         Mockito.doAnswer(invocation -> {
@@ -131,4 +151,62 @@ public class ReleaseRepoFetcherTest {
         assertTrue(repos.containsKey("repoName"));
     }
 
+    @Test
+    public void testGetReleaseManifestOncePerRun() {
+        HttpUtil httpUtil = Mockito.mock(HttpUtil.class);
+        CompletableFuture<CachedResponse> response = stringResponse(HttpUtil.HTTP_OK, MANIFEST);
+        when(httpUtil.getCachedAsync(Mockito.anyString())).thenReturn(response);
+        ReleaseRepoFetcher fetcher = new ReleaseRepoFetcher(httpUtil);
+
+        ReleaseManifest manifest = fetcher.getReleaseManifest("2.13.0");
+
+        assertSame(manifest, fetcher.getReleaseManifest("2.13.0"));
+        assertEquals("commonUtils", manifest.getRepoComponents().get("common-utils"));
+        assertEquals(5, fetcher.getReleaseRepos("2.13.0").size());
+        verify(httpUtil, times(2)).getCachedAsync(Mockito.anyString());
+    }
+
+    @Test
+    public void testGetReleaseManifestReusedAcrossRunsUntilChanged() {
+        AtomicLong nanos = new AtomicLong();
+        Ticker ticker = new Ticker() {
+            @Override
+            public long read() {
+                return nanos.get();
+            }
+        };
+        HttpUtil httpUtil = Mockito.mock(HttpUtil.class);
+        CompletableFuture<CachedResponse> response = stringResponse(HttpUtil.HTTP_OK, MANIFEST);
+        CompletableFuture<CachedResponse> changedResponse = stringResponse(HttpUtil.HTTP_OK, MANIFEST + "  - name: job-scheduler\n    repository: https://github.com/opensearch-project/job-scheduler.git\n");
+        when(httpUtil.getCachedAsync(Mockito.anyString())).thenReturn(response, response, response, response, changedResponse, changedResponse);
+        ReleaseRepoFetcher fetcher = new ReleaseRepoFetcher(httpUtil, ticker);
+
+        ReleaseManifest firstRun = fetcher.getReleaseManifest("2.13.0");
+        nanos.addAndGet(TimeUnit.HOURS.toNanos(3));
+        ReleaseManifest secondRun = fetcher.getReleaseManifest("2.13.0");
+        nanos.addAndGet(TimeUnit.HOURS.toNanos(3));
+        ReleaseManifest thirdRun = fetcher.getReleaseManifest("2.13.0");
+
+        assertSame(firstRun, secondRun);
+        assertNotEquals(firstRun.getContentHash(), thirdRun.getContentHash());
+        assertTrue(thirdRun.getRepositories().contains("job-scheduler"));
+        verify(httpUtil, times(6)).getCachedAsync(Mockito.anyString());
+    }
+
+    @Test
+    public void testGetReleaseManifestFailureNotKept() {
+        HttpUtil httpUtil = Mockito.mock(HttpUtil.class);
+        CompletableFuture<CachedResponse> notFound = stringResponse(HttpUtil.HTTP_NOT_FOUND, "");
+        CompletableFuture<CachedResponse> response = stringResponse(HttpUtil.HTTP_OK, MANIFEST);
+        when(httpUtil.getCachedAsync(Mockito.anyString())).thenReturn(notFound, response);
+        ReleaseRepoFetcher fetcher = new ReleaseRepoFetcher(httpUtil);
+
+        assertThrows(RuntimeException.class, () -> fetcher.getReleaseManifest("2.13.0"));
+        assertEquals(5, fetcher.getReleaseManifest("2.13.0").getRepositories().size());
+    }
+
+    private static CompletableFuture<CachedResponse> stringResponse(int statusCode, String body) {
+        return CompletableFuture.completedFuture(new CachedResponse("https://example.com", statusCode, body, null, null));
+    }
+
 }
\ No newline at end of file
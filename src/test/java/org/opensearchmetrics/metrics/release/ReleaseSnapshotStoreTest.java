@@ -0,0 +1,87 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.metrics.release;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opensearchmetrics.dagger.CommonModule;
+import org.opensearchmetrics.model.codecov.CodeCovResult;
+import org.opensearchmetrics.model.release.ReleaseMetricsData;
+import org.opensearchmetrics.util.FileStateStore;
+import org.opensearchmetrics.util.StateStore;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReleaseSnapshotStoreTest {
+
+    @TempDir
+    Path stateDirectory;
+
+    private StateStore stateStore;
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        stateStore = new FileStateStore(stateDirectory);
+        objectMapper = new CommonModule().getObjectMapper();
+    }
+
+    @Test
+    void WHEN_release_metrics_put_THEN_get_returns_them() {
+        ReleaseSnapshotStore releaseSnapshotStore = new ReleaseSnapshotStore(stateStore, objectMapper);
+        ReleaseMetricsData releaseMetricsData = new ReleaseMetricsData();
+        releaseMetricsData.setRepository("repo1");
+        releaseMetricsData.setReleaseVersion("2.18.0");
+        releaseMetricsData.setIssuesOpen(3L);
+        releaseMetricsData.setVersionIncrement(true);
+        releaseMetricsData.setReleaseOwners(new String[]{"owner1"});
+
+        assertEquals(Optional.empty(), releaseSnapshotStore.getReleaseMetrics("2.18.0"));
+        releaseSnapshotStore.putReleaseMetrics("2.18.0", List.of(releaseMetricsData));
+
+        List<ReleaseMetricsData> snapshot = releaseSnapshotStore.getReleaseMetrics("2.18.0").orElseThrow();
+        assertEquals(1, snapshot.size());
+        assertEquals("repo1", snapshot.get(0).getRepository());
+        assertEquals(3L, snapshot.get(0).getIssuesOpen());
+        assertTrue(snapshot.get(0).isVersionIncrement());
+        assertFalse(snapshot.get(0).isReleaseNotes());
+        assertArrayEquals(new String[]{"owner1"}, snapshot.get(0).getReleaseOwners());
+        assertEquals(Optional.empty(), releaseSnapshotStore.getReleaseMetrics("2.17.0"));
+    }
+
+    @Test
+    void WHEN_code_coverage_put_THEN_get_returns_it_by_branch() {
+        ReleaseSnapshotStore releaseSnapshotStore = new ReleaseSnapshotStore(stateStore, objectMapper);
+        CodeCovResult codeCovResult = new CodeCovResult();
+        codeCovResult.setRepository("repo1");
+        codeCovResult.setCoverage(85.5);
+
+        releaseSnapshotStore.putCodeCoverage("1.3.20", "1.3", List.of(codeCovResult));
+
+        assertEquals(85.5, releaseSnapshotStore.getCodeCoverage("1.3.20", "1.3").orElseThrow().get(0).getCoverage());
+        assertEquals(Optional.empty(), releaseSnapshotStore.getCodeCoverage("1.3.20", "main"));
+    }
+
+    @Test
+    void WHEN_snapshot_unreadable_THEN_get_returns_empty() {
+        ReleaseSnapshotStore releaseSnapshotStore = new ReleaseSnapshotStore(stateStore, objectMapper);
+        stateStore.put("release-snapshots/2.18.0/release-metrics", "not json");
+
+        assertEquals(Optional.empty(), releaseSnapshotStore.getReleaseMetrics("2.18.0"));
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.metrics.release;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.opensearch.action.search.MultiSearchResponse;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.core.rest.RestStatus;
+import org.opensearch.search.SearchHit;
+import org.opensearch.search.SearchHits;
+import org.opensearch.search.aggregations.Aggregations;
+import org.opensearch.search.aggregations.bucket.filter.Filters;
+import org.opensearch.search.aggregations.bucket.terms.Terms;
+import org.opensearch.search.aggregations.metrics.TopHits;
+import org.opensearchmetrics.model.release.ReleaseRepoStats;
+import org.opensearchmetrics.util.OpenSearchUtil;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReleaseStatsAggregatorTest {
+
+    private OpenSearchUtil openSearchUtil;
+    private ReleaseStatsAggregator releaseStatsAggregator;
+
+    @BeforeEach
+    void setUp() {
+        openSearchUtil = mock(OpenSearchUtil.class);
+        releaseStatsAggregator = new ReleaseStatsAggregator();
+    }
+
+    @Test
+    void testIssuesSearchRequest() {
+        SearchRequest request = releaseStatsAggregator.issuesSearchRequest("2.18.0", List.of("repo1", "repo2"));
+
+        assertEquals("github_issues", request.indices()[0]);
+        assertEquals(0, request.source().size());
+        String source = request.source().toString();
+        assertTrue(source.contains("\"repositories\":{\"terms\":{\"field\":\"repository.keyword\",\"size\":2"));
+        assertTrue(source.contains("\"issues_open\""));
+        assertTrue(source.contains("\"autocut_issues_open\""));
+        assertTrue(source.contains("\"issues_closed\""));
+        assertTrue(source.contains("[RELEASE] Release version 2.18.0"));
+        assertTrue(source.contains("\"release_issue_hit\":{\"top_hits\""));
+        assertTrue(source.contains("\"issue_assignees.keyword\""));
+    }
+
+    @Test
+    void testPullsSearchRequest() {
+        SearchRequest request = releaseStatsAggregator.pullsSearchRequest("2.18.0", List.of("repo1"));
+
+        assertEquals("github_pulls", request.indices()[0]);
+        assertEquals(0, request.source().size());
+        String source = request.source().toString();
+        assertTrue(source.contains("\"v2.18.0\""));
+        assertTrue(source.contains("\"pulls_open\""));
+        assertTrue(source.contains("\"pulls_closed\""));
+        assertTrue(source.contains("[AUTO] Increment version to"));
+    }
+
+    @Test
+    void testAggregate() {
+        SearchResponse issuesResponse = response(Map.of("repo1", Map.of(
+                "issues_open", 10L, "autocut_issues_open", 5L, "issues_closed", 20L, "release_issue", 1L)));
+        SearchResponse pullsResponse = response(Map.of("repo1", Map.of(
+                "pulls_open", 3L, "pulls_closed", 8L, "version_increment", 1L)));
+        when(openSearchUtil.searchBatch(anyList())).thenReturn(List.of(
+                new MultiSearchResponse.Item(issuesResponse, null),
+                new MultiSearchResponse.Item(pullsResponse, null)));
+        Map<String, Set<String>> reposByVersion = new LinkedHashMap<>();
+        reposByVersion.put("2.18.0", Set.of("repo1", "repo2"));
+
+        Map<String, Map<String, ReleaseRepoStats>> stats = releaseStatsAggregator.aggregate(reposByVersion, openSearchUtil);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SearchRequest>> captor = ArgumentCaptor.forClass(List.class);
+        verify(openSearchUtil, times(1)).searchBatch(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        assertEquals("github_issues", captor.getValue().get(0).indices()[0]);
+        assertEquals("github_pulls", captor.getValue().get(1).indices()[0]);
+        verify(openSearchUtil, never()).search(Mockito.any());
+
+        ReleaseRepoStats repo1 = stats.get("2.18.0").get("repo1");
+        assertEquals(10L, repo1.getIssuesOpen());
+        assertEquals(5L, repo1.getAutocutIssuesOpen());
+        assertEquals(20L, repo1.getIssuesClosed());
+        assertEquals(3L, repo1.getPullsOpen());
+        assertEquals(8L, repo1.getPullsClosed());
+        assertArrayEquals(new String[]{"owner1", "owner2"}, repo1.getReleaseOwners());
+        assertEquals("https://github.com/opensearch-project/repo1/issues/1", repo1.getReleaseIssue());
+        assertTrue(repo1.isVersionIncrementMerged());
+
+        ReleaseRepoStats repo2 = stats.get("2.18.0").get("repo2");
+        assertEquals(0L, repo2.getIssuesOpen());
+        assertEquals(0L, repo2.getPullsClosed());
+        assertEquals(0, repo2.getReleaseOwners().length);
+        assertNull(repo2.getReleaseIssue());
+        assertFalse(repo2.isVersionIncrementMerged());
+    }
+
+    @Test
+    void testAggregateNoVersions() {
+        assertTrue(releaseStatsAggregator.aggregate(Map.of(), openSearchUtil).isEmpty());
+        verify(openSearchUtil, never()).searchBatch(anyList());
+    }
+
+    @Test
+    void testAggregateFailure() {
+        when(openSearchUtil.searchBatch(anyList())).thenReturn(List.of(
+                new MultiSearchResponse.Item(null, new RuntimeException("failed")),
+                new MultiSearchResponse.Item(null, new RuntimeException("failed"))));
+
+        assertThrows(RuntimeException.class,
+                () -> releaseStatsAggregator.aggregate(Map.of("2.18.0", List.of("repo1")), openSearchUtil));
+    }
+
+    /*
+    Builds a response for one index: per repository, the doc count of each named filter. The release
+    issue filter is given two assignees and a hit whenever it matched.
+     */
+    private static SearchResponse response(Map<String, Map<String, Long>> docCounts) {
+        List<Terms.Bucket> repoBuckets = new ArrayList<>();
+        docCounts.forEach((repo, counts) -> {
+            Filters filters = mock(Filters.class);
+            counts.forEach((key, count) -> {
+                Filters.Bucket bucket = mock(Filters.Bucket.class);
+                when(bucket.getDocCount()).thenReturn(count);
+                if (key.equals("release_issue")) {
+                    Aggregations releaseIssueAggregations = releaseIssueAggregations(repo);
+                    when(bucket.getAggregations()).thenReturn(releaseIssueAggregations);
+                }
+                doReturn(bucket).when(filters).getBucketByKey(key);
+            });
+            Aggregations repoAggregations = mock(Aggregations.class);
+            when(repoAggregations.get("release")).thenReturn(filters);
+            Terms.Bucket repoBucket = mock(Terms.Bucket.class);
+            when(repoBucket.getKeyAsString()).thenReturn(repo);
+            when(repoBucket.getAggregations()).thenReturn(repoAggregations);
+            repoBuckets.add(repoBucket);
+        });
+        Terms repositories = mock(Terms.class);
+        doReturn(repoBuckets).when(repositories).getBuckets();
+        Aggregations aggregations = mock(Aggregations.class);
+        when(aggregations.get("repositories")).thenReturn(repositories);
+        SearchResponse searchResponse = mock(SearchResponse.class);
+        when(searchResponse.status()).thenReturn(RestStatus.OK);
+        when(searchResponse.getAggregations()).thenReturn(aggregations);
+        return searchResponse;
+    }
+
+    private static Aggregations releaseIssueAggregations(String repo) {
+        List<Terms.Bucket> assigneeBuckets = new ArrayList<>();
+        for (String owner : new String[]{"owner1", "owner2"}) {
+            Terms.Bucket assigneeBucket = mock(Terms.Bucket.class);
+            when(assigneeBucket.getKeyAsString()).thenReturn(owner);
+            assigneeBuckets.add(assigneeBucket);
+        }
+        Terms assignees = mock(Terms.class);
+        doReturn(assigneeBuckets).when(assignees).getBuckets();
+        SearchHit hit = mock(SearchHit.class);
+        when(hit.getSourceAsMap()).thenReturn(Map.of("html_url", "https://github.com/opensearch-project/" + repo + "/issues/1"));
+        SearchHits hits = mock(SearchHits.class);
+        when(hits.getHits()).thenReturn(new SearchHit[]{hit});
+        TopHits topHits = mock(TopHits.class);
+        when(topHits.getHits()).thenReturn(hits);
+        Aggregations aggregations = mock(Aggregations.class);
+        when(aggregations.get("issue_assignees")).thenReturn(assignees);
+        when(aggregations.get("release_issue_hit")).thenReturn(topHits);
+        return aggregations;
+    }
+}
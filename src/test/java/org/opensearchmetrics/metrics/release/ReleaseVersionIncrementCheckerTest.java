@@ -13,13 +13,15 @@ import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
-import org.opensearch.action.search.SearchResponse;
-import org.opensearch.search.SearchHit;
-import org.opensearch.search.SearchHits;
-import org.opensearchmetrics.util.OpenSearchUtil;
+import org.opensearchmetrics.util.CachedResponse;
+import org.opensearchmetrics.util.HttpUtil;
 
 import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -28,9 +30,39 @@ public class ReleaseVersionIncrementCheckerTest {
     void testReleaseVersionIncrement_OpenSearch() {
         String releaseVersion = "1.0.0";
         String branch = "main";
-        ReleaseVersionIncrementChecker checker = new ReleaseVersionIncrementChecker();
-        boolean result = checker.releaseVersionIncrement(releaseVersion, "OpenSearch", branch, null, null);
-        assertFalse(result);
+        HttpUtil httpUtil = Mockito.mock(HttpUtil.class);
+        CompletableFuture<CachedResponse> response = stringResponse(HttpUtil.HTTP_NOT_FOUND, "");
+        Mockito.when(httpUtil.getCachedAsync(Mockito.anyString())).thenReturn(response);
+        ReleaseVersionIncrementChecker checker = new ReleaseVersionIncrementChecker(httpUtil);
+        Optional<Boolean> result = checker.releaseVersionIncrementAsync(releaseVersion, "OpenSearch", branch, null, new CompletableFuture<>()).join();
+        assertEquals(Optional.of(false), result);
+    }
+
+    @Test
+    void testCheckOpenSearchVersion() {
+        HttpUtil httpUtil = Mockito.mock(HttpUtil.class);
+        CompletableFuture<CachedResponse> response = stringResponse(HttpUtil.HTTP_OK, "opensearch     = 2.13.0\nlucene = 9.10.0\n");
+        Mockito.when(httpUtil.getCachedAsync(Mockito.anyString())).thenReturn(response);
+        ReleaseVersionIncrementChecker checker = new ReleaseVersionIncrementChecker(httpUtil);
+        assertTrue(checker.checkOpenSearchVersion("2.13.0", "2.x"));
+        assertFalse(checker.checkOpenSearchVersion("2.14.0", "2.x"));
+    }
+
+    @Test
+    void testCheckOpenSearchVersion_RequestFails() {
+        HttpUtil httpUtil = Mockito.mock(HttpUtil.class);
+        Mockito.when(httpUtil.getCachedAsync(Mockito.anyString())).thenReturn(CompletableFuture.failedFuture(new HttpTimeoutException("timed out")));
+        ReleaseVersionIncrementChecker checker = new ReleaseVersionIncrementChecker(httpUtil);
+        assertFalse(checker.checkOpenSearchVersion("2.13.0", "2.x"));
+        assertEquals(Optional.empty(), checker.checkOpenSearchVersionAsync("2.13.0", "2.x").join());
+    }
+
+    @Test
+    void testCheckOpenSearchVersion_ServerError() {
+        HttpUtil httpUtil = Mockito.mock(HttpUtil.class);
+        Mockito.when(httpUtil.getCachedAsync(Mockito.anyString())).thenReturn(stringResponse(503, ""));
+        ReleaseVersionIncrementChecker checker = new ReleaseVersionIncrementChecker(httpUtil);
+        assertEquals(Optional.empty(), checker.checkOpenSearchVersionAsync("2.13.0", "2.x").join());
     }
 
     @Test
@@ -43,27 +75,30 @@ public class ReleaseVersionIncrementCheckerTest {
         ObjectNode objectNode = nodeFactory.objectNode();
         objectNode.put("version", releaseVersion);
         Mockito.when(objectMapper.readTree(Mockito.anyString())).thenReturn(objectNode);
-        ReleaseVersionIncrementChecker checker = new ReleaseVersionIncrementChecker();
-        boolean result = checker.releaseVersionIncrement(releaseVersion, repo, branch, objectMapper, null);
-        assertTrue(result);
+        HttpUtil httpUtil = Mockito.mock(HttpUtil.class);
+        CompletableFuture<CachedResponse> response = stringResponse(HttpUtil.HTTP_OK, "{\"version\": \"1.0.0\"}");
+        Mockito.when(httpUtil.getCachedAsync(Mockito.anyString())).thenReturn(response);
+        ReleaseVersionIncrementChecker checker = new ReleaseVersionIncrementChecker(httpUtil);
+        Optional<Boolean> result = checker.releaseVersionIncrementAsync(releaseVersion, repo, branch, objectMapper, new CompletableFuture<>()).join();
+        assertEquals(Optional.of(true), result);
     }
 
+    @Test
+    void testReleaseVersionIncrement_PrecomputedGithubPulls() {
+        HttpUtil httpUtil = Mockito.mock(HttpUtil.class);
+        ReleaseVersionIncrementChecker checker = new ReleaseVersionIncrementChecker(httpUtil);
+        CompletableFuture<Boolean> versionIncrementMerged = new CompletableFuture<>();
 
+        CompletableFuture<Optional<Boolean>> result = checker.releaseVersionIncrementAsync("1.0.0", "some-repo", "main",
+                Mockito.mock(ObjectMapper.class), versionIncrementMerged);
+        versionIncrementMerged.complete(true);
 
-    @Test
-    void testReleaseVersionIncrement_GithubPulls() {
-        String releaseVersion = "1.0.0";
-        String repo = "some-repo";
-        ObjectMapper objectMapper = Mockito.mock(ObjectMapper.class);
-        OpenSearchUtil openSearchUtil = Mockito.mock(OpenSearchUtil.class);
-        SearchResponse searchResponse = Mockito.mock(SearchResponse.class);
-        SearchHits searchHits = Mockito.mock(SearchHits.class);
-        Mockito.when(searchHits.getHits()).thenReturn(new SearchHit[0]);
-        Mockito.when(searchResponse.getHits()).thenReturn(searchHits);
-        Mockito.when(openSearchUtil.search(Mockito.any())).thenReturn(searchResponse);
-        ReleaseVersionIncrementChecker checker = new ReleaseVersionIncrementChecker();
-        boolean result = checker.releaseVersionIncrement(releaseVersion, repo, "main", objectMapper, openSearchUtil);
-        assertFalse(result);
+        assertEquals(Optional.of(true), result.join());
+        Mockito.verifyNoInteractions(httpUtil);
+    }
+
+    private static CompletableFuture<CachedResponse> stringResponse(int statusCode, String body) {
+        return CompletableFuture.completedFuture(new CachedResponse("https://example.com", statusCode, body, null, null));
     }
 
 }
@@ -0,0 +1,37 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.model.maintainer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RepoEventStatsTest {
+
+    @Test
+    public void testEventCounts() {
+        RepoEventStats repoEventStats = new RepoEventStats(Map.of("repo1", 50L, "repo2", 100L, "repo3", 10L));
+
+        assertEquals(100L, repoEventStats.getMostEventCount());
+        assertEquals(10L, repoEventStats.getLeastEventCount());
+        assertEquals(50L, repoEventStats.getEventCount("repo1"));
+        assertEquals(0L, repoEventStats.getEventCount("quietRepo"));
+    }
+
+    @Test
+    public void testNoEvents() {
+        RepoEventStats repoEventStats = new RepoEventStats(Map.of());
+
+        assertThrows(RuntimeException.class, repoEventStats::getMostEventCount);
+        assertThrows(RuntimeException.class, repoEventStats::getLeastEventCount);
+    }
+}
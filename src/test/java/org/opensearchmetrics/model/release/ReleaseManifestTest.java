@@ -0,0 +1,43 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.model.release;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ReleaseManifestTest {
+
+    @Test
+    public void testRepositories() {
+        Map<String, String> repoComponents = new LinkedHashMap<>();
+        repoComponents.put("OpenSearch", "OpenSearch");
+        repoComponents.put("common-utils", "commonUtils");
+        ReleaseManifest manifest = new ReleaseManifest("2.13.0", repoComponents, "hash");
+
+        repoComponents.put("job-scheduler", "jobScheduler");
+
+        assertEquals("2.13.0", manifest.getVersion());
+        assertEquals("hash", manifest.getContentHash());
+        assertEquals(List.of("OpenSearch", "common-utils"), List.copyOf(manifest.getRepositories()));
+    }
+
+    @Test
+    public void testImmutable() {
+        ReleaseManifest manifest = new ReleaseManifest("2.13.0", Map.of("OpenSearch", "OpenSearch"), "hash");
+
+        assertThrows(UnsupportedOperationException.class, () -> manifest.getRepoComponents().put("repo", "component"));
+        assertThrows(UnsupportedOperationException.class, () -> manifest.getRepositories().remove("OpenSearch"));
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.opensearch.action.DocWriteRequest;
+import org.opensearch.action.bulk.BulkItemResponse;
+import org.opensearch.action.bulk.BulkRequest;
+import org.opensearch.action.bulk.BulkResponse;
+import org.opensearch.action.index.IndexRequest;
+import org.opensearch.action.index.IndexResponse;
+import org.opensearch.client.RestHighLevelClient;
+import org.opensearch.common.xcontent.XContentType;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.core.rest.RestStatus;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+public class BulkIndexerTest {
+
+    @Mock
+    private RestHighLevelClient client;
+
+    private BulkIndexer bulkIndexer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        bulkIndexer = new BulkIndexer(client, 1);
+    }
+
+    private static BulkRequest bulkRequest(int numberOfDocs) {
+        BulkRequest bulkRequest = new BulkRequest();
+        for (int i = 0; i < numberOfDocs; i++) {
+            bulkRequest.add(new IndexRequest().index("some_index").id("doc_" + i).source("{\"key\":" + i + "}", XContentType.JSON));
+        }
+        return bulkRequest;
+    }
+
+    private static BulkItemResponse success(int position) {
+        return new BulkItemResponse(position, DocWriteRequest.OpType.INDEX, Mockito.mock(IndexResponse.class));
+    }
+
+    private static BulkItemResponse failure(int position, RestStatus status) {
+        return new BulkItemResponse(position, DocWriteRequest.OpType.INDEX,
+                new BulkItemResponse.Failure("some_index", "doc_" + position, new RuntimeException("failed"), status));
+    }
+
+    /*
+    Answers every bulkAsync call with the next responder in the queue, applied to the request it received.
+     */
+    private void respondWith(Deque<Function<BulkRequest, BulkResponse>> responders) {
+        doAnswer(invocation -> {
+            BulkRequest request = invocation.getArgument(0);
+            ActionListener<BulkResponse> listener = invocation.getArgument(2);
+            listener.onResponse(responders.poll().apply(request));
+            return null;
+        }).when(client).bulkAsync(any(BulkRequest.class), any(), any());
+    }
+
+    @Test
+    void WHEN_all_items_succeed_THEN_complete_without_retry() throws Exception {
+        Deque<Function<BulkRequest, BulkResponse>> responders = new ArrayDeque<>();
+        responders.add(request -> new BulkResponse(new BulkItemResponse[]{success(0), success(1)}, 1));
+        respondWith(responders);
+
+        bulkIndexer.submit(bulkRequest(2)).get(5, TimeUnit.SECONDS);
+
+        verify(client, times(1)).bulkAsync(any(), any(), any());
+    }
+
+    @Test
+    void WHEN_items_rejected_THEN_retry_only_rejected_items_AND_shrink() throws Exception {
+        Deque<Function<BulkRequest, BulkResponse>> responders = new ArrayDeque<>();
+        responders.add(request -> new BulkResponse(new BulkItemResponse[]{
+                success(0), failure(1, RestStatus.TOO_MANY_REQUESTS), success(2)}, 1));
+        responders.add(request -> new BulkResponse(new BulkItemResponse[]{success(0)}, 1));
+        respondWith(responders);
+
+        bulkIndexer.submit(bulkRequest(3)).get(5, TimeUnit.SECONDS);
+
+        ArgumentCaptor<BulkRequest> captor = ArgumentCaptor.forClass(BulkRequest.class);
+        verify(client, times(2)).bulkAsync(captor.capture(), any(), any());
+        BulkRequest retried = captor.getAllValues().get(1);
+        assertEquals(1, retried.numberOfActions());
+        assertEquals("doc_1", retried.requests().get(0).id());
+        assertEquals(BulkIndexer.INITIAL_IN_FLIGHT / 2, bulkIndexer.getInFlightLimit());
+        assertEquals(BulkIndexer.INITIAL_BATCH_BYTES / 2, bulkIndexer.getBatchBytes());
+    }
+
+    @Test
+    void WHEN_items_fail_permanently_THEN_do_not_retry() throws Exception {
+        Deque<Function<BulkRequest, BulkResponse>> responders = new ArrayDeque<>();
+        responders.add(request -> new BulkResponse(new BulkItemResponse[]{success(0), failure(1, RestStatus.BAD_REQUEST)}, 1));
+        respondWith(responders);
+
+        bulkIndexer.submit(bulkRequest(2)).get(5, TimeUnit.SECONDS);
+
+        verify(client, times(1)).bulkAsync(any(), any(), any());
+        assertEquals(BulkIndexer.INITIAL_IN_FLIGHT, bulkIndexer.getInFlightLimit());
+    }
+
+    @Test
+    void WHEN_items_keep_being_rejected_THEN_fail() {
+        doAnswer(invocation -> {
+            BulkRequest request = invocation.getArgument(0);
+            ActionListener<BulkResponse> listener = invocation.getArgument(2);
+            BulkItemResponse[] items = new BulkItemResponse[request.numberOfActions()];
+            for (int i = 0; i < items.length; i++) {
+                items[i] = failure(i, RestStatus.TOO_MANY_REQUESTS);
+            }
+            listener.onResponse(new BulkResponse(items, 1));
+            return null;
+        }).when(client).bulkAsync(any(BulkRequest.class), any(), any());
+
+        CompletableFuture<Void> result = bulkIndexer.submit(bulkRequest(2));
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertTrue(exception.getCause().getMessage().contains("rejected 2 documents"));
+        assertEquals(BulkIndexer.MIN_IN_FLIGHT, bulkIndexer.getInFlightLimit());
+        assertEquals(BulkIndexer.MIN_BATCH_BYTES, bulkIndexer.getBatchBytes());
+    }
+
+    @Test
+    void WHEN_request_fails_with_io_error_THEN_retry_whole_request() throws Exception {
+        List<Integer> attempts = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            BulkRequest request = invocation.getArgument(0);
+            ActionListener<BulkResponse> listener = invocation.getArgument(2);
+            attempts.add(request.numberOfActions());
+            if (attempts.size() == 1) {
+                listener.onFailure(new IOException("connection reset"));
+            } else {
+                listener.onResponse(new BulkResponse(new BulkItemResponse[]{success(0), success(1)}, 1));
+            }
+            return null;
+        }).when(client).bulkAsync(any(BulkRequest.class), any(), any());
+
+        bulkIndexer.submit(bulkRequest(2)).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of(2, 2), attempts);
+    }
+
+    @Test
+    void WHEN_in_flight_limit_reached_THEN_submit_blocks_until_a_slot_frees() throws Exception {
+        List<ActionListener<BulkResponse>> listeners = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            listeners.add(invocation.getArgument(2));
+            return null;
+        }).when(client).bulkAsync(any(BulkRequest.class), any(), any());
+        for (int i = 0; i < BulkIndexer.INITIAL_IN_FLIGHT; i++) {
+            bulkIndexer.submit(bulkRequest(1));
+        }
+
+        CompletableFuture<CompletableFuture<Void>> blocked = CompletableFuture.supplyAsync(() -> bulkIndexer.submit(bulkRequest(1)));
+        Thread.sleep(200);
+        assertFalse(blocked.isDone());
+
+        listeners.get(0).onResponse(new BulkResponse(new BulkItemResponse[]{success(0)}, 1));
+        blocked.get(5, TimeUnit.SECONDS);
+        verify(client, times(BulkIndexer.INITIAL_IN_FLIGHT + 1)).bulkAsync(any(), any(), any());
+    }
+
+    @Test
+    void WHEN_rounds_are_clean_THEN_grow_concurrency_AND_batch_size() throws Exception {
+        Deque<Function<BulkRequest, BulkResponse>> responders = new ArrayDeque<>();
+        for (int i = 0; i < BulkIndexer.INITIAL_IN_FLIGHT; i++) {
+            responders.add(request -> new BulkResponse(new BulkItemResponse[]{success(0)}, 1));
+        }
+        respondWith(responders);
+
+        for (int i = 0; i < BulkIndexer.INITIAL_IN_FLIGHT; i++) {
+            bulkIndexer.submit(bulkRequest(1)).get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(BulkIndexer.INITIAL_IN_FLIGHT + 1, bulkIndexer.getInFlightLimit());
+        assertTrue(bulkIndexer.getBatchBytes() > BulkIndexer.INITIAL_BATCH_BYTES);
+    }
+
+    @Test
+    void WHEN_backoff_THEN_bounded_by_exponential_ceiling() {
+        for (int attempt = 0; attempt < 5; attempt++) {
+            long backoff = bulkIndexer.backoffMillis(attempt);
+            assertTrue(backoff >= 0 && backoff <= (1L << attempt));
+        }
+    }
+}
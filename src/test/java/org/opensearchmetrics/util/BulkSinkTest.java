@@ -0,0 +1,155 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.opensearch.action.bulk.BulkRequest;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+public class BulkSinkTest {
+
+    @Mock
+    private BulkIndexer bulkIndexer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(bulkIndexer.submit(any(BulkRequest.class))).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    void WHEN_batch_is_full_THEN_submit_immediately() {
+        when(bulkIndexer.isFull(any(BulkRequest.class))).thenAnswer(invocation ->
+                ((BulkRequest) invocation.getArgument(0)).numberOfActions() >= 2);
+        BulkSink bulkSink = new BulkSink(bulkIndexer, 1, TimeUnit.HOURS);
+
+        bulkSink.add("index_a", "1", "{}");
+        verify(bulkIndexer, never()).submit(any());
+        bulkSink.add("index_b", "2", "{}");
+
+        ArgumentCaptor<BulkRequest> captor = ArgumentCaptor.forClass(BulkRequest.class);
+        verify(bulkIndexer, times(1)).submit(captor.capture());
+        assertEquals(2, captor.getValue().numberOfActions());
+        assertEquals("index_a", captor.getValue().requests().get(0).index());
+        assertEquals("index_b", captor.getValue().requests().get(1).index());
+        bulkSink.close();
+    }
+
+    @Test
+    void WHEN_flush_interval_elapses_THEN_submit_partial_batch() {
+        BulkSink bulkSink = new BulkSink(bulkIndexer, 50, TimeUnit.MILLISECONDS);
+
+        bulkSink.add("index_a", "1", "{}");
+
+        verify(bulkIndexer, timeout(5000).times(1)).submit(any());
+        bulkSink.close();
+    }
+
+    @Test
+    void WHEN_close_THEN_flush_remaining_documents() {
+        BulkSink bulkSink = new BulkSink(bulkIndexer, 1, TimeUnit.HOURS);
+        bulkSink.add("index_a", "1", "{}");
+        bulkSink.add("index_a", "2", "{}");
+
+        bulkSink.close();
+
+        ArgumentCaptor<BulkRequest> captor = ArgumentCaptor.forClass(BulkRequest.class);
+        verify(bulkIndexer, times(1)).submit(captor.capture());
+        assertEquals(2, captor.getValue().numberOfActions());
+        assertEquals(2, bulkSink.getDocumentCount());
+    }
+
+    @Test
+    void WHEN_close_THEN_wait_for_outstanding_batches() throws Exception {
+        CompletableFuture<Void> outstanding = new CompletableFuture<>();
+        when(bulkIndexer.submit(any(BulkRequest.class))).thenReturn(outstanding);
+        BulkSink bulkSink = new BulkSink(bulkIndexer, 1, TimeUnit.HOURS);
+        bulkSink.add("index_a", "1", "{}");
+
+        CompletableFuture<Void> closing = CompletableFuture.runAsync(bulkSink::close);
+        Thread.sleep(200);
+        assertFalse(closing.isDone());
+
+        outstanding.complete(null);
+        closing.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void WHEN_close_during_timed_flush_THEN_wait_for_its_batch() throws Exception {
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> outstanding = new CompletableFuture<>();
+        when(bulkIndexer.submit(any(BulkRequest.class))).thenAnswer(invocation -> {
+            flushing.countDown();
+            release.await();
+            return outstanding;
+        });
+        BulkSink bulkSink = new BulkSink(bulkIndexer, 50, TimeUnit.MILLISECONDS);
+        bulkSink.add("index_a", "1", "{}");
+        assertTrue(flushing.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Void> closing = CompletableFuture.runAsync(bulkSink::close);
+        Thread.sleep(200);
+        assertFalse(closing.isDone());
+
+        release.countDown();
+        Thread.sleep(200);
+        assertFalse(closing.isDone());
+
+        outstanding.complete(null);
+        closing.get(5, TimeUnit.SECONDS);
+        verify(bulkIndexer, times(1)).submit(any());
+    }
+
+    @Test
+    void WHEN_batch_fails_THEN_close_throws() {
+        CompletableFuture<Void> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new RuntimeException("rejected"));
+        when(bulkIndexer.submit(any(BulkRequest.class))).thenReturn(failed);
+        BulkSink bulkSink = new BulkSink(bulkIndexer, 1, TimeUnit.HOURS);
+        bulkSink.add("index_a", "1", "{}");
+
+        RuntimeException exception = assertThrows(RuntimeException.class, bulkSink::close);
+        assertEquals("Bulk indexing failed", exception.getMessage());
+    }
+
+    @Test
+    void WHEN_timed_flush_fails_to_submit_THEN_close_throws() {
+        when(bulkIndexer.submit(any(BulkRequest.class))).thenThrow(new RuntimeException("Timed out waiting for a bulk slot"));
+        BulkSink bulkSink = new BulkSink(bulkIndexer, 50, TimeUnit.MILLISECONDS);
+        bulkSink.add("index_a", "1", "{}");
+        verify(bulkIndexer, timeout(5000).times(1)).submit(any());
+
+        RuntimeException exception = assertThrows(RuntimeException.class, bulkSink::close);
+        assertEquals("Bulk indexing failed", exception.getMessage());
+        assertEquals("Timed out waiting for a bulk slot", exception.getCause().getMessage());
+    }
+
+    @Test
+    void WHEN_add_after_close_THEN_throw() {
+        BulkSink bulkSink = new BulkSink(bulkIndexer, 1, TimeUnit.HOURS);
+        bulkSink.close();
+
+        assertThrows(IllegalStateException.class, () -> bulkSink.add("index_a", "1", "{}"));
+        verify(bulkIndexer, never()).submit(any());
+    }
+}
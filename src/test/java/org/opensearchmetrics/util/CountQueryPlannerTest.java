@@ -0,0 +1,52 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.util;
+
+import org.junit.jupiter.api.Test;
+import org.opensearch.index.query.BoolQueryBuilder;
+import org.opensearch.index.query.QueryBuilders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CountQueryPlannerTest {
+
+    private static BoolQueryBuilder metricQuery() {
+        BoolQueryBuilder boolQueryBuilder = QueryBuilders.boolQuery();
+        boolQueryBuilder.must(QueryBuilders.matchQuery("repository.keyword", "repo1"));
+        boolQueryBuilder.must(QueryBuilders.matchQuery("issue_pull_request", false));
+        boolQueryBuilder.must(QueryBuilders.matchQuery("comments", 0));
+        boolQueryBuilder.must(QueryBuilders.matchQuery("sender", "some user"));
+        boolQueryBuilder.must(QueryBuilders.boolQuery().mustNot(QueryBuilders.matchQuery("state.keyword", "closed")));
+        boolQueryBuilder.mustNot(QueryBuilders.termsQuery("user_login.keyword", "dependabot[bot]"));
+        return boolQueryBuilder;
+    }
+
+    @Test
+    void WHEN_toFilterContext_THEN_must_becomes_filter_AND_exact_matches_become_terms() {
+        BoolQueryBuilder expected = QueryBuilders.boolQuery()
+                .filter(QueryBuilders.termQuery("repository.keyword", "repo1"))
+                .filter(QueryBuilders.termQuery("issue_pull_request", false))
+                .filter(QueryBuilders.termQuery("comments", 0))
+                .filter(QueryBuilders.matchQuery("sender", "some user"))
+                .filter(QueryBuilders.boolQuery().mustNot(QueryBuilders.termQuery("state.keyword", "closed")))
+                .mustNot(QueryBuilders.termsQuery("user_login.keyword", "dependabot[bot]"));
+
+        assertEquals(expected, CountQueryPlanner.toFilterContext(metricQuery()));
+    }
+
+    @Test
+    void WHEN_toFilterContext_THEN_fuzzy_match_is_kept() {
+        BoolQueryBuilder query = QueryBuilders.boolQuery()
+                .must(QueryBuilders.matchQuery("title.keyword", "release").fuzziness("AUTO"));
+
+        BoolQueryBuilder planned = CountQueryPlanner.toFilterContext(query);
+
+        assertEquals(query.must().get(0), planned.filter().get(0));
+    }
+}
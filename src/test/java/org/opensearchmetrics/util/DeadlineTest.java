@@ -0,0 +1,57 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.util;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.google.common.base.Ticker;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DeadlineTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    };
+
+    @Test
+    void WHEN_time_passes_THEN_deadline_is_passed() {
+        Deadline deadline = new Deadline(ticker, Duration.ofSeconds(10));
+
+        assertFalse(deadline.isPassed());
+        assertEquals(Duration.ofSeconds(10), deadline.remaining());
+        nanos.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertTrue(deadline.isPassed());
+        assertEquals(Duration.ZERO, deadline.remaining());
+    }
+
+    @Test
+    void WHEN_less_time_left_than_reserve_THEN_deadline_is_passed() {
+        Context context = mock(Context.class);
+        when(context.getRemainingTimeInMillis()).thenReturn(60_000);
+
+        assertTrue(Deadline.of(context, Duration.ofMinutes(2)).isPassed());
+    }
+
+    @Test
+    void WHEN_no_context_THEN_deadline_is_not_passed() {
+        assertFalse(Deadline.of(null, Duration.ofMinutes(2)).isPassed());
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class FileStateStoreTest {
+
+    @TempDir
+    Path stateDirectory;
+
+    @Test
+    void WHEN_put_THEN_get_returns_value() {
+        FileStateStore stateStore = new FileStateStore(stateDirectory);
+
+        assertEquals(Optional.empty(), stateStore.get("a/b"));
+        stateStore.put("a/b", "first");
+        stateStore.put("a/b", "second");
+
+        assertEquals(Optional.of("second"), stateStore.get("a/b"));
+        assertEquals(Optional.of("second"), new FileStateStore(stateDirectory).get("a/b"));
+    }
+
+    @Test
+    void WHEN_delete_THEN_get_returns_empty() {
+        FileStateStore stateStore = new FileStateStore(stateDirectory);
+        stateStore.put("key", "value");
+
+        stateStore.delete("key");
+        stateStore.delete("key");
+
+        assertEquals(Optional.empty(), stateStore.get("key"));
+    }
+
+    @Test
+    void WHEN_key_escapes_directory_THEN_throw() {
+        FileStateStore stateStore = new FileStateStore(stateDirectory);
+
+        assertThrows(IllegalArgumentException.class, () -> stateStore.put("../outside", "value"));
+    }
+}
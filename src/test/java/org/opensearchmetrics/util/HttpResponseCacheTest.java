@@ -0,0 +1,175 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the conditional-request paths against a local stand-in for raw.githubusercontent.com.
+ */
+public class HttpResponseCacheTest {
+
+    @TempDir
+    Path stateDirectory;
+
+    private HttpServer server;
+    private String url;
+    private volatile String content = "version: 1";
+    private final AtomicInteger bodiesSent = new AtomicInteger();
+    private final List<String> ifNoneMatch = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/manifest.yml", exchange -> {
+            String etag = "\"" + Integer.toHexString(content.hashCode()) + "\"";
+            String requestEtag = exchange.getRequestHeaders().getFirst("If-None-Match");
+            ifNoneMatch.add(requestEtag);
+            exchange.getResponseHeaders().add("ETag", etag);
+            if (etag.equals(requestEtag)) {
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                byte[] body = content.getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+                bodiesSent.incrementAndGet();
+            }
+            exchange.close();
+        });
+        server.createContext("/missing.md", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private HttpUtil newHttpUtil() {
+        HttpResponseCache cache = new HttpResponseCache(new FileStateStore(stateDirectory), new ObjectMapper());
+        return new HttpUtil(HttpClient.newHttpClient(), cache, 4, Duration.ofSeconds(10));
+    }
+
+    @Test
+    void WHEN_unchanged_THEN_revalidate_without_body_or_parse() {
+        HttpUtil httpUtil = newHttpUtil();
+        AtomicInteger parses = new AtomicInteger();
+
+        CachedResponse miss = httpUtil.getCachedAsync(url + "/manifest.yml").join();
+        String parsed = miss.parse("upper", body -> {
+            parses.incrementAndGet();
+            return body.toUpperCase();
+        });
+        CachedResponse hit = httpUtil.getCachedAsync(url + "/manifest.yml").join();
+
+        assertSame(miss, hit);
+        assertEquals("VERSION: 1", hit.parse("upper", body -> {
+            parses.incrementAndGet();
+            return body.toUpperCase();
+        }));
+        assertEquals("VERSION: 1", parsed);
+        assertEquals(1, bodiesSent.get());
+        assertEquals(1, parses.get());
+        assertNull(ifNoneMatch.get(0));
+        assertEquals(miss.getEtag(), ifNoneMatch.get(1));
+    }
+
+    @Test
+    void WHEN_changed_THEN_replace_cached_response() {
+        HttpUtil httpUtil = newHttpUtil();
+
+        CachedResponse first = httpUtil.getCachedAsync(url + "/manifest.yml").join();
+        content = "version: 2";
+        CachedResponse second = httpUtil.getCachedAsync(url + "/manifest.yml").join();
+        CachedResponse third = httpUtil.getCachedAsync(url + "/manifest.yml").join();
+
+        assertEquals("version: 1", first.getBody());
+        assertEquals("version: 2", second.getBody());
+        assertSame(second, third);
+        assertEquals(2, bodiesSent.get());
+    }
+
+    @Test
+    void WHEN_cold_container_THEN_revalidate_from_state_store() {
+        newHttpUtil().getCachedAsync(url + "/manifest.yml").join();
+
+        // A new cache has an empty memory tier, as after a cold start.
+        CachedResponse revalidated = newHttpUtil().getCachedAsync(url + "/manifest.yml").join();
+
+        assertEquals("version: 1", revalidated.getBody());
+        assertTrue(revalidated.isOk());
+        assertEquals(1, bodiesSent.get());
+    }
+
+    @Test
+    void WHEN_response_is_stored_THEN_state_store_write_runs_off_the_client_threads() {
+        List<String> writerThreads = Collections.synchronizedList(new ArrayList<>());
+        StateStore stateStore = new StateStore() {
+            @Override
+            public Optional<String> get(String key) {
+                return Optional.empty();
+            }
+
+            @Override
+            public void put(String key, String value) {
+                writerThreads.add(Thread.currentThread().getName());
+            }
+
+            @Override
+            public void delete(String key) {
+            }
+        };
+        HttpResponseCache cache = new HttpResponseCache(stateStore, new ObjectMapper());
+        HttpUtil httpUtil = new HttpUtil(HttpClient.newHttpClient(), cache, 4, Duration.ofSeconds(10));
+
+        httpUtil.getCachedAsync(url + "/manifest.yml").join();
+
+        assertEquals(1, writerThreads.size());
+        assertTrue(writerThreads.get(0).startsWith("http-cache-writer-"), writerThreads.get(0));
+    }
+
+    @Test
+    void WHEN_not_found_THEN_return_status_and_do_not_cache() {
+        HttpUtil httpUtil = newHttpUtil();
+
+        CachedResponse missing = httpUtil.getCachedAsync(url + "/missing.md").join();
+
+        assertEquals(HttpUtil.HTTP_NOT_FOUND, missing.getStatusCode());
+        assertEquals(0, stateDirectory.toFile().list().length);
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SuppressWarnings("unchecked")
+public class HttpUtilTest {
+
+    @Mock
+    private HttpClient httpClient;
+
+    @Mock
+    private HttpResponse<Object> response;
+
+    private HttpUtil httpUtil;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        httpUtil = new HttpUtil(httpClient, 2, Duration.ofSeconds(30));
+    }
+
+    @Test
+    void WHEN_head_THEN_return_status_code() throws IOException {
+        when(response.statusCode()).thenReturn(404);
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(response));
+
+        assertEquals(404, HttpUtil.await(httpUtil.headAsync("https://github.com/opensearch-project/repo/tree/2.13")));
+
+        ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient).sendAsync(captor.capture(), any(HttpResponse.BodyHandler.class));
+        assertEquals("HEAD", captor.getValue().method());
+        assertEquals(Duration.ofSeconds(30), captor.getValue().timeout().orElseThrow());
+        assertEquals(2, httpUtil.availablePermits());
+    }
+
+    @Test
+    void WHEN_get_succeeds_THEN_return_body() throws IOException {
+        when(response.statusCode()).thenReturn(200);
+        when(response.body()).thenReturn("content");
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(response));
+
+        assertEquals("content", httpUtil.get("https://raw.githubusercontent.com/opensearch-project/repo/main/file"));
+    }
+
+    @Test
+    void WHEN_get_stream_THEN_send_get_and_release_permit() throws IOException {
+        when(response.statusCode()).thenReturn(200);
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(response));
+
+        assertEquals(200, HttpUtil.await(httpUtil.getStreamAsync("https://api.codecov.io/api/v2/commits")).statusCode());
+
+        ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient).sendAsync(captor.capture(), any(HttpResponse.BodyHandler.class));
+        assertEquals("GET", captor.getValue().method());
+        assertEquals(2, httpUtil.availablePermits());
+    }
+
+    @Test
+    void WHEN_traffic_governor_THEN_request_paced_by_host_AND_response_reported() throws IOException {
+        TrafficGovernor trafficGovernor = new TrafficGovernor(new TrafficGovernor.HostPolicy(100, 10, 4), Map.of());
+        HttpUtil governed = new HttpUtil(httpClient, null, trafficGovernor, 2, Duration.ofSeconds(30));
+        when(response.statusCode()).thenReturn(429);
+        when(response.headers()).thenReturn(HttpHeaders.of(Map.of("Retry-After", List.of("1")), (name, value) -> true));
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(response));
+
+        assertEquals(429, HttpUtil.await(governed.headAsync("https://api.codecov.io/api/v2")));
+
+        assertEquals(1, trafficGovernor.getStats().get("api.codecov.io").getCalls());
+        assertEquals(1, trafficGovernor.getStats().get("api.codecov.io").getThrottled());
+        assertEquals(2, governed.availablePermits());
+    }
+
+    @Test
+    void WHEN_get_not_ok_THEN_throw() {
+        when(response.statusCode()).thenReturn(404);
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(response));
+
+        assertThrows(IOException.class, () -> httpUtil.get("https://raw.githubusercontent.com/opensearch-project/repo/main/file"));
+    }
+
+    @Test
+    void WHEN_request_times_out_THEN_throw_timeout_and_release_permit() {
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.failedFuture(new HttpTimeoutException("request timed out")));
+
+        assertThrows(HttpTimeoutException.class, () -> HttpUtil.await(httpUtil.getAsync("https://example.com")));
+        assertEquals(2, httpUtil.availablePermits());
+    }
+
+    @Test
+    void WHEN_limit_reached_THEN_queue_until_a_request_completes() {
+        List<CompletableFuture<HttpResponse<Object>>> sent = new ArrayList<>();
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            CompletableFuture<HttpResponse<Object>> future = new CompletableFuture<>();
+            sent.add(future);
+            return future;
+        });
+        when(response.statusCode()).thenReturn(200);
+
+        CompletableFuture<Integer> first = httpUtil.headAsync("https://example.com/1");
+        CompletableFuture<Integer> second = httpUtil.headAsync("https://example.com/2");
+        CompletableFuture<Integer> third = httpUtil.headAsync("https://example.com/3");
+        assertEquals(2, sent.size());
+        assertEquals(0, httpUtil.availablePermits());
+
+        sent.get(0).complete(response);
+        assertTrue(first.isDone());
+        assertEquals(3, sent.size());
+        assertFalse(third.isDone());
+
+        sent.get(1).complete(response);
+        sent.get(2).complete(response);
+        assertEquals(200, third.join());
+        assertEquals(200, second.join());
+        assertEquals(2, httpUtil.availablePermits());
+    }
+}
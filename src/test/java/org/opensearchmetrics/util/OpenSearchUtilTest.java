@@ -13,18 +13,37 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.opensearch.OpenSearchStatusException;
 import org.opensearch.action.bulk.BulkRequest;
 import org.opensearch.action.bulk.BulkResponse;
+import org.opensearch.action.search.MultiSearchRequest;
+import org.opensearch.action.search.MultiSearchResponse;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
 import org.opensearch.client.IndicesClient;
 import org.opensearch.client.RequestOptions;
 import org.opensearch.client.RestHighLevelClient;
 import org.opensearch.client.indices.CreateIndexRequest;
 import org.opensearch.client.indices.CreateIndexResponse;
 import org.opensearch.client.indices.GetIndexRequest;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.core.rest.RestStatus;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -70,15 +89,130 @@ public class OpenSearchUtilTest {
     @Test
     void GIVEN_index_AND_data_THEN_bulkIndex() throws Exception {
         BulkResponse mockResponse = Mockito.mock(BulkResponse.class);
-        when(client.bulk(Mockito.any(BulkRequest.class), Mockito.any())).thenReturn(mockResponse);
-        openSearchUtil.bulkIndex("some_index", Map.of("doc_id", "json_data"));
+        doAnswer(invocation -> {
+            ActionListener<BulkResponse> listener = invocation.getArgument(2);
+            listener.onResponse(mockResponse);
+            return null;
+        }).when(client).bulkAsync(Mockito.any(BulkRequest.class), Mockito.any(), Mockito.any());
+        openSearchUtil.bulkIndex("some_index", Map.of("doc_id", "{\"key\":\"value\"}"));
+
+        verify(client, times(1)).bulkAsync(Mockito.any(), Mockito.any(), Mockito.any());
+        verify(client, times(0)).bulk(Mockito.any(), Mockito.any());
+    }
 
-        verify(client, times(1)).bulk(Mockito.any(), Mockito.any());
+    @Test
+    void GIVEN_index_AND_large_data_THEN_bulkIndex_partitions_concurrently() throws Exception {
+        // each document is ~1MB, so the initial 2MB batch target splits them into three bulk requests
+        String largeValue = "x".repeat(1024 * 1024);
+        Map<String, String> jsonMap = new HashMap<>();
+        for (int i = 0; i < 6; i++) {
+            jsonMap.put("doc_" + i, "{\"key\":\"" + largeValue + "\"}");
+        }
+        List<ActionListener<BulkResponse>> listeners = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            listeners.add(invocation.getArgument(2));
+            return null;
+        }).when(client).bulkAsync(Mockito.any(BulkRequest.class), Mockito.any(), Mockito.any());
+        CompletableFuture<Void> indexing = CompletableFuture.runAsync(() -> openSearchUtil.bulkIndex("some_index", jsonMap));
+
+        // all three partitions are sent before any of them has completed
+        verify(client, timeout(5000).times(3)).bulkAsync(Mockito.any(), Mockito.any(), Mockito.any());
+        assertFalse(indexing.isDone());
+        listeners.forEach(listener -> listener.onResponse(Mockito.mock(BulkResponse.class)));
+        indexing.get(5, TimeUnit.SECONDS);
     }
 
     @Test
     void GIVEN_index_AND_empty_data_THEN_no_bulkIndex() throws Exception {
         openSearchUtil.bulkIndex("some_index", Map.of());
         verify(client, times(0)).bulk(Mockito.any(), Mockito.any());
+        verify(client, times(0)).bulkAsync(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void GIVEN_many_searches_THEN_searchBatch_packs_msearch_calls_AND_keeps_order() throws IOException {
+        List<SearchRequest> searchRequests = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            searchRequests.add(new SearchRequest("index_" + i));
+        }
+        Map<String, SearchResponse> responsesByIndex = new HashMap<>();
+        when(client.msearch(any(MultiSearchRequest.class), any(RequestOptions.class))).thenAnswer(invocation -> {
+            MultiSearchRequest request = invocation.getArgument(0);
+            MultiSearchResponse.Item[] items = request.requests().stream()
+                    .map(searchRequest -> {
+                        if (searchRequest.indices()[0].equals("index_3")) {
+                            return new MultiSearchResponse.Item(null, new RuntimeException("index_3 failed"));
+                        }
+                        SearchResponse response = mock(SearchResponse.class);
+                        responsesByIndex.put(searchRequest.indices()[0], response);
+                        return new MultiSearchResponse.Item(response, null);
+                    })
+                    .toArray(MultiSearchResponse.Item[]::new);
+            return new MultiSearchResponse(items, 1);
+        });
+
+        List<MultiSearchResponse.Item> items = openSearchUtil.searchBatch(searchRequests, 2);
+
+        verify(client, times(3)).msearch(any(MultiSearchRequest.class), any(RequestOptions.class));
+        assertEquals(5, items.size());
+        for (int i = 0; i < 5; i++) {
+            if (i == 3) {
+                assertTrue(items.get(i).isFailure());
+                assertEquals("index_3 failed", items.get(i).getFailure().getMessage());
+            } else {
+                assertSame(responsesByIndex.get("index_" + i), items.get(i).getResponse());
+            }
+        }
+    }
+
+    @Test
+    void GIVEN_no_searches_THEN_searchBatch_sends_nothing() throws IOException {
+        assertTrue(openSearchUtil.searchBatch(List.of()).isEmpty());
+        verify(client, never()).msearch(any(MultiSearchRequest.class), any(RequestOptions.class));
+    }
+
+    @Test
+    void GIVEN_traffic_governor_THEN_searches_go_through_it_AND_throttling_is_reported() throws Exception {
+        TrafficGovernor trafficGovernor = mock(TrafficGovernor.class);
+        when(trafficGovernor.call(eq("domain"), any())).thenAnswer(invocation -> ((Callable<?>) invocation.getArgument(1)).call());
+        OpenSearchUtil governed = new OpenSearchUtil(client, mock(BulkIndexer.class), trafficGovernor, "domain");
+        SearchResponse searchResponse = mock(SearchResponse.class);
+        when(client.search(any(SearchRequest.class), any(RequestOptions.class)))
+                .thenReturn(searchResponse)
+                .thenThrow(new OpenSearchStatusException("rejected", RestStatus.TOO_MANY_REQUESTS));
+
+        assertSame(searchResponse, governed.search(new SearchRequest("some_index")));
+        assertThrows(OpenSearchStatusException.class, () -> governed.search(new SearchRequest("some_index")));
+
+        verify(trafficGovernor, times(2)).call(eq("domain"), any());
+        verify(trafficGovernor).onStatus("domain", 429);
+    }
+
+    @Test
+    void GIVEN_traffic_governor_AND_rejected_msearch_items_THEN_throttling_is_reported() throws Exception {
+        TrafficGovernor trafficGovernor = mock(TrafficGovernor.class);
+        when(trafficGovernor.call(eq("domain"), any())).thenAnswer(invocation -> ((Callable<?>) invocation.getArgument(1)).call());
+        OpenSearchUtil governed = new OpenSearchUtil(client, mock(BulkIndexer.class), trafficGovernor, "domain");
+        when(client.msearch(any(MultiSearchRequest.class), any(RequestOptions.class))).thenReturn(new MultiSearchResponse(
+                new MultiSearchResponse.Item[]{
+                        new MultiSearchResponse.Item(mock(SearchResponse.class), null),
+                        new MultiSearchResponse.Item(null, new OpenSearchStatusException("rejected", RestStatus.TOO_MANY_REQUESTS))},
+                1));
+
+        List<MultiSearchResponse.Item> items = governed.searchBatch(List.of(new SearchRequest("index_a"), new SearchRequest("index_b")));
+
+        assertTrue(items.get(1).isFailure());
+        verify(trafficGovernor, times(1)).onStatus("domain", 429);
+    }
+
+    @Test
+    void GIVEN_traffic_governor_without_host_THEN_calls_are_not_governed() throws IOException {
+        TrafficGovernor trafficGovernor = mock(TrafficGovernor.class);
+        OpenSearchUtil ungoverned = new OpenSearchUtil(client, mock(BulkIndexer.class), trafficGovernor, null);
+        SearchResponse searchResponse = mock(SearchResponse.class);
+        when(client.search(any(SearchRequest.class), any(RequestOptions.class))).thenReturn(searchResponse);
+
+        assertSame(searchResponse, ungoverned.search(new SearchRequest("some_index")));
+        verifyNoInteractions(trafficGovernor);
     }
 }
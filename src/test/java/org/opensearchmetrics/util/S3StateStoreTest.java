@@ -0,0 +1,79 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class S3StateStoreTest {
+
+    @Mock
+    private S3Client s3Client;
+
+    private S3StateStore stateStore;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        stateStore = new S3StateStore(s3Client, "bucket", "state/");
+    }
+
+    @Test
+    void WHEN_object_exists_THEN_get_returns_content() {
+        ResponseBytes<GetObjectResponse> bytes = ResponseBytes.fromByteArray(GetObjectResponse.builder().build(),
+                "value".getBytes(StandardCharsets.UTF_8));
+        when(s3Client.getObjectAsBytes(any(GetObjectRequest.class))).thenReturn(bytes);
+
+        assertEquals(Optional.of("value"), stateStore.get("key"));
+
+        ArgumentCaptor<GetObjectRequest> captor = ArgumentCaptor.forClass(GetObjectRequest.class);
+        verify(s3Client).getObjectAsBytes(captor.capture());
+        assertEquals("bucket", captor.getValue().bucket());
+        assertEquals("state/key", captor.getValue().key());
+    }
+
+    @Test
+    void WHEN_object_missing_THEN_get_returns_empty() {
+        when(s3Client.getObjectAsBytes(any(GetObjectRequest.class))).thenThrow(NoSuchKeyException.builder().build());
+
+        assertEquals(Optional.empty(), stateStore.get("key"));
+    }
+
+    @Test
+    void WHEN_put_and_delete_THEN_use_prefixed_key() {
+        stateStore.put("key", "value");
+        stateStore.delete("key");
+
+        ArgumentCaptor<PutObjectRequest> putCaptor = ArgumentCaptor.forClass(PutObjectRequest.class);
+        verify(s3Client).putObject(putCaptor.capture(), any(RequestBody.class));
+        assertEquals("state/key", putCaptor.getValue().key());
+        ArgumentCaptor<DeleteObjectRequest> deleteCaptor = ArgumentCaptor.forClass(DeleteObjectRequest.class);
+        verify(s3Client).deleteObject(deleteCaptor.capture());
+        assertEquals("state/key", deleteCaptor.getValue().key());
+    }
+}
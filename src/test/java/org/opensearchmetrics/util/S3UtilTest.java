@@ -13,12 +13,20 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.core.ResponseBytes;
 import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 import software.amazon.awssdk.services.s3.paginators.ListObjectsV2Iterable;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,12 +36,15 @@ public class S3UtilTest {
     @Mock
     private S3Client mockS3Client;
 
+    @Mock
+    private S3AsyncClient mockS3AsyncClient;
+
     private S3Util s3Util;
 
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
-        s3Util = new S3Util(mockS3Client, "test_bucket_name");
+        s3Util = new S3Util(mockS3Client, mockS3AsyncClient, "test_bucket_name");
     }
 
     @Test
@@ -70,6 +81,36 @@ public class S3UtilTest {
         assertInstanceOf(S3Exception.class, exception.getCause());
     }
 
+    @Test
+    public void WHEN_putObject_THEN_object_is_written_to_bucket() {
+        // Arrange
+        byte[] bytes = "{\"id\":\"123\"}".getBytes(StandardCharsets.UTF_8);
+
+        // Act
+        s3Util.putObject("test_object_key", bytes);
+
+        // Assert
+        verify(mockS3Client).putObject(argThat((PutObjectRequest request) ->
+                request.key().equals("test_object_key") && request.bucket().equals("test_bucket_name")), any(RequestBody.class));
+    }
+
+    @Test
+    public void WHEN_putObjectS3Exception_THEN_throw_Exception() {
+        // Arrange
+        S3Exception mockException = mock(S3Exception.class);
+        AwsErrorDetails mockAwsErrorDetails = mock(AwsErrorDetails.class);
+        when(mockS3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class))).thenThrow(mockException);
+        when(mockException.awsErrorDetails()).thenReturn(mockAwsErrorDetails);
+        when(mockAwsErrorDetails.errorMessage()).thenReturn("Test Error Message");
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                s3Util.putObject("test_object_key", new byte[0])
+        );
+        assertEquals("Failed to put object to S3", exception.getMessage());
+        assertInstanceOf(S3Exception.class, exception.getCause());
+    }
+
     @Test
     public void WHEN_listObjectKeys_THEN_return_ListObjectKeys() {
         // Arrange
@@ -110,4 +151,76 @@ public class S3UtilTest {
         assertInstanceOf(S3Exception.class, exception.getCause());
     }
 
+    @Test
+    public void WHEN_forEachObject_THEN_action_receives_every_object() {
+        // Arrange
+        mockListing("testPrefix/2024-06-02/file1.txt", "testPrefix/2024-06-02/file2.txt");
+        List<String> keys = new ArrayList<>();
+
+        // Act
+        s3Util.forEachObject("testPrefix/", "testPrefix/2024-06-02/", object -> keys.add(object.key()));
+
+        // Assert
+        assertEquals(List.of("testPrefix/2024-06-02/file1.txt", "testPrefix/2024-06-02/file2.txt"), keys);
+        verify(mockS3Client).listObjectsV2Paginator(argThat((ListObjectsV2Request request) ->
+                request.prefix().equals("testPrefix/") && request.startAfter().equals("testPrefix/2024-06-02/")));
+    }
+
+    @Test
+    public void WHEN_forEachObjectS3Exception_THEN_throw_Exception() {
+        // Arrange
+        S3Exception mockException = mock(S3Exception.class);
+        AwsErrorDetails mockAwsErrorDetails = mock(AwsErrorDetails.class);
+        when(mockS3Client.listObjectsV2Paginator(any(ListObjectsV2Request.class))).thenThrow(mockException);
+        when(mockException.awsErrorDetails()).thenReturn(mockAwsErrorDetails);
+        when(mockAwsErrorDetails.errorMessage()).thenReturn("Test Error Message");
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                s3Util.forEachObject("test_prefix", null, object -> {
+                })
+        );
+        assertEquals("Failed to list object keys from S3", exception.getMessage());
+        assertInstanceOf(S3Exception.class, exception.getCause());
+    }
+
+    @Test
+    public void WHEN_getObjectBytesAsync_THEN_return_object_bytes() {
+        // Arrange
+        byte[] bytes = "{\"id\":\"123\"}".getBytes(StandardCharsets.UTF_8);
+        when(mockS3AsyncClient.getObject(any(GetObjectRequest.class), any(AsyncResponseTransformer.class)))
+                .thenReturn(CompletableFuture.completedFuture(ResponseBytes.fromByteArray(GetObjectResponse.builder().build(), bytes)));
+
+        // Act
+        byte[] result = s3Util.getObjectBytesAsync("test_object_key").join();
+
+        // Assert
+        assertArrayEquals(bytes, result);
+        verify(mockS3AsyncClient).getObject(argThat((GetObjectRequest request) ->
+                request.key().equals("test_object_key") && request.bucket().equals("test_bucket_name")), any(AsyncResponseTransformer.class));
+    }
+
+    @Test
+    public void WHEN_getObjectBytesAsyncFails_THEN_future_completes_exceptionally() {
+        // Arrange
+        S3Exception mockException = mock(S3Exception.class);
+        when(mockS3AsyncClient.getObject(any(GetObjectRequest.class), any(AsyncResponseTransformer.class)))
+                .thenReturn(CompletableFuture.failedFuture(mockException));
+
+        // Act & Assert
+        CompletionException exception = assertThrows(CompletionException.class, () ->
+                s3Util.getObjectBytesAsync("test_object_key").join()
+        );
+        assertSame(mockException, exception.getCause());
+    }
+
+    private void mockListing(String... keys) {
+        ListObjectsV2Response page = ListObjectsV2Response.builder()
+                .contents(Stream.of(keys).map(key -> S3Object.builder().key(key).build()).toArray(S3Object[]::new))
+                .build();
+        ListObjectsV2Iterable listObjectsV2Iterable = mock(ListObjectsV2Iterable.class);
+        when(listObjectsV2Iterable.stream()).thenReturn(Stream.of(page));
+        when(mockS3Client.listObjectsV2Paginator(any(ListObjectsV2Request.class)))
+                .thenReturn(listObjectsV2Iterable);
+    }
 }
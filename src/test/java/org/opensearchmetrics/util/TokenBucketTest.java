@@ -0,0 +1,105 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.util;
+
+import com.google.common.base.Ticker;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TokenBucketTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    };
+
+    @Test
+    void WHEN_burst_used_THEN_calls_are_spaced_at_rate() {
+        TokenBucket tokenBucket = new TokenBucket(10, 2, ticker);
+
+        assertEquals(0, tokenBucket.reserve());
+        assertEquals(0, tokenBucket.reserve());
+        assertEquals(0, tokenBucket.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), tokenBucket.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(200), tokenBucket.reserve());
+    }
+
+    @Test
+    void WHEN_idle_THEN_burst_refills_up_to_capacity() {
+        TokenBucket tokenBucket = new TokenBucket(10, 2, ticker);
+        for (int i = 0; i < 3; i++) {
+            tokenBucket.reserve();
+        }
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertEquals(0, tokenBucket.reserve());
+        assertEquals(0, tokenBucket.reserve());
+        assertEquals(0, tokenBucket.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), tokenBucket.reserve());
+    }
+
+    @Test
+    void WHEN_paused_THEN_next_call_waits_for_pause() {
+        TokenBucket tokenBucket = new TokenBucket(10, 5, ticker);
+
+        tokenBucket.pauseFor(Duration.ofSeconds(3));
+
+        assertEquals(TimeUnit.SECONDS.toNanos(3), tokenBucket.reserve());
+        assertEquals(TimeUnit.SECONDS.toNanos(3) + TimeUnit.MILLISECONDS.toNanos(100), tokenBucket.reserve());
+    }
+
+    @Test
+    void WHEN_acquire_THEN_complete_after_wait() {
+        TokenBucket tokenBucket = new TokenBucket(1000, 1, Ticker.systemTicker());
+
+        assertTrue(tokenBucket.acquire().isDone());
+        CompletableFuture<Void> delayed = tokenBucket.acquire();
+        delayed.join();
+        assertTrue(delayed.isDone());
+        assertFalse(delayed.isCompletedExceptionally());
+    }
+
+    @Test
+    void WHEN_paused_while_calls_are_queued_THEN_they_wait_for_pause() {
+        TokenBucket tokenBucket = new TokenBucket(10, 1, Ticker.systemTicker());
+        tokenBucket.acquire().join();
+        List<CompletableFuture<Long>> queued = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            queued.add(tokenBucket.acquire().thenApply(ignored -> System.nanoTime()));
+        }
+
+        long pauseEnd = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(500);
+        tokenBucket.pauseFor(Duration.ofMillis(500));
+
+        for (CompletableFuture<Long> call : queued) {
+            assertTrue(call.join() >= pauseEnd);
+        }
+    }
+
+    @Test
+    void WHEN_invalid_rate_THEN_throw() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0));
+    }
+}
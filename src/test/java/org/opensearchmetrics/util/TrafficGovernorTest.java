@@ -0,0 +1,187 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearchmetrics.util;
+
+import com.google.common.base.Ticker;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TrafficGovernorTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-01T00:00:00Z");
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    };
+    private final Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
+
+    private TrafficGovernor governor(int maxConcurrent) {
+        return new TrafficGovernor(new TrafficGovernor.HostPolicy(1000, 1000, maxConcurrent),
+                Map.of("api.codecov.io", new TrafficGovernor.HostPolicy(1000, 1000, 1)), ticker, clock);
+    }
+
+    @Test
+    void WHEN_cap_reached_THEN_queue_until_a_call_completes() {
+        TrafficGovernor trafficGovernor = governor(2);
+        List<CompletableFuture<String>> started = new ArrayList<>();
+
+        CompletableFuture<String> first = trafficGovernor.submit("github.com", () -> track(started));
+        CompletableFuture<String> second = trafficGovernor.submit("github.com", () -> track(started));
+        CompletableFuture<String> third = trafficGovernor.submit("github.com", () -> track(started));
+        assertEquals(2, started.size());
+
+        started.get(0).complete("first");
+        assertEquals("first", first.join());
+        assertEquals(3, started.size());
+        assertFalse(third.isDone());
+
+        started.get(1).complete("second");
+        started.get(2).complete("third");
+        assertEquals("second", second.join());
+        assertEquals("third", third.join());
+        assertEquals(3, trafficGovernor.getStats().get("github.com").getCalls());
+    }
+
+    @Test
+    void WHEN_hosts_differ_THEN_caps_are_separate() {
+        TrafficGovernor trafficGovernor = governor(4);
+        List<CompletableFuture<String>> started = new ArrayList<>();
+
+        trafficGovernor.submit("api.codecov.io", () -> track(started));
+        trafficGovernor.submit("api.codecov.io", () -> track(started));
+        trafficGovernor.submit("github.com", () -> track(started));
+
+        assertEquals(2, started.size());
+    }
+
+    @Test
+    void WHEN_call_fails_THEN_slot_is_released() throws Exception {
+        TrafficGovernor trafficGovernor = governor(1);
+
+        assertThrows(IOException.class, () -> trafficGovernor.call("opensearch", () -> {
+            throw new IOException("failed");
+        }));
+        assertEquals("ok", trafficGovernor.call("opensearch", () -> "ok"));
+
+        CompletableFuture<String> failed = trafficGovernor.submit("github.com", () -> {
+            throw new IllegalStateException("failed");
+        });
+        assertTrue(failed.isCompletedExceptionally());
+        assertEquals("ok", trafficGovernor.submit("github.com", () -> CompletableFuture.completedFuture("ok")).join());
+    }
+
+    @Test
+    void WHEN_throttled_THEN_record_and_pause() {
+        TrafficGovernor trafficGovernor = governor(4);
+
+        trafficGovernor.onResponse("api.codecov.io", 429, header("Retry-After", "2"));
+        trafficGovernor.onResponse("github.com", 200, name -> Optional.empty());
+        trafficGovernor.onStatus("opensearch", 503);
+
+        assertEquals(1, trafficGovernor.getStats().get("api.codecov.io").getThrottled());
+        assertEquals(0, trafficGovernor.getStats().get("github.com").getThrottled());
+        assertEquals(1, trafficGovernor.getStats().get("opensearch").getThrottled());
+        CompletableFuture<String> paused = trafficGovernor.submit("api.codecov.io", () -> CompletableFuture.completedFuture("ok"));
+        assertFalse(paused.isDone());
+        paused.cancel(false);
+    }
+
+    @Test
+    void WHEN_throttled_THEN_calls_already_queued_wait_for_retry_after() {
+        TrafficGovernor trafficGovernor = new TrafficGovernor(new TrafficGovernor.HostPolicy(10, 1, 4), Map.of());
+        trafficGovernor.submit("api.codecov.io", () -> CompletableFuture.completedFuture(System.nanoTime())).join();
+        List<CompletableFuture<Long>> queued = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            queued.add(trafficGovernor.submit("api.codecov.io", () -> CompletableFuture.completedFuture(System.nanoTime())));
+        }
+
+        long retryAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        trafficGovernor.onResponse("api.codecov.io", 429, header("Retry-After", "1"));
+
+        for (CompletableFuture<Long> call : queued) {
+            assertTrue(call.join() >= retryAt);
+        }
+    }
+
+    @Test
+    void WHEN_rate_limit_exhausted_THEN_pause_until_reset() {
+        TrafficGovernor trafficGovernor = governor(4);
+        long reset = NOW.plusSeconds(30).getEpochSecond();
+
+        trafficGovernor.onResponse("github.com", 403, name -> {
+            if (name.equals("X-RateLimit-Remaining")) {
+                return Optional.of("0");
+            }
+            return name.equals("X-RateLimit-Reset") ? Optional.of(String.valueOf(reset)) : Optional.empty();
+        });
+
+        assertEquals(1, trafficGovernor.getStats().get("github.com").getThrottled());
+        assertFalse(trafficGovernor.submit("github.com", () -> CompletableFuture.completedFuture("ok")).isDone());
+    }
+
+    @Test
+    void WHEN_queued_THEN_report_delay() throws Exception {
+        TrafficGovernor trafficGovernor = governor(1);
+        CompletableFuture<String> running = new CompletableFuture<>();
+        trafficGovernor.submit("github.com", () -> running);
+        CompletableFuture<String> queued = trafficGovernor.submit("github.com", () -> CompletableFuture.completedFuture("ok"));
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(250));
+        running.complete("done");
+
+        assertEquals("ok", queued.join());
+        TrafficGovernor.HostStats stats = trafficGovernor.getStats().get("github.com");
+        assertEquals(Duration.ofMillis(250), stats.getMaxQueueDelay());
+        assertEquals(Duration.ofMillis(250), stats.getTotalQueueDelay());
+        trafficGovernor.logStats();
+    }
+
+    @Test
+    void WHEN_retry_after_THEN_parse_seconds_or_date() {
+        TrafficGovernor trafficGovernor = governor(1);
+
+        assertEquals(Duration.ofSeconds(30), trafficGovernor.retryAfter(Optional.of("30")));
+        assertEquals(Duration.ofSeconds(90), trafficGovernor.retryAfter(Optional.of("Wed, 01 May 2024 00:01:30 GMT")));
+        assertEquals(Duration.ZERO, trafficGovernor.retryAfter(Optional.of("Wed, 21 Oct 2015 07:28:00 GMT")));
+        assertEquals(Duration.ofSeconds(1), trafficGovernor.retryAfter(Optional.of("soon")));
+        assertEquals(Duration.ofSeconds(1), trafficGovernor.retryAfter(Optional.empty()));
+    }
+
+    private static CompletableFuture<String> track(List<CompletableFuture<String>> started) {
+        CompletableFuture<String> call = new CompletableFuture<>();
+        started.add(call);
+        return call;
+    }
+
+    private static Function<String, Optional<String>> header(String name, String value) {
+        return header -> header.equals(name) ? Optional.of(value) : Optional.empty();
+    }
+}